@@ -37,6 +37,7 @@ public enum CommandType {
     RESTORE_NEXT(DATABASE),
     PREPARE_RESTORE(DATABASE),
     MIGRATE_STORE(DATABASE),
+    OPTIMIZE(DATABASE),
     UPLOAD(DATABASE),
     AGGREGATE_NEXT(DATABASE),
 
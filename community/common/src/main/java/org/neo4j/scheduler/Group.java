@@ -50,6 +50,8 @@ public enum Group {
     INDEX_CLEANUP_WORK("IndexCleanupWork"),
     /** Terminates kernel transactions that have timed out. */
     TRANSACTION_TIMEOUT_MONITOR("TransactionTimeoutMonitor"),
+    /** Looks for deadlocks among transactions waiting for locks. */
+    LOCK_DEADLOCK_DETECTION("LockDeadlockDetection"),
     /** Background index population. */
     INDEX_POPULATION("IndexPopulationMain"),
     /**
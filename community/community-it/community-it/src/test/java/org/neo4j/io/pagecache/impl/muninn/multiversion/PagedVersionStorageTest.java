@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn.multiversion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
+
+import java.io.IOException;
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCacheFixture;
+import org.neo4j.io.pagecache.impl.muninn.PagedVersionStorage;
+import org.neo4j.io.pagecache.impl.muninn.multiversion.SingleThreadedTestContextFactory.TestCursorContext;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.utils.TestDirectory;
+
+@EphemeralTestDirectoryExtension
+class PagedVersionStorageTest {
+    @Inject
+    private FileSystemAbstraction fs;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final SingleThreadedTestContextFactory contextFactory =
+            new SingleThreadedTestContextFactory(PageCacheTracer.NULL);
+    private final MuninnPageCacheFixture fixture = new MuninnPageCacheFixture();
+    private ThreadPoolJobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = fixture.createPageCache(
+                new SingleFilePageSwapperFactory(fs, PageCacheTracer.NULL, EmptyMemoryTracker.INSTANCE),
+                100,
+                PageCacheTracer.NULL,
+                jobScheduler,
+                DISABLED_BUFFER_FACTORY,
+                PageCache.RESERVED_BYTES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.tearDownPageCache(pageCache);
+        jobScheduler.close();
+    }
+
+    @Test
+    void readersShouldSeeVersionVisibleToThemWithoutRetrying() throws IOException {
+        try (var versionStorage = newVersionStorage(10);
+                var pagedFile = mapMultiVersioned(versionStorage)) {
+            writeValue(pagedFile, 2, 2);
+            writeValue(pagedFile, 5, 5);
+
+            assertReads(pagedFile, 3, 2);
+            assertReads(pagedFile, 5, 5);
+            assertReads(pagedFile, 1, 0);
+            assertThat(versionStorage.snapshotsCreated()).isEqualTo(2);
+            assertThat(versionStorage.snapshotsMissed()).isZero();
+            assertThat(versionStorage.size()).isEqualTo(2L * pageCache.pageSize());
+        }
+    }
+
+    @Test
+    void shouldNotGrowBeyondMaxSizeAndLetReadersRetryInstead() throws IOException {
+        try (var versionStorage = newVersionStorage(1);
+                var pagedFile = mapMultiVersioned(versionStorage)) {
+            writeValue(pagedFile, 2, 2);
+            writeValue(pagedFile, 5, 5);
+
+            assertThat(versionStorage.size()).isEqualTo(versionStorage.maxSize());
+            assertThat(versionStorage.snapshotsDropped()).isEqualTo(1);
+
+            TestCursorContext context = contextFactory.create("reader");
+            context.setWriteAndReadVersion(1, 3);
+            try (PageCursor cursor = pagedFile.io(0, PF_SHARED_READ_LOCK, context)) {
+                assertTrue(cursor.next());
+            }
+            assertTrue(context.getVersionContext().isDirty());
+            assertThat(versionStorage.snapshotsMissed()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldNotCreateVersionFileBeforeFirstSnapshot() throws IOException {
+        try (var versionStorage = newVersionStorage(10);
+                var pagedFile = mapMultiVersioned(versionStorage)) {
+            assertReads(pagedFile, 3, 0);
+            assertFalse(fs.fileExists(testDirectory.file("versions")));
+
+            writeValue(pagedFile, 2, 2);
+            assertTrue(fs.fileExists(testDirectory.file("versions")));
+        }
+        assertFalse(fs.fileExists(testDirectory.file("versions")));
+    }
+
+    private PagedVersionStorage newVersionStorage(int maxPages) {
+        return new PagedVersionStorage(
+                pageCache,
+                testDirectory.file("versions"),
+                "test",
+                IOController.DISABLED,
+                (long) maxPages * pageCache.pageSize());
+    }
+
+    private PagedFile mapMultiVersioned(PagedVersionStorage versionStorage) throws IOException {
+        return pageCache.map(
+                testDirectory.file("store"),
+                pageCache.pageSize(),
+                "test",
+                Sets.immutable.of(PageCacheOpenOptions.MULTI_VERSIONED),
+                IOController.DISABLED,
+                versionStorage);
+    }
+
+    private void writeValue(PagedFile pagedFile, long transactionId, long value) throws IOException {
+        TestCursorContext context = contextFactory.create("writer");
+        context.setWriteAndReadVersion(transactionId);
+        try (PageCursor cursor = pagedFile.io(0, PF_SHARED_WRITE_LOCK, context)) {
+            assertTrue(cursor.next());
+            cursor.putLong(0, value);
+        }
+    }
+
+    private void assertReads(PagedFile pagedFile, long readVersion, long expectedValue) throws IOException {
+        TestCursorContext context = contextFactory.create("reader");
+        context.setWriteAndReadVersion(1, readVersion);
+        try (PageCursor cursor = pagedFile.io(0, PF_SHARED_READ_LOCK, context)) {
+            assertTrue(cursor.next());
+            long value;
+            do {
+                value = cursor.getLong(0);
+            } while (cursor.shouldRetry());
+            assertEquals(expectedValue, value);
+        }
+        assertFalse(context.getVersionContext().isDirty());
+    }
+}
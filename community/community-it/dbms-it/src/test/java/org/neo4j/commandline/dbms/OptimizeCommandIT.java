@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.storageengine.api.StoreIdProvider;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.utils.TestDirectory;
+import picocli.CommandLine;
+
+@Neo4jLayoutExtension
+class OptimizeCommandIT {
+    private static final int NODES = 100;
+    private static final int PROPERTIES = 12;
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+
+    @Inject
+    private Neo4jLayout neo4jLayout;
+
+    private DatabaseLayout databaseLayout;
+    private Path confPath;
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        databaseLayout = neo4jLayout.databaseLayout("mydb");
+        confPath = testDirectory.directory("conf");
+        out = new ByteArrayOutputStream();
+    }
+
+    @Test
+    void shouldCompactScatteredPropertyChainsWithoutChangingData() {
+        DatabaseManagementService managementService = startDatabase();
+        try {
+            GraphDatabaseService db = managementService.database(databaseLayout.getDatabaseName());
+            try (Transaction tx = db.beginTx()) {
+                for (int i = 0; i < NODES; i++) {
+                    tx.createNode();
+                }
+                tx.commit();
+            }
+            // Adding one property to every node per transaction spreads the property records of each node out
+            for (int property = 0; property < PROPERTIES; property++) {
+                try (Transaction tx = db.beginTx()) {
+                    for (Node node : tx.getAllNodes()) {
+                        node.setProperty("key" + property, node.getId() * PROPERTIES + property);
+                    }
+                    tx.commit();
+                }
+            }
+        } finally {
+            managementService.shutdown();
+        }
+
+        execute("--compact-property-chains", databaseLayout.getDatabaseName());
+
+        assertThat(out.toString()).contains("node property chains");
+        managementService = startDatabase();
+        try {
+            GraphDatabaseService db = managementService.database(databaseLayout.getDatabaseName());
+            try (Transaction tx = db.beginTx()) {
+                int nodes = 0;
+                for (Node node : tx.getAllNodes()) {
+                    nodes++;
+                    assertThat(node.getAllProperties()).hasSize(PROPERTIES);
+                    for (int property = 0; property < PROPERTIES; property++) {
+                        assertThat(node.getProperty("key" + property)).isEqualTo(node.getId() * PROPERTIES + property);
+                    }
+                }
+                assertThat(nodes).isEqualTo(NODES);
+            }
+        } finally {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldConvertNodesWhoseLayoutDoesNotFitTheirDegreeWithoutChangingData() {
+        String sparseNode;
+        String denseNode;
+        StoreId storeIdBefore;
+        // With a high threshold the first node stays sparse, and the second one is made dense and then loses most of
+        // its relationships, so that neither fits the default threshold
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder(databaseLayout)
+                .setConfig(GraphDatabaseSettings.dense_node_threshold, 100)
+                .build();
+        try {
+            GraphDatabaseService db = managementService.database(databaseLayout.getDatabaseName());
+            try (Transaction tx = db.beginTx()) {
+                sparseNode = createNodeWithRelationships(tx, 60);
+                denseNode = createNodeWithRelationships(tx, 120);
+                tx.commit();
+            }
+            try (Transaction tx = db.beginTx()) {
+                tx.getNodeByElementId(denseNode).getRelationships().stream()
+                        .limit(115)
+                        .toList()
+                        .forEach(Relationship::delete);
+                tx.commit();
+            }
+            storeIdBefore = storeId((GraphDatabaseAPI) db);
+        } finally {
+            managementService.shutdown();
+        }
+
+        execute("--convert-dense-nodes", databaseLayout.getDatabaseName());
+
+        assertThat(out.toString())
+                .contains("Converted 1 sparse nodes to dense")
+                .contains("Converted 1 dense nodes to sparse");
+        managementService = startDatabase();
+        try {
+            GraphDatabaseService db = managementService.database(databaseLayout.getDatabaseName());
+            assertThat(storeId((GraphDatabaseAPI) db)).isNotEqualTo(storeIdBefore);
+            try (Transaction tx = db.beginTx()) {
+                assertDegree(tx.getNodeByElementId(sparseNode), 60);
+                assertDegree(tx.getNodeByElementId(denseNode), 5);
+            }
+            // Relationships can still be added to converted nodes on top of the new transaction logs
+            try (Transaction tx = db.beginTx()) {
+                tx.getNodeByElementId(denseNode).createRelationshipTo(tx.createNode(), TYPE);
+                tx.commit();
+            }
+            try (Transaction tx = db.beginTx()) {
+                assertDegree(tx.getNodeByElementId(denseNode), 6);
+            }
+        } finally {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldGiveOptimizedStoreNewStoreIdAndLogsButKeepDatabaseId() {
+        StoreId storeIdBefore;
+        String databaseIdBefore;
+        DatabaseManagementService managementService = startDatabase();
+        try {
+            GraphDatabaseAPI db = (GraphDatabaseAPI) managementService.database(databaseLayout.getDatabaseName());
+            try (Transaction tx = db.beginTx()) {
+                tx.createNode().setProperty("key", "value");
+                tx.commit();
+            }
+            storeIdBefore = storeId(db);
+            databaseIdBefore = db.databaseId().databaseId().uuid().toString();
+        } finally {
+            managementService.shutdown();
+        }
+
+        execute("--compact-property-chains", databaseLayout.getDatabaseName());
+
+        managementService = startDatabase();
+        try {
+            GraphDatabaseAPI db = (GraphDatabaseAPI) managementService.database(databaseLayout.getDatabaseName());
+            assertThat(storeId(db)).isNotEqualTo(storeIdBefore);
+            assertThat(db.databaseId().databaseId().uuid().toString()).isEqualTo(databaseIdBefore);
+            try (Transaction tx = db.beginTx()) {
+                tx.createNode().setProperty("key", "other value");
+                tx.commit();
+            }
+            try (Transaction tx = db.beginTx()) {
+                assertThat(tx.getAllNodes().stream().map(node -> node.getProperty("key")))
+                        .containsExactlyInAnyOrder("value", "other value");
+            }
+        } finally {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotOptimizeDatabaseInUse() {
+        DatabaseManagementService managementService = startDatabase();
+        try {
+            assertThatThrownBy(() -> execute("--compact-property-chains", databaseLayout.getDatabaseName()))
+                    .isInstanceOf(CommandFailedException.class)
+                    .hasMessageContaining("The database is in use");
+        } finally {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRequireAnOptimization() {
+        startDatabase().shutdown();
+
+        assertThatThrownBy(() -> execute(databaseLayout.getDatabaseName()))
+                .isInstanceOf(CommandFailedException.class)
+                .hasMessageContaining("No optimization selected");
+    }
+
+    private static String createNodeWithRelationships(Transaction tx, int relationships) {
+        Node node = tx.createNode();
+        for (int i = 0; i < relationships; i++) {
+            node.createRelationshipTo(tx.createNode(), TYPE);
+        }
+        return node.getElementId();
+    }
+
+    private static void assertDegree(Node node, int degree) {
+        assertThat(node.getDegree()).isEqualTo(degree);
+        assertThat(node.getDegree(TYPE)).isEqualTo(degree);
+        int relationships = 0;
+        for (Relationship relationship : node.getRelationships()) {
+            assertThat(relationship.getStartNode()).isEqualTo(node);
+            relationships++;
+        }
+        assertThat(relationships).isEqualTo(degree);
+    }
+
+    private static StoreId storeId(GraphDatabaseAPI db) {
+        return db.getDependencyResolver().resolveDependency(StoreIdProvider.class).getStoreId();
+    }
+
+    private DatabaseManagementService startDatabase() {
+        return new TestDatabaseManagementServiceBuilder(databaseLayout).build();
+    }
+
+    private void execute(String... args) {
+        var printStream = new PrintStream(out, true);
+        var command = new OptimizeCommand(new ExecutionContext(
+                neo4jLayout.homeDirectory(), confPath, printStream, printStream, fileSystem));
+        CommandLine.populateCommand(command, args);
+        command.execute();
+    }
+}
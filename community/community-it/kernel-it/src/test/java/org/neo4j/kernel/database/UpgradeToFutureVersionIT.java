@@ -41,6 +41,7 @@ import org.neo4j.dbms.database.DbmsRuntimeVersion;
 import org.neo4j.graphdb.DatabaseShutdownException;
 import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.ResourceIterable;
 import org.neo4j.graphdb.Transaction;
@@ -48,6 +49,8 @@ import org.neo4j.graphdb.event.TransactionData;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.kernel.KernelVersion;
 import org.neo4j.kernel.KernelVersionProvider;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.locking.forseti.ForsetiClient;
 import org.neo4j.kernel.impl.transaction.CommittedCommandBatch;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -199,6 +202,25 @@ class UpgradeToFutureVersionIT {
         assertUpgradeTransactionInOrder(startTransaction);
     }
 
+    @Test
+    void shouldBuildNodePropertyCountsWhenUpgradeTransactionIsApplied() {
+        shutdownDbms();
+        startDbms(
+                builder -> configureGloriousFutureAsLatest(builder)
+                        .setConfig(GraphDatabaseInternalSettings.node_property_counts_enabled, true),
+                false);
+
+        createNodeWithProperty();
+        assertThat(kernelVersion()).isEqualTo(LatestVersions.LATEST_KERNEL_VERSION);
+        assertThat(nodePropertyCount()).isEqualTo(-1);
+
+        systemDb.executeTransactionally("CALL dbms.upgrade()");
+        createNodeWithProperty();
+
+        assertThat(kernelVersion()).isEqualTo(KernelVersion.GLORIOUS_FUTURE);
+        assertThat(nodePropertyCount()).isEqualTo(2);
+    }
+
     @Test
     void shouldNotUpgradePastDbmsRuntime() {
         shutdownDbms();
@@ -316,6 +338,22 @@ class UpgradeToFutureVersionIT {
         }
     }
 
+    private void createNodeWithProperty() {
+        try (Transaction tx = db.beginTx()) {
+            tx.createNode(Label.label("Label")).setProperty("key", "value");
+            tx.commit();
+        }
+    }
+
+    private long nodePropertyCount() {
+        try (InternalTransaction tx = (InternalTransaction) db.beginTx()) {
+            KernelTransaction ktx = tx.kernelTransaction();
+            return ktx.dataRead()
+                    .countsForNodeWithPropertyWithoutTxState(
+                            ktx.tokenRead().nodeLabel("Label"), ktx.tokenRead().propertyKey("key"));
+        }
+    }
+
     private void startDbms() {
         startDbms(builder -> builder, false);
     }
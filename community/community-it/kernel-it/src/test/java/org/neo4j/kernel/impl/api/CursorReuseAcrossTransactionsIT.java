@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.reuse_cursors_across_transactions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.newapi.CursorPoolStatistics;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+@DbmsExtension(configurationCallback = "configure")
+class CursorReuseAcrossTransactionsIT {
+    private static final int TRANSACTIONS = 100;
+
+    @Inject
+    private GraphDatabaseAPI db;
+
+    private long nodeId;
+
+    @ExtensionCallback
+    void configure(TestDatabaseManagementServiceBuilder builder) {
+        builder.setConfig(reuse_cursors_across_transactions, true);
+    }
+
+    @BeforeEach
+    void createNode() {
+        try (Transaction tx = db.beginTx()) {
+            var node = tx.createNode();
+            node.setProperty("prop", 42);
+            nodeId = node.getId();
+            tx.commit();
+        }
+    }
+
+    @Test
+    void shouldReuseCursorsOfPreviousTransaction() {
+        KernelTransaction previousTransaction = null;
+        NodeCursor previousNodeCursor = null;
+        PropertyCursor previousPropertyCursor = null;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            try (Transaction tx = db.beginTx()) {
+                KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+                NodeCursor nodes = ktx.cursors().allocateNodeCursor(ktx.cursorContext());
+                PropertyCursor properties =
+                        ktx.cursors().allocatePropertyCursor(ktx.cursorContext(), ktx.memoryTracker());
+                readNodeAndProperties(ktx, nodes, properties);
+                if (ktx == previousTransaction) {
+                    assertThat(nodes).isSameAs(previousNodeCursor);
+                    assertThat(properties).isSameAs(previousPropertyCursor);
+                }
+                previousTransaction = ktx;
+                previousNodeCursor = nodes;
+                previousPropertyCursor = properties;
+            }
+        }
+    }
+
+    @Test
+    void shouldNotReuseCursorsBoundToAnotherMemoryTracker() {
+        KernelTransaction previousTransaction;
+        PropertyCursor previousPropertyCursor;
+        try (Transaction tx = db.beginTx()) {
+            KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+            NodeCursor nodes = ktx.cursors().allocateNodeCursor(ktx.cursorContext());
+            PropertyCursor properties =
+                    ktx.cursors().allocatePropertyCursor(ktx.cursorContext(), new LocalMemoryTracker());
+            readNodeAndProperties(ktx, nodes, properties);
+            previousTransaction = ktx;
+            previousPropertyCursor = properties;
+        }
+
+        try (Transaction tx = db.beginTx()) {
+            KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+            NodeCursor nodes = ktx.cursors().allocateNodeCursor(ktx.cursorContext());
+            PropertyCursor properties =
+                    ktx.cursors().allocatePropertyCursor(ktx.cursorContext(), ktx.memoryTracker());
+            readNodeAndProperties(ktx, nodes, properties);
+            assertThat(ktx).isSameAs(previousTransaction);
+            assertThat(properties).isNotSameAs(previousPropertyCursor);
+        }
+    }
+
+    @Test
+    void shouldCountCursorsServedFromPools() {
+        var statistics = db.getDependencyResolver().resolveDependency(CursorPoolStatistics.class);
+        long hitsBefore = statistics.hits();
+        long missesBefore = statistics.misses();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            try (Transaction tx = db.beginTx()) {
+                KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+                ktx.cursors().allocateNodeCursor(ktx.cursorContext()).close();
+                // The cursor closed above is back in the pool, so this one must be served from it
+                ktx.cursors().allocateNodeCursor(ktx.cursorContext()).close();
+            }
+        }
+
+        assertThat(statistics.hits()).isGreaterThanOrEqualTo(hitsBefore + TRANSACTIONS);
+        assertThat(statistics.hits() - hitsBefore + statistics.misses() - missesBefore)
+                .isGreaterThanOrEqualTo(2 * TRANSACTIONS);
+    }
+
+    @Test
+    void shouldTracePageAccessesOfReusedCursorsInCurrentTransaction() {
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            try (Transaction tx = db.beginTx()) {
+                KernelTransaction ktx = ((InternalTransaction) tx).kernelTransaction();
+                try (NodeCursor nodes = ktx.cursors().allocateNodeCursor(ktx.cursorContext())) {
+                    ktx.dataRead().singleNode(nodeId, nodes);
+                    assertThat(nodes.next()).isTrue();
+                }
+                assertThat(ktx.cursorContext().getCursorTracer().pins()).isGreaterThan(0);
+            }
+        }
+    }
+
+    private void readNodeAndProperties(KernelTransaction ktx, NodeCursor nodes, PropertyCursor properties) {
+        try (nodes;
+                properties) {
+            ktx.dataRead().singleNode(nodeId, nodes);
+            assertThat(nodes.next()).isTrue();
+            nodes.properties(properties);
+            assertThat(properties.next()).isTrue();
+            assertThat(properties.propertyValue().asObject()).isEqualTo(42);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.TokenSet;
 import org.neo4j.internal.kernel.api.exceptions.InvalidTransactionTypeKernelException;
+import org.neo4j.storageengine.api.NodeBatch;
 
 public abstract class NodeCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G> {
     private static List<Long> NODE_IDS;
@@ -87,6 +88,31 @@ public abstract class NodeCursorTestBase<G extends KernelAPIReadTestSupport> ext
         assertEquals(NODE_IDS, ids);
     }
 
+    @Test
+    void shouldScanNodesInBatches() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        int barLabel = token.nodeLabel("Bar");
+        int bazLabel = token.nodeLabel("Baz");
+        NodeBatch batch = new NodeBatch(4);
+        try (NodeCursor nodes = cursors.allocateNodeCursor(NULL_CONTEXT)) {
+            // when
+            read.allNodesScan(nodes);
+            int size;
+            while ((size = nodes.nextBatch(batch)) > 0) {
+                for (int row = 0; row < size; row++) {
+                    long node = batch.ids()[row];
+                    ids.add(node);
+                    assertEquals(node == bar || node == barbaz, batch.hasLabel(row, barLabel));
+                    assertEquals(node == baz || node == barbaz, batch.hasLabel(row, bazLabel));
+                }
+            }
+        }
+
+        // then
+        assertEquals(NODE_IDS, ids);
+    }
+
     @Test
     void shouldAccessNodesByReference() {
         // given
@@ -52,6 +52,7 @@ import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.CommonDatabaseStores;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
 import org.neo4j.kernel.database.Database;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.store.StoreFileListing;
@@ -157,6 +158,10 @@ class StoreFileListingTest {
         final var statsPath = layout.pathForStore(CommonDatabaseStores.INDEX_STATISTICS);
         final var expectedFiles = new HashSet<>(layout.storeFiles());
         expectedFiles.remove(statsPath);
+        // optional stores, only created when their feature is enabled
+        final var recordLayout = RecordDatabaseLayout.convert(layout);
+        expectedFiles.remove(recordLayout.relationshipNeighboursStore());
+        expectedFiles.remove(recordLayout.nodePropertyCountsStore());
         // there was no rotation
         final var fileListingBuilder = database.getStoreFileListing().builder();
         fileListingBuilder.excludeIdFiles();
@@ -29,6 +29,7 @@ import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Set;
 import java.util.function.Predicate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -44,6 +45,7 @@ import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.CommonDatabaseStores;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -297,7 +299,13 @@ class RecoveryRequiredCheckerTest {
     }
 
     private void assertStoreFilesExist() {
+        RecordDatabaseLayout recordLayout = RecordDatabaseLayout.convert(databaseLayout);
+        Set<Path> optionalStoreFiles =
+                Set.of(recordLayout.relationshipNeighboursStore(), recordLayout.nodePropertyCountsStore());
         for (Path file : databaseLayout.storeFiles()) {
+            if (optionalStoreFiles.contains(file)) {
+                continue;
+            }
             assertTrue(fileSystem.fileExists(file), "Store file " + file + " does not exist");
         }
     }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphdb.inlined;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.internal.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+import org.neo4j.kernel.impl.store.format.inlined.Inlined;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.storemigration.RecordStoreVersion;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.StorageEngineFactory;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.storageengine.api.StoreIdProvider;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.tags.RecordFormatOverrideTag;
+
+@RecordFormatOverrideTag
+@DbmsExtension(configurationCallback = "configure")
+public class InlinedRecordFormatIT {
+    @Inject
+    private GraphDatabaseAPI database;
+
+    @Inject
+    private StoreIdProvider storeIdProvider;
+
+    @Inject
+    private RecordStorageEngine storageEngine;
+
+    @ExtensionCallback
+    void configure(TestDatabaseManagementServiceBuilder builder) {
+        builder.setConfig(GraphDatabaseSettings.db_format, FormatFamily.INLINED.name());
+        builder.setConfig(GraphDatabaseInternalSettings.include_versions_under_development, false);
+    }
+
+    @Test
+    void databaseCanBeStartedWithInlinedFormat() {
+        StoreId storeId = storeIdProvider.getStoreId();
+        var storageEngineFactory = database.getDependencyResolver().resolveDependency(StorageEngineFactory.class);
+        var storeVersion = (RecordStoreVersion)
+                storageEngineFactory.versionInformation(storeId).orElseThrow();
+
+        assertEquals(Inlined.LATEST_RECORD_FORMATS.name(), storeVersion.getFormat().name());
+    }
+
+    @Test
+    void nodePropertiesAreKeptInlinedThroughChanges() {
+        // given
+        long nodeId;
+        try (var transaction = database.beginTx()) {
+            var node = transaction.createNode(label("marker"));
+            node.setProperty("a", 1);
+            node.setProperty("b", "two");
+            nodeId = node.getId();
+            transaction.commit();
+        }
+        assertProperties(nodeId, Map.of("a", 1, "b", "two"));
+        assertInlinedProperty(nodeId, neoStores().getNodeStore());
+
+        // when changing only the property record
+        try (var transaction = database.beginTx()) {
+            transaction.getNodeById(nodeId).setProperty("a", 3);
+            transaction.commit();
+        }
+
+        // then
+        assertProperties(nodeId, Map.of("a", 3, "b", "two"));
+        assertInlinedProperty(nodeId, neoStores().getNodeStore());
+
+        // when changing the property chain
+        try (var transaction = database.beginTx()) {
+            var node = transaction.getNodeById(nodeId);
+            node.removeProperty("b");
+            node.setProperty("c", 4L);
+            transaction.commit();
+        }
+
+        // then
+        assertProperties(nodeId, Map.of("a", 3, "c", 4L));
+        assertInlinedProperty(nodeId, neoStores().getNodeStore());
+    }
+
+    @Test
+    void relationshipPropertiesAreKeptInlinedThroughChanges() {
+        // given
+        long relationshipId;
+        try (var transaction = database.beginTx()) {
+            var relationship =
+                    transaction.createNode().createRelationshipTo(transaction.createNode(), withName("link"));
+            relationship.setProperty("since", 2010);
+            relationshipId = relationship.getId();
+            transaction.commit();
+        }
+        assertInlinedProperty(relationshipId, neoStores().getRelationshipStore());
+
+        // when
+        try (var transaction = database.beginTx()) {
+            transaction.getRelationshipById(relationshipId).setProperty("since", 2015);
+            transaction.commit();
+        }
+
+        // then
+        try (var transaction = database.beginTx()) {
+            assertEquals(
+                    Map.of("since", 2015),
+                    transaction.getRelationshipById(relationshipId).getAllProperties());
+        }
+        assertInlinedProperty(relationshipId, neoStores().getRelationshipStore());
+    }
+
+    @Test
+    void nodePropertiesSpanningSeveralPropertyRecords() {
+        // given
+        Map<String, Object> properties = new HashMap<>();
+        long nodeId;
+        try (var transaction = database.beginTx()) {
+            var node = transaction.createNode();
+            for (int i = 0; i < 10; i++) {
+                properties.put("key" + i, i);
+                node.setProperty("key" + i, i);
+            }
+            nodeId = node.getId();
+            transaction.commit();
+        }
+        assertProperties(nodeId, properties);
+
+        // when
+        try (var transaction = database.beginTx()) {
+            var node = transaction.getNodeById(nodeId);
+            for (int i = 0; i < 10; i += 2) {
+                properties.remove("key" + i);
+                node.removeProperty("key" + i);
+            }
+            transaction.commit();
+        }
+
+        // then
+        assertProperties(nodeId, properties);
+        assertInlinedProperty(nodeId, neoStores().getNodeStore());
+    }
+
+    private void assertProperties(long nodeId, Map<String, Object> expected) {
+        try (var transaction = database.beginTx()) {
+            Entity node = transaction.getNodeById(nodeId);
+            assertEquals(expected, node.getAllProperties());
+            for (var property : expected.entrySet()) {
+                assertEquals(property.getValue(), node.getProperty(property.getKey()));
+            }
+        }
+    }
+
+    private <RECORD extends PrimitiveRecord> void assertInlinedProperty(
+            long id, CommonAbstractStore<RECORD, ?> store) {
+        var propertyStore = neoStores().getPropertyStore();
+        try (var cursor = store.openPageCursorForReading(0, NULL_CONTEXT);
+                var propertyCursor = propertyStore.openPageCursorForReading(0, NULL_CONTEXT)) {
+            RECORD record = store.getRecordByCursor(id, store.newRecord(), RecordLoad.NORMAL, cursor);
+            PropertyRecord inlined = record.getInlinedProperty();
+            assertThat(inlined).isNotNull();
+            PropertyRecord property = propertyStore.getRecordByCursor(
+                    record.getNextProp(), propertyStore.newRecord(), RecordLoad.NORMAL, propertyCursor);
+            assertThat(inlined.getNextProp()).isEqualTo(property.getNextProp());
+            assertThat(inlined.getNumberOfBlocks()).isEqualTo(property.getNumberOfBlocks());
+            for (int i = 0; i < property.getNumberOfBlocks(); i++) {
+                assertThat(inlined.getBlocks()[i]).isEqualTo(property.getBlocks()[i]);
+            }
+        }
+    }
+
+    private NeoStores neoStores() {
+        return storageEngine.testAccessNeoStores();
+    }
+}
@@ -121,6 +121,7 @@ import org.neo4j.test.LatestVersions;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.scheduler.CallingThreadJobScheduler;
 import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.test.utils.TestDirectory;
 import org.neo4j.time.Clocks;
@@ -610,6 +611,7 @@ class BatchingNeoStoresTest {
                     new DatabaseHealth(HealthEventGenerator.NO_OP, nullLog),
                     new DefaultIdGeneratorFactory(fileSystem, immediate(), PageCacheTracer.NULL, DEFAULT_DATABASE_NAME),
                     recoveryCleanupWorkCollector,
+                    new CallingThreadJobScheduler(),
                     INSTANCE,
                     emptyLogTail,
                     versionRepository,
@@ -70,6 +70,7 @@ import org.neo4j.test.LatestVersions;
 import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.scheduler.CallingThreadJobScheduler;
 import org.neo4j.token.TokenHolders;
 
 @EphemeralPageCacheExtension
@@ -117,6 +118,7 @@ class PreAllocationOfStoreFilesTest {
                 mock(DatabaseHealth.class),
                 EmptyIdGeneratorFactory.EMPTY_ID_GENERATOR_FACTORY,
                 RecoveryCleanupWorkCollector.ignore(),
+                new CallingThreadJobScheduler(),
                 EmptyMemoryTracker.INSTANCE,
                 new EmptyLogTailMetadata(Config.defaults()),
                 mock(KernelVersionRepository.class),
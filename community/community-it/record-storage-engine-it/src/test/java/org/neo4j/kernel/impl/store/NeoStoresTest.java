@@ -120,6 +120,7 @@ import org.neo4j.test.TestDatabaseManagementServiceBuilder;
 import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.scheduler.CallingThreadJobScheduler;
 import org.neo4j.test.utils.TestDirectory;
 import org.neo4j.token.DelegatingTokenHolder;
 import org.neo4j.token.TokenHolders;
@@ -511,6 +512,7 @@ class NeoStoresTest {
                 mock(DatabaseHealth.class),
                 idGeneratorFactory,
                 immediate(),
+                new CallingThreadJobScheduler(),
                 INSTANCE,
                 emptyLogTail,
                 new MetadataCache(emptyLogTail),
@@ -23,6 +23,7 @@ import static java.time.Duration.ofDays;
 import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofMinutes;
 import static java.time.Duration.ofSeconds;
+import static org.neo4j.configuration.SettingConstraints.greaterThanOrEqual;
 import static org.neo4j.configuration.SettingConstraints.max;
 import static org.neo4j.configuration.SettingConstraints.min;
 import static org.neo4j.configuration.SettingConstraints.range;
@@ -95,6 +96,44 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
             .dynamic()
             .build();
 
+    @Internal
+    @Description("Number of node or relationship locks a transaction can hold within a single range of "
+            + "`internal.dbms.lock_manager.escalation_range_size` ids before those locks are escalated into one "
+            + "lock on the whole range. If the transaction only holds shared locks in the range, they are escalated "
+            + "into a lock that only keeps other transactions from taking exclusive locks in the range, which requires "
+            + "that no other transaction holds exclusive locks in it. Otherwise they are escalated into an exclusive "
+            + "lock on the range, which requires that no other transaction holds locks in it. A value of 0 disables "
+            + "lock escalation.")
+    public static final Setting<Integer> lock_manager_escalation_threshold = newBuilder(
+                    "internal.dbms.lock_manager.escalation_threshold", INT, 0)
+            .addConstraint(min(0))
+            .build();
+
+    @Internal
+    @Description("Number of consecutive node or relationship ids covered by one escalated lock, rounded up to a power of "
+            + "two. Only used when `internal.dbms.lock_manager.escalation_threshold` is set.")
+    public static final Setting<Integer> lock_manager_escalation_range_size = newBuilder(
+                    "internal.dbms.lock_manager.escalation_range_size", INT, 1024)
+            .addConstraint(range(2, 1 << 20))
+            .build();
+
+    @Internal
+    @Description("Detect deadlocks with a central detector that periodically looks for cycles in the graph of "
+            + "transactions waiting for each other's locks, instead of having every waiting transaction look for "
+            + "deadlocks on its own while it waits. The transaction holding the fewest locks in a cycle is aborted.")
+    public static final Setting<Boolean> lock_manager_central_deadlock_detection = newBuilder(
+                    "internal.dbms.lock_manager.central_deadlock_detection", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Interval between two passes of the central deadlock detector. A deadlock is broken once it has been "
+            + "seen by two consecutive passes. Only used when "
+            + "`internal.dbms.lock_manager.central_deadlock_detection` is enabled.")
+    public static final Setting<Duration> lock_manager_central_deadlock_detection_interval = newBuilder(
+                    "internal.dbms.lock_manager.central_deadlock_detection_interval", DURATION, ofMillis(20))
+            .addConstraint(min(ofMillis(1)))
+            .build();
+
     @Internal
     @Description("Name of the tracer factory to be used. Current implementations are: null, default & verbose.")
     public static final Setting<String> tracer =
@@ -574,6 +613,21 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
                     "internal.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true)
             .build();
 
+    @Internal
+    @Description("Keep a preallocated spare transaction log file ready, so that log rotation only has to rename it into "
+            + "place instead of creating and preallocating a new file while transactions wait. The spare is a new file "
+            + "created and preallocated by a background job soon after each rotation. "
+            + "Only has an effect when `db.tx_log.preallocate` is enabled.")
+    public static final Setting<Boolean> preallocate_spare_log_file =
+            newBuilder("internal.db.tx_log.preallocate_spare", BOOL, false).build();
+
+    @Internal
+    @Description("Keep an index from transaction id to start offset next to every transaction log file that is not "
+            + "appended to anymore, so that reading transactions from an arbitrary transaction id does not have to scan "
+            + "the log file. The index of a log file is built in the background when the log file is rotated.")
+    public static final Setting<Boolean> transaction_offset_index =
+            newBuilder("internal.db.tx_log.offset_index", BOOL, false).build();
+
     @Internal
     @Description("Specifies if engine should run cypher query based on a snapshot of accessed data. "
             + "Query will be restarted in case if concurrent modification of data will be detected.")
@@ -762,6 +816,62 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
             .addConstraint(range(2, 100))
             .build();
 
+    @Internal
+    @Description("Enable continuous background flushing of dirty pages in between check-points. The flushing rate "
+            + "is derived from the transaction log generation rate and the configured check-point interval, so that "
+            + "a check-point only has to flush a small residue of pages.")
+    public static final Setting<Boolean> checkpoint_background_flush_enabled = newBuilder(
+                    "internal.db.checkpoint.background_flush.enabled", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Delay between consecutive passes of the background page flusher.")
+    public static final Setting<Duration> checkpoint_background_flush_interval = newBuilder(
+                    "internal.db.checkpoint.background_flush.interval", DURATION, ofSeconds(1))
+            .addConstraint(min(ofMillis(10)))
+            .build();
+
+    @Internal
+    @Description("Lower bound of the number of IOs per second that the background page flusher is allowed to use, "
+            + "regardless of how much flushing it estimates is needed.")
+    public static final Setting<Integer> checkpoint_background_flush_min_iops = newBuilder(
+                    "internal.db.checkpoint.background_flush.min_iops", INT, 100)
+            .addConstraint(min(1))
+            .build();
+
+    @Internal
+    @Description("Let the IO limit of check-pointing adapt to the latency of page cache reads. The limit is lowered when "
+            + "reads that have to go to storage are slower than `internal.db.checkpoint.adaptive_io.target_read_latency`, "
+            + "and raised while they are faster, within the bounds of `internal.db.checkpoint.adaptive_io.min_iops` "
+            + "and `internal.db.checkpoint.adaptive_io.max_iops`. The initial limit is `db.checkpoint.iops.limit`. If "
+            + "that is unlimited, check-pointing is not limited until reads first get slower than the target.")
+    public static final Setting<Boolean> checkpoint_adaptive_io_enabled = newBuilder(
+                    "internal.db.checkpoint.adaptive_io.enabled", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Average page fault read latency that the adaptive check-point IO limit tries to stay below.")
+    public static final Setting<Duration> checkpoint_adaptive_io_target_read_latency = newBuilder(
+                    "internal.db.checkpoint.adaptive_io.target_read_latency", DURATION, ofMillis(2))
+            .addConstraint(min(ofMillis(0)))
+            .build();
+
+    @Internal
+    @Description("Lowest IO limit, in IOs per second, that the adaptive check-point IO limit can be lowered to.")
+    public static final Setting<Integer> checkpoint_adaptive_io_min_iops = newBuilder(
+                    "internal.db.checkpoint.adaptive_io.min_iops", INT, 100)
+            .addConstraint(min(1))
+            .build();
+
+    @Internal
+    @Description("Highest IO limit, in IOs per second, that the adaptive check-point IO limit can be raised to. "
+            + "Must not be lower than `internal.db.checkpoint.adaptive_io.min_iops`.")
+    public static final Setting<Integer> checkpoint_adaptive_io_max_iops = newBuilder(
+                    "internal.db.checkpoint.adaptive_io.max_iops", INT, 10000)
+            .addConstraint(min(1))
+            .addConstraint(greaterThanOrEqual(checkpoint_adaptive_io_min_iops))
+            .build();
+
     @Internal
     @Description(
             "Whether or not to dump system and database diagnostics. This takes a non-negligible amount of time to do and therefore "
@@ -830,6 +940,34 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
                     "internal.dbms.initial_transaction_heap_grab_size", BYTES, mebiBytes(2))
             .build();
 
+    @Internal
+    @Description("Amount of memory the property values in the state of a single transaction may use before the oldest "
+            + "of them are spilled to a file in `internal.db.tx_state.spill_directory`, allowing transactions larger "
+            + "than would otherwise fit in memory. Values that have been spilled are read back from that file when the "
+            + "transaction commits or reads them. Only used when `db.tx_state.memory_allocation` is `ON_HEAP`. "
+            + "A value of 0 disables spilling.")
+    public static final Setting<Long> tx_state_spill_threshold = newBuilder(
+                    "internal.db.tx_state.spill_threshold", BYTES, 0L)
+            .addConstraint(min(0L))
+            .build();
+
+    @Internal
+    @Description("Directory that transaction state is spilled to, see `internal.db.tx_state.spill_threshold`. "
+            + "Its contents are deleted when the DBMS starts and stops.")
+    public static final Setting<Path> tx_state_spill_directory = newBuilder(
+                    "internal.db.tx_state.spill_directory", PATH, Path.of("tx-state"))
+            .setDependency(GraphDatabaseSettings.data_directory)
+            .immutable()
+            .build();
+
+    @Internal
+    @Description("Keep the node, relationship and property cursors of a transaction pooled when it closes, so that the "
+            + "next transaction using the same transaction object can reuse them instead of allocating new ones. "
+            + "Page cursors are never kept between transactions.")
+    public static final Setting<Boolean> reuse_cursors_across_transactions = newBuilder(
+                    "internal.dbms.kernel.reuse_cursors_across_transactions", BOOL, false)
+            .build();
+
     @Internal
     @Description(
             "Default value whether or not to strictly prioritize ids from freelist, as opposed to allocating from high id."
@@ -974,6 +1112,14 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
     public static final Setting<Boolean> pre_sketch_transaction_logs =
             newBuilder("internal.dbms.tx_log.presketch", BOOL, false).build();
 
+    @Internal
+    @Description("Number of transaction log files that are sketched concurrently during reverse recovery, when "
+            + "sketching in the background is enabled with `internal.dbms.tx_log.presketch`.")
+    public static final Setting<Integer> pre_sketch_transaction_logs_parallelism = newBuilder(
+                    "internal.dbms.tx_log.presketch.parallelism", INT, 1)
+            .addConstraint(min(1))
+            .build();
+
     @Internal
     @Description(
             "Enables using format versions that are still under development, which will trigger migration to them on start up. "
@@ -1053,6 +1199,64 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration {
                     "internal.db.multiversion.transaction.validation.locks.dump", BOOL, false)
             .build();
 
+    @Internal
+    @Description("Keep old versions of pages of multi versioned stores in a version storage file, so that reads can "
+            + "see a stable snapshot as of the start of their transaction instead of retrying on concurrent changes. "
+            + "Only used by databases in the multiversion store format.")
+    public static final Setting<Boolean> multi_version_version_storage_enabled = newBuilder(
+                    "internal.db.multiversion.version_storage.enabled", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Maximum size of the version storage file. When it is full and no old version can be reused, reads "
+            + "that need versions that could not be kept fall back to retrying.")
+    public static final Setting<Long> multi_version_version_storage_max_size = newBuilder(
+                    "internal.db.multiversion.version_storage.max_size", BYTES, mebiBytes(512))
+            .addConstraint(min(mebiBytes(1)))
+            .build();
+
+    @Internal
+    @Description("Label and property key pairs, written as 'Label.key', whose numeric and boolean node property values "
+            + "are kept in a columnar in-memory cache indexed by node id, so that reading them does not have to walk "
+            + "the property chain. The cache is disabled when no pairs are configured.")
+    public static final Setting<Set<String>> columnar_property_cache_columns = newBuilder(
+                    "internal.db.columnar_property_cache.columns", setOf(STRING), Set.of())
+            .build();
+
+    @Internal
+    @Description("Maximum amount of memory the columnar property cache may use for all of its columns together. "
+            + "Property values of nodes that do not fit are read from the store as usual.")
+    public static final Setting<Long> columnar_property_cache_max_size = newBuilder(
+                    "internal.db.columnar_property_cache.max_size", BYTES, mebiBytes(256))
+            .addConstraint(min(mebiBytes(1)))
+            .build();
+
+    @Internal
+    @Description("Compress string and array property values that are stored in the dynamic string and array stores, "
+            + "whenever that makes them need fewer dynamic records. Values are always readable regardless of this "
+            + "setting. Values are only compressed once the database runs on a kernel version that supports it, "
+            + "so that versions without support for it never see a compressed value.")
+    public static final Setting<Boolean> compress_dynamic_property_values = newBuilder(
+                    "internal.db.record.compress_dynamic_property_values", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Maintain an index of all relationships keyed by both of their nodes, so that finding the "
+            + "relationships between two given dense nodes doesn't have to traverse the relationships of either node. "
+            + "The index is built in the background after database start if it doesn't exist, and is not used until it "
+            + "is built. It is deleted when this setting is disabled.")
+    public static final Setting<Boolean> relationship_neighbour_index_enabled = newBuilder(
+                    "internal.db.record.relationship_neighbour_index.enabled", BOOL, false)
+            .build();
+
+    @Internal
+    @Description("Maintain counts of nodes per label and property key, which the planner uses to estimate how many "
+            + "nodes with a label have a property when there is no index to ask. The counts are built on database "
+            + "start if they don't exist, and deleted when this setting is disabled.")
+    public static final Setting<Boolean> node_property_counts_enabled = newBuilder(
+                    "internal.db.record.node_property_counts.enabled", BOOL, false)
+            .build();
+
     @Internal
     @Description("Page Cache Warmer blocks database start until it's completed")
     public static final Setting<Boolean> pagecache_warmup_blocking = newBuilder(
@@ -180,9 +180,11 @@ public class GraphDatabaseSettings implements SettingsDeclaration {
             newBuilder("server.config.strict_validation.enabled", BOOL, true).build();
 
     @Description(
-            "Database format. This is the format that will be used for new databases. Valid values are `standard`, `aligned`, or `high_limit`."
+            "Database format. This is the format that will be used for new databases. Valid values are `standard`, `aligned`, `inlined`, or `high_limit`."
                     + "The `aligned` format is essentially the `standard` format with some minimal padding at the end of pages such that a single "
-                    + "record will never cross a page boundary. The `high_limit` format is available for Enterprise Edition only. "
+                    + "record will never cross a page boundary. The `inlined` format is the `aligned` format where node and relationship "
+                    + "records also keep a copy of their first property record, which saves a property store read for entities with few "
+                    + "properties at the cost of larger node and relationship stores. The `high_limit` format is available for Enterprise Edition only. "
                     + "It is required if you have a graph that is larger than 34 billion nodes, 34 billion relationships, or 68 billion properties.")
     public static final Setting<String> db_format =
             newBuilder("db.format", STRING, "aligned").dynamic().build();
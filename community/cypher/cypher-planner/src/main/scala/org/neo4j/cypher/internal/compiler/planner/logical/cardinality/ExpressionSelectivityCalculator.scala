@@ -367,7 +367,30 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
               .getOrElse(DEFAULT_PROPERTY_SELECTIVITY)
       }
 
-    combiner.orTogetherSelectivities(indexPropertyExistsSelectivities).getOrElse(DEFAULT_PROPERTY_SELECTIVITY)
+    combiner.orTogetherSelectivities(indexPropertyExistsSelectivities)
+      .orElse(calculateSelectivityForPropertyExistenceFromCounts(variable, labelInfo, propertyKey))
+      .getOrElse(DEFAULT_PROPERTY_SELECTIVITY)
+  }
+
+  private def calculateSelectivityForPropertyExistenceFromCounts(
+    variable: String,
+    labelInfo: LabelInfo,
+    propertyKey: PropertyKeyName
+  )(implicit semanticTable: SemanticTable): Option[Selectivity] = {
+    val labels = labelInfo.getOrElse(variable, Set.empty)
+
+    val labelPropertyExistsSelectivities = labels.toIndexedSeq.flatMap { labelName: LabelName =>
+      for {
+        labelId <- semanticTable.id(labelName)
+        propId <- semanticTable.id(propertyKey)
+        nodesWithProperty <- stats.nodesWithLabelAndPropertyCardinality(labelId, propId)
+        nodesWithLabel = stats.nodesWithLabelCardinality(Some(labelId))
+        // Label cardinalities are never reported below a minimum, so the counts may not agree for small labels
+        selectivity <- Selectivity.of(math.min(nodesWithProperty.amount / nodesWithLabel.amount, 1.0))
+      } yield selectivity
+    }
+
+    combiner.orTogetherSelectivities(labelPropertyExistsSelectivities)
   }
 
   private def calculateSelectivityForPropertyTypePredicateFromIndex(
@@ -24,6 +24,7 @@ import org.neo4j.cypher.internal.planner.spi.IndexDescriptor
 import org.neo4j.cypher.internal.planner.spi.MinimumGraphStatistics
 import org.neo4j.cypher.internal.util.Cardinality
 import org.neo4j.cypher.internal.util.LabelId
+import org.neo4j.cypher.internal.util.PropertyKeyId
 import org.neo4j.cypher.internal.util.RelTypeId
 import org.neo4j.cypher.internal.util.Selectivity
 import org.neo4j.internal.kernel.api.Read
@@ -117,6 +118,14 @@ object TransactionBoundGraphStatistics {
       Cardinality(count)
     }
 
+    override def nodesWithLabelAndPropertyCardinality(
+      labelId: LabelId,
+      propertyKeyId: PropertyKeyId
+    ): Option[Cardinality] = {
+      val count = read.countsForNodeWithPropertyWithoutTxState(labelId.id, propertyKeyId.id)
+      if (count < 0) None else Some(Cardinality(count))
+    }
+
     override def patternStepCardinality(
       fromLabel: Option[LabelId],
       relTypeId: Option[RelTypeId],
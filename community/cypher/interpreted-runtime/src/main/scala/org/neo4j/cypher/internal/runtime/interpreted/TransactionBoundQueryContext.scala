@@ -132,6 +132,7 @@ import org.neo4j.kernel.impl.util.ValueUtils
 import org.neo4j.logging.InternalLogProvider
 import org.neo4j.logging.internal.LogService
 import org.neo4j.memory.MemoryTracker
+import org.neo4j.storageengine.api.NodeBatch
 import org.neo4j.storageengine.api.RelationshipVisitor
 import org.neo4j.values.AnyValue
 import org.neo4j.values.ValueMapper
@@ -1300,8 +1301,21 @@ private[internal] class TransactionBoundReadQueryContext(
     override def all: ClosingLongIterator = {
       val nodeCursor = allocateAndTraceNodeCursor()
       reads().allNodesScan(nodeCursor)
+      // Reads the nodes a batch at a time, which lets the store fill the ids in a tight loop
+      val batch = new NodeBatch()
+      var row = 0
       new PrimitiveCursorIterator {
-        override protected def fetchNext(): Long = if (nodeCursor.next()) nodeCursor.nodeReference() else -1L
+        override protected def fetchNext(): Long = {
+          if (row == batch.size()) {
+            row = 0
+            nodeCursor.nextBatch(batch)
+          }
+          if (row < batch.size()) {
+            val node = batch.ids()(row)
+            row += 1
+            node
+          } else -1L
+        }
 
         override def close(): Unit = nodeCursor.close()
       }
@@ -1539,11 +1553,10 @@ private[internal] class TransactionBoundReadQueryContext(
   }
 
   override def lockNodes(nodeIds: Long*): Unit =
-    nodeIds.sorted.foreach(transactionalContext.locks.acquireExclusiveNodeLock(_))
+    transactionalContext.locks.acquireExclusiveNodeLock(nodeIds.sorted: _*)
 
   override def lockRelationships(relIds: Long*): Unit =
-    relIds.sorted
-      .foreach(transactionalContext.locks.acquireExclusiveRelationshipLock(_))
+    transactionalContext.locks.acquireExclusiveRelationshipLock(relIds.sorted: _*)
 
   override def singleShortestPath(
     left: Long,
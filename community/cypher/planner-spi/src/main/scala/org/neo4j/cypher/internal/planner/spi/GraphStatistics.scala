@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.planner.spi
 
 import org.neo4j.cypher.internal.util.Cardinality
 import org.neo4j.cypher.internal.util.LabelId
+import org.neo4j.cypher.internal.util.PropertyKeyId
 import org.neo4j.cypher.internal.util.RelTypeId
 import org.neo4j.cypher.internal.util.Selectivity
 
@@ -68,6 +69,13 @@ trait GraphStatistics {
    * indexPropertyExistsSelectivity(:X, prop) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE x.prop IS NOT NULL|
    */
   def indexPropertyIsNotNullSelectivity(index: IndexDescriptor): Option[Selectivity]
+
+  /**
+   * Gets the Cardinality of nodes with the given label that have the given property, if such counts are kept.
+   *
+   * nodesWithLabelAndPropertyCardinality(:X, prop) = |MATCH (a:X) WHERE a.prop IS NOT NULL|
+   */
+  def nodesWithLabelAndPropertyCardinality(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[Cardinality] = None
 }
 
 class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatistics {
@@ -88,5 +96,11 @@ class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatisti
   override def indexPropertyIsNotNullSelectivity(index: IndexDescriptor): Option[Selectivity] =
     delegate.indexPropertyIsNotNullSelectivity(index)
 
+  override def nodesWithLabelAndPropertyCardinality(
+    labelId: LabelId,
+    propertyKeyId: PropertyKeyId
+  ): Option[Cardinality] =
+    delegate.nodesWithLabelAndPropertyCardinality(labelId, propertyKeyId)
+
   override def nodesAllCardinality(): Cardinality = delegate.nodesAllCardinality()
 }
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.planner.spi
 
 import org.neo4j.cypher.internal.util.Cardinality
 import org.neo4j.cypher.internal.util.LabelId
+import org.neo4j.cypher.internal.util.PropertyKeyId
 import org.neo4j.cypher.internal.util.RelTypeId
 import org.neo4j.cypher.internal.util.Selectivity
 
@@ -41,6 +42,9 @@ case class CardinalityByLabelsAndRelationshipType(
 case class IndexSelectivity(index: IndexDescriptor) extends StatisticsKey
 case class IndexPropertyExistsSelectivity(index: IndexDescriptor) extends StatisticsKey
 
+case class NodesWithLabelAndPropertyCardinality(labelId: LabelId, propertyKeyId: PropertyKeyId)
+    extends StatisticsKey
+
 class MutableGraphStatisticsSnapshot(val map: mutable.Map[StatisticsKey, Double] = mutable.Map.empty) {
   def freeze: GraphStatisticsSnapshot = GraphStatisticsSnapshot(map.toMap)
 }
@@ -63,6 +67,8 @@ case class GraphStatisticsSnapshot(statsValues: Map[StatisticsKey, Double] = Map
         instrumented.uniqueValueSelectivity(index)
       case IndexPropertyExistsSelectivity(index) =>
         instrumented.indexPropertyIsNotNullSelectivity(index)
+      case NodesWithLabelAndPropertyCardinality(labelId, propertyKeyId) =>
+        instrumented.nodesWithLabelAndPropertyCardinality(labelId, propertyKeyId)
     }
     snapshot.freeze
   }
@@ -111,6 +117,18 @@ case class InstrumentedGraphStatistics(inner: GraphStatistics, snapshot: Mutable
     selectivity
   }
 
+  override def nodesWithLabelAndPropertyCardinality(
+    labelId: LabelId,
+    propertyKeyId: PropertyKeyId
+  ): Option[Cardinality] = {
+    val cardinality = inner.nodesWithLabelAndPropertyCardinality(labelId, propertyKeyId)
+    snapshot.map.getOrElseUpdate(
+      NodesWithLabelAndPropertyCardinality(labelId, propertyKeyId),
+      cardinality.fold(0.0)(_.amount)
+    )
+    cardinality
+  }
+
   override def nodesAllCardinality(): Cardinality =
     snapshot.map.getOrElseUpdate(NodesAllCardinality, inner.nodesAllCardinality().amount)
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import static org.neo4j.dbms.database.readonly.DatabaseReadOnlyChecker.writable;
+import static org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.kernel.recovery.Recovery.isRecoveryRequired;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import org.neo4j.cli.AbstractAdminCommand;
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.Converters.DatabaseNameConverter;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.cli.ExitCode;
+import org.neo4j.commandline.Util;
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.locker.FileLockException;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.context.EmptyVersionContextSupplier;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.database.DatabaseTracers;
+import org.neo4j.kernel.database.MetadataCache;
+import org.neo4j.kernel.database.NormalizedDatabaseName;
+import org.neo4j.kernel.impl.pagecache.CommunityIOControllerService;
+import org.neo4j.kernel.impl.transaction.log.LogTailMetadata;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogInitializer;
+import org.neo4j.kernel.recovery.LogTailExtractor;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.StorageEngineFactory;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.storageengine.api.StoreOptimization;
+import org.neo4j.time.Clocks;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(
+        name = "optimize",
+        header = "Optimize how the data of a database is laid out in its store files.",
+        description = "Rewrites records of a database to improve how they are laid out in its store files, "
+                + "without changing the data in the database. It cannot be used with a database which is currently "
+                + "in use, or which needs recovery. The records are rewritten without going through the transaction "
+                + "log, so the optimized database gets a new store id and new transaction logs, and existing backups "
+                + "and copies of it can no longer be used to update it or be updated from it.")
+public class OptimizeCommand extends AbstractAdminCommand {
+    @Parameters(
+            index = "0",
+            description = "Name of the database to optimize.",
+            converter = DatabaseNameConverter.class)
+    private NormalizedDatabaseName database;
+
+    @Option(
+            names = "--compact-property-chains",
+            fallbackValue = "true",
+            description = "Rewrite the properties of each node whose properties are spread out over the store "
+                    + "into records that are next to each other.")
+    private boolean compactPropertyChains;
+
+    @Option(
+            names = "--convert-dense-nodes",
+            fallbackValue = "true",
+            description = "Convert sparse nodes with at least as many relationships as the configured dense node "
+                    + "threshold into dense nodes, and dense nodes with less than half of that back into sparse nodes.")
+    private boolean convertDenseNodes;
+
+    public OptimizeCommand(ExecutionContext ctx) {
+        super(ctx);
+    }
+
+    @Override
+    protected void execute() {
+        Set<StoreOptimization> optimizations = optimizations();
+        Config config = createPrefilledConfigBuilder().build();
+        DatabaseLayout databaseLayout = Neo4jLayout.of(config).databaseLayout(database.name());
+        var memoryTracker = EmptyMemoryTracker.INSTANCE;
+        var pageCacheTracer = PageCacheTracer.NULL;
+        var contextFactory = new CursorContextFactory(pageCacheTracer, EmptyVersionContextSupplier.EMPTY);
+        try (FileSystemAbstraction fs = ctx.fs();
+                var jobScheduler = createInitialisedScheduler();
+                var pageCache = createPageCache(fs, config, jobScheduler, pageCacheTracer);
+                var ignored = LockChecker.checkDatabaseLock(databaseLayout);
+                var logProvider = Util.configuredLogProvider(ctx.out(), verbose)) {
+            StorageEngineFactory storageEngineFactory = StorageEngineFactory.selectStorageEngine(fs, databaseLayout)
+                    .orElseThrow(() -> new CommandFailedException(
+                            "Database '%s' does not exist".formatted(database.name()), ExitCode.FAIL));
+            if (isRecoveryRequired(fs, databaseLayout, config, memoryTracker)) {
+                throw new CommandFailedException(
+                        "Database '%s' needs recovery. Start and stop the database to recover it, and try again."
+                                .formatted(database.name()),
+                        ExitCode.FAIL);
+            }
+            var logTail = new LogTailExtractor(fs, pageCache, config, storageEngineFactory, DatabaseTracers.EMPTY)
+                    .getTailMetadata(databaseLayout, memoryTracker);
+            storageEngineFactory.optimizeStore(
+                    fs,
+                    storageEngineFactory.formatSpecificDatabaseLayout(databaseLayout),
+                    config,
+                    pageCache,
+                    new CommunityIOControllerService().createIOController(config, Clocks.nanoClock(), new Monitors()),
+                    optimizations,
+                    logProvider.getLog(getClass()),
+                    ctx.out(),
+                    contextFactory,
+                    pageCacheTracer,
+                    logTail);
+            resetStoreIdAndLogs(
+                    fs,
+                    databaseLayout,
+                    config,
+                    pageCache,
+                    storageEngineFactory,
+                    contextFactory,
+                    pageCacheTracer,
+                    logTail);
+        } catch (FileLockException e) {
+            throw new CommandFailedException(
+                    "The database is in use. Stop database '%s' and try again.".formatted(database.name()),
+                    e,
+                    ExitCode.FAIL);
+        } catch (CannotWriteException e) {
+            throw new CommandFailedException(
+                    "You do not have permission to optimize database '%s'.".formatted(database.name()),
+                    e,
+                    ExitCode.NOPERM);
+        } catch (CommandFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CommandFailedException(
+                    "Failed to optimize database '%s': %s".formatted(database.name(), e.getMessage()),
+                    e,
+                    ExitCode.SOFTWARE);
+        }
+    }
+
+    /**
+     * The optimizations rewrite records without logging them, so the transaction logs no longer describe the store.
+     * Like a copy of the store, it gets a new store id and new logs, while keeping the id of its database.
+     */
+    private static void resetStoreIdAndLogs(
+            FileSystemAbstraction fs,
+            DatabaseLayout databaseLayout,
+            Config config,
+            PageCache pageCache,
+            StorageEngineFactory storageEngineFactory,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            LogTailMetadata logTail)
+            throws Exception {
+        try (var metadataProvider = storageEngineFactory.transactionMetaDataStore(
+                        fs, databaseLayout, config, pageCache, writable(), contextFactory, logTail, pageCacheTracer);
+                var cursorContext = contextFactory.create("resetStoreIdAndLogs")) {
+            StoreId storeId = metadataProvider.getStoreId();
+            var databaseIdUuid = metadataProvider.getDatabaseIdUuid(cursorContext);
+            metadataProvider.regenerateMetadata(
+                    StoreId.generateNew(
+                            storeId.getStorageEngineName(),
+                            storeId.getFormatName(),
+                            storeId.getMajorVersion(),
+                            storeId.getMinorVersion()),
+                    UUID.randomUUID(),
+                    cursorContext);
+            databaseIdUuid.ifPresent(uuid -> metadataProvider.setDatabaseIdUuid(uuid, cursorContext));
+            new TransactionLogInitializer(fs, metadataProvider, storageEngineFactory, new MetadataCache(logTail))
+                    .migrateExistingLogFiles(
+                            databaseLayout, databaseLayout.getTransactionLogsDirectory(), "Optimized store");
+        }
+    }
+
+    private Set<StoreOptimization> optimizations() {
+        Set<StoreOptimization> optimizations = EnumSet.noneOf(StoreOptimization.class);
+        if (compactPropertyChains) {
+            optimizations.add(StoreOptimization.COMPACT_PROPERTY_CHAINS);
+        }
+        if (convertDenseNodes) {
+            optimizations.add(StoreOptimization.CONVERT_DENSE_NODES);
+        }
+        if (optimizations.isEmpty()) {
+            throw new CommandFailedException("No optimization selected, see --help for the available optimizations.");
+        }
+        return optimizations;
+    }
+}
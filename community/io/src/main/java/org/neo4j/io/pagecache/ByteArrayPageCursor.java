@@ -386,6 +386,9 @@ public class ByteArrayPageCursor extends PageCursor {
         @Override
         public void flushAndForce(FileFlushEvent flushEvent) {}
 
+        @Override
+        public void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) {}
+
         @Override
         public long getLastPageId() {
             return 0;
@@ -73,4 +73,20 @@ public interface IOController {
     default boolean isEnabled() {
         return false;
     }
+
+    /**
+     * @return {@code true} if this controller adapts its limits to the latency observed by page cache readers, and wants
+     * the latency of page faults reported through {@link #reportReadLatency(long)}.
+     */
+    default boolean tracksReadLatency() {
+        return false;
+    }
+
+    /**
+     * Report the time a page cache reader spent reading a page from storage while page faulting.
+     * Only invoked for controllers that {@link #tracksReadLatency() track read latency}.
+     *
+     * @param latencyNanos time spent reading the page, in nanoseconds.
+     */
+    default void reportReadLatency(long latencyNanos) {}
 }
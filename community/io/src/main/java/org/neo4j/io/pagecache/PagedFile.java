@@ -173,6 +173,13 @@ public interface PagedFile extends AutoCloseable {
      */
     void flushAndForce(FileFlushEvent flushEvent) throws IOException;
 
+    /**
+     * Flush all dirty pages into the file channel, without forcing the file channel to disk. IO will be limited by the
+     * provided io controller, instead of the one used by mapped file. Pages written this way are only durable after a
+     * later {@link #flushAndForce(FileFlushEvent)}.
+     */
+    void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) throws IOException;
+
     /**
      * Get the file-page-id of the last page in the file.
      * <p>
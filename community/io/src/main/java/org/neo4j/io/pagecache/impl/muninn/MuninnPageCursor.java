@@ -425,7 +425,11 @@ public abstract class MuninnPageCursor extends PageCursor {
                 // the file channel.
                 assertCursorOpenFileMappedAndGetIdOfLastPage();
                 pagedFile.initBuffer(pageRef);
+                long faultStartNanos = pagedFile.tracksReadLatency ? System.nanoTime() : 0;
                 PageList.fault(pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent);
+                if (faultStartNanos != 0) {
+                    pagedFile.reportReadLatency(System.nanoTime() - faultStartNanos);
+                }
             } catch (Throwable throwable) {
                 try {
                     // Make sure to unlock the page, so the eviction thread can pick up our trash.
@@ -87,6 +87,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
     private final CursorFactory cursorFactory;
     final String databaseName;
     private final IOController ioController;
+    final boolean tracksReadLatency;
     // If store files should be automatically pre-allocated,
     // this flag does not influence explicit preAllocate() operation.
     private final boolean automaticallyPreallocateStoreFiles;
@@ -181,6 +182,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = requireNonNull(databaseName);
         this.ioController = requireNonNull(ioController);
+        this.tracksReadLatency = ioController.tracksReadLatency();
         this.automaticallyPreallocateStoreFiles = preallocateStoreFiles;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
@@ -367,6 +369,18 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
         pageCache.clearEvictorException();
     }
 
+    @Override
+    public void flushWithoutForce(FileFlushEvent flushEvent, IOController limiter) throws IOException {
+        try (var buffer = bufferFactory.createBuffer()) {
+            flushInternal(flushEvent, false, false, limiter, buffer);
+        }
+        pageCache.clearEvictorException();
+    }
+
+    void reportReadLatency(long latencyNanos) {
+        ioController.reportReadLatency(latencyNanos);
+    }
+
     void flushAndForceForClose() throws IOException {
         if (deleteOnClose) {
             // No need to spend time flushing data to a file we're going to delete anyway.
@@ -471,8 +485,14 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
     void flushAndForceInternal(
             FileFlushEvent flushEvent, boolean forClosing, IOController limiter, NativeIOBuffer ioBuffer)
             throws IOException {
+        flushInternal(flushEvent, forClosing, true, limiter, ioBuffer);
+    }
+
+    private void flushInternal(
+            FileFlushEvent flushEvent, boolean forClosing, boolean force, IOController limiter, NativeIOBuffer ioBuffer)
+            throws IOException {
         try {
-            doFlushAndForceInternal(flushEvent, forClosing, limiter, ioBuffer);
+            doFlushInternal(flushEvent, forClosing, force, limiter, ioBuffer);
         } catch (ClosedChannelException e) {
             if (getRefCount() > 0) {
                 // The file is not supposed to be closed, since we have a positive ref-count, yet we got a
@@ -487,8 +507,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
         }
     }
 
-    private void doFlushAndForceInternal(
-            FileFlushEvent flushes, boolean forClosing, IOController limiter, NativeIOBuffer ioBuffer)
+    private void doFlushInternal(
+            FileFlushEvent flushes, boolean forClosing, boolean force, IOController limiter, NativeIOBuffer ioBuffer)
             throws IOException {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
         long[] pages = new long[translationTableChunkSize];
@@ -645,7 +665,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable {
             chunkEvent.chunkFlushed(notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk);
         }
 
-        swapper.force();
+        if (force) {
+            swapper.force();
+        }
     }
 
     private void vectoredFlush(
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.io.pagecache.context.TransactionIdSnapshot.isNotVisible;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+
+/**
+ * {@link VersionStorage} that keeps old versions of pages of multi versioned files as page images in a separate,
+ * temporary file mapped in the page cache.
+ * <p>
+ * Every time a transaction modifies a page last modified by another transaction, the current page image is copied into
+ * a page of the version file, and the header of the modified page is pointed to that copy. Page images of the version
+ * file keep the header of the page they were copied from, so every version refers to the next older one, forming a
+ * chain that readers follow until they find the version that is visible to them. This lets read transactions see a
+ * stable snapshot as of their start, instead of retrying whenever they observe a concurrent change.
+ * <p>
+ * A page image can be reused as soon as no transaction can observe anything older than the transaction that replaced
+ * it. The version file never grows beyond the configured maximum size: when it is full and no page can be reused, the
+ * chain of the modified page is cut. Readers that needed one of the cut versions are then marked as
+ * {@link VersionContext#markAsDirty() dirty}, which makes them fall back to retrying, as without version storage.
+ * <p>
+ * The version file is only created when the first page image is copied, so it is never touched before a multi
+ * versioned file is written to, and thereby never before the database owning it has been locked.
+ */
+public class PagedVersionStorage implements VersionStorage {
+    static final long NO_REFERENCE = 0;
+    /**
+     * The checksum of a copied page image is not needed while it lives in version storage, so that slot holds the id
+     * of the transaction that replaced the image, which is also the version of the page that refers to it.
+     */
+    private static final int BOUNDARY_OFFSET = CHECKSUM_OFFSET;
+
+    private static final ImmutableSet<OpenOption> OPEN_OPTIONS = Sets.immutable.of(
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+
+    private final PageCache pageCache;
+    private final Path file;
+    private final String databaseName;
+    private final IOController ioController;
+    private final int pageSize;
+    private final long maxPages;
+    private final Accessor accessor = new Accessor();
+
+    // Guarded by this, except for reads of the volatile fields
+    private final ArrayDeque<VersionPage> usedPages = new ArrayDeque<>();
+    private final MutableLongList freePages = new LongArrayList();
+    private volatile PagedFile versionFile;
+    private volatile long highestPageId = -1;
+    private volatile long oldestVisibleTransaction;
+
+    private final LongAdder snapshotsCreated = new LongAdder();
+    private final LongAdder snapshotsLoaded = new LongAdder();
+    private final LongAdder snapshotsMissed = new LongAdder();
+    private final LongAdder snapshotsDropped = new LongAdder();
+    private final LongAdder pagesReused = new LongAdder();
+
+    public PagedVersionStorage(
+            PageCache pageCache, Path file, String databaseName, IOController ioController, long maxSizeInBytes) {
+        this.pageCache = pageCache;
+        this.file = file;
+        this.databaseName = databaseName;
+        this.ioController = ioController;
+        this.pageSize = pageCache.pageSize();
+        this.maxPages = Math.max(1, maxSizeInBytes / pageSize);
+    }
+
+    @Override
+    public void loadReadSnapshot(MuninnPageCursor pageCursor, VersionContext versionContext, PinEvent pinEvent) {
+        long referrerVersion = MuninnPageCursor.getLongAt(pageCursor.pointer, pageCursor.littleEndian);
+        long reference =
+                MuninnPageCursor.getLongAt(pageCursor.pointer + NEXT_REFERENCE_OFFSET, pageCursor.littleEndian);
+        try {
+            while (reference != NO_REFERENCE) {
+                if (reference < NO_REFERENCE || toPageId(reference) > highestPageId) {
+                    // Inconsistent read of the page header, which the optimistic lock of the page cursor will catch
+                    break;
+                }
+                MuninnPageCursor snapshot = (MuninnPageCursor) accessor.io(reference, PF_SHARED_READ_LOCK);
+                long version;
+                long boundary;
+                long next;
+                do {
+                    version = snapshot.getLong(0);
+                    next = snapshot.getLong(NEXT_REFERENCE_OFFSET);
+                    boundary = snapshot.getLong(BOUNDARY_OFFSET);
+                } while (snapshot.shouldRetry());
+
+                if (boundary != referrerVersion) {
+                    // The image has been reused for another page since we read the reference to it
+                    snapshot.close();
+                    break;
+                }
+                if (isVisible(versionContext, version)) {
+                    pageCursor.remapSnapshot(snapshot, version);
+                    snapshotsLoaded.increment();
+                    return;
+                }
+                snapshot.close();
+                referrerVersion = version;
+                reference = next;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        snapshotsMissed.increment();
+        versionContext.markAsDirty();
+    }
+
+    @Override
+    public void createPageSnapshot(
+            MuninnPageCursor pageCursor, VersionContext versionContext, long chainHeadVersion, PinEvent pinEvent) {
+        long committingTransactionId = versionContext.committingTransactionId();
+        oldestVisibleTransaction = Math.max(oldestVisibleTransaction, versionContext.oldestVisibleTransactionNumber());
+        try {
+            long reference = accessor.allocate(committingTransactionId, pageSize);
+            if (reference != NO_REFERENCE) {
+                try (MuninnPageCursor snapshot = (MuninnPageCursor) accessor.io(reference, PF_SHARED_WRITE_LOCK)) {
+                    UnsafeUtil.copyMemory(pageCursor.pointer, snapshot.pointer, pageSize);
+                    snapshot.putLong(BOUNDARY_OFFSET, committingTransactionId);
+                }
+                snapshotsCreated.increment();
+            } else {
+                snapshotsDropped.increment();
+            }
+            MuninnPageCursor.putLongAt(pageCursor.pointer, committingTransactionId, pageCursor.littleEndian);
+            MuninnPageCursor.putLongAt(
+                    pageCursor.pointer + NEXT_REFERENCE_OFFSET, reference, pageCursor.littleEndian);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public VersionStorageAccessor accessor() {
+        return accessor;
+    }
+
+    @Override
+    public long size() {
+        return (highestPageId + 1) * pageSize;
+    }
+
+    /**
+     * @return maximum size the version file is allowed to grow to, in bytes.
+     */
+    public long maxSize() {
+        return maxPages * pageSize;
+    }
+
+    /**
+     * @return number of page images copied into version storage.
+     */
+    public long snapshotsCreated() {
+        return snapshotsCreated.sum();
+    }
+
+    /**
+     * @return number of times a reader found the version visible to it in version storage.
+     */
+    public long snapshotsLoaded() {
+        return snapshotsLoaded.sum();
+    }
+
+    /**
+     * @return number of times a reader did not find the version visible to it, and had to fall back to retrying.
+     */
+    public long snapshotsMissed() {
+        return snapshotsMissed.sum();
+    }
+
+    /**
+     * @return number of page images that could not be kept because version storage was full.
+     */
+    public long snapshotsDropped() {
+        return snapshotsDropped.sum();
+    }
+
+    /**
+     * @return number of version storage pages that were reused after no reader could observe them anymore.
+     */
+    public long pagesReused() {
+        return pagesReused.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (versionFile != null) {
+            versionFile.close();
+            versionFile = null;
+        }
+    }
+
+    private static boolean isVisible(VersionContext versionContext, long version) {
+        return version == versionContext.committingTransactionId()
+                || (version <= versionContext.highestClosed()
+                        && !isNotVisible(versionContext.notVisibleTransactionIds(), version));
+    }
+
+    private synchronized long allocatePage(long visibilityBoundary) throws IOException {
+        if (versionFile == null) {
+            versionFile = pageCache.map(file, pageSize, databaseName, OPEN_OPTIONS, ioController);
+        }
+        if (freePages.isEmpty()) {
+            reclaimPages();
+        }
+        long pageId;
+        if (!freePages.isEmpty()) {
+            pageId = freePages.removeAtIndex(freePages.size() - 1);
+            pagesReused.increment();
+        } else if (highestPageId + 1 < maxPages) {
+            pageId = highestPageId + 1;
+            highestPageId = pageId;
+        } else {
+            return NO_REFERENCE;
+        }
+        usedPages.addLast(new VersionPage(pageId, visibilityBoundary));
+        return toReference(pageId);
+    }
+
+    private void reclaimPages() {
+        long oldestVisible = oldestVisibleTransaction;
+        // Pages are mostly allocated in order of their boundaries, so stop at the first one that is still needed
+        VersionPage page;
+        while ((page = usedPages.peekFirst()) != null && page.boundary() <= oldestVisible) {
+            usedPages.removeFirst();
+            freePages.add(page.pageId());
+        }
+    }
+
+    private static long toReference(long pageId) {
+        return pageId + 1;
+    }
+
+    private static long toPageId(long reference) {
+        return reference - 1;
+    }
+
+    private record VersionPage(long pageId, long boundary) {}
+
+    private class Accessor implements VersionStorageAccessor {
+        @Override
+        public long allocate(long visibilityBoundary, int requestedSize) throws IOException {
+            if (requestedSize > pageSize) {
+                throw new IllegalArgumentException(
+                        "Requested size " + requestedSize + " is larger than the maximum area size " + pageSize);
+            }
+            return allocatePage(visibilityBoundary);
+        }
+
+        @Override
+        public PageCursor io(long reference, int flags) throws IOException {
+            PageCursor cursor = versionFile.io(toPageId(reference), flags, NULL_CONTEXT);
+            if (!cursor.next()) {
+                cursor.close();
+                throw new IllegalStateException("Version storage page for reference " + reference + " is missing.");
+            }
+            return cursor;
+        }
+
+        @Override
+        public int maxAreaSize() {
+            return pageSize;
+        }
+    }
+}
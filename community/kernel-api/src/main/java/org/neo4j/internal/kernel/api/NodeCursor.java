@@ -20,6 +20,7 @@
 package org.neo4j.internal.kernel.api;
 
 import org.neo4j.storageengine.api.Degrees;
+import org.neo4j.storageengine.api.NodeBatch;
 import org.neo4j.storageengine.api.RelationshipSelection;
 
 /**
@@ -50,6 +51,25 @@ public interface NodeCursor extends EntityCursor {
 
     long relationshipsReference();
 
+    /**
+     * Clears the given {@code batch} and fills it with the next nodes of this cursor, until either the batch is full or
+     * the cursor is exhausted. The cursor is left placed at the last node added to the batch.
+     *
+     * @param batch the {@link NodeBatch} to fill.
+     * @return the number of nodes in the batch, {@code 0} means that the cursor is exhausted.
+     */
+    default int nextBatch(NodeBatch batch) {
+        batch.clear();
+        while (batch.hasRoom() && next()) {
+            batch.add(nodeReference(), relationshipsReference(), propertiesReference());
+            TokenSet labels = labels();
+            for (int i = 0; i < labels.numberOfTokens(); i++) {
+                batch.addLabel(labels.token(i));
+            }
+        }
+        return batch.size();
+    }
+
     /**
      * @return whether or not this node cursor can decide degree for various relationship selections cheaper than doing a full scan of all relationships.
      */
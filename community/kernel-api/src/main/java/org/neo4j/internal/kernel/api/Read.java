@@ -326,6 +326,19 @@ public interface Read {
      */
     long countsForNodeWithoutTxState(int labelId);
 
+    /**
+     * The number of nodes in the graph that have the given label and a value for the given property, without taking
+     * into account anything in the transaction state.
+     *
+     * These counts are only kept when enabled in the storage engine, and only used if the current user is allowed to
+     * see all such nodes and properties. Intended for estimates, like the ones the query planner makes.
+     *
+     * @param labelId the label to get the count for.
+     * @param propertyKeyId the property key to get the count for.
+     * @return the number of matching nodes in the graph, or {@code -1} if that number is not known.
+     */
+    long countsForNodeWithPropertyWithoutTxState(int labelId, int propertyKeyId);
+
     /**
      * The number of relationships in the graph, including anything changed in the transaction state.
      *
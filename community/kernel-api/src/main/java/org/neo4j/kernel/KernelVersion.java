@@ -57,6 +57,7 @@ public enum KernelVersion {
     // An unreleased future version.
     // This version is meant to be used when developing a new feature
     // and it is not sure which version the feature will land in.
+    // Introduces enveloped transaction logs, node property counts and compressed dynamic property values.
     GLORIOUS_FUTURE(Byte.MAX_VALUE);
 
     public static final KernelVersion EARLIEST = V4_2;
@@ -71,6 +72,8 @@ public enum KernelVersion {
     public static final KernelVersion VERSION_TYPE_CONSTRAINTS_INTRODUCED = V5_9;
     public static final KernelVersion KERNEL_VERSION_BLOCKFORMAT_INTRODUCED = V5_10;
     public static final KernelVersion VERSION_UNIONS_AND_LIST_TYPE_CONSTRAINTS_INTRODUCED = V5_10;
+    public static final KernelVersion VERSION_NODE_PROPERTY_COUNTS_INTRODUCED = GLORIOUS_FUTURE;
+    public static final KernelVersion VERSION_COMPRESSED_DYNAMIC_PROPERTY_VALUES_INTRODUCED = GLORIOUS_FUTURE;
     public static final KernelVersion VERSION_ENVELOPED_TRANSACTION_LOGS_INTRODUCED = GLORIOUS_FUTURE;
 
     // All neo4j 5.0-5.6 members defaulted to this version when bootstrapping a rafted database
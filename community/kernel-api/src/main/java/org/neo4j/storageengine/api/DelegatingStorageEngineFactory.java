@@ -53,6 +53,7 @@ import org.neo4j.internal.schema.SchemaState;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.io.pagecache.context.CursorContextFactory;
@@ -155,6 +156,7 @@ public class DelegatingStorageEngineFactory implements StorageEngineFactory {
             InternalLogProvider internalLogProvider,
             InternalLogProvider userLogProvider,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             LogTailMetadata logTailMetadata,
             KernelVersionRepository kernelVersionRepository,
             MemoryTracker memoryTracker,
@@ -177,6 +179,7 @@ public class DelegatingStorageEngineFactory implements StorageEngineFactory {
                 internalLogProvider,
                 userLogProvider,
                 recoveryCleanupWorkCollector,
+                jobScheduler,
                 logTailMetadata,
                 kernelVersionRepository,
                 memoryTracker,
@@ -478,6 +481,34 @@ public class DelegatingStorageEngineFactory implements StorageEngineFactory {
                 logTailMetadata);
     }
 
+    @Override
+    public void optimizeStore(
+            FileSystemAbstraction fileSystem,
+            DatabaseLayout layout,
+            Config config,
+            PageCache pageCache,
+            IOController ioController,
+            Set<StoreOptimization> optimizations,
+            InternalLog log,
+            OutputStream progressOutput,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            LogTailMetadata logTailMetadata)
+            throws IOException {
+        delegate.optimizeStore(
+                fileSystem,
+                layout,
+                config,
+                pageCache,
+                ioController,
+                optimizations,
+                log,
+                progressOutput,
+                contextFactory,
+                pageCacheTracer,
+                logTailMetadata);
+    }
+
     @Override
     public ImmutableSet<OpenOption> getStoreOpenOptions(
             FileSystemAbstraction fs, PageCache pageCache, DatabaseLayout layout, CursorContextFactory contextFactory) {
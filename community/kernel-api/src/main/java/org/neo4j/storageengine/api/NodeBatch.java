@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+import java.util.Arrays;
+
+/**
+ * A batch of nodes read by a {@link StorageNodeCursor} in one go, stored column-wise in primitive arrays.
+ * Consumers that only look at a few fields of many nodes, e.g. a label filter in front of a node scan, can run tight
+ * loops over these arrays instead of calling into the cursor once per node and field.
+ * <p>
+ * Labels are stored in compressed rows: the labels of the node at {@code row} are found in {@link #labels()} between
+ * {@code labelOffsets()[row]} (inclusive) and {@code labelOffsets()[row + 1]} (exclusive).
+ * <p>
+ * Properties references that are {@link LongReference}s are kept as their id in {@link #propertiesReferences()},
+ * without allocating anything per node. Other references are kept as they are, see {@link #propertiesReference(int)}.
+ */
+public class NodeBatch {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final long[] ids;
+    private final long[] relationshipsReferences;
+    private final long[] propertiesReferences;
+    private final int[] labelOffsets;
+    private long[] labels;
+    // Only allocated once a properties reference which is not a LongReference is added
+    private Reference[] otherPropertiesReferences;
+    private int size;
+
+    public NodeBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public NodeBatch(int capacity) {
+        this.capacity = requirePositive(capacity);
+        this.ids = new long[capacity];
+        this.relationshipsReferences = new long[capacity];
+        this.propertiesReferences = new long[capacity];
+        this.labelOffsets = new int[capacity + 1];
+        this.labels = new long[capacity];
+    }
+
+    /**
+     * Empties this batch so that it can be filled again.
+     */
+    public void clear() {
+        size = 0;
+        if (otherPropertiesReferences != null) {
+            Arrays.fill(otherPropertiesReferences, null);
+        }
+    }
+
+    /**
+     * Adds a node without labels to this batch. Labels of the node are added with {@link #addLabel(long)} right after.
+     *
+     * @param id the node id.
+     * @param relationshipsReference see {@link StorageNodeCursor#relationshipsReference()}.
+     * @param propertiesReference id of the {@link LongReference} of the first property of the node,
+     * or {@link LongReference#NULL} if it has no properties.
+     */
+    public void add(long id, long relationshipsReference, long propertiesReference) {
+        if (size == capacity) {
+            throw new IllegalStateException("Batch is full, capacity is " + capacity);
+        }
+        ids[size] = id;
+        relationshipsReferences[size] = relationshipsReference;
+        propertiesReferences[size] = propertiesReference;
+        labelOffsets[size + 1] = labelOffsets[size];
+        size++;
+    }
+
+    /**
+     * Adds a node without labels to this batch, like {@link #add(long, long, long)}, for any kind of properties
+     * reference.
+     *
+     * @param propertiesReference see {@link StorageNodeCursor#propertiesReference()}.
+     */
+    public void add(long id, long relationshipsReference, Reference propertiesReference) {
+        if (propertiesReference instanceof LongReference longReference) {
+            add(id, relationshipsReference, longReference.id);
+            return;
+        }
+        add(id, relationshipsReference, LongReference.NULL);
+        if (otherPropertiesReferences == null) {
+            otherPropertiesReferences = new Reference[capacity];
+        }
+        otherPropertiesReferences[size - 1] = propertiesReference;
+    }
+
+    /**
+     * Adds a label to the node last added to this batch.
+     */
+    public void addLabel(long label) {
+        assert size > 0 : "No node to add labels to";
+        int labelEnd = labelOffsets[size];
+        if (labelEnd == labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        labels[labelEnd] = label;
+        labelOffsets[size] = labelEnd + 1;
+    }
+
+    /**
+     * Adds labels to the node last added to this batch.
+     */
+    public void addLabels(long[] nodeLabels) {
+        assert size > 0 : "No node to add labels to";
+        int labelStart = labelOffsets[size];
+        int labelEnd = labelStart + nodeLabels.length;
+        if (labelEnd > labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(labelEnd, labels.length * 2));
+        }
+        System.arraycopy(nodeLabels, 0, labels, labelStart, nodeLabels.length);
+        labelOffsets[size] = labelEnd;
+    }
+
+    /**
+     * @return {@code true} if there is room for more nodes in this batch, otherwise {@code false}.
+     */
+    public boolean hasRoom() {
+        return size < capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] ids() {
+        return ids;
+    }
+
+    public long[] relationshipsReferences() {
+        return relationshipsReferences;
+    }
+
+    /**
+     * @return ids of the properties references of the nodes in this batch. Rows of nodes with a properties reference
+     * which is not a {@link LongReference} hold {@link LongReference#NULL} here.
+     */
+    public long[] propertiesReferences() {
+        return propertiesReferences;
+    }
+
+    public int[] labelOffsets() {
+        return labelOffsets;
+    }
+
+    public long[] labels() {
+        return labels;
+    }
+
+    public Reference propertiesReference(int row) {
+        if (otherPropertiesReferences != null && otherPropertiesReferences[row] != null) {
+            return otherPropertiesReferences[row];
+        }
+        return LongReference.longReference(propertiesReferences[row]);
+    }
+
+    /**
+     * @return label ids of the node at the given {@code row}.
+     */
+    public long[] labels(int row) {
+        return Arrays.copyOfRange(labels, labelOffsets[row], labelOffsets[row + 1]);
+    }
+
+    /**
+     * @return {@code true} if the node at the given {@code row} has the given {@code label}, otherwise {@code false}.
+     */
+    public boolean hasLabel(int row, int label) {
+        for (int i = labelOffsets[row], end = labelOffsets[row + 1]; i < end; i++) {
+            if (labels[i] == label) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects the rows of all nodes in this batch that have the given {@code label}.
+     *
+     * @param label the label to select nodes for.
+     * @param rows receives the selected rows, in order. Must be at least as long as {@link #size()}.
+     * @return the number of selected rows.
+     */
+    public int selectWithLabel(int label, int[] rows) {
+        int selected = 0;
+        for (int row = 0; row < size; row++) {
+            rows[selected] = row;
+            selected += hasLabel(row, label) ? 1 : 0;
+        }
+        return selected;
+    }
+}
@@ -59,6 +59,7 @@ import org.neo4j.internal.schema.SchemaState;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.io.pagecache.context.CursorContextFactory;
@@ -165,6 +166,7 @@ public interface StorageEngineFactory {
             InternalLogProvider internalLogProvider,
             InternalLogProvider userLogProvider,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             LogTailMetadata logTailMetadata,
             KernelVersionRepository kernelVersionRepository,
             MemoryTracker memoryTracker,
@@ -438,6 +440,39 @@ public interface StorageEngineFactory {
             LogTailMetadata logTailMetadata)
             throws ConsistencyCheckIncompleteException;
 
+    /**
+     * Optimizes how the data of a store is laid out in its files, without changing the data. The store must not be in
+     * use and must not need recovery. Records are rewritten without going through the transaction log, so afterwards
+     * the transaction logs of the store no longer describe it and the caller has to give it a new store id and new
+     * transaction logs, like a copy of the store would get.
+     *
+     * @param fileSystem file system the store is on.
+     * @param layout layout of the store.
+     * @param config configuration to use.
+     * @param pageCache page cache to load pages into.
+     * @param ioController controller of the IO done by the optimizations.
+     * @param optimizations which optimizations to do.
+     * @param log to log the outcome of each optimization to.
+     * @param progressOutput output where progress is printed, or {@code null} if no progress should be printed.
+     * @param contextFactory underlying page cursor context factory.
+     * @param pageCacheTracer underlying page cache tracer
+     * @param logTailMetadata meta data read from the tx log.
+     * @throws UnsupportedOperationException if this storage engine doesn't support any of the given optimizations.
+     */
+    void optimizeStore(
+            FileSystemAbstraction fileSystem,
+            DatabaseLayout layout,
+            Config config,
+            PageCache pageCache,
+            IOController ioController,
+            Set<StoreOptimization> optimizations,
+            InternalLog log,
+            OutputStream progressOutput,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            LogTailMetadata logTailMetadata)
+            throws IOException;
+
     /**
      * Detects open options for existing store such as endianness or version
      */
@@ -42,6 +42,33 @@ public interface StorageNodeCursor extends StorageEntityScanCursor<AllNodeScan>
         return labels;
     }
 
+    /**
+     * Clears the given {@code batch} and fills it with the next nodes of this cursor, until either the batch is full or
+     * the cursor is exhausted. The cursor is left placed at the last node added to the batch.
+     *
+     * @param batch the {@link NodeBatch} to fill.
+     * @return the number of nodes in the batch, {@code 0} means that the cursor is exhausted.
+     */
+    default int nextBatch(NodeBatch batch) {
+        batch.clear();
+        while (batch.hasRoom() && next()) {
+            batch.add(entityReference(), relationshipsReference(), propertiesReference());
+            labels(batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Adds the label ids of the node this cursor currently is placed at to the node last added to the given
+     * {@code batch}. Implementations can override this to add the labels without allocating them as an array,
+     * like {@link #labels()} does.
+     *
+     * @param batch the {@link NodeBatch} to add the labels to.
+     */
+    default void labels(NodeBatch batch) {
+        batch.addLabels(labels());
+    }
+
     /**
      * @return {@code true} if the node this cursor is placed at has at least one label, otherwise {@code false}.
      */
@@ -99,6 +99,19 @@ public interface StorageReader extends AutoCloseable, StorageSchemaReader {
      */
     long countsForNode(int labelId, CursorContext cursorContext);
 
+    /**
+     * Returns number of stored nodes labeled with the label represented by {@code labelId} that have a value for
+     * the property represented by {@code propertyKeyId}.
+     *
+     * @param labelId label id to match.
+     * @param propertyKeyId property key id to match.
+     * @param cursorContext underlying page cursor context
+     * @return number of stored nodes with this label and property, or {@code -1} if such counts are not kept.
+     */
+    default long countsForNodeWithProperty(int labelId, int propertyKeyId, CursorContext cursorContext) {
+        return -1;
+    }
+
     /**
      * Returns number of stored relationships of a certain {@code typeId} whose start/end nodes are labeled
      * with the {@code startLabelId} and {@code endLabelId} respectively.
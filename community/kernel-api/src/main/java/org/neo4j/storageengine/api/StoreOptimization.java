@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+/**
+ * Optimizations of how the data of a store is laid out in its files, that can be done on a store which is not in use,
+ * see {@link StorageEngineFactory#optimizeStore}. None of them change the data in the store, but since they rewrite
+ * records without logging them, the store gets a new store id and new transaction logs afterwards.
+ */
+public enum StoreOptimization {
+    /**
+     * Rewrite the properties of each entity whose properties are spread out over the store into records that are
+     * next to each other.
+     */
+    COMPACT_PROPERTY_CHAINS,
+    /**
+     * Convert nodes whose relationship layout does not fit their degree, sparse nodes with a degree at or above the
+     * dense node threshold to dense, and dense nodes with far fewer relationships back to sparse.
+     */
+    CONVERT_DENSE_NODES
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.storageengine.api.LongReference.NULL_REFERENCE;
+import static org.neo4j.storageengine.api.LongReference.longReference;
+
+import org.junit.jupiter.api.Test;
+
+class NodeBatchTest {
+    @Test
+    void shouldKeepLabelsPerRow() {
+        var batch = new NodeBatch(4);
+
+        batch.add(10, 1, 100);
+        batch.addLabel(3);
+        batch.addLabel(5);
+        batch.add(11, 2, LongReference.NULL);
+        batch.add(12, 3, 102);
+        batch.addLabels(new long[] {1, 3, 7, 9});
+
+        assertThat(batch.size()).isEqualTo(3);
+        assertThat(batch.labels(0)).containsExactly(3, 5);
+        assertThat(batch.labels(1)).isEmpty();
+        assertThat(batch.labels(2)).containsExactly(1, 3, 7, 9);
+        assertThat(batch.hasLabel(2, 7)).isTrue();
+        assertThat(batch.hasLabel(1, 7)).isFalse();
+        int[] rows = new int[batch.capacity()];
+        assertThat(batch.selectWithLabel(3, rows)).isEqualTo(2);
+        assertThat(rows).startsWith(0, 2);
+    }
+
+    @Test
+    void shouldKeepPropertiesReferencesOfAnyKind() {
+        var batch = new NodeBatch(4);
+        Reference other = new Reference() {};
+
+        batch.add(10, 1, longReference(100));
+        batch.add(11, 2, other);
+        batch.add(12, 3, NULL_REFERENCE);
+
+        assertThat(((LongReference) batch.propertiesReference(0)).id).isEqualTo(100);
+        assertThat(batch.propertiesReference(1)).isSameAs(other);
+        assertThat(batch.propertiesReference(2)).isEqualTo(NULL_REFERENCE);
+        assertThat(batch.propertiesReferences()).startsWith(100, LongReference.NULL, LongReference.NULL);
+
+        batch.clear();
+        batch.add(20, 1, 200);
+        assertThat(((LongReference) batch.propertiesReference(0)).id).isEqualTo(200);
+    }
+
+    @Test
+    void shouldRejectNodesWhenFull() {
+        var batch = new NodeBatch(2);
+
+        batch.add(10, 1, 100);
+        assertThat(batch.hasRoom()).isTrue();
+        batch.add(11, 2, 101);
+        assertThat(batch.hasRoom()).isFalse();
+
+        assertThatThrownBy(() -> batch.add(12, 3, 102)).isInstanceOf(IllegalStateException.class);
+        batch.clear();
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(batch.hasRoom()).isTrue();
+    }
+}
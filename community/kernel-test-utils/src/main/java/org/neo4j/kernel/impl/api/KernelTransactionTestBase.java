@@ -79,6 +79,7 @@ import org.neo4j.kernel.impl.constraints.StandardConstraintSemantics;
 import org.neo4j.kernel.impl.factory.CanWrite;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.kernel.impl.newapi.CursorPoolStatistics;
 import org.neo4j.kernel.impl.query.TransactionExecutionMonitor;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
@@ -264,7 +265,8 @@ class KernelTransactionTestBase {
                 mock(DatabaseHealth.class),
                 NullLogProvider.getInstance(),
                 EMPTY_VALIDATOR_FACTORY,
-                storageEngine.getOpenOptions().contains(MULTI_VERSIONED));
+                storageEngine.getOpenOptions().contains(MULTI_VERSIONED),
+                new CursorPoolStatistics());
     }
 
     KernelTransactionImplementation newNotInitializedTransaction(LeaseService leaseService) {
@@ -60,6 +60,7 @@ import org.neo4j.kernel.impl.constraints.StandardConstraintSemantics;
 import org.neo4j.kernel.impl.factory.CanWrite;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.kernel.impl.newapi.CursorPoolStatistics;
 import org.neo4j.kernel.impl.query.TransactionExecutionMonitor;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
@@ -147,7 +148,8 @@ public final class KernelTransactionFactory {
                 mock(DatabaseHealth.class),
                 NullLogProvider.getInstance(),
                 TransactionValidatorFactory.EMPTY_VALIDATOR_FACTORY,
-                storageEngine.getOpenOptions().contains(MULTI_VERSIONED));
+                storageEngine.getOpenOptions().contains(MULTI_VERSIONED),
+                new CursorPoolStatistics());
 
         transaction.initialize(
                 0,
@@ -32,11 +32,13 @@ import static org.apache.commons.lang3.ArrayUtils.EMPTY_STRING_ARRAY;
 import static org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples.pair;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.values.storable.Values.intValue;
 import static org.neo4j.values.storable.Values.longValue;
 import static org.neo4j.values.storable.Values.pointValue;
 import static org.neo4j.values.storable.Values.stringValue;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -47,6 +49,7 @@ import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -62,6 +65,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.neo4j.graphdb.spatial.Point;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
 import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapMemoryAllocator;
 import org.neo4j.memory.EmptyMemoryTracker;
@@ -350,4 +354,42 @@ class AppendOnlyValuesContainerTest {
             assertEquals(valueRefPair.getOne(), actualValue);
         }
     }
+
+    @Test
+    void shouldSpillOldestChunksAndStillReadAndRemoveTheirValues() throws Exception {
+        try (var fs = new EphemeralFileSystemAbstraction()) {
+            final var tracker = new LocalMemoryTracker();
+            final var spillDirectory = Path.of("spill");
+            final var spilling = new AppendOnlyValuesContainer(
+                    64, new TestMemoryAllocator(), tracker, 256, new SpilledChunks(fs, spillDirectory, tracker));
+
+            final List<ObjectLongPair<Value>> valueRefPairs = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final Value value = rnd.randomValues().nextValue();
+                valueRefPairs.add(pair(value, spilling.add(value)));
+            }
+            assertTrue(spilling.spilledBytes() > 0, "Expected values to be spilled");
+            assertEquals(1, fs.listFiles(spillDirectory).length);
+
+            Collections.shuffle(valueRefPairs, rnd.random());
+            for (int i = 0; i < valueRefPairs.size(); i++) {
+                final ObjectLongPair<Value> valueRefPair = valueRefPairs.get(i);
+                if (i % 2 == 0) {
+                    assertEquals(valueRefPair.getOne(), spilling.remove(valueRefPair.getTwo()));
+                } else {
+                    assertEquals(valueRefPair.getOne(), spilling.get(valueRefPair.getTwo()));
+                }
+            }
+            // By now most spilled chunks have been evicted from the cache, so removals must have reached the file
+            for (int i = 0; i < valueRefPairs.size(); i += 2) {
+                final long ref = valueRefPairs.get(i).getTwo();
+                assertThrows(IllegalArgumentException.class, () -> spilling.get(ref));
+            }
+
+            spilling.close();
+            assertEquals(0, tracker.usedNativeMemory(), "Got memory leak");
+            assertEquals(0, tracker.estimatedHeapMemory(), "Got memory leak");
+            assertEquals(0, fs.listFiles(spillDirectory).length, "Spill file left behind");
+        }
+    }
 }
@@ -36,12 +36,12 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 import static org.neo4j.internal.helpers.collection.Iterators.asSet;
 import static org.neo4j.internal.helpers.collection.Pair.of;
 import static org.neo4j.internal.schema.SchemaDescriptors.forLabel;
+import static org.neo4j.kernel.impl.api.state.IndexUpdates.createIndexUpdates;
 import static org.neo4j.values.storable.Values.stringValue;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.NavigableMap;
@@ -83,6 +83,7 @@ import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
 import org.neo4j.kernel.impl.api.chunk.ChunkedTransactionSink;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
+import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.StorageProperty;
@@ -364,6 +365,44 @@ abstract class TxStateTest {
         }
     }
 
+    @Test
+    void shouldKeepSortedIndexUpdatesUpToDateWithLaterChanges() {
+        // GIVEN
+        addNodesToIndex(indexOn_1_1).withDefaultStringProperties(42L);
+        addNodesToIndex(indexOn_1_1).withDefaultStringProperties(41L);
+        state.getSortedIndexUpdates(indexOn_1_1.schema());
+
+        // WHEN
+        addNodesToIndex(indexOn_1_1).withDefaultStringProperties(43L);
+        addNodesToIndex(indexOn_1_1).withDefaultStringProperties(40L);
+        NavigableMap<ValueTuple, ? extends LongDiffSets> sorted = state.getSortedIndexUpdates(indexOn_1_1.schema());
+        UnmodifiableMap<ValueTuple, ? extends LongDiffSets> exact = state.getIndexUpdates(indexOn_1_1.schema());
+
+        // THEN
+        TreeMap<ValueTuple, LongDiffSets> expected = sortedAddedNodesDiffSets(40, 41, 42, 43);
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(sorted.keySet()));
+        for (final ValueTuple key : expected.keySet()) {
+            assertEqualDiffSets(expected.get(key), sorted.get(key));
+            assertThat(exact.get(key)).isSameAs(sorted.get(key));
+        }
+    }
+
+    @Test
+    void shouldTrackMemoryOfSortedIndexUpdates() {
+        // GIVEN
+        addNodesToIndex(indexOn_1_1).withDefaultStringProperties(42L, 41L);
+        long memoryBeforeSorting = memoryTracker.estimatedHeapMemory();
+
+        // WHEN
+        state.getSortedIndexUpdates(indexOn_1_1.schema());
+        long memoryAfterSorting = memoryTracker.estimatedHeapMemory();
+        state.indexDoUpdateEntry(indexOn_1_1.schema(), 43L, null, ValueTuple.of(stringValue("value43")));
+
+        // THEN
+        assertThat(memoryAfterSorting).isGreaterThan(memoryBeforeSorting);
+        assertThat(memoryTracker.estimatedHeapMemory()).isGreaterThan(memoryAfterSorting);
+    }
+
     @Test
     void shouldAddAndGetByLabel() {
         // WHEN
@@ -1036,8 +1075,8 @@ abstract class TxStateTest {
 
     @Test
     void getOrCreateIndexUpdatesForSeek_useCollectionsFactory() {
-        final MutableLongDiffSets diffSets =
-                state.getOrCreateIndexUpdatesForSeek(new HashMap<>(), ValueTuple.of(stringValue("test")));
+        final MutableLongDiffSets diffSets = state.getOrCreateIndexUpdatesForSeek(
+                createIndexUpdates(EmptyMemoryTracker.INSTANCE), ValueTuple.of(stringValue("test")));
         long memoryBefore = usedMemory();
 
         diffSets.add(1);
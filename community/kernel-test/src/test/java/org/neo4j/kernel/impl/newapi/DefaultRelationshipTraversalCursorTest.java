@@ -542,6 +542,11 @@ class DefaultRelationshipTraversalCursorTest {
             return 0;
         }
 
+        @Override
+        public long countsForNodeWithPropertyWithoutTxState(int labelId, int propertyKeyId) {
+            return -1;
+        }
+
         @Override
         public long countsForRelationship(int startLabelId, int typeId, int endLabelId) {
             return 0;
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.kernel.impl.pagecache.AdaptiveIOController.QUANTUM_MILLIS;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.time.FakeClock;
+
+class AdaptiveIOControllerTest {
+    private final FakeClock clock = new FakeClock();
+
+    @Test
+    void shouldHalveLimitWhenReadLatencyIsAboveTarget() {
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 1000, 100, 2000, clock);
+
+        controller.reportReadLatency(MILLISECONDS.toNanos(5));
+        completeQuantum(controller);
+
+        assertEquals(500, controller.configuredLimit());
+        assertEquals(MILLISECONDS.toNanos(5), controller.lastReadLatencyNanos());
+    }
+
+    @Test
+    void shouldRaiseLimitWhenReadLatencyIsBelowTarget() {
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 1000, 100, 2000, clock);
+
+        controller.reportReadLatency(MICROSECONDS.toNanos(100));
+        completeQuantum(controller);
+
+        assertEquals(1100, controller.configuredLimit());
+    }
+
+    @Test
+    void shouldKeepLimitWithinFloorAndCeiling() {
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 1000, 100, 2000, clock);
+
+        for (int i = 0; i < 20; i++) {
+            controller.reportReadLatency(MILLISECONDS.toNanos(10));
+            completeQuantum(controller);
+        }
+        assertEquals(100, controller.configuredLimit());
+
+        for (int i = 0; i < 40; i++) {
+            completeQuantum(controller);
+        }
+        assertEquals(2000, controller.configuredLimit());
+    }
+
+    @Test
+    void shouldStartWithinFloorAndCeiling() {
+        assertEquals(100, new AdaptiveIOController(1, 10, 100, 2000, clock).configuredLimit());
+        assertEquals(2000, new AdaptiveIOController(1, 5000, 100, 2000, clock).configuredLimit());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveIOController(1, 10, 200, 100, clock));
+    }
+
+    @Test
+    void shouldPauseFlushingWhenQuantumBudgetIsSpent() {
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 100, 100, 2000, clock);
+
+        // 100 IOs per second gives a budget of 10 IOs per quantum
+        var flushEvent = mock(FileFlushEvent.class);
+        controller.maybeLimitIO(9, flushEvent);
+        verify(flushEvent, never()).throttle(anyLong(), anyLong());
+
+        controller.maybeLimitIO(1, flushEvent);
+        verify(flushEvent).throttle(eq(10L), anyLong());
+    }
+
+    @Test
+    void shouldNotLimitUnlimitedIOUntilReadLatencyIsAboveTarget() {
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), -1, 100, 2000, clock);
+        assertEquals(-1, controller.configuredLimit());
+
+        var flushEvent = mock(FileFlushEvent.class);
+        controller.maybeLimitIO(100_000, flushEvent);
+        completeQuantum(controller);
+        verify(flushEvent, never()).throttle(anyLong(), anyLong());
+        assertEquals(-1, controller.configuredLimit());
+
+        controller.reportReadLatency(MILLISECONDS.toNanos(5));
+        completeQuantum(controller);
+        assertEquals(1000, controller.configuredLimit());
+    }
+
+    @Test
+    void communityServiceShouldCreateAdaptiveControllerOnlyWhenEnabled() {
+        var service = new CommunityIOControllerService();
+
+        assertThat(service.createIOController(Config.defaults(), clock, new Monitors()))
+                .isSameAs(IOController.DISABLED);
+        IOController controller = service.createIOController(
+                Config.defaults(GraphDatabaseInternalSettings.checkpoint_adaptive_io_enabled, true),
+                clock,
+                new Monitors());
+        assertThat(controller).isInstanceOf(AdaptiveIOController.class);
+        assertThat(controller.tracksReadLatency()).isTrue();
+    }
+
+    @Test
+    void shouldReportLimitChangesAndPausesToMonitor() {
+        var monitor = mock(AdaptiveIOController.Monitor.class);
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 100, 100, 2000, clock, monitor);
+
+        controller.reportReadLatency(MICROSECONDS.toNanos(100));
+        completeQuantum(controller);
+        verify(monitor).limitChanged(100, 200, MICROSECONDS.toNanos(100));
+
+        // 200 IOs per second gives a budget of 20 IOs per quantum
+        controller.maybeLimitIO(20, FileFlushEvent.NULL);
+        verify(monitor).flushThrottled(eq(20L), anyLong());
+    }
+
+    @Test
+    void shouldNotReportUnchangedLimitToMonitor() {
+        var monitor = mock(AdaptiveIOController.Monitor.class);
+        var controller = new AdaptiveIOController(MILLISECONDS.toNanos(1), 2000, 100, 2000, clock, monitor);
+
+        completeQuantum(controller);
+
+        verify(monitor, never()).limitChanged(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldNotAllowMaxIOLimitBelowMinIOLimit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Config.newBuilder()
+                        .set(GraphDatabaseInternalSettings.checkpoint_adaptive_io_min_iops, 200)
+                        .set(GraphDatabaseInternalSettings.checkpoint_adaptive_io_max_iops, 100)
+                        .build());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Config.defaults(GraphDatabaseInternalSettings.checkpoint_adaptive_io_min_iops, 20000));
+    }
+
+    private void completeQuantum(AdaptiveIOController controller) {
+        clock.forward(QUANTUM_MILLIS, MILLISECONDS);
+        controller.maybeLimitIO(0, FileFlushEvent.NULL);
+    }
+}
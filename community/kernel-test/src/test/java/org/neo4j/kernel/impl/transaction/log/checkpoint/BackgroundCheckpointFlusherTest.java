@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundCheckpointFlusher.PacingIOController.UNLIMITED;
+import static org.neo4j.storageengine.api.TransactionIdStore.UNKNOWN_CONSENSUS_INDEX;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundCheckpointFlusher.PacingIOController;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.ClosedTransactionMetadata;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.time.FakeClock;
+
+class BackgroundCheckpointFlusherTest {
+    private final PageCache pageCache = mock(PageCache.class);
+    private final TransactionIdStore transactionIdStore = mock(TransactionIdStore.class);
+    private final OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler();
+    private final FakeClock clock = new FakeClock();
+    private final CheckPointer checkPointer = mock(CheckPointer.class);
+    private final IOController databaseController = mock(IOController.class);
+    private final List<Long> parkedNanos = new ArrayList<>();
+    private final Config config = Config.newBuilder()
+            .set(GraphDatabaseSettings.check_point_interval_time, Duration.ofMinutes(15))
+            .set(GraphDatabaseSettings.check_point_interval_volume, mebiBytes(10))
+            .build();
+
+    @Test
+    void shouldFlushAllMappedFilesWithPacingControllerWithoutForcing() throws IOException {
+        PagedFile first = pagedFileCompletingIOs(1);
+        PagedFile second = pagedFileCompletingIOs(1);
+        when(pageCache.listExistingMappings()).thenReturn(List.of(first, second));
+        givenLogPosition(new LogPosition(0, 100));
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+
+        jobScheduler.runJob();
+
+        verify(first).flushWithoutForce(any(FileFlushEvent.class), any(PacingIOController.class));
+        verify(second).flushWithoutForce(any(FileFlushEvent.class), any(PacingIOController.class));
+        verify(first, never()).flushAndForce(any(FileFlushEvent.class));
+        verify(second, never()).flushAndForce(any(FileFlushEvent.class));
+    }
+
+    @Test
+    void shouldRescheduleUntilStopped() throws IOException {
+        when(pageCache.listExistingMappings()).thenReturn(List.of());
+        givenLogPosition(new LogPosition(0, 100));
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+
+        jobScheduler.runJob();
+        assertNotNull(jobScheduler.getJob());
+
+        flusher.stop();
+        assertNull(jobScheduler.getJob());
+    }
+
+    @Test
+    void shouldFlushAgainWhenRestarted() throws IOException {
+        PagedFile file = pagedFileCompletingIOs(1);
+        when(pageCache.listExistingMappings()).thenReturn(List.of(file));
+        givenLogPosition(new LogPosition(0, 100));
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+        flusher.stop();
+
+        flusher.start();
+        jobScheduler.runJob();
+
+        verify(file).flushWithoutForce(any(FileFlushEvent.class), any(PacingIOController.class));
+        assertNotNull(jobScheduler.getJob());
+    }
+
+    @Test
+    void shouldPaceNextPassByPreviousPassIOsAndLogGenerationRate() throws IOException {
+        PagedFile file = pagedFileCompletingIOs(1000);
+        when(pageCache.listExistingMappings()).thenReturn(List.of(file));
+        givenLogPosition(new LogPosition(0, 100));
+        checkPointHappenedNow();
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+
+        // first pass knows nothing about the amount of dirty pages
+        jobScheduler.runJob();
+
+        // 1 MiB of logs in 10 seconds reaches the 10 MiB check-point volume in 100 seconds, which is sooner than what
+        // remains of the check-point time interval. Spreading 1000 IOs over half of that gives 20 IOs per second.
+        clock.forward(10, TimeUnit.SECONDS);
+        assertEquals(20, flusher.targetIOsPerSecond(clock.millis(), new LogPosition(0, 100 + mebiBytes(1))));
+    }
+
+    @Test
+    void shouldPaceNextPassByTimeRemainingSinceLatestCheckPoint() throws IOException {
+        PagedFile file = pagedFileCompletingIOs(1000);
+        when(pageCache.listExistingMappings()).thenReturn(List.of(file));
+        givenLogPosition(new LogPosition(0, 100));
+        checkPointHappenedNow();
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+        jobScheduler.runJob();
+
+        // Without log growth the next check-point is due one minute from now, at the end of the 15 minute interval.
+        // Spreading 1000 IOs over half of that gives 33 IOs per second.
+        clock.forward(14, TimeUnit.MINUTES);
+        assertEquals(33, flusher.targetIOsPerSecond(clock.millis(), new LogPosition(0, 100)));
+
+        // A check-point that just happened pushes the next one out to a full interval again.
+        checkPointHappenedNow();
+        assertEquals(2, flusher.targetIOsPerSecond(clock.millis(), new LogPosition(0, 100)));
+    }
+
+    @Test
+    void shouldNotLimitFirstPass() {
+        givenLogPosition(new LogPosition(0, 100));
+        checkPointHappenedNow();
+        BackgroundCheckpointFlusher flusher = newFlusher();
+        flusher.start();
+
+        assertEquals(UNLIMITED, flusher.targetIOsPerSecond(clock.millis(), new LogPosition(0, 100)));
+    }
+
+    @Test
+    void pacingControllerShouldHoldBackFlushingThatIsAheadOfSchedule() {
+        var pacer = new PacingIOController(1, clock, this::park, IOController.DISABLED);
+        pacer.start(10);
+
+        pacer.maybeLimitIO(1, FileFlushEvent.NULL);
+        pacer.maybeLimitIO(1, FileFlushEvent.NULL);
+
+        assertEquals(2, pacer.completedIOs());
+        assertEquals(10, pacer.configuredLimit());
+        assertEquals(List.of(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(100)), parkedNanos);
+    }
+
+    @Test
+    void pacingControllerShouldNotHoldBackFlushingThatIsBehindSchedule() {
+        var pacer = new PacingIOController(1, clock, this::park, IOController.DISABLED);
+        pacer.start(10);
+
+        clock.forward(1, TimeUnit.SECONDS);
+        pacer.maybeLimitIO(5, FileFlushEvent.NULL);
+
+        assertEquals(List.of(), parkedNanos);
+    }
+
+    @Test
+    void pacingControllerShouldPassIOsOnToDatabaseController() {
+        var pacer = new PacingIOController(1, clock, this::park, databaseController);
+        pacer.start(UNLIMITED);
+
+        pacer.maybeLimitIO(3, FileFlushEvent.NULL);
+        pacer.reportIO(2);
+
+        verify(databaseController).maybeLimitIO(3, FileFlushEvent.NULL);
+        verify(databaseController).reportIO(2);
+        assertEquals(5, pacer.completedIOs());
+    }
+
+    @Test
+    void pacingControllerShouldNotHoldBackFlushingOnceAborted() {
+        var pacer = new PacingIOController(1, clock, this::park, IOController.DISABLED);
+        pacer.start(10);
+
+        pacer.abort();
+        pacer.maybeLimitIO(100, FileFlushEvent.NULL);
+
+        assertEquals(List.of(), parkedNanos);
+    }
+
+    private BackgroundCheckpointFlusher newFlusher() {
+        return new BackgroundCheckpointFlusher(
+                pageCache,
+                transactionIdStore,
+                checkPointer,
+                PageCacheTracer.NULL,
+                jobScheduler,
+                clock,
+                config,
+                NullLogProvider.getInstance(),
+                "test db",
+                databaseController,
+                this::park);
+    }
+
+    private void park(long nanos) {
+        parkedNanos.add(nanos);
+        clock.forward(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void checkPointHappenedNow() {
+        when(checkPointer.latestCheckPointTimeMillis()).thenReturn(clock.millis());
+    }
+
+    private void givenLogPosition(LogPosition position) {
+        when(transactionIdStore.getLastClosedTransaction())
+                .thenReturn(new ClosedTransactionMetadata(42, position, 1, 2, UNKNOWN_CONSENSUS_INDEX));
+    }
+
+    private static PagedFile pagedFileCompletingIOs(int ios) throws IOException {
+        PagedFile pagedFile = mock(PagedFile.class);
+        doAnswer(invocation -> {
+                    IOController controller = invocation.getArgument(1);
+                    controller.maybeLimitIO(ios, invocation.getArgument(0));
+                    return null;
+                })
+                .when(pagedFile)
+                .flushWithoutForce(any(FileFlushEvent.class), any(IOController.class));
+        return pagedFile;
+    }
+}
@@ -214,6 +214,11 @@ class CheckPointSchedulerTest {
                 return LatestCheckpointInfo.UNKNOWN_CHECKPOINT_INFO;
             }
 
+            @Override
+            public long latestCheckPointTimeMillis() {
+                return 0;
+            }
+
             @Override
             public void shutdown() {}
         };
@@ -361,6 +366,11 @@ class CheckPointSchedulerTest {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public long latestCheckPointTimeMillis() {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public void shutdown() {}
     }
@@ -416,6 +426,11 @@ class CheckPointSchedulerTest {
             return LatestCheckpointInfo.UNKNOWN_CHECKPOINT_INFO;
         }
 
+        @Override
+        public long latestCheckPointTimeMillis() {
+            return 0;
+        }
+
         @Override
         public void shutdown() {}
 
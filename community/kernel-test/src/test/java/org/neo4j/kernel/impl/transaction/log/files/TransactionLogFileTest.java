@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.preallocate_spare_log_file;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogFormat.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogFormat.CURRENT_LOG_FORMAT_VERSION;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
@@ -64,6 +66,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.nativeimpl.ErrorTranslator;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
@@ -146,6 +149,59 @@ class TransactionLogFileTest {
                 .isGreaterThan(sizeAfter);
     }
 
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void rotateIntoPreparedSpareLogFile() throws IOException {
+        LogFiles logFiles = buildLogFiles(Config.defaults(preallocate_spare_log_file, true));
+        life.add(logFiles);
+        life.start();
+
+        TransactionLogFile logFile = (TransactionLogFile) logFiles.getLogFile();
+        SpareLogFile spareLogFile = logFile.getSpareLogFile();
+        Path spareFile = new TransactionLogFilesHelper(fileSystem, logFiles.logFilesDirectory())
+                .getPreallocatedLogFile();
+        logFile.prepareNextRotation();
+        assertTrue(spareLogFile.isReady());
+        assertEquals(rotationThreshold, fileSystem.getFileSize(spareFile));
+
+        Path rotatedFile = logFile.rotate();
+
+        assertFalse(fileSystem.fileExists(spareFile));
+        assertEquals(1, spareLogFile.used());
+        assertEquals(0, spareLogFile.missed());
+        LogHeader header = readLogHeader(fileSystem, rotatedFile, INSTANCE);
+        assertEquals(logVersionRepository.getCurrentLogVersion(), header.getLogVersion());
+        assertThat(logFiles.getLogFile().getMatchedFiles()).doesNotContain(spareFile);
+    }
+
+    @Test
+    void deletePrunedLogFileInsteadOfReusingItAsSpare() throws IOException {
+        LogFiles logFiles = buildLogFiles(Config.defaults(preallocate_spare_log_file, true));
+        life.add(logFiles);
+        life.start();
+
+        TransactionLogFile logFile = (TransactionLogFile) logFiles.getLogFile();
+        SpareLogFile spareLogFile = logFile.getSpareLogFile();
+        Path prunedFile = logFile.getLogFileForVersion(logFile.getCurrentLogVersion());
+        logFile.rotate();
+        assertEquals(1, spareLogFile.missed());
+
+        logFile.delete(logFile.getLowestLogVersion());
+
+        assertFalse(fileSystem.fileExists(prunedFile));
+        assertFalse(spareLogFile.isReady());
+    }
+
+    @Test
+    void spareLogFileIsNeverTakenForALogFile() throws IOException {
+        Path spareFile = new TransactionLogFilesHelper(fileSystem, databaseLayout.getTransactionLogsDirectory())
+                .getPreallocatedLogFile();
+
+        assertFalse(TransactionLogFiles.DEFAULT_FILENAME_FILTER.accept(spareFile));
+        assertFalse(TransactionLogFilesHelper.DEFAULT_FILENAME_PREDICATE.test(
+                spareFile.getFileName().toString()));
+    }
+
     @Test
     void skipLogFileWithoutHeader() throws IOException {
         LogFiles logFiles = buildLogFiles();
@@ -778,8 +834,13 @@ class TransactionLogFileTest {
     }
 
     private LogFiles buildLogFiles() throws IOException {
+        return buildLogFiles(Config.defaults());
+    }
+
+    private LogFiles buildLogFiles(Config config) throws IOException {
         return LogFilesBuilder.builder(
                         databaseLayout, wrappingFileSystem, LatestVersions.LATEST_KERNEL_VERSION_PROVIDER)
+                .withConfig(config)
                 .withRotationThreshold(rotationThreshold)
                 .withTransactionIdStore(transactionIdStore)
                 .withLogVersionRepository(logVersionRepository)
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.common.Subject.ANONYMOUS;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_offset_index;
+import static org.neo4j.kernel.impl.api.TransactionToApply.NOT_SPECIFIED_CHUNK_ID;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+import static org.neo4j.storageengine.api.TransactionIdStore.UNKNOWN_CONSENSUS_INDEX;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.CompleteTransaction;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.storageengine.api.CommandBatch;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.LatestVersions;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+@Neo4jLayoutExtension
+@ExtendWith(LifeExtension.class)
+class TransactionOffsetIndexTest {
+    @Inject
+    private FileSystemAbstraction fs;
+
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    @Inject
+    private LifeSupport life;
+
+    private final List<LogPosition> startPositions = new ArrayList<>();
+    private long txId = BASE_TX_ID;
+    private int previousChecksum = BASE_TX_CHECKSUM;
+    private LogFile logFile;
+    private TransactionLogFilesHelper fileHelper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LogFiles logFiles = LogFilesBuilder.builder(databaseLayout, fs, LatestVersions.LATEST_KERNEL_VERSION_PROVIDER)
+                .withConfig(Config.defaults(transaction_offset_index, true))
+                .withLogVersionRepository(new SimpleLogVersionRepository())
+                .withTransactionIdStore(new SimpleTransactionIdStore())
+                .withCommandReaderFactory(TestCommandReaderFactory.INSTANCE)
+                .withStoreId(new StoreId(1, 2, "engine-1", "format-1", 3, 4))
+                .build();
+        life.add(logFiles);
+        life.start();
+        logFile = logFiles.getLogFile();
+        fileHelper = new TransactionLogFilesHelper(fs, logFiles.logFilesDirectory());
+    }
+
+    @Test
+    void shouldFindStartPositionOfEveryTransactionInCompletedLogFile() throws Exception {
+        writeTransactions(10);
+        logFile.rotate();
+        writeTransactions(3);
+        awaitIndexBuilds();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID + 1 + i))
+                    .contains(startPositions.get(i));
+        }
+        assertTrue(fs.fileExists(fileHelper.getOffsetIndexFileForVersion(0)));
+    }
+
+    @Test
+    void shouldNotFindTransactionsOutsideOfLogFile() throws Exception {
+        writeTransactions(5);
+        logFile.rotate();
+        writeTransactions(3);
+        awaitIndexBuilds();
+
+        assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID)).isEmpty();
+        assertThat(logFile.findTransactionStartPosition(0, txId)).isEmpty();
+    }
+
+    @Test
+    void shouldNotIndexLogFileThatIsStillAppendedTo() throws Exception {
+        writeTransactions(5);
+        awaitIndexBuilds();
+
+        assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID + 1)).isEmpty();
+        assertFalse(fs.fileExists(fileHelper.getOffsetIndexFileForVersion(0)));
+    }
+
+    @Test
+    void shouldIgnoreIndexThatDoesNotMatchLogFileAndRebuildItOnStart() throws Exception {
+        writeTransactions(5);
+        logFile.rotate();
+        awaitIndexBuilds();
+        Path indexFile = fileHelper.getOffsetIndexFileForVersion(0);
+        try (StoreChannel channel = fs.write(indexFile)) {
+            channel.writeAll(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+        }
+
+        assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID + 3)).isEmpty();
+
+        TransactionOffsetIndex offsetIndex = ((TransactionLogFile) logFile).getOffsetIndex();
+        offsetIndex.stop();
+        offsetIndex.start(1);
+        awaitIndexBuilds();
+
+        assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID + 3)).contains(startPositions.get(2));
+    }
+
+    @Test
+    void shouldNotNameIndexLikeLogFile() throws Exception {
+        writeTransactions(5);
+        logFile.rotate();
+        awaitIndexBuilds();
+
+        Path indexFile = fileHelper.getOffsetIndexFileForVersion(0);
+        assertTrue(fs.fileExists(indexFile));
+        assertFalse(fileHelper.isLogFile(indexFile));
+        assertFalse(TransactionLogFilesHelper.DEFAULT_FILENAME_PREDICATE.test(
+                indexFile.getFileName().toString()));
+        assertThat(fileHelper.getMatchedFiles()).doesNotContain(indexFile);
+    }
+
+    @Test
+    void shouldDeleteIndexTogetherWithLogFile() throws Exception {
+        writeTransactions(5);
+        logFile.rotate();
+        awaitIndexBuilds();
+        assertThat(logFile.findTransactionStartPosition(0, BASE_TX_ID + 1)).isPresent();
+
+        logFile.delete(0L);
+
+        assertFalse(fs.fileExists(fileHelper.getOffsetIndexFileForVersion(0)));
+    }
+
+    private void awaitIndexBuilds() throws Exception {
+        ((TransactionLogFile) logFile).getOffsetIndex().awaitBuilds();
+    }
+
+    private void writeTransactions(int count) throws IOException {
+        TransactionLogWriter writer = logFile.getTransactionLogWriter();
+        for (int i = 0; i < count; i++) {
+            startPositions.add(writer.getCurrentPosition());
+            previousChecksum =
+                    writer.append(tx(), ++txId, NOT_SPECIFIED_CHUNK_ID, previousChecksum, LogPosition.UNSPECIFIED);
+        }
+        writer.getChannel().prepareForFlush().flush();
+    }
+
+    private static CommandBatch tx() {
+        List<StorageCommand> commands = List.of(new TestCommand(), new TestCommand());
+        return new CompleteTransaction(
+                commands, UNKNOWN_CONSENSUS_INDEX, 0, 0, 0, 0, LatestVersions.LATEST_KERNEL_VERSION, ANONYMOUS);
+    }
+}
@@ -53,6 +53,7 @@ import org.neo4j.kernel.impl.transaction.log.CompleteTransaction;
 import org.neo4j.kernel.impl.transaction.log.FlushableLogPositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.TestLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -193,6 +194,58 @@ class ReversedMultiFileCommandBatchCursorTest {
         assertThat(readTransactions).isEmpty();
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4})
+    void shouldReadMultipleVersionsInOrderWhenSketchingInParallel(int parallelism) throws Exception {
+        // given
+        writeTransactions(3);
+        for (int i = 0; i < 8; i++) {
+            logFile.rotate();
+            writeTransactions(random.intBetween(0, 5));
+        }
+
+        // when
+        CommittedCommandBatch[] readTransactions;
+        try (CommandBatchCursor cursor = fromLogFile(
+                logFile,
+                new LogPosition(0, CURRENT_FORMAT_LOG_HEADER_SIZE),
+                TestLogEntryReader::logEntryReader,
+                false,
+                monitor,
+                true,
+                parallelism)) {
+            readTransactions = exhaust(cursor);
+        }
+
+        // then
+        assertRecovery(true, readTransactions, txId, BASE_TX_ID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void shouldCloseWithoutReadingAllVersionsWhenSketchingInParallel(int parallelism) throws Exception {
+        // given
+        writeTransactions(3);
+        for (int i = 0; i < 8; i++) {
+            logFile.rotate();
+            writeTransactions(2);
+        }
+
+        // when
+        try (CommandBatchCursor cursor = fromLogFile(
+                logFile,
+                new LogPosition(0, CURRENT_FORMAT_LOG_HEADER_SIZE),
+                TestLogEntryReader::logEntryReader,
+                false,
+                monitor,
+                true,
+                parallelism)) {
+            // then
+            assertThat(cursor.next()).isTrue();
+            assertEquals(txId, cursor.get().txId());
+        }
+    }
+
     private CommittedCommandBatch[] readTransactions(LogPosition position, boolean presketch) throws IOException {
         try (CommandBatchCursor cursor = txCursor(position, presketch)) {
             return exhaust(cursor);
@@ -251,6 +251,12 @@ public class DatabasePageCache implements PageCache {
             flushTicket.use();
         }
 
+        @Override
+        public void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) throws IOException {
+            // Nothing was forced, so the flush ticket must stay unused for the next flush guard to catch this file.
+            delegate.flushWithoutForce(flushEvent, ioController);
+        }
+
         @Override
         public long getLastPageId() throws IOException {
             return delegate.getLastPageId();
@@ -127,6 +127,7 @@ import org.neo4j.kernel.impl.factory.FacadeKernelTransactionFactory;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
 import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager;
 import org.neo4j.kernel.impl.pagecache.IOControllerService;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
 import org.neo4j.kernel.impl.pagecache.VersionStorageFactory;
@@ -143,6 +144,7 @@ import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionCommitmentFactory;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundCheckpointFlusher;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
@@ -150,6 +152,7 @@ import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckpointerLifecycle;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.log.files.SpareLogFilePreparer;
 import org.neo4j.kernel.impl.transaction.log.files.checkpoint.DetachedLogTailScanner;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruneStrategyFactory;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
@@ -324,7 +327,7 @@ public class Database extends AbstractDatabase {
                 : NO_LOCKS_LOCK_MANAGER;
         this.databaseLayout = storageEngineFactory.formatSpecificDatabaseLayout(databaseLayout);
         new DatabaseDirectoriesCreator(fs, databaseLayout).createDirectories();
-        ioController = ioControllerService.createIOController(databaseConfig, clock);
+        ioController = ioControllerService.createIOController(databaseConfig, clock, databaseMonitors);
         transactionIdSequence = new TransactionIdSequence();
         var versionStorage = versionStorageFactory.createVersionStorage(
                 globalPageCache,
@@ -338,6 +341,10 @@ public class Database extends AbstractDatabase {
         databasePageCache = new DatabasePageCache(globalPageCache, ioController, versionStorage);
 
         life.add(onShutdown(() -> databaseLockManager.close()));
+        if (databaseLockManager instanceof ForsetiLockManager forsetiLockManager) {
+            life.add(forsetiLockManager.deadlockDetection(
+                    scheduler, tracers.getLockTracer(), namedDatabaseId.name()));
+        }
         life.add(new LockerLifecycleAdapter(fileLockerService.createDatabaseLocker(fs, databaseLayout)));
         life.add(databaseConfig);
 
@@ -465,6 +472,7 @@ public class Database extends AbstractDatabase {
                 internalLogProvider,
                 userLogProvider,
                 recoveryCleanupWorkCollector,
+                scheduler,
                 tailMetadata,
                 metadataCache,
                 otherDatabaseMemoryTracker,
@@ -919,6 +927,23 @@ public class Database extends AbstractDatabase {
         life.add(checkPointer);
         life.add(checkPointScheduler);
 
+        if (config.get(GraphDatabaseInternalSettings.checkpoint_background_flush_enabled)) {
+            life.add(new BackgroundCheckpointFlusher(
+                    databasePageCache,
+                    transactionIdStore,
+                    checkPointer,
+                    tracers.getPageCacheTracer(),
+                    scheduler,
+                    clock,
+                    config,
+                    logProvider,
+                    namedDatabaseId.name(),
+                    ioController));
+        }
+        if (config.get(GraphDatabaseInternalSettings.preallocate_spare_log_file)) {
+            life.add(new SpareLogFilePreparer(logFiles.getLogFile(), scheduler, logProvider, namedDatabaseId.name()));
+        }
+
         TransactionLogServiceImpl transactionLogService = new TransactionLogServiceImpl(
                 transactionIdStore,
                 logFiles,
@@ -126,6 +126,7 @@ import org.neo4j.kernel.impl.factory.AccessCapability;
 import org.neo4j.kernel.impl.factory.AccessCapabilityFactory;
 import org.neo4j.kernel.impl.locking.LockManager;
 import org.neo4j.kernel.impl.newapi.AllStoreHolder;
+import org.neo4j.kernel.impl.newapi.CursorPoolStatistics;
 import org.neo4j.kernel.impl.newapi.DefaultPooledCursors;
 import org.neo4j.kernel.impl.newapi.IndexTxStateUpdater;
 import org.neo4j.kernel.impl.newapi.KernelToken;
@@ -204,6 +205,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final TransactionMemoryPool transactionMemoryPool;
     private CursorContext cursorContext;
     private final CursorContextFactory contextFactory;
+    private final TransactionCursorContext reusableCursorContext;
+    private final DefaultPooledCursors pooledCursors;
     private final DatabaseReadOnlyChecker readOnlyDatabaseChecker;
     private final TransactionIdGenerator transactionIdGenerator;
     private final ApplyEnrichmentStrategy enrichmentStrategy;
@@ -311,7 +314,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             DatabaseHealth databaseHealth,
             LogProvider logProvider,
             TransactionValidatorFactory transactionValidatorFactory,
-            boolean multiVersioned) {
+            boolean multiVersioned,
+            CursorPoolStatistics cursorPoolStatistics) {
         this.closed = true;
         this.config = new LocalConfig(externalConfig);
         this.accessCapabilityFactory = accessCapabilityFactory;
@@ -350,8 +354,15 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.transactionalCursors = storageEngine.createStorageCursors(CursorContext.NULL_CONTEXT);
         this.lockClient = ParallelAccessCheck.maybeWrapLockClient(lockManager.newClient());
         StorageLocks storageLocks = storageEngine.createStorageLocks(lockClient);
-        DefaultPooledCursors cursors = new DefaultPooledCursors(
-                storageReader, transactionalCursors, config, storageEngine.indexingBehaviour());
+        boolean reuseCursors = config.get(GraphDatabaseInternalSettings.reuse_cursors_across_transactions);
+        this.reusableCursorContext = reuseCursors ? new TransactionCursorContext(contextFactory) : null;
+        this.pooledCursors = new DefaultPooledCursors(
+                storageReader,
+                transactionalCursors,
+                config,
+                storageEngine.indexingBehaviour(),
+                cursorPoolStatistics,
+                reuseCursors);
         this.securityAuthorizationHandler = new SecurityAuthorizationHandler(securityLog);
         var kernelToken = new KernelToken(storageReader, commandCreationContext, this, tokenHolders);
         this.allStoreHolder = new AllStoreHolder.ForTransactionScope(
@@ -359,7 +370,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                 kernelToken,
                 this,
                 storageLocks,
-                cursors,
+                pooledCursors,
                 schemaState,
                 indexingService,
                 indexStatisticsStore,
@@ -390,7 +401,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                 storageLocks,
                 this,
                 kernelToken,
-                cursors,
+                pooledCursors,
                 constraintIndexCreator,
                 constraintSemantics,
                 indexingService,
@@ -421,8 +432,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         assert transactionMemoryPool.usedHeap() == 0;
         assert transactionMemoryPool.usedNative() == 0;
         assert !failedCleanup : "This transaction should not be reused since it did not close properly";
-        this.cursorContext = contextFactory.create(TRANSACTION_TAG);
+        CursorContext transactionCursorContext = contextFactory.create(TRANSACTION_TAG);
+        // Cursors kept from previous transactions are bound to the reusable context, so point it to this transaction
+        this.cursorContext = reusableCursorContext != null
+                ? reusableCursorContext.bind(transactionCursorContext)
+                : transactionCursorContext;
         this.transactionalCursors.reset(cursorContext);
+        this.pooledCursors.initialize(cursorContext, memoryTracker);
         this.accessCapability = accessCapabilityFactory.newAccessCapability(readOnlyDatabaseChecker);
         this.kernelTransactionMonitor = KernelTransaction.NO_MONITOR;
         this.type = type;
@@ -436,12 +452,12 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.startTimeNanos = clocks.systemClock().nanos();
         this.timeout = transactionTimeout;
         this.lastTransactionIdWhenStarted = lastCommittedTx;
-        this.transactionEvent = transactionTracer.beginTransaction(cursorContext);
+        this.transactionEvent = transactionTracer.beginTransaction(transactionCursorContext);
         this.overridableSecurityContext = new OverridableSecurityContext(frozenSecurityContext);
         this.transactionId = NOT_COMMITTED_TRANSACTION_ID;
         this.commitTime = NOT_COMMITTED_TRANSACTION_COMMIT_TIME;
         this.clientInfo = clientInfo;
-        this.statistics.init(currentThread().getId(), cursorContext);
+        this.statistics.init(currentThread().getId(), transactionCursorContext);
         this.commandCreationContext.initialize(
                 kernelVersionProvider,
                 cursorContext,
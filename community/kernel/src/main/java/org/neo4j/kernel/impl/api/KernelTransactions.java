@@ -67,6 +67,7 @@ import org.neo4j.kernel.impl.api.txid.TransactionIdGenerator;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
 import org.neo4j.kernel.impl.factory.AccessCapabilityFactory;
 import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.kernel.impl.newapi.CursorPoolStatistics;
 import org.neo4j.kernel.impl.query.TransactionExecutionMonitor;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
@@ -152,6 +153,7 @@ public class KernelTransactions extends LifecycleAdapter
     private final Set<KernelTransactionImplementation> allTransactions = ConcurrentHashMap.newKeySet();
 
     private final MonitoredTransactionPool txPool;
+    private final CursorPoolStatistics cursorPoolStatistics = new CursorPoolStatistics();
     private final ConstraintSemantics constraintSemantics;
     private final AtomicInteger activeTransactionCounter = new AtomicInteger();
     private final TokenHoldersIdLookup tokenHoldersIdLookup;
@@ -252,6 +254,7 @@ public class KernelTransactions extends LifecycleAdapter
                         allTransactions, new KernelTransactionImplementationFactory(allTransactions, tracers)),
                 activeTransactionCounter,
                 config);
+        this.databaseDependencies.satisfyDependency(cursorPoolStatistics);
         this.enrichmentStrategy = this.databaseDependencies.resolveDependency(ApplyEnrichmentStrategy.class);
         this.securityLog = this.databaseDependencies.resolveDependency(AbstractSecurityLog.class);
         doBlockNewTransactions();
@@ -558,7 +561,8 @@ public class KernelTransactions extends LifecycleAdapter
                     databaseHealth,
                     internalLogProvider,
                     transactionValidatorFactory,
-                    multiVersioned);
+                    multiVersioned,
+                    cursorPoolStatistics);
             this.transactions.add(tx);
             return tx;
         }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.context.EmptyVersionContext;
+import org.neo4j.io.pagecache.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.cursor.CursorStatisticSnapshot;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+/**
+ * A {@link CursorContext} that stays the same object for all transactions run by a pooled
+ * {@link KernelTransactionImplementation}, while forwarding to a new context for every transaction. Cursors created
+ * with it can therefore be kept from one transaction to the next, and still have their page accesses traced as part
+ * of the transaction that currently uses them.
+ */
+final class TransactionCursorContext extends CursorContext {
+    private volatile CursorContext current = NULL_CONTEXT;
+
+    TransactionCursorContext(CursorContextFactory contextFactory) {
+        super(contextFactory, PageCursorTracer.NULL, EmptyVersionContext.EMPTY);
+    }
+
+    TransactionCursorContext bind(CursorContext transactionContext) {
+        this.current = transactionContext;
+        return this;
+    }
+
+    @Override
+    public PageCursorTracer getCursorTracer() {
+        return current.getCursorTracer();
+    }
+
+    @Override
+    public VersionContext getVersionContext() {
+        return current.getVersionContext();
+    }
+
+    @Override
+    public void close() {
+        try {
+            current.close();
+        } finally {
+            current = NULL_CONTEXT;
+        }
+    }
+
+    @Override
+    public void merge(CursorStatisticSnapshot statisticSnapshot) {
+        current.merge(statisticSnapshot);
+    }
+
+    @Override
+    public CursorContext createRelatedContext(String tag) {
+        return current.createRelatedContext(tag);
+    }
+}
@@ -54,6 +54,7 @@ import static org.neo4j.values.storable.Values.timeArray;
 
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -68,6 +69,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.neo4j.graphdb.Resource;
 import org.neo4j.internal.helpers.ArrayUtil;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.util.collection.Memory;
 import org.neo4j.kernel.impl.util.collection.MemoryAllocator;
 import org.neo4j.memory.MemoryTracker;
@@ -114,8 +116,18 @@ import org.neo4j.values.storable.ValueWriter;
 import org.neo4j.values.storable.Values;
 import org.neo4j.values.utils.TemporalUtil;
 
+/**
+ * {@link ValuesContainer} that appends serialized values to chunks of memory, and never reuses the space of removed
+ * values.
+ * <p>
+ * A container can be created with a limit on how much memory its chunks may use, in which case the oldest chunks are
+ * spilled to a temporary file when the limit is exceeded. Values in spilled chunks can still be read and removed, at
+ * the cost of loading their chunk back from that file. This keeps the memory used by values of very large transactions
+ * bounded, since those values are mostly written once and then only read again when the transaction commits.
+ */
 public class AppendOnlyValuesContainer implements ValuesContainer {
     private static final int CHUNK_SIZE = (int) ByteUnit.kibiBytes(512);
+    static final int SPILLING_CHUNK_SIZE = (int) ByteUnit.kibiBytes(64);
     private static final int REMOVED = 0xFF;
     private static final ValueType[] VALUE_TYPES = ValueType.values();
 
@@ -125,6 +137,9 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
     private final Writer writer;
     private final MemoryAllocator allocator;
     private final MemoryTracker memoryTracker;
+    private final SpilledChunks spilledChunks;
+    private final long maxChunkMemory;
+    private long chunkMemory;
     private ByteBuffer currentChunk;
     private boolean closed;
 
@@ -132,11 +147,45 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
         this(CHUNK_SIZE, allocator, memoryTracker);
     }
 
+    /**
+     * Create a container that spills its oldest chunks to a file in the given directory once its chunks use more than
+     * the given amount of memory.
+     *
+     * @param maxChunkMemory amount of memory chunks may use before they get spilled, in bytes.
+     * @param fs file system to create the spill file on.
+     * @param spillDirectory directory to create the spill file in, created if it does not exist.
+     */
+    public AppendOnlyValuesContainer(
+            MemoryAllocator allocator,
+            MemoryTracker memoryTracker,
+            long maxChunkMemory,
+            FileSystemAbstraction fs,
+            Path spillDirectory) {
+        this(
+                SPILLING_CHUNK_SIZE,
+                allocator,
+                memoryTracker,
+                maxChunkMemory,
+                new SpilledChunks(fs, spillDirectory, memoryTracker));
+    }
+
     @VisibleForTesting
     AppendOnlyValuesContainer(int chunkSize, MemoryAllocator allocator, MemoryTracker memoryTracker) {
+        this(chunkSize, allocator, memoryTracker, Long.MAX_VALUE, null);
+    }
+
+    @VisibleForTesting
+    AppendOnlyValuesContainer(
+            int chunkSize,
+            MemoryAllocator allocator,
+            MemoryTracker memoryTracker,
+            long maxChunkMemory,
+            SpilledChunks spilledChunks) {
         this.chunkSize = chunkSize;
         this.allocator = allocator;
         this.memoryTracker = memoryTracker;
+        this.maxChunkMemory = maxChunkMemory;
+        this.spilledChunks = spilledChunks;
         this.writer = new Writer();
     }
 
@@ -166,7 +215,7 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
                 chunkIdx,
                 chunks.size(),
                 ref);
-        final ByteBuffer chunk = chunks.get(chunkIdx);
+        final ByteBuffer chunk = chunk(chunkIdx);
         checkArgument(offset >= 0 && offset < chunk.position(), "invalid chunk offset (%d), ref: 0x%X", offset, ref);
         final int typeId = chunk.get(offset) & 0xFF;
         checkArgument(typeId != REMOVED, "element is already removed, ref: 0x%X", ref);
@@ -183,8 +232,11 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
         final Value removed = get(ref);
         final int chunkIdx = (int) (ref >>> 32);
         final int chunkOffset = (int) ref;
-        final ByteBuffer chunk = chunks.get(chunkIdx);
-        chunk.put(chunkOffset, (byte) REMOVED);
+        if (isSpilled(chunkIdx)) {
+            spilledChunks.put(chunkIdx, chunkOffset, (byte) REMOVED);
+        } else {
+            chunks.get(chunkIdx).put(chunkOffset, (byte) REMOVED);
+        }
         return removed;
     }
 
@@ -192,11 +244,48 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
     public void close() {
         assertNotClosed();
         closed = true;
-        allocated.forEach(m -> m.free(memoryTracker));
+        for (Memory memory : allocated) {
+            if (memory != null) {
+                memory.free(memoryTracker);
+            }
+        }
         allocated.clear();
         chunks.clear();
         writer.close();
         currentChunk = null;
+        chunkMemory = 0;
+        if (spilledChunks != null) {
+            spilledChunks.close();
+        }
+    }
+
+    /**
+     * @return number of bytes of values that have been spilled to disk.
+     */
+    public long spilledBytes() {
+        return spilledChunks == null ? 0 : spilledChunks.spilledBytes();
+    }
+
+    private ByteBuffer chunk(int chunkIdx) {
+        return isSpilled(chunkIdx) ? spilledChunks.get(chunkIdx) : chunks.get(chunkIdx);
+    }
+
+    private boolean isSpilled(int chunkIdx) {
+        return spilledChunks != null && chunkIdx < spilledChunks.count();
+    }
+
+    /**
+     * Spill the oldest chunks still in memory until we are within our memory limit again, but never the current chunk.
+     */
+    private void maybeSpill() {
+        while (chunkMemory > maxChunkMemory && spilledChunks.count() < chunks.size() - 1) {
+            int chunkIdx = spilledChunks.count();
+            spilledChunks.spill(chunks.get(chunkIdx));
+            Memory memory = allocated.set(chunkIdx, null);
+            chunkMemory -= memory.size();
+            memory.free(memoryTracker);
+            chunks.set(chunkIdx, null);
+        }
     }
 
     private void assertNotClosed() {
@@ -208,6 +297,10 @@ public class AppendOnlyValuesContainer implements ValuesContainer {
         final ByteBuffer chunk = memory.asByteBuffer();
         allocated.add(memory);
         chunks.add(chunk);
+        chunkMemory += memory.size();
+        if (spilledChunks != null) {
+            maybeSpill();
+        }
         return chunk;
     }
 
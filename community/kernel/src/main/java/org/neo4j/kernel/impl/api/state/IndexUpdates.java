@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import static org.neo4j.collection.trackable.HeapTrackingCollections.newMap;
+import static org.neo4j.memory.HeapEstimator.OBJECT_HEADER_BYTES;
+import static org.neo4j.memory.HeapEstimator.OBJECT_REFERENCE_BYTES;
+import static org.neo4j.memory.HeapEstimator.alignObjectSize;
+import static org.neo4j.memory.HeapEstimator.shallowSizeOfInstance;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.eclipse.collections.api.map.MutableMap;
+import org.neo4j.collection.diffset.MutableLongDiffSets;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.values.storable.ValueTuple;
+
+/**
+ * The changes a transaction has made to a single index, keyed by the indexed values.
+ * <p>
+ * Exact seeks are served from a hash map. Range, prefix and other ordered seeks need the values in order, so the first
+ * ordered seek builds a sorted view over the same diff sets, which from then on is kept up to date alongside the hash
+ * map. That way exact seeks stay constant time and ordered seeks stay logarithmic, however many values the transaction
+ * has changed, and no later update has to re-sort what is already there.
+ */
+class IndexUpdates {
+    private static final long SHALLOW_SIZE = shallowSizeOfInstance(IndexUpdates.class);
+    private static final long TREE_MAP_SHALLOW_SIZE = shallowSizeOfInstance(TreeMap.class);
+    // key, value, left, right, parent and colour
+    private static final long TREE_MAP_ENTRY_SIZE =
+            alignObjectSize(OBJECT_HEADER_BYTES + 5L * OBJECT_REFERENCE_BYTES + Byte.BYTES);
+
+    private final MemoryTracker memoryTracker;
+    private final MutableMap<ValueTuple, MutableLongDiffSets> byValue;
+    private TreeMap<ValueTuple, MutableLongDiffSets> sorted;
+
+    static IndexUpdates createIndexUpdates(MemoryTracker memoryTracker) {
+        memoryTracker.allocateHeap(SHALLOW_SIZE);
+        return new IndexUpdates(memoryTracker);
+    }
+
+    private IndexUpdates(MemoryTracker memoryTracker) {
+        this.memoryTracker = memoryTracker;
+        this.byValue = newMap(memoryTracker);
+    }
+
+    MutableLongDiffSets getOrCreate(ValueTuple values, Supplier<MutableLongDiffSets> diffSetsFactory) {
+        MutableLongDiffSets diffSets = byValue.get(values);
+        if (diffSets == null) {
+            diffSets = diffSetsFactory.get();
+            byValue.put(values, diffSets);
+            if (sorted != null) {
+                memoryTracker.allocateHeap(TREE_MAP_ENTRY_SIZE);
+                sorted.put(values, diffSets);
+            }
+        }
+        return diffSets;
+    }
+
+    Map<ValueTuple, MutableLongDiffSets> byValue() {
+        return byValue;
+    }
+
+    NavigableMap<ValueTuple, MutableLongDiffSets> sorted() {
+        if (sorted == null) {
+            memoryTracker.allocateHeap(TREE_MAP_SHALLOW_SIZE + byValue.size() * TREE_MAP_ENTRY_SIZE);
+            sorted = new TreeMap<>(ValueTuple.COMPARATOR);
+            sorted.putAll(byValue);
+        }
+        return sorted;
+    }
+}
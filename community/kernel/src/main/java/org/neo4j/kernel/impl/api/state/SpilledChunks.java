@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import static org.neo4j.util.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.neo4j.graphdb.Resource;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * Chunks of an {@link AppendOnlyValuesContainer} that have been written out to a file in a spill directory to free up
+ * the memory they used. Chunks are always spilled oldest first, so the spilled chunks are the first {@link #count()}
+ * chunks of the container, stored in the file in the same order.
+ * <p>
+ * Reading a spilled chunk loads it back into a small cache of recently read chunks, since values that were added close
+ * to each other, like the properties of the same entity, tend to be read close to each other as well.
+ * <p>
+ * The file is created when the first chunk is spilled, and deleted on {@link #close()}.
+ */
+final class SpilledChunks implements Resource {
+    static final int CACHED_CHUNKS = 8;
+
+    private final FileSystemAbstraction fs;
+    private final Path directory;
+    private final MemoryTracker memoryTracker;
+    private final MutableLongList positions = new LongArrayList();
+    private final MutableIntList lengths = new IntArrayList();
+    private final Map<Integer, ByteBuffer> cache = new LinkedHashMap<>(CACHED_CHUNKS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+            if (size() > CACHED_CHUNKS) {
+                memoryTracker.releaseHeap(eldest.getValue().capacity());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private Path file;
+    private StoreChannel channel;
+    private long fileSize;
+    private ByteOrder order;
+
+    SpilledChunks(FileSystemAbstraction fs, Path directory, MemoryTracker memoryTracker) {
+        this.fs = fs;
+        this.directory = directory;
+        this.memoryTracker = memoryTracker;
+    }
+
+    /**
+     * Write the used part of a chunk to the file, as the next spilled chunk.
+     *
+     * @param chunk chunk whose bytes up to its position are written.
+     */
+    void spill(ByteBuffer chunk) {
+        try {
+            if (channel == null) {
+                fs.mkdirs(directory);
+                file = fs.createTempFile(directory, "neo4j-tx-state-", ".spill");
+                channel = fs.write(file);
+                order = chunk.order();
+            }
+            ByteBuffer data = chunk.duplicate().flip();
+            int length = data.remaining();
+            channel.writeAll(data, fileSize);
+            positions.add(fileSize);
+            lengths.add(length);
+            fileSize += length;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spill transaction state to " + file, e);
+        }
+    }
+
+    /**
+     * @return number of chunks that have been spilled.
+     */
+    int count() {
+        return positions.size();
+    }
+
+    /**
+     * @return size of the file holding the spilled chunks, in bytes.
+     */
+    long spilledBytes() {
+        return fileSize;
+    }
+
+    /**
+     * Get a spilled chunk, with its position set to its length, like the chunk it was spilled from.
+     */
+    ByteBuffer get(int chunkIdx) {
+        ByteBuffer chunk = cache.get(chunkIdx);
+        if (chunk == null) {
+            chunk = load(chunkIdx);
+            cache.put(chunkIdx, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Overwrite a single byte of a spilled chunk, both in the file and in the cache.
+     */
+    void put(int chunkIdx, int offset, byte value) {
+        get(chunkIdx).put(offset, value);
+        try {
+            channel.writeAll(ByteBuffer.wrap(new byte[] {value}), positions.get(chunkIdx) + offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to update spilled transaction state in " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        cache.values().forEach(chunk -> memoryTracker.releaseHeap(chunk.capacity()));
+        cache.clear();
+        positions.clear();
+        lengths.clear();
+        fileSize = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+                fs.deleteFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to delete spilled transaction state " + file, e);
+            } finally {
+                channel = null;
+                file = null;
+            }
+        }
+    }
+
+    private ByteBuffer load(int chunkIdx) {
+        checkState(chunkIdx < positions.size(), "Chunk %d has not been spilled", chunkIdx);
+        int length = lengths.get(chunkIdx);
+        memoryTracker.allocateHeap(length);
+        ByteBuffer chunk = ByteBuffer.allocate(length).order(order);
+        try {
+            long position = positions.get(chunkIdx);
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("Unexpected end of file after " + chunk.position() + " of " + length
+                            + " bytes of chunk " + chunkIdx);
+                }
+            }
+        } catch (IOException e) {
+            memoryTracker.releaseHeap(length);
+            throw new UncheckedIOException("Unable to read spilled transaction state from " + file, e);
+        }
+        return chunk;
+    }
+}
@@ -24,6 +24,7 @@ import static org.neo4j.collection.diffset.TrackableDiffSets.newMutableLongDiffS
 import static org.neo4j.collection.diffset.TrackableDiffSets.newRemovalsCountingDiffSets;
 import static org.neo4j.collection.trackable.HeapTrackingCollections.newLongObjectMap;
 import static org.neo4j.collection.trackable.HeapTrackingCollections.newMap;
+import static org.neo4j.kernel.impl.api.state.IndexUpdates.createIndexUpdates;
 import static org.neo4j.kernel.impl.api.state.TokenState.createTokenState;
 import static org.neo4j.storageengine.api.txstate.RelationshipModifications.idsAsBatch;
 import static org.neo4j.values.storable.Values.NO_VALUE;
@@ -34,7 +35,6 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
-import java.util.TreeMap;
 import org.eclipse.collections.api.map.MutableMap;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
@@ -112,7 +112,7 @@ public class TxState implements TransactionState {
 
     private MutableMap<IndexBackedConstraintDescriptor, IndexDescriptor> createdConstraintIndexesByConstraint;
 
-    private MutableMap<SchemaDescriptor, Map<ValueTuple, MutableLongDiffSets>> indexUpdates;
+    private MutableMap<SchemaDescriptor, IndexUpdates> indexUpdates;
 
     private final ScopedMemoryTracker stateMemoryTracker;
     private final TransactionStateBehaviour behaviour;
@@ -747,12 +747,12 @@ public class TxState implements TransactionState {
         if (indexUpdates == null) {
             return null;
         }
-        Map<ValueTuple, MutableLongDiffSets> updates = indexUpdates.get(schema);
+        IndexUpdates updates = indexUpdates.get(schema);
         if (updates == null) {
             return null;
         }
 
-        return new UnmodifiableMap<>(updates);
+        return new UnmodifiableMap<>(updates.byValue());
     }
 
     @Override
@@ -760,25 +760,17 @@ public class TxState implements TransactionState {
         if (indexUpdates == null) {
             return null;
         }
-        Map<ValueTuple, MutableLongDiffSets> updates = indexUpdates.get(descriptor);
+        IndexUpdates updates = indexUpdates.get(descriptor);
         if (updates == null) {
             return null;
         }
-        TreeMap<ValueTuple, MutableLongDiffSets> sortedUpdates;
-        if (updates instanceof TreeMap) {
-            sortedUpdates = (TreeMap<ValueTuple, MutableLongDiffSets>) updates;
-        } else {
-            sortedUpdates = new TreeMap<>(ValueTuple.COMPARATOR);
-            sortedUpdates.putAll(updates);
-            indexUpdates.put(descriptor, sortedUpdates);
-        }
-        return Collections.unmodifiableNavigableMap(sortedUpdates);
+        return Collections.unmodifiableNavigableMap(updates.sorted());
     }
 
     @Override
     public void indexDoUpdateEntry(
             SchemaDescriptor descriptor, long entityIdId, ValueTuple propertiesBefore, ValueTuple propertiesAfter) {
-        Map<ValueTuple, MutableLongDiffSets> updates = getOrCreateIndexUpdatesByDescriptor(descriptor);
+        IndexUpdates updates = getOrCreateIndexUpdatesByDescriptor(descriptor);
         if (propertiesBefore != null) {
             MutableLongDiffSets before = getOrCreateIndexUpdatesForSeek(updates, propertiesBefore);
             before.remove(entityIdId);
@@ -795,16 +787,15 @@ public class TxState implements TransactionState {
     }
 
     @VisibleForTesting
-    MutableLongDiffSets getOrCreateIndexUpdatesForSeek(
-            Map<ValueTuple, MutableLongDiffSets> updates, ValueTuple values) {
-        return updates.computeIfAbsent(values, value -> newMutableLongDiffSets(collectionsFactory, stateMemoryTracker));
+    MutableLongDiffSets getOrCreateIndexUpdatesForSeek(IndexUpdates updates, ValueTuple values) {
+        return updates.getOrCreate(values, () -> newMutableLongDiffSets(collectionsFactory, stateMemoryTracker));
     }
 
-    private Map<ValueTuple, MutableLongDiffSets> getOrCreateIndexUpdatesByDescriptor(SchemaDescriptor schema) {
+    private IndexUpdates getOrCreateIndexUpdatesByDescriptor(SchemaDescriptor schema) {
         if (indexUpdates == null) {
             indexUpdates = newMap(stateMemoryTracker);
         }
-        return indexUpdates.getIfAbsentPut(schema, () -> newMap(stateMemoryTracker));
+        return indexUpdates.getIfAbsentPut(schema, () -> createIndexUpdates(stateMemoryTracker));
     }
 
     private Map<IndexBackedConstraintDescriptor, IndexDescriptor> createdConstraintIndexesByConstraint() {
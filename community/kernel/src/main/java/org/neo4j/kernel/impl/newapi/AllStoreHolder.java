@@ -232,6 +232,16 @@ public abstract class AllStoreHolder extends Read {
         }
     }
 
+    @Override
+    public long countsForNodeWithPropertyWithoutTxState(int labelId, int propertyKeyId) {
+        if (getAccessMode().allowsTraverseAllNodesWithLabel(labelId)
+                && getAccessMode().allowsReadPropertyAllLabels(propertyKeyId)) {
+            return storageReader.countsForNodeWithProperty(labelId, propertyKeyId, cursorContext());
+        }
+        // Counting only what is visible would need a full scan, which defeats the purpose of these counts
+        return -1;
+    }
+
     private long countsForNodeInTxState(int labelId) {
         long count = 0;
         if (hasTxStateWithChanges()) {
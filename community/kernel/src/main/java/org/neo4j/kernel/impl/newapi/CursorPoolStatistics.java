@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often the cursor pools of the transactions of a database could hand out a pooled cursor, and how often
+ * they had to allocate a new one. There is one per database, available from its dependencies for metrics to report.
+ */
+public class CursorPoolStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    /**
+     * @return number of cursor allocations that were served from a pool.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of cursor allocations that had to create a new cursor.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of cursor allocations that were served from a pool, or {@code 0} if no cursor has been
+     * allocated yet.
+     */
+    public double hitRatio() {
+        long hits = hits();
+        long total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
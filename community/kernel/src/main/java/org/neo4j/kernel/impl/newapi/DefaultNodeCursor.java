@@ -38,6 +38,7 @@ import org.neo4j.internal.kernel.api.security.AccessMode;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.Degrees;
+import org.neo4j.storageengine.api.NodeBatch;
 import org.neo4j.storageengine.api.PropertySelection;
 import org.neo4j.storageengine.api.Reference;
 import org.neo4j.storageengine.api.RelationshipSelection;
@@ -355,6 +356,23 @@ class DefaultNodeCursor extends TraceableCursor<DefaultNodeCursor> implements No
         return false;
     }
 
+    @Override
+    public int nextBatch(NodeBatch batch) {
+        if (hasChanges() || !accessMode.allowsTraverseAllLabels()) {
+            // Nodes from the transaction state and nodes hidden by security are only handled node by node
+            return NodeCursor.super.nextBatch(batch);
+        }
+
+        int size = storeCursor.nextBatch(batch);
+        if (tracer != null) {
+            long[] ids = batch.ids();
+            for (int i = 0; i < size; i++) {
+                tracer.onNode(ids[i]);
+            }
+        }
+        return size;
+    }
+
     boolean allowsTraverse() {
         return accessMode.allowsTraverseAllLabels() || accessMode.allowsTraverseNode(storeCursor.labels());
     }
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.newapi;
 
 import java.util.ArrayList;
 import org.neo4j.configuration.Config;
+import org.neo4j.internal.kernel.api.AutoCloseablePlus;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
 import org.neo4j.internal.kernel.api.RelationshipTraversalCursor;
@@ -34,11 +35,24 @@ import org.neo4j.storageengine.api.cursor.StoreCursors;
 
 /**
  * Cursor factory which pools 1 cursor of each kind. Not thread-safe at all.
+ * <p>
+ * Pooled cursors are normally dropped when the transaction that uses this factory ends. Factories that are created to
+ * {@code reuseAcrossTransactions} instead keep their node, relationship and property cursors pooled, only letting go
+ * of the page cursors and buffers they hold, so that the next transaction can pick them up without allocating. Their
+ * storage cursors stay bound to the cursor context and memory tracker they were created with, so they are only kept
+ * if all of them were created with the context and tracker given to {@link #initialize(CursorContext, MemoryTracker)},
+ * which must be the same objects for every transaction. The cursor context is expected to be rebound to every new
+ * transaction.
  */
 public class DefaultPooledCursors extends DefaultCursors implements CursorFactory {
     private final StorageReader storageReader;
     private final StoreCursors storeCursors;
     private final StorageEngineIndexingBehaviour indexingBehaviour;
+    private final CursorPoolStatistics statistics;
+    private final boolean reuseAcrossTransactions;
+    private CursorContext transactionCursorContext;
+    private MemoryTracker transactionMemoryTracker;
+    private boolean boundToOtherContext;
     private DefaultNodeCursor nodeCursor;
     private FullAccessNodeCursor fullAccessNodeCursor;
     private DefaultRelationshipScanCursor relationshipScanCursor;
@@ -61,15 +75,45 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
             StoreCursors storeCursors,
             Config config,
             StorageEngineIndexingBehaviour indexingBehaviour) {
+        this(storageReader, storeCursors, config, indexingBehaviour, new CursorPoolStatistics(), false);
+    }
+
+    public DefaultPooledCursors(
+            StorageReader storageReader,
+            StoreCursors storeCursors,
+            Config config,
+            StorageEngineIndexingBehaviour indexingBehaviour,
+            CursorPoolStatistics statistics,
+            boolean reuseAcrossTransactions) {
         super(new ArrayList<>(), config);
         this.storageReader = storageReader;
         this.storeCursors = storeCursors;
         this.indexingBehaviour = indexingBehaviour;
+        this.statistics = statistics;
+        this.reuseAcrossTransactions = reuseAcrossTransactions;
+    }
+
+    /**
+     * Called when a transaction starts using this factory.
+     *
+     * @param cursorContext the cursor context of the transaction.
+     * @param memoryTracker the memory tracker of the transaction.
+     */
+    public void initialize(CursorContext cursorContext, MemoryTracker memoryTracker) {
+        this.transactionCursorContext = cursorContext;
+        this.transactionMemoryTracker = memoryTracker;
+    }
+
+    @Override
+    protected <T extends AutoCloseablePlus> T trace(T closeable) {
+        statistics.miss();
+        return super.trace(closeable);
     }
 
     @Override
     public DefaultNodeCursor allocateNodeCursor(CursorContext cursorContext) {
         if (nodeCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new DefaultNodeCursor(
                     this::accept,
                     storageReader.allocateNodeCursor(cursorContext, storeCursors),
@@ -95,6 +139,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public FullAccessNodeCursor allocateFullAccessNodeCursor(CursorContext cursorContext) {
         if (fullAccessNodeCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new FullAccessNodeCursor(
                     this::acceptFullAccess, storageReader.allocateNodeCursor(cursorContext, storeCursors)));
         }
@@ -117,6 +162,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public DefaultRelationshipScanCursor allocateRelationshipScanCursor(CursorContext cursorContext) {
         if (relationshipScanCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new DefaultRelationshipScanCursor(
                     this::accept,
                     storageReader.allocateRelationshipScanCursor(cursorContext, storeCursors),
@@ -145,6 +191,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public RelationshipScanCursor allocateFullAccessRelationshipScanCursor(CursorContext cursorContext) {
         if (fullAccessRelationshipScanCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new FullAccessRelationshipScanCursor(
                     this::acceptFullAccess, storageReader.allocateRelationshipScanCursor(cursorContext, storeCursors)));
         }
@@ -156,7 +203,8 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         }
     }
 
-    private static <C extends TraceableCursor<?>> C acquire(C cursor) {
+    private <C extends TraceableCursor<?>> C acquire(C cursor) {
+        statistics.hit();
         cursor.acquire();
         return cursor;
     }
@@ -172,6 +220,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public DefaultRelationshipTraversalCursor allocateRelationshipTraversalCursor(CursorContext cursorContext) {
         if (relationshipTraversalCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new DefaultRelationshipTraversalCursor(
                     this::accept,
                     storageReader.allocateRelationshipTraversalCursor(cursorContext, storeCursors),
@@ -200,6 +249,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public RelationshipTraversalCursor allocateFullAccessRelationshipTraversalCursor(CursorContext cursorContext) {
         if (fullAccessRelationshipTraversalCursor == null) {
+            checkReusable(cursorContext, null);
             return trace(new FullAccessRelationshipTraversalCursor(
                     this::acceptFullAccess,
                     storageReader.allocateRelationshipTraversalCursor(cursorContext, storeCursors)));
@@ -223,6 +273,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     @Override
     public DefaultPropertyCursor allocatePropertyCursor(CursorContext cursorContext, MemoryTracker memoryTracker) {
         if (propertyCursor == null) {
+            checkReusable(cursorContext, memoryTracker);
             FullAccessNodeCursor nodeCursor =
                     new FullAccessNodeCursor(c -> {}, storageReader.allocateNodeCursor(cursorContext, storeCursors));
             FullAccessRelationshipScanCursor relCursor = new FullAccessRelationshipScanCursor(
@@ -253,6 +304,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     public FullAccessPropertyCursor allocateFullAccessPropertyCursor(
             CursorContext cursorContext, MemoryTracker memoryTracker) {
         if (fullAccessPropertyCursor == null) {
+            checkReusable(cursorContext, memoryTracker);
             return trace(new FullAccessPropertyCursor(
                     this::acceptFullAccess,
                     storageReader.allocatePropertyCursor(cursorContext, storeCursors, memoryTracker)));
@@ -502,7 +554,38 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         fullAccessRelationshipTypeIndexCursor = cursor;
     }
 
+    /**
+     * Release the resources of all pooled cursors, at the end of a transaction. Unless this factory reuses cursors
+     * across transactions, the pooled cursors are dropped as well.
+     */
     public void release() {
+        releaseStorageCursors();
+        if (!reuseAcrossTransactions || boundToOtherContext) {
+            nodeCursor = null;
+            fullAccessNodeCursor = null;
+            relationshipScanCursor = null;
+            fullAccessRelationshipScanCursor = null;
+            relationshipTraversalCursor = null;
+            fullAccessRelationshipTraversalCursor = null;
+            propertyCursor = null;
+            fullAccessPropertyCursor = null;
+        }
+        boundToOtherContext = false;
+        releaseIndexCursors();
+    }
+
+    /**
+     * Cursors created with another cursor context or memory tracker than those of the transaction must not outlive
+     * the transaction, since they would keep tracing and tracking their use in a later transaction into them.
+     */
+    private void checkReusable(CursorContext cursorContext, MemoryTracker memoryTracker) {
+        if (cursorContext != transactionCursorContext
+                || (memoryTracker != null && memoryTracker != transactionMemoryTracker)) {
+            boundToOtherContext = true;
+        }
+    }
+
+    private void releaseStorageCursors() {
         if (nodeCursor != null) {
             nodeCursor.release();
         }
@@ -527,6 +610,9 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if (fullAccessPropertyCursor != null) {
             fullAccessPropertyCursor.release();
         }
+    }
+
+    private void releaseIndexCursors() {
         if (nodeValueIndexCursor != null) {
             nodeValueIndexCursor.release();
         }
@@ -551,14 +637,6 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if (fullAccessRelationshipTypeIndexCursor != null) {
             fullAccessRelationshipTypeIndexCursor.release();
         }
-        nodeCursor = null;
-        fullAccessNodeCursor = null;
-        relationshipScanCursor = null;
-        fullAccessRelationshipScanCursor = null;
-        relationshipTraversalCursor = null;
-        fullAccessRelationshipTraversalCursor = null;
-        propertyCursor = null;
-        fullAccessPropertyCursor = null;
         nodeValueIndexCursor = null;
         fullAccessNodeValueIndexCursor = null;
         nodeLabelIndexCursor = null;
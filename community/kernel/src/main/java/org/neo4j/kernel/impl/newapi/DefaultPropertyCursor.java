@@ -74,7 +74,7 @@ public class DefaultPropertyCursor extends TraceableCursor<DefaultPropertyCursor
 
         init(selection, read);
         this.type = NODE;
-        storeCursor.initNodeProperties(reference, selection);
+        storeCursor.initNodeProperties(reference, selection, nodeReference);
         this.entityReference = nodeReference;
 
         initializeNodeTransactionState(nodeReference, read);
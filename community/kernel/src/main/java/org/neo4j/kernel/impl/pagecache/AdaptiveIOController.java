@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * {@link IOController} that adapts its IO limit to the latency that page cache readers observe when faulting pages in
+ * from storage, so that flushing backs off when it starts to hurt foreground reads.
+ * <p>
+ * Flushing IO is limited per quantum of {@link #QUANTUM_MILLIS} milliseconds. At the end of each quantum the average read
+ * latency reported during that quantum is compared to the target latency: if it is above the target the limit is halved,
+ * otherwise the limit is raised by a twentieth of the ceiling. The limit always stays within the configured floor and
+ * ceiling, except when the initial limit is unlimited: flushing is then not limited at all until reads first get slower
+ * than the target, at which point the limit drops to half the ceiling.
+ * <p>
+ * Changes of the limit and pauses of flushers are reported to a {@link Monitor}, for metrics.
+ */
+public class AdaptiveIOController implements IOController {
+    public interface Monitor {
+        /**
+         * The IO limit was changed at the end of a quantum.
+         *
+         * @param previousLimit the limit before the change, in IOs per second, or -1 if it was unlimited.
+         * @param newLimit the limit after the change, in IOs per second.
+         * @param readLatencyNanos the average page fault read latency observed during the quantum.
+         */
+        default void limitChanged(long previousLimit, long newLimit, long readLatencyNanos) {}
+
+        /**
+         * A flusher was paused because the IO budget of the current quantum was spent.
+         *
+         * @param ios the number of IOs done in the quantum when the flusher was paused.
+         * @param pauseNanos for how long the flusher was paused.
+         */
+        default void flushThrottled(long ios, long pauseNanos) {}
+    }
+
+    public static final Monitor NO_MONITOR = new Monitor() {};
+
+    static final long QUANTUM_MILLIS = 100;
+    private static final long QUANTUM_NANOS = MILLISECONDS.toNanos(QUANTUM_MILLIS);
+    private static final long QUANTUMS_PER_SECOND = 1000 / QUANTUM_MILLIS;
+    private static final long UNLIMITED = -1;
+
+    private final long targetReadLatencyNanos;
+    private final long minIOPS;
+    private final long maxIOPS;
+    private final long increaseStep;
+    private final SystemNanoClock clock;
+    private final Monitor monitor;
+
+    private final LongAdder readLatencySum = new LongAdder();
+    private final LongAdder readLatencyCount = new LongAdder();
+    private final LongAdder externalIOs = new LongAdder();
+
+    private volatile long currentLimit;
+    private volatile long lastReadLatencyNanos;
+
+    // Guarded by this
+    private long quantumStartNanos;
+    private long quantumIOs;
+
+    public AdaptiveIOController(
+            long targetReadLatencyNanos, long initialIOPS, long minIOPS, long maxIOPS, SystemNanoClock clock) {
+        this(targetReadLatencyNanos, initialIOPS, minIOPS, maxIOPS, clock, NO_MONITOR);
+    }
+
+    public AdaptiveIOController(
+            long targetReadLatencyNanos,
+            long initialIOPS,
+            long minIOPS,
+            long maxIOPS,
+            SystemNanoClock clock,
+            Monitor monitor) {
+        if (minIOPS > maxIOPS) {
+            throw new IllegalArgumentException(
+                    "Minimum IO limit " + minIOPS + " is higher than maximum IO limit " + maxIOPS);
+        }
+        this.targetReadLatencyNanos = targetReadLatencyNanos;
+        this.minIOPS = minIOPS;
+        this.maxIOPS = maxIOPS;
+        this.increaseStep = Math.max(1, maxIOPS / 20);
+        this.clock = clock;
+        this.monitor = monitor;
+        this.currentLimit = initialIOPS <= 0 ? UNLIMITED : Math.min(maxIOPS, Math.max(minIOPS, initialIOPS));
+        this.quantumStartNanos = clock.nanos();
+    }
+
+    @Override
+    public void maybeLimitIO(int recentlyCompletedIOs, FileFlushEvent flushEvent) {
+        long now = clock.nanos();
+        long pauseNanos;
+        long spentIOs;
+        synchronized (this) {
+            if (now - quantumStartNanos >= QUANTUM_NANOS) {
+                startNextQuantum(now);
+            }
+            quantumIOs += recentlyCompletedIOs + externalIOs.sumThenReset();
+            if (currentLimit == UNLIMITED || quantumIOs < quantumBudget()) {
+                return;
+            }
+            // The budget of this quantum is spent, so the next one starts when this one ends. Any other flusher
+            // coming by before then is counted towards the next quantum already.
+            pauseNanos = quantumStartNanos + QUANTUM_NANOS - now;
+            spentIOs = quantumIOs;
+            startNextQuantum(now + Math.max(0, pauseNanos));
+        }
+        if (pauseNanos > 0) {
+            LockSupport.parkNanos(pauseNanos);
+            long pausedNanos = clock.nanos() - now;
+            flushEvent.throttle(spentIOs, NANOSECONDS.toMillis(pausedNanos));
+            monitor.flushThrottled(spentIOs, pausedNanos);
+        }
+    }
+
+    @Override
+    public void reportIO(int completedIOs) {
+        externalIOs.add(completedIOs);
+    }
+
+    @Override
+    public long configuredLimit() {
+        return currentLimit;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean tracksReadLatency() {
+        return true;
+    }
+
+    @Override
+    public void reportReadLatency(long latencyNanos) {
+        readLatencySum.add(latencyNanos);
+        readLatencyCount.increment();
+    }
+
+    /**
+     * @return the average page fault read latency observed during the last completed quantum, in nanoseconds.
+     */
+    public long lastReadLatencyNanos() {
+        return lastReadLatencyNanos;
+    }
+
+    private long quantumBudget() {
+        return Math.max(1, currentLimit / QUANTUMS_PER_SECOND);
+    }
+
+    private void startNextQuantum(long now) {
+        adjustLimit();
+        quantumStartNanos = now;
+        quantumIOs = 0;
+    }
+
+    private void adjustLimit() {
+        long count = readLatencyCount.sumThenReset();
+        long sum = readLatencySum.sumThenReset();
+        long averageLatency = count == 0 ? 0 : sum / count;
+        lastReadLatencyNanos = averageLatency;
+        long limit = currentLimit;
+        long newLimit = limit;
+        if (averageLatency > targetReadLatencyNanos) {
+            newLimit = Math.max(minIOPS, (limit == UNLIMITED ? maxIOPS : limit) / 2);
+        } else if (limit != UNLIMITED) {
+            newLimit = Math.min(maxIOPS, limit + increaseStep);
+        }
+        if (newLimit != limit) {
+            currentLimit = newLimit;
+            monitor.limitChanged(limit, newLimit, averageLatency);
+        }
+    }
+}
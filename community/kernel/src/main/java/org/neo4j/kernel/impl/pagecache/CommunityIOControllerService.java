@@ -20,12 +20,25 @@
 package org.neo4j.kernel.impl.pagecache;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.IOController;
+import org.neo4j.monitoring.Monitors;
 import org.neo4j.time.SystemNanoClock;
 
 public class CommunityIOControllerService implements IOControllerService {
     @Override
-    public IOController createIOController(Config config, SystemNanoClock clock) {
+    public IOController createIOController(Config config, SystemNanoClock clock, Monitors monitors) {
+        if (config.get(GraphDatabaseInternalSettings.checkpoint_adaptive_io_enabled)) {
+            return new AdaptiveIOController(
+                    config.get(GraphDatabaseInternalSettings.checkpoint_adaptive_io_target_read_latency)
+                            .toNanos(),
+                    config.get(GraphDatabaseSettings.check_point_iops_limit),
+                    config.get(GraphDatabaseInternalSettings.checkpoint_adaptive_io_min_iops),
+                    config.get(GraphDatabaseInternalSettings.checkpoint_adaptive_io_max_iops),
+                    clock,
+                    monitors.newMonitor(AdaptiveIOController.Monitor.class));
+        }
         return IOController.DISABLED;
     }
 }
@@ -19,17 +19,25 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.multi_version_version_storage_enabled;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.multi_version_version_storage_max_size;
+import static org.neo4j.configuration.GraphDatabaseSettings.db_format;
+
 import org.neo4j.collection.Dependencies;
 import org.neo4j.configuration.DatabaseConfig;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.muninn.PagedVersionStorage;
 import org.neo4j.io.pagecache.impl.muninn.VersionStorage;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.scheduler.JobScheduler;
 
 public class CommunityVersionStorageFactory implements VersionStorageFactory {
+    static final String VERSION_STORAGE_FILE_NAME = "neostore.versions";
+    private static final String MULTIVERSION_FORMAT = "multiversion";
+
     @Override
     public VersionStorage createVersionStorage(
             PageCache pageCache,
@@ -40,6 +48,16 @@ public class CommunityVersionStorageFactory implements VersionStorageFactory {
             DatabaseTracers databaseTracers,
             DatabaseLayout databaseLayout,
             DatabaseConfig databaseConfig) {
-        return VersionStorage.EMPTY_STORAGE;
+        // Only stores of the multiversion format are mapped multi versioned, no other store would ever use it
+        if (!MULTIVERSION_FORMAT.equals(databaseConfig.get(db_format))
+                || !databaseConfig.get(multi_version_version_storage_enabled)) {
+            return VersionStorage.EMPTY_STORAGE;
+        }
+        return new PagedVersionStorage(
+                pageCache,
+                databaseLayout.file(VERSION_STORAGE_FILE_NAME),
+                databaseLayout.getDatabaseName(),
+                ioController,
+                databaseConfig.get(multi_version_version_storage_max_size));
     }
 }
@@ -21,8 +21,9 @@ package org.neo4j.kernel.impl.pagecache;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.io.pagecache.IOController;
+import org.neo4j.monitoring.Monitors;
 import org.neo4j.time.SystemNanoClock;
 
 public interface IOControllerService {
-    IOController createIOController(Config config, SystemNanoClock clock);
+    IOController createIOController(Config config, SystemNanoClock clock, Monitors monitors);
 }
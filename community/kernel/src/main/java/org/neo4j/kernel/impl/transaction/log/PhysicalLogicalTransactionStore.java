@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.pre_sketch_transaction_logs;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pre_sketch_transaction_logs_parallelism;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
 
@@ -48,6 +49,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final Monitors monitors;
     private final boolean failOnCorruptedLogFiles;
     private final boolean presketchLogFiles;
+    private final int presketchParallelism;
     private final BinarySupportedKernelVersions binarySupportedKernelVersions;
 
     public PhysicalLogicalTransactionStore(
@@ -63,6 +65,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         this.monitors = monitors;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
         this.presketchLogFiles = config.get(pre_sketch_transaction_logs);
+        this.presketchParallelism = config.get(pre_sketch_transaction_logs_parallelism);
         this.binarySupportedKernelVersions = new BinarySupportedKernelVersions(config);
     }
 
@@ -78,10 +81,11 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         return ReversedMultiFileCommandBatchCursor.fromLogFile(
                 logFile,
                 backToPosition,
-                new VersionAwareLogEntryReader(commandReaderFactory, binarySupportedKernelVersions),
+                () -> new VersionAwareLogEntryReader(commandReaderFactory, binarySupportedKernelVersions),
                 failOnCorruptedLogFiles,
                 monitors.newMonitor(ReversedTransactionCursorMonitor.class),
-                presketchLogFiles);
+                presketchLogFiles,
+                presketchParallelism);
     }
 
     @Override
@@ -101,6 +105,14 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             var headerVisitor = new LogVersionLocator(transactionIdToStartFrom);
             logFile.accept(headerVisitor);
 
+            // ask the transaction offset index of that version, if there is one
+            var indexedPosition = logFile.findTransactionStartPosition(
+                    headerVisitor.getLogPosition().getLogVersion(), transactionIdToStartFrom);
+            if (indexedPosition.isPresent()) {
+                transactionMetadataCache.cacheTransactionMetadata(transactionIdToStartFrom, indexedPosition.get());
+                return new CommittedCommandBatchCursor(logFile.getReader(indexedPosition.get()), logEntryReader);
+            }
+
             // ask LogFile
             var transactionPositionLocator = new TransactionPositionLocator(transactionIdToStartFrom, logEntryReader);
             logFile.accept(transactionPositionLocator, headerVisitor.getLogPosition());
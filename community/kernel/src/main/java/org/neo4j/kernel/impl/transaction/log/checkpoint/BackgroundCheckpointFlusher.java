@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.function.Predicates;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.InternalLog;
+import org.neo4j.logging.InternalLogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * Continuously writes out dirty pages of the database in between check-points, so that a check-point only has to flush
+ * the small residue of pages dirtied since the last background pass, instead of everything dirtied since the previous
+ * check-point.
+ * <p>
+ * Every pass walks over all files mapped by the database and writes their dirty pages through a
+ * {@link PacingIOController}. Files are not forced by a pass; making the written pages durable is left to the next
+ * check-point. Besides its own pacing, a pass is also limited by the IO controller of the database, so an adaptive
+ * controller holds back background flushing just like check-point flushing when foreground reads start to suffer.
+ * <p>
+ * The IO rate of a pass is chosen such that, given the number of IOs the previous pass needed, the pass completes in
+ * half of the expected time until the next check-point. That expected time is what remains of the configured
+ * check-point time interval since the latest check-point, or, if transaction logs are currently generated fast enough
+ * to reach the check-point volume interval earlier, the time until that volume is reached.
+ */
+public class BackgroundCheckpointFlusher extends LifecycleAdapter {
+    private final PageCache pageCache;
+    private final TransactionIdStore transactionIdStore;
+    private final CheckPointer checkPointer;
+    private final PageCacheTracer pageCacheTracer;
+    private final JobScheduler scheduler;
+    private final SystemNanoClock clock;
+    private final InternalLog log;
+    private final String databaseName;
+    private final long passDelayMillis;
+    private final long checkpointIntervalMillis;
+    private final long checkpointIntervalVolume;
+    private final long logFileSize;
+    private final PacingIOController pacer;
+
+    private final Runnable job = this::flushPass;
+
+    private volatile JobHandle<?> handle;
+    private volatile boolean stopped;
+    private volatile boolean flushing;
+
+    private LogPosition lastPassLogPosition;
+    private long lastPassStartMillis;
+    private long lastPassIOs = -1;
+
+    public BackgroundCheckpointFlusher(
+            PageCache pageCache,
+            TransactionIdStore transactionIdStore,
+            CheckPointer checkPointer,
+            PageCacheTracer pageCacheTracer,
+            JobScheduler scheduler,
+            SystemNanoClock clock,
+            Config config,
+            InternalLogProvider logProvider,
+            String databaseName,
+            IOController ioController) {
+        this(
+                pageCache,
+                transactionIdStore,
+                checkPointer,
+                pageCacheTracer,
+                scheduler,
+                clock,
+                config,
+                logProvider,
+                databaseName,
+                ioController,
+                LockSupport::parkNanos);
+    }
+
+    BackgroundCheckpointFlusher(
+            PageCache pageCache,
+            TransactionIdStore transactionIdStore,
+            CheckPointer checkPointer,
+            PageCacheTracer pageCacheTracer,
+            JobScheduler scheduler,
+            SystemNanoClock clock,
+            Config config,
+            InternalLogProvider logProvider,
+            String databaseName,
+            IOController ioController,
+            LongConsumer parker) {
+        this.pageCache = pageCache;
+        this.transactionIdStore = transactionIdStore;
+        this.checkPointer = checkPointer;
+        this.pageCacheTracer = pageCacheTracer;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.log = logProvider.getLog(getClass());
+        this.databaseName = databaseName;
+        this.passDelayMillis =
+                config.get(GraphDatabaseInternalSettings.checkpoint_background_flush_interval).toMillis();
+        this.checkpointIntervalMillis = config.get(GraphDatabaseSettings.check_point_interval_time).toMillis();
+        this.checkpointIntervalVolume = config.get(GraphDatabaseSettings.check_point_interval_volume);
+        this.logFileSize = config.get(GraphDatabaseSettings.logical_log_rotation_threshold);
+        this.pacer = new PacingIOController(
+                config.get(GraphDatabaseInternalSettings.checkpoint_background_flush_min_iops),
+                clock,
+                parker,
+                ioController);
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        pacer.resume();
+        lastPassIOs = -1;
+        passStarted(clock.millis(), lastClosedLogPosition());
+        schedule();
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        pacer.abort();
+        if (handle != null) {
+            handle.cancel();
+        }
+        Predicates.awaitForever(() -> !flushing, 100, MILLISECONDS);
+    }
+
+    private void schedule() {
+        handle = scheduler.schedule(
+                Group.CHECKPOINT,
+                systemJob(databaseName, "Background checkpoint flush"),
+                job,
+                passDelayMillis,
+                MILLISECONDS);
+    }
+
+    void flushPass() {
+        try {
+            flushing = true;
+            if (stopped) {
+                return;
+            }
+            long nowMillis = clock.millis();
+            LogPosition logPosition = lastClosedLogPosition();
+            pacer.start(targetIOsPerSecond(nowMillis, logPosition));
+            passStarted(nowMillis, logPosition);
+            for (PagedFile pagedFile : pageCache.listExistingMappings()) {
+                if (stopped) {
+                    break;
+                }
+                try (FileFlushEvent flushEvent = pageCacheTracer.beginFileFlush()) {
+                    pagedFile.flushWithoutForce(flushEvent, pacer);
+                } catch (IOException e) {
+                    // Files can be unmapped while we are flushing them, and any real IO problem will surface in the
+                    // next check-point anyway, so don't let one file stop the pass.
+                    log.warn("Background flush of " + pagedFile.path() + " failed.", e);
+                }
+            }
+            lastPassIOs = pacer.completedIOs();
+        } catch (Throwable t) {
+            log.error("Background checkpoint flush failed.", t);
+        } finally {
+            flushing = false;
+        }
+
+        if (!stopped) {
+            schedule();
+        }
+    }
+
+    private void passStarted(long nowMillis, LogPosition logPosition) {
+        lastPassStartMillis = nowMillis;
+        lastPassLogPosition = logPosition;
+    }
+
+    private LogPosition lastClosedLogPosition() {
+        return transactionIdStore.getLastClosedTransaction().logPosition();
+    }
+
+    /**
+     * @param nowMillis the time the next pass starts at.
+     * @param logPosition the position of the last closed transaction when the next pass starts.
+     * @return the IO rate the next pass should run with, based on how much the previous pass had to flush and how soon the
+     * next check-point is expected to happen.
+     */
+    long targetIOsPerSecond(long nowMillis, LogPosition logPosition) {
+        if (lastPassIOs < 0) {
+            // Nothing is known about the amount of dirty pages yet, so don't let the first pass hold back.
+            return PacingIOController.UNLIMITED;
+        }
+        long sinceCheckpointMillis = Math.max(0, nowMillis - checkPointer.latestCheckPointTimeMillis());
+        long millisToNextCheckpoint = Math.max(0, checkpointIntervalMillis - sinceCheckpointMillis);
+
+        long elapsedMillis = Math.max(1, nowMillis - lastPassStartMillis);
+        long logBytes = logBytesBetween(lastPassLogPosition, logPosition);
+        if (logBytes > 0) {
+            long millisToVolume = (long) (checkpointIntervalVolume / ((double) logBytes / elapsedMillis));
+            millisToNextCheckpoint = Math.min(millisToNextCheckpoint, millisToVolume);
+        }
+        long passMillis = Math.max(passDelayMillis, millisToNextCheckpoint / 2);
+        return lastPassIOs * TimeUnit.SECONDS.toMillis(1) / passMillis;
+    }
+
+    private long logBytesBetween(LogPosition from, LogPosition to) {
+        long files = to.getLogVersion() - from.getLogVersion();
+        long offset = to.getByteOffset() - from.getByteOffset();
+        return Math.max(0, files * logFileSize + offset);
+    }
+
+    /**
+     * {@link IOController} that spreads the IOs of a flush pass evenly over time at a given rate, by parking the
+     * flushing thread whenever it gets ahead of the schedule. All IOs are also passed on to the IO controller of the
+     * database, which may limit them further.
+     */
+    static class PacingIOController implements IOController {
+        static final long UNLIMITED = Long.MAX_VALUE;
+
+        private final long minIOsPerSecond;
+        private final SystemNanoClock clock;
+        private final LongConsumer parker;
+        private final IOController databaseController;
+        private long iosPerSecond;
+        private long startNanos;
+        private long completedIOs;
+        private volatile boolean aborted;
+
+        PacingIOController(
+                long minIOsPerSecond, SystemNanoClock clock, LongConsumer parker, IOController databaseController) {
+            this.minIOsPerSecond = minIOsPerSecond;
+            this.clock = clock;
+            this.parker = parker;
+            this.databaseController = databaseController;
+        }
+
+        void start(long targetIOsPerSecond) {
+            iosPerSecond = Math.max(minIOsPerSecond, targetIOsPerSecond);
+            startNanos = clock.nanos();
+            completedIOs = 0;
+        }
+
+        long completedIOs() {
+            return completedIOs;
+        }
+
+        /**
+         * Stop pacing, letting any ongoing flush complete as fast as possible.
+         */
+        void abort() {
+            aborted = true;
+        }
+
+        /**
+         * Pace flushes again after an {@link #abort()}.
+         */
+        void resume() {
+            aborted = false;
+        }
+
+        @Override
+        public void maybeLimitIO(int recentlyCompletedIOs, FileFlushEvent flushEvent) {
+            completedIOs += recentlyCompletedIOs;
+            if (aborted) {
+                return;
+            }
+            databaseController.maybeLimitIO(recentlyCompletedIOs, flushEvent);
+            if (iosPerSecond == UNLIMITED) {
+                return;
+            }
+            long scheduledNanos = startNanos + completedIOs * TimeUnit.SECONDS.toNanos(1) / iosPerSecond;
+            long aheadNanos = scheduledNanos - clock.nanos();
+            if (aheadNanos > 0) {
+                parker.accept(aheadNanos);
+            }
+        }
+
+        @Override
+        public void reportIO(int completedIOs) {
+            this.completedIOs += completedIOs;
+            databaseController.reportIO(completedIOs);
+        }
+
+        @Override
+        public long configuredLimit() {
+            return iosPerSecond == UNLIMITED ? -1 : iosPerSecond;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return iosPerSecond != UNLIMITED;
+        }
+    }
+}
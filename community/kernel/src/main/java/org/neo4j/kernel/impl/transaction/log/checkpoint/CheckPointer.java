@@ -106,6 +106,12 @@ public interface CheckPointer {
      */
     LatestCheckpointInfo latestCheckPointInfo();
 
+    /**
+     * @return time in milliseconds when the latest check point completed, or when this check pointer was started if no
+     * check point has completed since then.
+     */
+    long latestCheckPointTimeMillis();
+
     /**
      * Shutdown checkpointer and prevent any new checkpoints from happening.
      * Any checkpoint requested on a shutdown checkpointer will not write any checkpoint and will
@@ -68,6 +68,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer {
 
     private volatile boolean shutdown;
     private volatile LatestCheckpointInfo latestCheckPointInfo = UNKNOWN_CHECKPOINT_INFO;
+    private volatile long latestCheckPointTimeMillis;
 
     public CheckPointerImpl(
             TransactionIdStore transactionIdStore,
@@ -102,6 +103,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer {
     public void start() {
         var lastClosedTransaction = transactionIdStore.getLastClosedTransaction();
         threshold.initialize(lastClosedTransaction.transactionId(), lastClosedTransaction.logPosition());
+        latestCheckPointTimeMillis = clock.millis();
     }
 
     @Override
@@ -238,6 +240,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer {
              */
             logPruning.pruneLogs(logPosition.getLogVersion());
             latestCheckPointInfo = ongoingCheckpoint;
+            latestCheckPointTimeMillis = clock.millis();
             return lastClosedTransactionId;
         } catch (Throwable t) {
             // Why only log failure here? It's because check point can potentially be made from various
@@ -276,6 +279,11 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer {
         return latestCheckPointInfo;
     }
 
+    @Override
+    public long latestCheckPointTimeMillis() {
+        return latestCheckPointTimeMillis;
+    }
+
     @FunctionalInterface
     public interface ForceOperation {
         ForceOperation NO_OP = (flushEvent, cursorContext) -> {};
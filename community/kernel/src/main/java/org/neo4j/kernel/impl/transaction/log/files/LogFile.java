@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.function.LongSupplier;
 import org.eclipse.collections.api.map.primitive.LongObjectMap;
@@ -164,4 +165,22 @@ public interface LogFile extends RotatableFile {
      * @throws IOException on I/O error.
      */
     void delete(Long version) throws IOException;
+
+    /**
+     * Find the start position of a transaction in a log file that is not appended to anymore, using an index over the
+     * transactions in that file rather than scanning it.
+     * @param version version of the log file the transaction is in.
+     * @param transactionId id of the transaction.
+     * @return start position of the transaction, or empty if no index can be used for the given log file or the
+     * transaction is not in it.
+     * @throws IOException on I/O error.
+     */
+    Optional<LogPosition> findTransactionStartPosition(long version, long transactionId) throws IOException;
+
+    /**
+     * Prepare, outside of rotation, whatever the next rotation would otherwise have to do while holding up appenders.
+     * Expected to be called from a background thread, see {@link SpareLogFilePreparer}.
+     * @throws IOException on I/O error.
+     */
+    void prepareNextRotation() throws IOException;
 }
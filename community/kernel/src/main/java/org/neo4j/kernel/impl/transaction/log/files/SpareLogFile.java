@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+
+/**
+ * A single log file that is created and preallocated ahead of time, outside of rotation, and then renamed into place
+ * as the next log version when rotation happens. That way rotation only pays for a rename instead of for creating and
+ * preallocating a new file while holding up appenders.
+ * <p>
+ * The spare is always a newly created file, never a former log file, so readers that still have an old log file open
+ * are never affected by it. Preparing happens on a background thread, see {@link SpareLogFilePreparer}. Taking the
+ * spare during rotation never blocks: if the spare is not ready, or is being prepared, rotation falls back to
+ * allocating the file itself.
+ */
+class SpareLogFile {
+    private final FileSystemAbstraction fileSystem;
+    private final Path file;
+    private final ChannelNativeAccessor nativeChannelAccessor;
+    private final AtomicBoolean ready = new AtomicBoolean();
+    private final ReentrantLock preparing = new ReentrantLock();
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+
+    SpareLogFile(FileSystemAbstraction fileSystem, Path file, ChannelNativeAccessor nativeChannelAccessor) {
+        this.fileSystem = fileSystem;
+        this.file = file;
+        this.nativeChannelAccessor = nativeChannelAccessor;
+    }
+
+    /**
+     * Remove any spare file left behind by a previous run, since there is no way of telling whether it was completely
+     * prepared or not.
+     */
+    void reset() throws IOException {
+        preparing.lock();
+        try {
+            ready.set(false);
+            fileSystem.deleteFile(file);
+        } finally {
+            preparing.unlock();
+        }
+    }
+
+    /**
+     * Create and preallocate the spare file, unless it is already prepared or currently being prepared.
+     *
+     * @param version log version the spare is expected to become, only used for reporting preallocation problems.
+     */
+    void prepare(long version) throws IOException {
+        if (ready.get() || !preparing.tryLock()) {
+            return;
+        }
+        try {
+            if (!ready.get()) {
+                preallocate(version);
+            }
+        } finally {
+            preparing.unlock();
+        }
+    }
+
+    /**
+     * Move the spare into place as the given log file, if the spare is ready.
+     *
+     * @param logFile the file the spare should become.
+     * @return {@code true} if the spare was moved into place, otherwise {@code false}.
+     */
+    boolean moveTo(Path logFile) throws IOException {
+        if (!ready.get() || !preparing.tryLock()) {
+            missed.incrementAndGet();
+            return false;
+        }
+        try {
+            if (!ready.get()) {
+                missed.incrementAndGet();
+                return false;
+            }
+            fileSystem.renameFile(file, logFile, ATOMIC_MOVE);
+            ready.set(false);
+            used.incrementAndGet();
+            return true;
+        } finally {
+            preparing.unlock();
+        }
+    }
+
+    boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * @return number of log files that were created from the spare.
+     */
+    long used() {
+        return used.get();
+    }
+
+    /**
+     * @return number of log files that had to be allocated during rotation because no spare was ready.
+     */
+    long missed() {
+        return missed.get();
+    }
+
+    private void preallocate(long version) throws IOException {
+        // Whatever is left from a failed attempt is not reused, the spare always starts out as a new file
+        fileSystem.deleteFile(file);
+        try (StoreChannel channel = fileSystem.write(file)) {
+            nativeChannelAccessor.preallocateSpace(channel, version);
+            channel.force(true);
+        }
+        ready.set(true);
+    }
+}
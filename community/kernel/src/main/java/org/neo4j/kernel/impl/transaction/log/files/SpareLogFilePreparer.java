@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+import java.io.IOException;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.InternalLog;
+import org.neo4j.logging.InternalLogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Keeps the spare log file of a {@link LogFile} prepared, by periodically calling
+ * {@link LogFile#prepareNextRotation()} from a background thread. Creating and preallocating the spare can take a
+ * while, so it is kept off of the threads doing check pointing and log pruning. Preparing an already prepared spare
+ * does nothing, so checking frequently is cheap.
+ */
+public class SpareLogFilePreparer extends LifecycleAdapter {
+    static final long PREPARE_INTERVAL_MILLIS = 1_000;
+
+    private final LogFile logFile;
+    private final JobScheduler scheduler;
+    private final InternalLog log;
+    private final String databaseName;
+    private volatile JobHandle<?> handle;
+
+    public SpareLogFilePreparer(
+            LogFile logFile, JobScheduler scheduler, InternalLogProvider logProvider, String databaseName) {
+        this.logFile = logFile;
+        this.scheduler = scheduler;
+        this.log = logProvider.getLog(getClass());
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public void start() {
+        handle = scheduler.scheduleRecurring(
+                Group.FILE_IO_HELPER,
+                systemJob(databaseName, "Prepare spare transaction log file"),
+                this::prepare,
+                PREPARE_INTERVAL_MILLIS,
+                MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+    }
+
+    void prepare() {
+        try {
+            logFile.prepareNextRotation();
+        } catch (IOException e) {
+            // Rotation will allocate the next log file itself, so there is no need to fail anything
+            log.warn("Failed to prepare a spare transaction log file", e);
+        }
+    }
+}
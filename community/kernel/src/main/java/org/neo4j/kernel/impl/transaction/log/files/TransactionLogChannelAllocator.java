@@ -47,18 +47,29 @@ public class TransactionLogChannelAllocator {
     private final LogHeaderCache logHeaderCache;
     private final ChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final SpareLogFile spareLogFile;
 
     public TransactionLogChannelAllocator(
             TransactionLogFilesContext logFilesContext,
             TransactionLogFilesHelper fileHelper,
             LogHeaderCache logHeaderCache,
             ChannelNativeAccessor nativeChannelAccessor) {
+        this(logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor, null);
+    }
+
+    TransactionLogChannelAllocator(
+            TransactionLogFilesContext logFilesContext,
+            TransactionLogFilesHelper fileHelper,
+            LogHeaderCache logHeaderCache,
+            ChannelNativeAccessor nativeChannelAccessor,
+            SpareLogFile spareLogFile) {
         this.logFilesContext = logFilesContext;
         this.fileSystem = logFilesContext.getFileSystem();
         this.databaseTracer = logFilesContext.getDatabaseTracers().getDatabaseTracer();
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.spareLogFile = spareLogFile;
     }
 
     public PhysicalLogVersionedStoreChannel createLogChannel(long version, LongSupplier lastCommittedTransactionId)
@@ -140,6 +151,12 @@ public class TransactionLogChannelAllocator {
     private AllocatedFile allocateFile(long version) throws IOException {
         Path file = fileHelper.getLogFileForVersion(version);
         boolean fileExist = fileSystem.fileExists(file);
+        if (!fileExist && spareLogFile != null && spareLogFile.moveTo(file)) {
+            // the spare is already preallocated, and its header will be written like for any other new file
+            StoreChannel storeChannel = fileSystem.write(file);
+            nativeChannelAccessor.adviseSequentialAccessAndKeepInCache(storeChannel, version);
+            return new AllocatedFile(file, storeChannel);
+        }
         StoreChannel storeChannel = fileSystem.write(file);
         if (fileExist) {
             nativeChannelAccessor.adviseSequentialAccessAndKeepInCache(storeChannel, version);
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.preallocate_spare_log_file;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_offset_index;
 import static org.neo4j.configuration.GraphDatabaseSettings.transaction_log_buffer_size;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.rotation.FileLogRotation.transactionLogRotation;
@@ -33,6 +35,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -92,6 +95,8 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
     private final MemoryTracker memoryTracker;
     private final TransactionLogFileInformation logFileInformation;
     private final TransactionLogChannelAllocator channelAllocator;
+    private final SpareLogFile spareLogFile;
+    private final TransactionOffsetIndex offsetIndex;
     private final DatabaseHealth databaseHealth;
     private final LogFiles logFiles;
     private final String baseName;
@@ -118,8 +123,15 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
         this.fileHelper = new TransactionLogFilesHelper(fileSystem, logFiles.logFilesDirectory(), baseName);
         this.logHeaderCache = new LogHeaderCache(1000);
         this.logFileInformation = new TransactionLogFileInformation(logFiles, logHeaderCache, context);
+        var nativeChannelAccessor = new LogFileChannelNativeAccessor(fileSystem, context);
+        this.spareLogFile = context.getConfig().get(preallocate_spare_log_file)
+                ? new SpareLogFile(fileSystem, fileHelper.getPreallocatedLogFile(), nativeChannelAccessor)
+                : null;
         this.channelAllocator = new TransactionLogChannelAllocator(
-                context, fileHelper, logHeaderCache, new LogFileChannelNativeAccessor(fileSystem, context));
+                context, fileHelper, logHeaderCache, nativeChannelAccessor, spareLogFile);
+        this.offsetIndex = context.getConfig().get(transaction_offset_index)
+                ? new TransactionOffsetIndex(fileSystem, fileHelper, this, context)
+                : null;
         this.readerLogVersionBridge = new ReaderLogVersionBridge(this);
         this.logRotation = transactionLogRotation(
                 this, context.getClock(), databaseHealth, context.getMonitors().newMonitor(LogRotationMonitor.class));
@@ -134,6 +146,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
 
     @Override
     public void start() throws IOException {
+        if (spareLogFile != null) {
+            spareLogFile.reset();
+        }
         long currentLogVersion = logVersionRepository.getCurrentLogVersion();
         channel = createLogChannelForVersion(currentLogVersion, () -> context.getLastCommittedTransactionIdProvider()
                 .getLastCommittedTransactionId(logFiles));
@@ -148,6 +163,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
                         context.getConfig().get(transaction_log_buffer_size), ByteOrder.LITTLE_ENDIAN, memoryTracker));
         transactionLogWriter = new TransactionLogWriter(
                 writer, context.getKernelVersionProvider(), context.getBinarySupportedKernelVersions());
+        if (offsetIndex != null) {
+            offsetIndex.start(currentLogVersion);
+        }
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -155,6 +173,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
     // checkpoint) are already in
     @Override
     public void shutdown() throws IOException {
+        if (offsetIndex != null) {
+            offsetIndex.stop();
+        }
         IOUtils.closeAll(writer);
     }
 
@@ -498,7 +519,11 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
 
     @Override
     public void delete(Long version) throws IOException {
-        fileSystem.deleteFile(getLogFileForVersion(version));
+        Path file = getLogFileForVersion(version);
+        if (offsetIndex != null) {
+            offsetIndex.delete(version);
+        }
+        fileSystem.deleteFile(file);
         try {
             versionTracker.logDeleted(version);
         } catch (Throwable throwable) {
@@ -506,6 +531,31 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
         }
     }
 
+    @Override
+    public Optional<LogPosition> findTransactionStartPosition(long version, long transactionId) throws IOException {
+        if (offsetIndex == null || version >= logVersionRepository.getCurrentLogVersion()) {
+            return Optional.empty();
+        }
+        return offsetIndex.find(version, transactionId);
+    }
+
+    @Override
+    public void prepareNextRotation() throws IOException {
+        if (spareLogFile != null && context.getTryPreallocateTransactionLogs().get()) {
+            spareLogFile.prepare(logVersionRepository.getCurrentLogVersion() + 1);
+        }
+    }
+
+    @VisibleForTesting
+    SpareLogFile getSpareLogFile() {
+        return spareLogFile;
+    }
+
+    @VisibleForTesting
+    TransactionOffsetIndex getOffsetIndex() {
+        return offsetIndex;
+    }
+
     @Override
     public void registerExternalReaders(LongObjectMap<StoreChannel> internalChannels) {
         internalChannels.forEachKeyValue((LongObjectProcedure<StoreChannel>) (version, channel) -> externalFileReaders
@@ -625,6 +675,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile {
         } catch (Throwable throwable) {
             logger.error("Error occurred whilst calling logCompleted in the LogFileVersionTracker", throwable);
         }
+        if (offsetIndex != null) {
+            offsetIndex.logCompleted(logVersion);
+        }
 
         return newLog;
     }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.neo4j.internal.helpers.NamedThreadFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.HeapScopedBuffer;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.logging.InternalLog;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * Index from transaction id to the start offset of that transaction, kept in a small file next to every completed log
+ * file. Completed log files never change, so the index of a log file is built once, in the background right after the
+ * log file is rotated away from, and after that lookups are a binary search over fixed size entries in the index file
+ * instead of a scan through the log file. Lookups don't wait for an index to be built; until it is there they find
+ * nothing and callers scan the log file like they would without an index.
+ * <p>
+ * Index files are written to a temporary file and moved into place, so lookups don't need any locking to never see
+ * a partially written index.
+ * <p>
+ * Index file layout, all values little endian longs:
+ * <pre>
+ * [log version][log file size][last committed transaction id from log header][number of entries]
+ * [transaction id][start offset]...
+ * </pre>
+ * The header is used to detect an index that doesn't belong to the log file it sits next to, for example after log
+ * files have been replaced. Such an index is ignored and rebuilt.
+ */
+class TransactionOffsetIndex {
+    private static final int HEADER_SIZE = 4 * Long.BYTES;
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1024 * ENTRY_SIZE;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final FileSystemAbstraction fileSystem;
+    private final TransactionLogFilesHelper fileHelper;
+    private final LogFile logFile;
+    private final TransactionLogFilesContext context;
+    private final MemoryTracker memoryTracker;
+    private final InternalLog log;
+
+    private volatile ExecutorService builder;
+    private volatile boolean stopped;
+
+    TransactionOffsetIndex(
+            FileSystemAbstraction fileSystem,
+            TransactionLogFilesHelper fileHelper,
+            LogFile logFile,
+            TransactionLogFilesContext context) {
+        this.fileSystem = fileSystem;
+        this.fileHelper = fileHelper;
+        this.logFile = logFile;
+        this.context = context;
+        this.memoryTracker = context.getMemoryTracker();
+        this.log = context.getLogProvider().getLog(getClass());
+    }
+
+    /**
+     * Start building indexes, beginning with the completed log files that don't have a usable index yet.
+     *
+     * @param currentVersion version of the log file that is currently appended to.
+     */
+    void start(long currentVersion) {
+        stopped = false;
+        builder = Executors.newSingleThreadExecutor(new NamedThreadFactory("TransactionOffsetIndexBuilder", true));
+        for (long version = Math.max(0, logFile.getLowestLogVersion()); version < currentVersion; version++) {
+            logCompleted(version);
+        }
+    }
+
+    /**
+     * Stop building indexes, waiting for a build that is in progress to complete.
+     */
+    void stop() {
+        stopped = true;
+        ExecutorService executor = builder;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            builder = null;
+        }
+    }
+
+    /**
+     * Build the index of a log file that was just rotated away from, in the background.
+     */
+    void logCompleted(long version) {
+        ExecutorService executor = builder;
+        if (executor != null && !stopped) {
+            executor.execute(() -> buildIfNeeded(version));
+        }
+    }
+
+    @VisibleForTesting
+    void awaitBuilds() throws Exception {
+        ExecutorService executor = builder;
+        if (executor != null) {
+            executor.submit(() -> {}).get();
+        }
+    }
+
+    /**
+     * Find start position of a transaction in a completed log file.
+     *
+     * @param version version of a completed log file, i.e. one that is not appended to anymore.
+     * @param transactionId id of the transaction to find.
+     * @return start position of the transaction, or empty if the log file doesn't contain it or its index is not built.
+     */
+    Optional<LogPosition> find(long version, long transactionId) throws IOException {
+        try {
+            LogHeader logHeader = logFile.extractHeader(version);
+            long logFileSize = fileSystem.getFileSize(logFile.getLogFileForVersion(version));
+            Path indexFile = fileHelper.getOffsetIndexFileForVersion(version);
+            if (!isValid(indexFile, version, logFileSize, logHeader)) {
+                return Optional.empty();
+            }
+            return search(indexFile, version, transactionId);
+        } catch (NoSuchFileException e) {
+            // The log file was pruned, or its index is only just being replaced
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remove the index of a log file that is being deleted.
+     */
+    void delete(long version) throws IOException {
+        fileSystem.deleteFile(fileHelper.getOffsetIndexFileForVersion(version));
+    }
+
+    private void buildIfNeeded(long version) {
+        if (stopped) {
+            return;
+        }
+        Path indexFile = fileHelper.getOffsetIndexFileForVersion(version);
+        try {
+            LogHeader logHeader = logFile.extractHeader(version);
+            Path logFilePath = logFile.getLogFileForVersion(version);
+            long logFileSize = fileSystem.getFileSize(logFilePath);
+            if (!isValid(indexFile, version, logFileSize, logHeader)) {
+                build(indexFile, version, logFileSize, logHeader);
+                if (!fileSystem.fileExists(logFilePath)) {
+                    // The log file was pruned while its index was built
+                    fileSystem.deleteFile(indexFile);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // The log file was pruned before its index was built, so there is nothing to index
+        } catch (IOException | RuntimeException e) {
+            // Lookups scan the log file when there is no index, so a failed build only makes them slower
+            log.warn("Failed to build transaction offset index " + indexFile, e);
+        }
+    }
+
+    private boolean isValid(Path indexFile, long version, long logFileSize, LogHeader logHeader) throws IOException {
+        if (!fileSystem.fileExists(indexFile)) {
+            return false;
+        }
+        long indexFileSize = fileSystem.getFileSize(indexFile);
+        if (indexFileSize < HEADER_SIZE) {
+            return false;
+        }
+        try (StoreChannel channel = fileSystem.read(indexFile);
+                var scopedBuffer = new HeapScopedBuffer(HEADER_SIZE, ByteOrder.LITTLE_ENDIAN, memoryTracker)) {
+            ByteBuffer buffer = scopedBuffer.getBuffer();
+            channel.readAll(buffer);
+            buffer.flip();
+            return buffer.getLong() == version
+                    && buffer.getLong() == logFileSize
+                    && buffer.getLong() == logHeader.getLastCommittedTxId()
+                    && indexFileSize == HEADER_SIZE + buffer.getLong() * ENTRY_SIZE;
+        }
+    }
+
+    private void build(Path indexFile, long version, long logFileSize, LogHeader logHeader) throws IOException {
+        MutableLongList transactionIds = new LongArrayList();
+        MutableLongList offsets = new LongArrayList();
+        var logEntryReader = new VersionAwareLogEntryReader(
+                context.getCommandReaderFactory(), context.getBinarySupportedKernelVersions());
+        try (ReadableLogChannel channel = logFile.getReader(logHeader.getStartPosition(), NO_MORE_CHANNELS)) {
+            LogEntry entry;
+            LogEntryStart start = null;
+            while ((entry = logEntryReader.readLogEntry(channel)) != null) {
+                if (entry instanceof LogEntryStart startEntry) {
+                    start = startEntry;
+                } else if (entry instanceof LogEntryCommit commit && start != null) {
+                    transactionIds.add(commit.getTxId());
+                    offsets.add(start.getStartPosition().getByteOffset());
+                }
+            }
+        }
+
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + TEMP_SUFFIX);
+        try (StoreChannel channel = fileSystem.write(tempFile);
+                var scopedBuffer = new HeapScopedBuffer(WRITE_BUFFER_SIZE, ByteOrder.LITTLE_ENDIAN, memoryTracker)) {
+            channel.truncate(0);
+            ByteBuffer buffer = scopedBuffer.getBuffer();
+            buffer.putLong(version)
+                    .putLong(logFileSize)
+                    .putLong(logHeader.getLastCommittedTxId())
+                    .putLong(transactionIds.size());
+            for (int i = 0; i < transactionIds.size(); i++) {
+                if (buffer.remaining() < ENTRY_SIZE) {
+                    writeAll(channel, buffer);
+                }
+                buffer.putLong(transactionIds.get(i)).putLong(offsets.get(i));
+            }
+            writeAll(channel, buffer);
+            channel.force(false);
+        }
+        fileSystem.renameFile(tempFile, indexFile, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    private Optional<LogPosition> search(Path indexFile, long version, long transactionId) throws IOException {
+        try (StoreChannel channel = fileSystem.read(indexFile);
+                var scopedBuffer = new HeapScopedBuffer(ENTRY_SIZE, ByteOrder.LITTLE_ENDIAN, memoryTracker)) {
+            ByteBuffer buffer = scopedBuffer.getBuffer();
+            long low = 0;
+            long high = (channel.size() - HEADER_SIZE) / ENTRY_SIZE - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                buffer.clear();
+                readFully(channel, buffer, HEADER_SIZE + middle * ENTRY_SIZE);
+                buffer.flip();
+                long middleTransactionId = buffer.getLong();
+                if (middleTransactionId < transactionId) {
+                    low = middle + 1;
+                } else if (middleTransactionId > transactionId) {
+                    high = middle - 1;
+                } else {
+                    return Optional.of(new LogPosition(version, buffer.getLong()));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static void writeAll(StoreChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        channel.writeAll(buffer);
+        buffer.clear();
+    }
+
+    private static void readFully(StoreChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of transaction offset index at position " + position);
+            }
+        }
+    }
+}
@@ -23,11 +23,15 @@ import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHA
 import static org.neo4j.kernel.impl.transaction.log.reverse.EagerlyReversedCommandBatchCursor.eagerlyReverse;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import org.neo4j.kernel.impl.transaction.log.CommandBatchCursor;
 import org.neo4j.kernel.impl.transaction.log.CommittedCommandBatchCursor;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -36,15 +40,24 @@ import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 
+/**
+ * Sketches transaction log files in the background, ahead of the reverse reading of them. Sketching a file means
+ * reading it from start to end, so with many large log files it dominates the time spent reading logs backwards.
+ * <p>
+ * Up to {@code parallelism} files are sketched concurrently, each with its own {@link LogEntryReader}, and no more than
+ * {@code parallelism + 1} sketched files are kept ahead of the reader at any time to bound memory and open files.
+ * Cursors are still handed out strictly from the highest version and backwards.
+ */
 public class PrefetchedCommandBatchCursors implements CommandBatchCursors {
-    private final BlockingQueue<CommandBatchCursor> cursors = new LinkedBlockingDeque<>(2);
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Deque<Future<CommandBatchCursor>> sketches = new ArrayDeque<>();
+    private final ExecutorService executor;
+    private final int maxSketchesAhead;
     private final LogFile logFile;
     private final LogPosition beginning;
-    private final LogEntryReader reader;
+    private final Supplier<LogEntryReader> readerFactory;
     private final boolean failOnCorruptedLogFiles;
     private final ReversedTransactionCursorMonitor monitor;
-    private long currentVersion;
+    private long nextVersionToSketch;
 
     public PrefetchedCommandBatchCursors(
             LogFile logFile,
@@ -52,55 +65,89 @@ public class PrefetchedCommandBatchCursors implements CommandBatchCursors {
             LogEntryReader reader,
             boolean failOnCorruptedLogFiles,
             ReversedTransactionCursorMonitor monitor) {
+        this(logFile, beginning, () -> reader, failOnCorruptedLogFiles, monitor, 1);
+    }
+
+    public PrefetchedCommandBatchCursors(
+            LogFile logFile,
+            LogPosition beginning,
+            Supplier<LogEntryReader> readerFactory,
+            boolean failOnCorruptedLogFiles,
+            ReversedTransactionCursorMonitor monitor,
+            int parallelism) {
         this.logFile = logFile;
         this.beginning = beginning;
-        this.reader = reader;
+        this.readerFactory = readerFactory;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
         this.monitor = monitor;
-        this.currentVersion = logFile.getHighestLogVersion();
+        this.nextVersionToSketch = logFile.getHighestLogVersion();
+        this.maxSketchesAhead = parallelism + 1;
+        this.executor = Executors.newFixedThreadPool(parallelism);
         monitor.presketchingTransactionLogs();
-        executor.execute(this::prepare);
+        sketchAhead();
     }
 
     @Override
     public Optional<CommandBatchCursor> next() {
+        sketchAhead();
+        Future<CommandBatchCursor> sketch = sketches.poll();
+        if (sketch == null) {
+            return Optional.empty();
+        }
         try {
-            var cursor = cursors.take();
-            if (cursor == NO_MORE_CURSORS) {
-                return Optional.empty();
-            }
-
+            CommandBatchCursor cursor = sketch.get();
+            sketchAhead();
             return Optional.of(cursor);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
     }
 
-    private void prepare() {
-        try {
-            while (currentVersion >= beginning.getLogVersion()) {
-                LogPosition position = currentVersion > beginning.getLogVersion()
-                        ? logFile.extractHeader(currentVersion).getStartPosition()
-                        : beginning;
-                ReadableLogChannel channel = logFile.getReader(position, NO_MORE_CHANNELS);
-                if (channel instanceof ReadAheadLogChannel) {
-                    cursors.put(new ReversedSingleFileCommandBatchCursor(
-                            (ReadAheadLogChannel) channel, reader, failOnCorruptedLogFiles, monitor));
-                } else {
-                    cursors.put(eagerlyReverse(new CommittedCommandBatchCursor(channel, reader)));
-                }
-                currentVersion--;
-            }
+    private void sketchAhead() {
+        while (sketches.size() < maxSketchesAhead && nextVersionToSketch >= beginning.getLogVersion()) {
+            long version = nextVersionToSketch--;
+            sketches.add(executor.submit(() -> sketch(version)));
+        }
+    }
 
-            // Poison pill
-            cursors.put(NO_MORE_CURSORS);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    private CommandBatchCursor sketch(long version) throws IOException {
+        LogPosition position = version > beginning.getLogVersion()
+                ? logFile.extractHeader(version).getStartPosition()
+                : beginning;
+        ReadableLogChannel channel = logFile.getReader(position, NO_MORE_CHANNELS);
+        LogEntryReader reader = readerFactory.get();
+        if (channel instanceof ReadAheadLogChannel) {
+            return new ReversedSingleFileCommandBatchCursor(
+                    (ReadAheadLogChannel) channel, reader, failOnCorruptedLogFiles, monitor);
         }
+        return eagerlyReverse(new CommittedCommandBatchCursor(channel, reader));
     }
 
     @Override
     public void close() throws IOException {
-        executor.shutdown();
+        try {
+            // cursors that were sketched but never handed out still hold on to their channels
+            for (Future<CommandBatchCursor> sketch : sketches) {
+                if (!sketch.cancel(false)) {
+                    closeSketched(sketch);
+                }
+            }
+            sketches.clear();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void closeSketched(Future<CommandBatchCursor> sketch) throws IOException {
+        try {
+            sketch.get().close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // nothing was opened, so there is nothing to close
+        }
     }
 }
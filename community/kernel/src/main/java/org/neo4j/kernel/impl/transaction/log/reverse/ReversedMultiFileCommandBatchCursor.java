@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.reverse;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 import org.neo4j.kernel.impl.transaction.CommittedCommandBatch;
 import org.neo4j.kernel.impl.transaction.log.CommandBatchCursor;
 import org.neo4j.kernel.impl.transaction.log.CommittedCommandBatchCursor;
@@ -72,6 +73,42 @@ public class ReversedMultiFileCommandBatchCursor implements CommandBatchCursor {
         }
     }
 
+    /**
+     * Utility method for creating a {@link ReversedMultiFileCommandBatchCursor} with a {@link LogFile} as the source of
+     * {@link CommandBatchCursor} for each log version, where pre-sketching can sketch multiple log files in parallel.
+     *
+     * @param logFile accessor of log files.
+     * @param backToPosition {@link LogPosition} to read backwards to.
+     * @param logEntryReaderFactory creates a {@link LogEntryReader} for every log file, since readers are not
+     * safe to share between files that are sketched concurrently.
+     * @param failOnCorruptedLogFiles fail reading from log files as soon as first error is encountered
+     * @param monitor reverse transaction cursor monitor
+     * @param presketch enables pre-sketching of next transaction files.
+     * @param presketchParallelism number of transaction files to sketch concurrently when pre-sketching is enabled.
+     * @return a {@link CommandBatchCursor} which returns transactions from the end of the log stream and backwards to
+     * and including transaction starting at {@link LogPosition}.
+     */
+    public static CommandBatchCursor fromLogFile(
+            LogFile logFile,
+            LogPosition backToPosition,
+            Supplier<LogEntryReader> logEntryReaderFactory,
+            boolean failOnCorruptedLogFiles,
+            ReversedTransactionCursorMonitor monitor,
+            boolean presketch,
+            int presketchParallelism) {
+        if (presketch) {
+            return new ReversedMultiFileCommandBatchCursor(new PrefetchedCommandBatchCursors(
+                    logFile,
+                    backToPosition,
+                    logEntryReaderFactory,
+                    failOnCorruptedLogFiles,
+                    monitor,
+                    presketchParallelism));
+        }
+        return fromLogFile(
+                logFile, backToPosition, logEntryReaderFactory.get(), failOnCorruptedLogFiles, monitor, false);
+    }
+
     public ReversedMultiFileCommandBatchCursor(CommandBatchCursors commandBatchCursors) {
         this.commandBatchCursors = commandBatchCursors;
     }
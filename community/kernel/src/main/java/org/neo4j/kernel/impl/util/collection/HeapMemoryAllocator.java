@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import static java.lang.Math.toIntExact;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * {@link MemoryAllocator} handing out memory backed by heap byte arrays, tracked as heap memory.
+ */
+public class HeapMemoryAllocator implements MemoryAllocator {
+    public static final MemoryAllocator INSTANCE = new HeapMemoryAllocator();
+
+    private HeapMemoryAllocator() {}
+
+    @Override
+    public Memory allocate(long size, boolean zeroed, MemoryTracker memoryTracker) {
+        // Java arrays are always zeroed
+        memoryTracker.allocateHeap(size);
+        return new HeapMemory(ByteBuffer.allocate(toIntExact(size)));
+    }
+
+    private static class HeapMemory implements Memory {
+        private final ByteBuffer buf;
+
+        HeapMemory(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public long readLong(long offset) {
+            return buf.getLong(toIntExact(offset));
+        }
+
+        @Override
+        public void writeLong(long offset, long value) {
+            buf.putLong(toIntExact(offset), value);
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(buf.array(), (byte) 0);
+        }
+
+        @Override
+        public long size() {
+            return buf.capacity();
+        }
+
+        @Override
+        public void free(MemoryTracker memoryTracker) {
+            memoryTracker.releaseHeap(buf.capacity());
+        }
+
+        @Override
+        public Memory copy(MemoryTracker memoryTracker) {
+            memoryTracker.allocateHeap(buf.capacity());
+            return new HeapMemory(ByteBuffer.wrap(Arrays.copyOf(buf.array(), buf.capacity())));
+        }
+
+        @Override
+        public ByteBuffer asByteBuffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.neo4j.collection.diffset.MutableLongDiffSets;
+import org.neo4j.collection.factory.CollectionsFactory;
+import org.neo4j.collection.factory.OnHeapCollectionsFactory;
+import org.neo4j.collection.trackable.HeapTrackingCollections;
+import org.neo4j.collection.trackable.HeapTrackingLongLongHashMap;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.api.state.AppendOnlyValuesContainer;
+import org.neo4j.kernel.impl.api.state.ValuesMap;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.values.storable.Value;
+
+/**
+ * On-heap {@link CollectionsFactory} for transaction state, that keeps property values of a transaction serialized in
+ * an {@link AppendOnlyValuesContainer} which spills to disk once the values use more than a given amount of memory.
+ * <p>
+ * Only property values are spilled. They make up the bulk of the state of large transactions, and are not looked at
+ * again until commit, unless the transaction reads its own writes. Sets of entity ids stay on heap, since they are
+ * small per entity and are looked at all the time.
+ */
+public class SpillingCollectionsFactory implements CollectionsFactory {
+    private final FileSystemAbstraction fs;
+    private final Path spillDirectory;
+    private final long maxValuesMemory;
+    private final Collection<HeapTrackingLongLongHashMap> refMaps = new ArrayList<>();
+    private AppendOnlyValuesContainer valuesContainer;
+
+    /**
+     * @param fs file system to spill values to.
+     * @param spillDirectory directory to create the files that values are spilled to in.
+     * @param maxValuesMemory amount of memory property values of a transaction may use before they are spilled.
+     */
+    public SpillingCollectionsFactory(FileSystemAbstraction fs, Path spillDirectory, long maxValuesMemory) {
+        this.fs = fs;
+        this.spillDirectory = spillDirectory;
+        this.maxValuesMemory = maxValuesMemory;
+    }
+
+    @Override
+    public MutableLongSet newLongSet(MemoryTracker memoryTracker) {
+        return OnHeapCollectionsFactory.INSTANCE.newLongSet(memoryTracker);
+    }
+
+    @Override
+    public MutableLongDiffSets newLongDiffSets(MemoryTracker memoryTracker) {
+        return OnHeapCollectionsFactory.INSTANCE.newLongDiffSets(memoryTracker);
+    }
+
+    @Override
+    public MutableLongObjectMap<Value> newObjectMap(MemoryTracker memoryTracker) {
+        if (valuesContainer == null) {
+            valuesContainer = new AppendOnlyValuesContainer(
+                    HeapMemoryAllocator.INSTANCE, memoryTracker, maxValuesMemory, fs, spillDirectory);
+        }
+        final HeapTrackingLongLongHashMap refs = HeapTrackingCollections.newLongLongMap(memoryTracker);
+        refMaps.add(refs);
+        return new ValuesMap(refs, valuesContainer);
+    }
+
+    @Override
+    public void release() {
+        refMaps.forEach(HeapTrackingLongLongHashMap::close);
+        refMaps.clear();
+        if (valuesContainer != null) {
+            valuesContainer.close();
+            valuesContainer = null;
+        }
+    }
+}
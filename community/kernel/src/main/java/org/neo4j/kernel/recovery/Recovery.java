@@ -586,6 +586,7 @@ public final class Recovery {
                 logService.getInternalLogProvider(),
                 logService.getUserLogProvider(),
                 recoveryCleanupCollector,
+                scheduler,
                 logTailMetadata,
                 recoveryMetaDataCache,
                 memoryTracker,
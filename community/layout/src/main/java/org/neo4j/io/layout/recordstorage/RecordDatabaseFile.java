@@ -72,6 +72,10 @@ public enum RecordDatabaseFile implements DatabaseFile {
 
     INDEX_STATISTICS_STORE(RecordDatabaseFileNames.INDEX_STATISTICS_STORE, false),
 
+    RELATIONSHIP_NEIGHBOURS_STORE(RecordDatabaseFileNames.RELATIONSHIP_NEIGHBOURS_STORE, false),
+
+    NODE_PROPERTY_COUNTS_STORE(RecordDatabaseFileNames.NODE_PROPERTY_COUNTS_STORE, false),
+
     METADATA_STORE(RecordDatabaseFileNames.METADATA_STORE, false),
 
     EXISTS_MARKER(METADATA_STORE);
@@ -124,6 +128,10 @@ public enum RecordDatabaseFile implements DatabaseFile {
 
     static final Set<RecordDatabaseFile> STORE_FILES = ALL_FILES;
 
-    static final Set<RecordDatabaseFile> RECOVERABLE_STORE_FILES =
-            Set.of(COUNTS_STORE, RELATIONSHIP_GROUP_DEGREES_STORE, INDEX_STATISTICS_STORE);
+    static final Set<RecordDatabaseFile> RECOVERABLE_STORE_FILES = Set.of(
+            COUNTS_STORE,
+            RELATIONSHIP_GROUP_DEGREES_STORE,
+            INDEX_STATISTICS_STORE,
+            RELATIONSHIP_NEIGHBOURS_STORE,
+            NODE_PROPERTY_COUNTS_STORE);
 }
@@ -47,5 +47,9 @@ final class RecordDatabaseFileNames {
 
     static final String INDEX_STATISTICS_STORE = "neostore.indexstats.db";
 
+    static final String RELATIONSHIP_NEIGHBOURS_STORE = "neostore.relationshipneighbours.db";
+
+    static final String NODE_PROPERTY_COUNTS_STORE = "neostore.nodepropertycounts.db";
+
     static final String METADATA_STORE = "neostore";
 }
@@ -150,6 +150,14 @@ public class RecordDatabaseLayout extends PlainDatabaseLayout {
         return file(RecordDatabaseFile.INDEX_STATISTICS_STORE.getName());
     }
 
+    public Path relationshipNeighboursStore() {
+        return file(RecordDatabaseFile.RELATIONSHIP_NEIGHBOURS_STORE.getName());
+    }
+
+    public Path nodePropertyCountsStore() {
+        return file(RecordDatabaseFile.NODE_PROPERTY_COUNTS_STORE.getName());
+    }
+
     @Override
     public Path metadataStore() {
         return file(RecordDatabaseFile.METADATA_STORE.getName());
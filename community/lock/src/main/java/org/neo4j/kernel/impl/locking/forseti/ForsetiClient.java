@@ -33,10 +33,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import org.eclipse.collections.api.block.procedure.primitive.LongProcedure;
 import org.neo4j.collection.trackable.HeapTrackingCollections;
+import org.neo4j.collection.trackable.HeapTrackingLongHashSet;
 import org.neo4j.collection.trackable.HeapTrackingLongIntHashMap;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
@@ -79,7 +81,37 @@ public class ForsetiClient implements LockManager.Client {
     private static final int NO_DEADLOCK_DEPTH = -1;
 
     /** resourceType -> lock map. These are the global lock maps, shared across all clients. */
-    private final ConcurrentMap<Long, ForsetiLockManager.Lock>[] lockMaps;
+    private final LockTable[] lockMaps;
+
+    /**
+     * resourceType -> range lock map, only present for resource types that locks can be escalated for. These are
+     * global as well, keyed by {@code resourceId >>> escalationRangeShift}.
+     */
+    private final LockTable[] rangeLockMaps;
+
+    /**
+     * resourceType -> range write lock map, next to {@link #rangeLockMaps}. A shared lock on the range write lock is
+     * taken before taking exclusive locks within a range, which is what allows escalating a range that we only hold
+     * shared locks in to keep writers out of it, but not readers.
+     */
+    private final LockTable[] rangeWriteLockMaps;
+
+    private final int escalationThreshold;
+    private final int escalationRangeShift;
+    private final LongAdder escalations;
+
+    /**
+     * Central deadlock detector that we register with while waiting, or {@code null} if we look for deadlocks
+     * ourselves while waiting.
+     */
+    private final WaitForGraphDeadlockDetector deadlockDetector;
+
+    /**
+     * Set by the {@link #deadlockDetector} to the lock we are waiting for, when it has chosen us to break a deadlock.
+     */
+    private final AtomicReference<ForsetiLockManager.Lock> deadlockVictimOf = new AtomicReference<>();
+
+    private volatile String deadlockCycle;
 
     /**
      * The client uses this to track which locks it holds. It is solely an optimization to ensure we don't need to
@@ -93,6 +125,27 @@ public class ForsetiClient implements LockManager.Client {
     /** @see #sharedLockCounts */
     private final HeapTrackingLongIntHashMap[] exclusiveLockCounts;
 
+    /**
+     * For resource types with range locks, the number of resources we hold locks on within each range we hold.
+     * Array[ resourceType -> Map( rangeId -> num resources ) ]
+     */
+    private final HeapTrackingLongIntHashMap[] rangeLockCounts;
+
+    /** For resource types with range locks, the ranges that we have taken exclusive locks in. */
+    private final HeapTrackingLongHashSet[] writeRanges;
+
+    /**
+     * For resource types with range locks, the ranges that we have escalated. Our own locks within these ranges are
+     * not in the global lock map.
+     */
+    private final HeapTrackingLongHashSet[] escalatedRanges;
+
+    /**
+     * The escalated ranges that we only held shared locks in, which we escalated into an exclusive range write lock
+     * rather than an exclusive range lock.
+     */
+    private final HeapTrackingLongHashSet[] sharedEscalatedRanges;
+
     private final AtomicLong activeLockCount = new AtomicLong();
 
     /**
@@ -119,7 +172,8 @@ public class ForsetiClient implements LockManager.Client {
     /**
      * For exclusive locks, we only need a single re-usable one per client. We simply CAS this lock into whatever slots
      * we want to hold in the global lock map. We re-create it every time the client is reused in order to avoid issues where a reference
-     * is found after the client is reused, causing false deadlocks.
+     * is found after the client is reused, causing false deadlocks. It is only created once the client takes its first exclusive lock,
+     * since most transactions never do.
      */
     private ExclusiveLock myExclusiveLock;
 
@@ -146,14 +200,44 @@ public class ForsetiClient implements LockManager.Client {
     private static final long CONCURRENT_NODE_SIZE = HeapEstimator.LONG_SIZE + HeapEstimator.HASH_MAP_NODE_SHALLOW_SIZE;
     private volatile long prepareThreadId;
 
-    public ForsetiClient(
-            ConcurrentMap<Long, ForsetiLockManager.Lock>[] lockMaps,
+    public ForsetiClient(LockTable[] lockMaps, SystemNanoClock clock, boolean verboseDeadlocks, long clientId) {
+        this(
+                lockMaps,
+                new LockTable[lockMaps.length],
+                new LockTable[lockMaps.length],
+                0,
+                0,
+                new LongAdder(),
+                null,
+                clock,
+                verboseDeadlocks,
+                clientId);
+    }
+
+    ForsetiClient(
+            LockTable[] lockMaps,
+            LockTable[] rangeLockMaps,
+            LockTable[] rangeWriteLockMaps,
+            int escalationThreshold,
+            int escalationRangeShift,
+            LongAdder escalations,
+            WaitForGraphDeadlockDetector deadlockDetector,
             SystemNanoClock clock,
             boolean verboseDeadlocks,
             long clientId) {
         this.lockMaps = lockMaps;
+        this.rangeLockMaps = rangeLockMaps;
+        this.rangeWriteLockMaps = rangeWriteLockMaps;
+        this.escalationThreshold = escalationThreshold;
+        this.escalationRangeShift = escalationRangeShift;
+        this.escalations = escalations;
+        this.deadlockDetector = deadlockDetector;
         this.sharedLockCounts = new HeapTrackingLongIntHashMap[lockMaps.length];
         this.exclusiveLockCounts = new HeapTrackingLongIntHashMap[lockMaps.length];
+        this.rangeLockCounts = new HeapTrackingLongIntHashMap[lockMaps.length];
+        this.writeRanges = new HeapTrackingLongHashSet[lockMaps.length];
+        this.escalatedRanges = new HeapTrackingLongHashSet[lockMaps.length];
+        this.sharedEscalatedRanges = new HeapTrackingLongHashSet[lockMaps.length];
         this.clock = clock;
         this.verboseDeadlocks = verboseDeadlocks;
         this.clientId = clientId;
@@ -168,7 +252,6 @@ public class ForsetiClient implements LockManager.Client {
         this.lockAcquisitionTimeoutNano =
                 config.get(GraphDatabaseSettings.lock_acquisition_timeout).toNanos();
         this.verboseDeadlocks = config.get(GraphDatabaseInternalSettings.lock_manager_verbose_deadlocks);
-        this.myExclusiveLock = new ExclusiveLock(this);
     }
 
     @Override
@@ -180,7 +263,8 @@ public class ForsetiClient implements LockManager.Client {
 
         try {
             // Grab the global lock map we will be using
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            LockTable lockMap = lockMaps[resourceType.typeId()];
+            boolean ranged = rangeLockMaps[resourceType.typeId()] != null;
 
             // And grab our local lock maps
             HeapTrackingLongIntHashMap heldShareLocks = getSharedLockCount(resourceType);
@@ -204,6 +288,13 @@ public class ForsetiClient implements LockManager.Client {
                     continue;
                 }
 
+                if (ranged && enterRange(tracer, resourceType, resourceId)) {
+                    // We have escalated the whole range, no need to involve the global lock map
+                    activeLockCount.incrementAndGet();
+                    heldShareLocks.put(resourceId, 1);
+                    continue;
+                }
+
                 memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
 
                 // We don't hold the lock, so we need to grab it via the global lock map
@@ -212,50 +303,61 @@ public class ForsetiClient implements LockManager.Client {
                 long waitStartNano = clock.nanos();
 
                 // Retry loop
-                while (true) {
-                    assertValid(waitStartNano, resourceType, resourceId);
-
-                    // Check if there is a lock for this entity in the map
-                    ForsetiLockManager.Lock existingLock = lockMap.get(resourceId);
-
-                    // No lock
-                    if (existingLock == null) {
-                        // Try to create a new shared lock
-                        if (mySharedLock == null) {
-                            mySharedLock = new SharedLock(this);
+                try {
+                    while (true) {
+                        assertValid(waitStartNano, resourceType, resourceId);
+
+                        // Check if there is a lock for this entity in the map
+                        ForsetiLockManager.Lock existingLock = lockMap.get(resourceId);
+
+                        // No lock
+                        if (existingLock == null) {
+                            // Try to create a new shared lock
+                            if (mySharedLock == null) {
+                                mySharedLock = new SharedLock(this);
+                            }
+
+                            if (lockMap.putIfAbsent(resourceId, mySharedLock) == null) {
+                                // Success, we now hold the shared lock.
+                                break;
+                            } else {
+                                continue;
+                            }
                         }
 
-                        if (lockMap.putIfAbsent(resourceId, mySharedLock) == null) {
-                            // Success, we now hold the shared lock.
-                            break;
+                        // Someone holds shared lock on this entity, try and get in on that action
+                        else if (existingLock instanceof SharedLock sharedLock) {
+                            if (sharedLock.acquire(this)) {
+                                // Success!
+                                break;
+                            }
+                        } else if (existingLock instanceof ExclusiveLock) {
+                            // Someone holds an exclusive lock on this entity
+                            // We need to wait, just let the loop run.
                         } else {
-                            continue;
+                            throw new UnsupportedOperationException("Unknown lock type: " + existingLock);
                         }
-                    }
 
-                    // Someone holds shared lock on this entity, try and get in on that action
-                    else if (existingLock instanceof SharedLock sharedLock) {
-                        if (sharedLock.acquire(this)) {
-                            // Success!
-                            break;
+                        if (waitEvent == null) {
+                            waitEvent = tracer.waitForLock(SHARED, resourceType, transactionId, resourceId);
                         }
-                    } else if (existingLock instanceof ExclusiveLock) {
-                        // Someone holds an exclusive lock on this entity
-                        // We need to wait, just let the loop run.
-                    } else {
-                        throw new UnsupportedOperationException("Unknown lock type: " + existingLock);
+                        // And take note of who we are waiting for. This is used for deadlock detection.
+                        waitFor(existingLock, resourceType, resourceId, SHARED, tries++);
                     }
-
-                    if (waitEvent == null) {
-                        waitEvent = tracer.waitForLock(SHARED, resourceType, transactionId, resourceId);
+                } catch (Throwable e) {
+                    memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                    if (ranged) {
+                        leaveRange(resourceType, resourceId);
                     }
-                    // And take note of who we are waiting for. This is used for deadlock detection.
-                    waitFor(existingLock, resourceType, resourceId, SHARED, tries++);
+                    throw e;
                 }
 
                 // Make a local note about the fact that we now hold this lock
                 activeLockCount.incrementAndGet();
                 heldShareLocks.put(resourceId, 1);
+                if (ranged) {
+                    maybeEscalate(resourceType, resourceId);
+                }
             }
         } finally {
             if (waitEvent != null) {
@@ -280,6 +382,40 @@ public class ForsetiClient implements LockManager.Client {
         waitingForResourceId = -1;
         waitingForResourceType = null;
         waitingForLockType = null;
+        if (deadlockDetector != null) {
+            deadlockDetector.stopWaiting(this);
+            // Must happen after clearing waitingForLock, see abortWaitFor
+            deadlockVictimOf.set(null);
+        }
+    }
+
+    ForsetiLockManager.Lock waitingForLock() {
+        return waitingForLock;
+    }
+
+    String describeWaitingFor() {
+        return waitingForLockType + " " + lockString(waitingForResourceType, waitingForResourceId);
+    }
+
+    /**
+     * Called by the central deadlock detector to make us give up waiting for the given lock, because we have been
+     * chosen to break a deadlock.
+     *
+     * @return {@code true} if we will give up waiting, or {@code false} if we were no longer waiting for that lock.
+     */
+    boolean abortWaitFor(ForsetiLockManager.Lock lock, String cycleDescription) {
+        deadlockCycle = cycleDescription;
+        if (!deadlockVictimOf.compareAndSet(null, lock)) {
+            return false;
+        }
+        // If we stopped waiting after the detector looked at us, the mark we just made would be left behind for
+        // our next wait. Since clearWaitState clears waitingForLock before clearing the mark, checking it again
+        // here tells us whether that could have happened.
+        if (waitingForLock != lock) {
+            deadlockVictimOf.compareAndSet(lock, null);
+            return false;
+        }
+        return true;
     }
 
     private HeapTrackingLongIntHashMap getSharedLockCount(ResourceType resourceType) {
@@ -308,7 +444,8 @@ public class ForsetiClient implements LockManager.Client {
         LockWaitEvent waitEvent = null;
 
         try {
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            LockTable lockMap = lockMaps[resourceType.typeId()];
+            boolean ranged = rangeLockMaps[resourceType.typeId()] != null;
             HeapTrackingLongIntHashMap heldLocks = getExclusiveLockCount(resourceType);
 
             for (long resourceId : resourceIds) {
@@ -319,28 +456,59 @@ public class ForsetiClient implements LockManager.Client {
                     continue;
                 }
 
+                // We count the resource within its range once, for shared and exclusive locks alike
+                boolean enteredRange = ranged && !getSharedLockCount(resourceType).containsKey(resourceId);
+                if (enteredRange) {
+                    enterRange(tracer, resourceType, resourceId);
+                }
+
+                try {
+                    if (ranged && enterWriteRange(tracer, resourceType, resourceId)) {
+                        // We hold the whole range exclusively, no need to involve the global lock map
+                        if (enteredRange) {
+                            activeLockCount.incrementAndGet();
+                        }
+                        heldLocks.put(resourceId, 1);
+                        continue;
+                    }
+                } catch (Throwable e) {
+                    if (enteredRange) {
+                        leaveRange(resourceType, resourceId);
+                    }
+                    throw e;
+                }
+
                 memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
+
                 // Grab the global lock
+                boolean upgraded = false;
                 ForsetiLockManager.Lock existingLock;
                 int tries = 0;
                 long waitStartNano = clock.nanos();
-                boolean upgraded = false;
-                while ((existingLock = lockMap.putIfAbsent(resourceId, myExclusiveLock)) != null) {
-                    assertValid(waitStartNano, resourceType, resourceId);
+                try {
+                    while ((existingLock = lockMap.putIfAbsent(resourceId, exclusiveLock())) != null) {
+                        assertValid(waitStartNano, resourceType, resourceId);
+
+                        if (existingLock instanceof SharedLock sharedLock) {
+                            // Then we should upgrade that lock
+                            if (tryUpgradeSharedToExclusive(
+                                    tracer, waitEvent, resourceType, lockMap, resourceId, sharedLock, waitStartNano)) {
+                                upgraded = true;
+                                break;
+                            }
+                        }
 
-                    if (existingLock instanceof SharedLock sharedLock) {
-                        // Then we should upgrade that lock
-                        if (tryUpgradeSharedToExclusive(
-                                tracer, waitEvent, resourceType, lockMap, resourceId, sharedLock, waitStartNano)) {
-                            upgraded = true;
-                            break;
+                        if (waitEvent == null) {
+                            waitEvent = tracer.waitForLock(EXCLUSIVE, resourceType, transactionId, resourceId);
                         }
+                        waitFor(existingLock, resourceType, resourceId, EXCLUSIVE, tries++);
                     }
-
-                    if (waitEvent == null) {
-                        waitEvent = tracer.waitForLock(EXCLUSIVE, resourceType, transactionId, resourceId);
+                } catch (Throwable e) {
+                    memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                    if (enteredRange) {
+                        leaveRange(resourceType, resourceId);
                     }
-                    waitFor(existingLock, resourceType, resourceId, EXCLUSIVE, tries++);
+                    throw e;
                 }
 
                 if (upgraded) {
@@ -350,6 +518,9 @@ public class ForsetiClient implements LockManager.Client {
                     activeLockCount.incrementAndGet();
                 }
                 heldLocks.put(resourceId, 1);
+                if (ranged) {
+                    maybeEscalate(resourceType, resourceId);
+                }
             }
         } finally {
             if (waitEvent != null) {
@@ -366,7 +537,7 @@ public class ForsetiClient implements LockManager.Client {
         stateHolder.incrementActiveClients(this);
 
         try {
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            LockTable lockMap = lockMaps[resourceType.typeId()];
             HeapTrackingLongIntHashMap heldLocks = getExclusiveLockCount(resourceType);
 
             int heldCount = heldLocks.getIfAbsent(resourceId, NO_CLIENT_ID);
@@ -376,10 +547,35 @@ public class ForsetiClient implements LockManager.Client {
                 return true;
             }
 
+            boolean enteredRange = false;
+            if (rangeLockMaps[resourceType.typeId()] != null) {
+                boolean holdsShared = getSharedLockCount(resourceType).containsKey(resourceId);
+                if (!holdsShared) {
+                    if (!tryEnterRange(resourceType, resourceId)) {
+                        return false;
+                    }
+                    enteredRange = true;
+                }
+                if (!tryEnterWriteRange(resourceType, resourceId)) {
+                    if (enteredRange) {
+                        leaveRange(resourceType, resourceId);
+                    }
+                    return false;
+                }
+                if (isEscalated(resourceType, resourceId)) {
+                    // We hold the whole range exclusively, no need to involve the global lock map
+                    if (!holdsShared) {
+                        activeLockCount.incrementAndGet();
+                    }
+                    heldLocks.put(resourceId, 1);
+                    return true;
+                }
+            }
+
             memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
             // Grab the global lock
             ForsetiLockManager.Lock lock;
-            if ((lock = lockMap.putIfAbsent(resourceId, myExclusiveLock)) != null) {
+            if ((lock = lockMap.putIfAbsent(resourceId, exclusiveLock())) != null) {
                 if (lock instanceof SharedLock sharedLock
                         && getSharedLockCount(resourceType).containsKey(resourceId)) {
                     if (sharedLock.tryAcquireUpdateLock()) {
@@ -394,11 +590,17 @@ public class ForsetiClient implements LockManager.Client {
                     }
                 }
                 memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                if (enteredRange) {
+                    leaveRange(resourceType, resourceId);
+                }
                 return false;
             }
 
             activeLockCount.incrementAndGet();
             heldLocks.put(resourceId, 1);
+            if (enteredRange) {
+                maybeEscalate(resourceType, resourceId);
+            }
             return true;
         } finally {
             stateHolder.decrementActiveClients();
@@ -411,7 +613,7 @@ public class ForsetiClient implements LockManager.Client {
         stateHolder.incrementActiveClients(this);
 
         try {
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            LockTable lockMap = lockMaps[resourceType.typeId()];
             HeapTrackingLongIntHashMap heldShareLocks = getSharedLockCount(resourceType);
             HeapTrackingLongIntHashMap heldExclusiveLocks = getExclusiveLockCount(resourceType);
 
@@ -429,6 +631,19 @@ public class ForsetiClient implements LockManager.Client {
                 return true;
             }
 
+            boolean ranged = rangeLockMaps[resourceType.typeId()] != null;
+            if (ranged) {
+                if (!tryEnterRange(resourceType, resourceId)) {
+                    return false;
+                }
+                if (isEscalated(resourceType, resourceId)) {
+                    // We have escalated the whole range, no need to involve the global lock map
+                    activeLockCount.incrementAndGet();
+                    heldShareLocks.put(resourceId, 1);
+                    return true;
+                }
+            }
+
             memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
             long waitStartNano = clock.nanos();
             while (true) {
@@ -450,10 +665,16 @@ public class ForsetiClient implements LockManager.Client {
                         break;
                     } else if (sharedLock.isUpdateLock()) {
                         memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                        if (ranged) {
+                            leaveRange(resourceType, resourceId);
+                        }
                         return false;
                     }
                 } else if (existingLock instanceof ExclusiveLock) {
                     memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                    if (ranged) {
+                        leaveRange(resourceType, resourceId);
+                    }
                     return false;
                 } else {
                     throw new UnsupportedOperationException("Unknown lock type: " + existingLock);
@@ -461,6 +682,9 @@ public class ForsetiClient implements LockManager.Client {
             }
             activeLockCount.incrementAndGet();
             heldShareLocks.put(resourceId, 1);
+            if (ranged) {
+                maybeEscalate(resourceType, resourceId);
+            }
             return true;
         } finally {
             stateHolder.decrementActiveClients();
@@ -474,14 +698,14 @@ public class ForsetiClient implements LockManager.Client {
         try {
             HeapTrackingLongIntHashMap sharedLocks = getSharedLockCount(resourceType);
             HeapTrackingLongIntHashMap exclusiveLocks = getExclusiveLockCount(resourceType);
-            ConcurrentMap<Long, ForsetiLockManager.Lock> resourceTypeLocks = lockMaps[resourceType.typeId()];
+            LockTable resourceTypeLocks = lockMaps[resourceType.typeId()];
             for (long resourceId : resourceIds) {
                 if (releaseLocalLock(resourceType, resourceId, sharedLocks)) {
                     continue;
                 }
                 // Only release if we were not holding an exclusive lock as well
                 if (!exclusiveLocks.containsKey(resourceId)) {
-                    releaseGlobalLock(resourceTypeLocks, resourceId);
+                    releaseGlobalLock(resourceType, resourceTypeLocks, resourceId);
                 }
             }
         } finally {
@@ -494,7 +718,7 @@ public class ForsetiClient implements LockManager.Client {
         stateHolder.incrementActiveClients(this);
 
         try {
-            ConcurrentMap<Long, ForsetiLockManager.Lock> resourceTypeLocks = lockMaps[resourceType.typeId()];
+            LockTable resourceTypeLocks = lockMaps[resourceType.typeId()];
             HeapTrackingLongIntHashMap exclusiveLocks = getExclusiveLockCount(resourceType);
             HeapTrackingLongIntHashMap sharedLocks = getSharedLockCount(resourceType);
             for (long resourceId : resourceIds) {
@@ -503,6 +727,10 @@ public class ForsetiClient implements LockManager.Client {
                 }
 
                 if (sharedLocks.containsKey(resourceId)) {
+                    if (isEscalated(resourceType, resourceId)) {
+                        // Our exclusive range lock covers the shared lock too, there's nothing to downgrade
+                        continue;
+                    }
                     // We are still holding a shared lock, so we will release it to be reused
                     ForsetiLockManager.Lock lock = resourceTypeLocks.get(resourceId);
                     if (lock instanceof SharedLock sharedLock) {
@@ -519,7 +747,7 @@ public class ForsetiClient implements LockManager.Client {
                     }
                 } else {
                     // we do not hold shared lock so we just releasing it
-                    releaseGlobalLock(resourceTypeLocks, resourceId);
+                    releaseGlobalLock(resourceType, resourceTypeLocks, resourceId);
                 }
             }
         } finally {
@@ -536,18 +764,47 @@ public class ForsetiClient implements LockManager.Client {
             // Begin releasing exclusive locks, as we may hold both exclusive and shared locks on the same resource,
             // and so releasing exclusive locks means we can "throw away" our shared lock (which would normally have
             // been re-instated after releasing the exclusive lock).
+            HeapTrackingLongHashSet escalated = escalatedRanges[i];
             if (exclusiveLocks != null) {
-                exclusiveLocks.forEachKey(releaseExclusiveAndClearSharedVisitor.initialize(sharedLocks, lockMaps[i]));
+                exclusiveLocks.forEachKey(
+                        releaseExclusiveAndClearSharedVisitor.initialize(sharedLocks, lockMaps[i], escalated));
                 exclusiveLockCounts[i] = null;
                 exclusiveLocks.close();
             }
 
             // Then release all remaining shared locks
             if (sharedLocks != null) {
-                sharedLocks.forEachKey(releaseSharedDontCheckExclusiveVisitor.initialize(lockMaps[i]));
+                sharedLocks.forEachKey(releaseSharedDontCheckExclusiveVisitor.initialize(lockMaps[i], escalated));
                 sharedLockCounts[i] = null;
                 sharedLocks.close();
             }
+
+            // Range locks go last, they protect the locks within them from being escalated by someone else
+            HeapTrackingLongIntHashMap rangeLocks = rangeLockCounts[i];
+            if (rangeLocks != null) {
+                LockTable rangeLockMap = rangeLockMaps[i];
+                rangeLocks.forEachKey(rangeId -> dropGlobalLock(rangeLockMap, rangeId));
+                rangeLockCounts[i] = null;
+                rangeLocks.close();
+            }
+            HeapTrackingLongHashSet writes = writeRanges[i];
+            if (writes != null) {
+                LockTable rangeWriteLockMap = rangeWriteLockMaps[i];
+                writes.forEach(rangeId -> dropGlobalLock(rangeWriteLockMap, rangeId));
+                writeRanges[i] = null;
+                writes.close();
+            }
+            HeapTrackingLongHashSet sharedEscalated = sharedEscalatedRanges[i];
+            if (sharedEscalated != null) {
+                LockTable rangeWriteLockMap = rangeWriteLockMaps[i];
+                sharedEscalated.forEach(rangeId -> dropGlobalLock(rangeWriteLockMap, rangeId));
+                sharedEscalatedRanges[i] = null;
+                sharedEscalated.close();
+            }
+            if (escalated != null) {
+                escalatedRanges[i] = null;
+                escalated.close();
+            }
         }
         activeLockCount.set(0);
     }
@@ -597,7 +854,17 @@ public class ForsetiClient implements LockManager.Client {
         memoryTracker.close();
         // This exclusive lock instance has been used for all exclusive locks held by this client for this transaction.
         // Close it to mark it not participate in deadlock detection anymore
-        myExclusiveLock.close();
+        if (myExclusiveLock != null) {
+            myExclusiveLock.close();
+            myExclusiveLock = null;
+        }
+    }
+
+    private ExclusiveLock exclusiveLock() {
+        if (myExclusiveLock == null) {
+            myExclusiveLock = new ExclusiveLock(this);
+        }
+        return myExclusiveLock;
     }
 
     private void releaseAllLocks() {
@@ -616,11 +883,12 @@ public class ForsetiClient implements LockManager.Client {
     @Override
     public Collection<ActiveLock> activeLocks() {
         // We're iterating the global map instead of the client local maps because this can be called from separate
-        // threads
+        // threads. Locks covered by an escalated range are not in the global map, so the escalated range is listed
+        // instead, as a lock on the first resource id in the range.
         var locks = new ArrayList<ActiveLock>();
         for (int typeId = 0; typeId < lockMaps.length; typeId++) {
             ResourceType resourceType = ResourceType.fromId(typeId);
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[typeId];
+            LockTable lockMap = lockMaps[typeId];
             if (lockMap != null) {
                 lockMap.forEach((resourceId, lock) -> {
                     if (lock.isOwnedBy(this)) {
@@ -628,13 +896,46 @@ public class ForsetiClient implements LockManager.Client {
                     }
                 });
             }
+            if (rangeLockMaps[typeId] != null) {
+                addEscalatedRanges(locks, resourceType, rangeLockMaps[typeId], EXCLUSIVE);
+                addEscalatedRanges(locks, resourceType, rangeWriteLockMaps[typeId], SHARED);
+            }
         }
         return locks;
     }
 
+    /**
+     * Add the ranges we have escalated in the given range lock map, i.e. the ranges whose lock we hold exclusively.
+     * An exclusively held range lock covers any locks in the range, while an exclusively held range write lock only
+     * covers shared locks in the range.
+     */
+    private void addEscalatedRanges(
+            List<ActiveLock> locks, ResourceType resourceType, LockTable rangeLockMap, LockType coveredLockType) {
+        rangeLockMap.forEach((rangeId, lock) -> {
+            if (lock.isOwnedBy(this) && lock.type() == EXCLUSIVE) {
+                locks.add(new ActiveLock(
+                        resourceType, coveredLockType, transactionId, rangeId << escalationRangeShift));
+            }
+        });
+    }
+
     @Override
     public boolean holdsLock(long id, ResourceType resource, LockType lockType) {
-        ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap = lockMaps[resource.typeId()];
+        LockTable rangeLockMap = rangeLockMaps[resource.typeId()];
+        if (rangeLockMap != null) {
+            ForsetiLockManager.Lock rangeLock = rangeLockMap.get(id >>> escalationRangeShift);
+            if (rangeLock != null && rangeLock.isOwnedBy(this) && rangeLock.type() == EXCLUSIVE) {
+                return true;
+            }
+            if (lockType == SHARED) {
+                ForsetiLockManager.Lock rangeWriteLock =
+                        rangeWriteLockMaps[resource.typeId()].get(id >>> escalationRangeShift);
+                if (rangeWriteLock != null && rangeWriteLock.isOwnedBy(this) && rangeWriteLock.type() == EXCLUSIVE) {
+                    return true;
+                }
+            }
+        }
+        LockTable lockMap = lockMaps[resource.typeId()];
         ForsetiLockManager.Lock lock = lockMap.get(id);
         if (lock == null) {
             return false;
@@ -689,7 +990,30 @@ public class ForsetiClient implements LockManager.Client {
     }
 
     /** Release a lock from the global pool. */
-    private void releaseGlobalLock(ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap, long resourceId) {
+    private void releaseGlobalLock(LockTable lockMap, long resourceId) {
+        dropGlobalLock(lockMap, resourceId);
+        activeLockCount.decrementAndGet();
+    }
+
+    /**
+     * Release a lock that we no longer hold any local references to, taking range locks into account if the resource
+     * type has them.
+     */
+    private void releaseGlobalLock(ResourceType resourceType, LockTable lockMap, long resourceId) {
+        if (rangeLockMaps[resourceType.typeId()] == null) {
+            releaseGlobalLock(lockMap, resourceId);
+            return;
+        }
+        if (isEscalated(resourceType, resourceId)) {
+            activeLockCount.decrementAndGet();
+        } else {
+            releaseGlobalLock(lockMap, resourceId);
+        }
+        leaveRange(resourceType, resourceId);
+    }
+
+    /** Remove ourselves as holder of a lock in the global pool, without updating our own lock count. */
+    private void dropGlobalLock(LockTable lockMap, long resourceId) {
         ForsetiLockManager.Lock lock = lockMap.get(resourceId);
         if (lock instanceof ExclusiveLock) {
             lockMap.remove(resourceId);
@@ -699,7 +1023,341 @@ public class ForsetiClient implements LockManager.Client {
             lockMap.remove(resourceId);
             memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
         }
-        activeLockCount.decrementAndGet();
+    }
+
+    private HeapTrackingLongIntHashMap getRangeLockCount(ResourceType resourceType) {
+        HeapTrackingLongIntHashMap rangeLockCount = rangeLockCounts[resourceType.typeId()];
+        if (rangeLockCount == null) {
+            rangeLockCount = HeapTrackingCollections.newLongIntMap(memoryTracker);
+            rangeLockCounts[resourceType.typeId()] = rangeLockCount;
+        }
+        return rangeLockCount;
+    }
+
+    private boolean isEscalated(ResourceType resourceType, long resourceId) {
+        HeapTrackingLongHashSet escalated = escalatedRanges[resourceType.typeId()];
+        return escalated != null && escalated.contains(resourceId >>> escalationRangeShift);
+    }
+
+    private boolean isSharedEscalated(ResourceType resourceType, long resourceId) {
+        HeapTrackingLongHashSet sharedEscalated = sharedEscalatedRanges[resourceType.typeId()];
+        return sharedEscalated != null && sharedEscalated.contains(resourceId >>> escalationRangeShift);
+    }
+
+    private HeapTrackingLongHashSet getRangeSet(HeapTrackingLongHashSet[] rangeSets, ResourceType resourceType) {
+        HeapTrackingLongHashSet ranges = rangeSets[resourceType.typeId()];
+        if (ranges == null) {
+            ranges = HeapTrackingCollections.newLongSet(memoryTracker);
+            rangeSets[resourceType.typeId()] = ranges;
+        }
+        return ranges;
+    }
+
+    /**
+     * Make sure we hold the range lock of a resource we are about to lock, waiting for it if someone else has
+     * escalated that range, and count the resource as held within the range.
+     *
+     * @return {@code true} if we have escalated the range ourselves, so the resource doesn't need a shared lock of
+     * its own.
+     */
+    private boolean enterRange(LockTracer tracer, ResourceType resourceType, long resourceId)
+            throws AcquireLockTimeoutException {
+        long rangeId = resourceId >>> escalationRangeShift;
+        HeapTrackingLongIntHashMap rangeLocks = getRangeLockCount(resourceType);
+        int count = rangeLocks.getIfAbsent(rangeId, NO_CLIENT_ID);
+        if (count == NO_CLIENT_ID) {
+            acquireRangeLock(tracer, rangeLockMaps[resourceType.typeId()], resourceType, resourceId, rangeId);
+            count = 0;
+        }
+        rangeLocks.put(rangeId, count + 1);
+        return isEscalated(resourceType, resourceId);
+    }
+
+    /**
+     * Like {@link #enterRange(LockTracer, ResourceType, long)}, but without waiting.
+     *
+     * @return {@code false} if someone else has escalated the range, otherwise {@code true}.
+     */
+    private boolean tryEnterRange(ResourceType resourceType, long resourceId) {
+        long rangeId = resourceId >>> escalationRangeShift;
+        HeapTrackingLongIntHashMap rangeLocks = getRangeLockCount(resourceType);
+        int count = rangeLocks.getIfAbsent(rangeId, NO_CLIENT_ID);
+        if (count == NO_CLIENT_ID) {
+            if (!tryAcquireRangeLock(rangeLockMaps[resourceType.typeId()], rangeId)) {
+                return false;
+            }
+            count = 0;
+        }
+        rangeLocks.put(rangeId, count + 1);
+        return true;
+    }
+
+    /**
+     * Make sure we hold the range write lock of a resource we are about to lock exclusively, once we have entered its
+     * range, waiting for it if someone else has escalated the range for their shared locks. If we have escalated the
+     * range for our own shared locks, that escalation is reverted since it can't cover exclusive locks.
+     *
+     * @return {@code true} if we have escalated the range exclusively, so the resource doesn't need a lock of its own.
+     */
+    private boolean enterWriteRange(LockTracer tracer, ResourceType resourceType, long resourceId)
+            throws AcquireLockTimeoutException {
+        if (isEscalated(resourceType, resourceId)) {
+            if (!isSharedEscalated(resourceType, resourceId)) {
+                return true;
+            }
+            revertSharedEscalation(resourceType, resourceId);
+            return false;
+        }
+        long rangeId = resourceId >>> escalationRangeShift;
+        HeapTrackingLongHashSet writes = getRangeSet(writeRanges, resourceType);
+        if (!writes.contains(rangeId)) {
+            acquireRangeLock(tracer, rangeWriteLockMaps[resourceType.typeId()], resourceType, resourceId, rangeId);
+            writes.add(rangeId);
+        }
+        return false;
+    }
+
+    /**
+     * Like {@link #enterWriteRange(LockTracer, ResourceType, long)}, but without waiting.
+     *
+     * @return {@code false} if someone else has escalated the range for their shared locks, otherwise {@code true}.
+     */
+    private boolean tryEnterWriteRange(ResourceType resourceType, long resourceId) {
+        if (isEscalated(resourceType, resourceId)) {
+            if (isSharedEscalated(resourceType, resourceId)) {
+                revertSharedEscalation(resourceType, resourceId);
+            }
+            return true;
+        }
+        long rangeId = resourceId >>> escalationRangeShift;
+        HeapTrackingLongHashSet writes = getRangeSet(writeRanges, resourceType);
+        if (!writes.contains(rangeId)) {
+            if (!tryAcquireRangeLock(rangeWriteLockMaps[resourceType.typeId()], rangeId)) {
+                return false;
+            }
+            writes.add(rangeId);
+        }
+        return true;
+    }
+
+    /**
+     * Take a shared lock on a range, which is what keeps others from escalating it while we lock within it, waiting
+     * for it if someone else has escalated the range.
+     */
+    private void acquireRangeLock(
+            LockTracer tracer, LockTable rangeLockMap, ResourceType resourceType, long resourceId, long rangeId)
+            throws AcquireLockTimeoutException {
+        memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
+        LockWaitEvent waitEvent = null;
+        SharedLock mySharedLock = null;
+        int tries = 0;
+        long waitStartNano = clock.nanos();
+        try {
+            while (true) {
+                assertValid(waitStartNano, resourceType, resourceId);
+
+                ForsetiLockManager.Lock existingLock = rangeLockMap.get(rangeId);
+                if (existingLock == null) {
+                    if (mySharedLock == null) {
+                        mySharedLock = new SharedLock(this);
+                    }
+                    if (rangeLockMap.putIfAbsent(rangeId, mySharedLock) == null) {
+                        return;
+                    }
+                    continue;
+                } else if (existingLock instanceof SharedLock sharedLock) {
+                    if (sharedLock.acquire(this)) {
+                        return;
+                    }
+                } else {
+                    throw new UnsupportedOperationException("Unknown range lock type: " + existingLock);
+                }
+
+                // Someone has escalated this range, so wait for them like we would for the resource itself
+                if (waitEvent == null) {
+                    waitEvent = tracer.waitForLock(SHARED, resourceType, transactionId, resourceId);
+                }
+                waitFor(existingLock, resourceType, resourceId, SHARED, tries++);
+            }
+        } catch (Throwable e) {
+            memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+            throw e;
+        } finally {
+            if (waitEvent != null) {
+                waitEvent.close();
+                clearWaitState();
+            }
+        }
+    }
+
+    /**
+     * Like {@link #acquireRangeLock(LockTracer, LockTable, ResourceType, long, long)}, but without waiting.
+     *
+     * @return {@code false} if someone else has escalated the range, otherwise {@code true}.
+     */
+    private boolean tryAcquireRangeLock(LockTable rangeLockMap, long rangeId) {
+        memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
+        while (true) {
+            ForsetiLockManager.Lock existingLock = rangeLockMap.get(rangeId);
+            if (existingLock == null) {
+                if (rangeLockMap.putIfAbsent(rangeId, new SharedLock(this)) == null) {
+                    return true;
+                }
+            } else if (existingLock instanceof SharedLock sharedLock) {
+                if (sharedLock.acquire(this)) {
+                    return true;
+                } else if (sharedLock.isUpdateLock()) {
+                    memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+                    return false;
+                }
+            } else {
+                throw new UnsupportedOperationException("Unknown range lock type: " + existingLock);
+            }
+        }
+    }
+
+    /**
+     * Count a resource as no longer held within its range, releasing the range locks if it was the last one.
+     */
+    private void leaveRange(ResourceType resourceType, long resourceId) {
+        long rangeId = resourceId >>> escalationRangeShift;
+        HeapTrackingLongIntHashMap rangeLocks = getRangeLockCount(resourceType);
+        int count = rangeLocks.getIfAbsent(rangeId, NO_CLIENT_ID);
+        if (count > 1) {
+            rangeLocks.put(rangeId, count - 1);
+            return;
+        }
+        rangeLocks.remove(rangeId);
+        HeapTrackingLongHashSet escalated = escalatedRanges[resourceType.typeId()];
+        if (escalated != null) {
+            escalated.remove(rangeId);
+        }
+        HeapTrackingLongHashSet writes = writeRanges[resourceType.typeId()];
+        HeapTrackingLongHashSet sharedEscalated = sharedEscalatedRanges[resourceType.typeId()];
+        boolean heldWriteRange = writes != null && writes.remove(rangeId);
+        heldWriteRange |= sharedEscalated != null && sharedEscalated.remove(rangeId);
+        if (heldWriteRange) {
+            dropGlobalLock(rangeWriteLockMaps[resourceType.typeId()], rangeId);
+        }
+        dropGlobalLock(rangeLockMaps[resourceType.typeId()], rangeId);
+    }
+
+    /**
+     * Escalate the range of a resource we just locked, if we now hold enough resources within it. The individual
+     * locks in the range are then released from the global lock map, while we keep counting them locally so that
+     * releasing them behaves as before.
+     * <p>
+     * If we have taken exclusive locks in the range, the range lock is upgraded to an exclusive one, which requires
+     * that no one else holds anything in the range. Otherwise we only hold shared locks in it, and the range write
+     * lock is taken exclusively instead, which only requires that no one else holds exclusive locks in the range, and
+     * still lets others take shared locks in it.
+     * <p>
+     * Escalation never waits, so it can't introduce any deadlocks of its own.
+     */
+    private void maybeEscalate(ResourceType resourceType, long resourceId) {
+        long rangeId = resourceId >>> escalationRangeShift;
+        if (getRangeLockCount(resourceType).get(rangeId) < escalationThreshold
+                || isEscalated(resourceType, resourceId)) {
+            return;
+        }
+        HeapTrackingLongHashSet writes = writeRanges[resourceType.typeId()];
+        boolean sharedOnly = writes == null || !writes.contains(rangeId);
+        if (sharedOnly) {
+            if (!tryLockRangeAgainstWriters(resourceType, rangeId)) {
+                return;
+            }
+            getRangeSet(sharedEscalatedRanges, resourceType).add(rangeId);
+        } else if (!(rangeLockMaps[resourceType.typeId()].get(rangeId) instanceof SharedLock rangeLock)
+                || !tryAcquireSoleUpdateLock(rangeLock)) {
+            return;
+        }
+        getRangeSet(escalatedRanges, resourceType).add(rangeId);
+
+        // Only visit the locks we hold, rather than every id in the range
+        LockTable lockMap = lockMaps[resourceType.typeId()];
+        HeapTrackingLongIntHashMap exclusiveLocks = getExclusiveLockCount(resourceType);
+        exclusiveLocks.forEachKey(id -> {
+            if (id >>> escalationRangeShift == rangeId) {
+                dropGlobalLock(lockMap, id);
+            }
+        });
+        getSharedLockCount(resourceType).forEachKey(id -> {
+            if (id >>> escalationRangeShift == rangeId && !exclusiveLocks.containsKey(id)) {
+                dropGlobalLock(lockMap, id);
+            }
+        });
+        escalations.increment();
+    }
+
+    /**
+     * Take the range write lock of a range exclusively, which we can only do if no one else holds it, i.e. no one
+     * holds exclusive locks in the range. We don't hold it ourselves either, or we would escalate the range lock.
+     */
+    private boolean tryLockRangeAgainstWriters(ResourceType resourceType, long rangeId) {
+        LockTable rangeWriteLockMap = rangeWriteLockMaps[resourceType.typeId()];
+        SharedLock rangeWriteLock = new SharedLock(this);
+        memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
+        if (rangeWriteLockMap.putIfAbsent(rangeId, rangeWriteLock) != null) {
+            memoryTracker.releaseHeap(CONCURRENT_NODE_SIZE);
+            return false;
+        }
+        if (tryAcquireSoleUpdateLock(rangeWriteLock)) {
+            return true;
+        }
+        // Someone got in on the range write lock before we could take it exclusively
+        dropGlobalLock(rangeWriteLockMap, rangeId);
+        return false;
+    }
+
+    /** Upgrade a shared lock we hold into an update lock, if we are the only one holding it. */
+    private static boolean tryAcquireSoleUpdateLock(SharedLock lock) {
+        if (!lock.tryAcquireUpdateLock()) {
+            return false;
+        }
+        if (lock.numberOfHolders() != 1) {
+            lock.releaseUpdateLock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Put our shared locks in a range we escalated for shared locks back into the global lock map, so that we can
+     * take exclusive locks in the range. We keep holding the range write lock, only no longer exclusively, so no one
+     * else can hold an exclusive lock on any of those resources, and this never has to wait.
+     */
+    private void revertSharedEscalation(ResourceType resourceType, long resourceId) {
+        long rangeId = resourceId >>> escalationRangeShift;
+        LockTable lockMap = lockMaps[resourceType.typeId()];
+        getSharedLockCount(resourceType).forEachKey(id -> {
+            if (id >>> escalationRangeShift == rangeId) {
+                reacquireSharedLock(lockMap, id);
+            }
+        });
+        escalatedRanges[resourceType.typeId()].remove(rangeId);
+        sharedEscalatedRanges[resourceType.typeId()].remove(rangeId);
+        getRangeSet(writeRanges, resourceType).add(rangeId);
+        ((SharedLock) rangeWriteLockMaps[resourceType.typeId()].get(rangeId)).releaseUpdateLock();
+    }
+
+    private void reacquireSharedLock(LockTable lockMap, long resourceId) {
+        memoryTracker.allocateHeap(CONCURRENT_NODE_SIZE);
+        while (true) {
+            ForsetiLockManager.Lock existingLock = lockMap.get(resourceId);
+            if (existingLock == null) {
+                if (lockMap.putIfAbsent(resourceId, new SharedLock(this)) == null) {
+                    return;
+                }
+            } else if (existingLock instanceof SharedLock sharedLock) {
+                if (sharedLock.acquire(this)) {
+                    return;
+                }
+                // The last holder is just removing this lock, try again
+            } else {
+                throw new IllegalStateException(
+                        this + " found " + existingLock + " in a range that it holds the range write lock of.");
+            }
+        }
     }
 
     /** Release a lock locally, and return true if we still hold more references to that lock. */
@@ -724,7 +1382,7 @@ public class ForsetiClient implements LockManager.Client {
             LockTracer tracer,
             LockWaitEvent waitEvent,
             ResourceType resourceType,
-            ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap,
+            LockTable lockMap,
             long resourceId,
             SharedLock sharedLock,
             long waitStartNano)
@@ -804,6 +1462,10 @@ public class ForsetiClient implements LockManager.Client {
 
     private void waitFor(
             ForsetiLockManager.Lock lock, ResourceType type, long resourceId, LockType lockType, int tries) {
+        if (deadlockDetector != null) {
+            waitForDetectingCentrally(lock, type, resourceId, lockType, tries);
+            return;
+        }
         clearAndCopyWaitList(lock);
         noteWaitingForLock(lock, type, resourceId, lockType);
         incrementalBackoffWait(tries);
@@ -848,6 +1510,37 @@ public class ForsetiClient implements LockManager.Client {
         }
     }
 
+    /**
+     * Wait for a lock while the central deadlock detector looks for deadlocks, which saves us from copying wait lists
+     * and checking lock holders on every try.
+     */
+    private void waitForDetectingCentrally(
+            ForsetiLockManager.Lock lock, ResourceType type, long resourceId, LockType lockType, int tries) {
+        if (waitingForLock == null) {
+            deadlockDetector.startWaiting(this);
+        }
+        noteWaitingForLock(lock, type, resourceId, lockType);
+        incrementalBackoffWait(tries);
+
+        if (deadlockVictimOf.get() == lock) {
+            throw new DeadlockDetectedException(format(
+                    "%s can't acquire %s %s because it was chosen to break this deadlock wait cycle:%n%s",
+                    this, lockType, lockString(type, resourceId), deadlockCycle));
+        }
+        if ((tries & 8191) == 8191) {
+            // The detector doesn't know which threads commit which transactions, so that check is still ours to do
+            clearWaitList();
+            lock.collectOwners(waitList);
+            for (ForsetiClient client : waitList) {
+                if (clientCommittingByCurrentThread(client) && isDeadlockReal(lock) != -1) {
+                    String message = this + " can't acquire " + lock + " on " + type + "(" + resourceId
+                            + "), because we are waiting for " + client + " that is committing on the same thread";
+                    throw new DeadlockDetectedException(message);
+                }
+            }
+        }
+    }
+
     @VisibleForTesting
     public static void incrementalBackoffWait(long iteration) throws AcquireLockTimeoutException {
         if (iteration < MAX_SPINS) {
@@ -1075,16 +1768,20 @@ public class ForsetiClient implements LockManager.Client {
      * is no need to check for those. It is used when releasing all locks.
      */
     private class ReleaseSharedDontCheckExclusiveVisitor implements LongProcedure {
-        private ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap;
+        private LockTable lockMap;
+        private HeapTrackingLongHashSet escalatedRanges;
 
-        private LongProcedure initialize(ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap) {
+        private LongProcedure initialize(LockTable lockMap, HeapTrackingLongHashSet escalatedRanges) {
             this.lockMap = lockMap;
+            this.escalatedRanges = escalatedRanges;
             return this;
         }
 
         @Override
         public void value(long resourceId) {
-            releaseGlobalLock(lockMap, resourceId);
+            if (escalatedRanges == null || !escalatedRanges.contains(resourceId >>> escalationRangeShift)) {
+                releaseGlobalLock(lockMap, resourceId);
+            }
         }
     }
 
@@ -1094,18 +1791,24 @@ public class ForsetiClient implements LockManager.Client {
      */
     private class ReleaseExclusiveLocksAndClearSharedVisitor implements LongProcedure {
         private HeapTrackingLongIntHashMap sharedLockCounts;
-        private ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap;
+        private LockTable lockMap;
+        private HeapTrackingLongHashSet escalatedRanges;
 
         private LongProcedure initialize(
-                HeapTrackingLongIntHashMap sharedLockCounts, ConcurrentMap<Long, ForsetiLockManager.Lock> lockMap) {
+                HeapTrackingLongIntHashMap sharedLockCounts,
+                LockTable lockMap,
+                HeapTrackingLongHashSet escalatedRanges) {
             this.sharedLockCounts = sharedLockCounts;
             this.lockMap = lockMap;
+            this.escalatedRanges = escalatedRanges;
             return this;
         }
 
         @Override
         public void value(long resourceId) {
-            releaseGlobalLock(lockMap, resourceId);
+            if (escalatedRanges == null || !escalatedRanges.contains(resourceId >>> escalationRangeShift)) {
+                releaseGlobalLock(lockMap, resourceId);
+            }
 
             // If we hold this as a shared lock, we can throw that shared lock away directly, since we haven't
             // followed the down-grade protocol.
@@ -19,19 +19,25 @@
  */
 package org.neo4j.kernel.impl.locking.forseti;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.lock_manager_central_deadlock_detection;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.lock_manager_central_deadlock_detection_interval;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.lock_manager_escalation_range_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.lock_manager_escalation_threshold;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.lock_manager_verbose_deadlocks;
 
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.eclipse.collections.api.set.primitive.LongSet;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.SettingChangeListener;
 import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.lock.LockTracer;
 import org.neo4j.lock.LockType;
 import org.neo4j.lock.ResourceType;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
 /**
@@ -102,6 +108,26 @@ import org.neo4j.time.SystemNanoClock;
  * traversing the graph like this until we either find ourselves amongst the owners - a deadlock - or we run out of
  * locks that are being waited upon - no deadlock.
  * <p/>
+ * <h2>Lock escalation</h2>
+ * <p/>
+ * Transactions that lock a lot of nodes or relationships can have those locks escalated into locks on ranges of ids.
+ * When escalation is enabled, a client first takes a shared lock on the range of a node or relationship before locking
+ * the node or relationship itself, and also a shared lock on the range write lock before locking it exclusively. Once
+ * a client holds enough locks in one range it escalates them, and drops the individual locks from the global lock map.
+ * Any further locks it takes in that range are then only tracked locally. If the client has taken exclusive locks in
+ * the range, and is the only client holding that range, it upgrades its range lock to an exclusive one, and other
+ * clients wanting to lock anything in that range will block on the range lock. If it has only taken shared locks in
+ * the range, and no one else holds the range write lock, it takes the range write lock exclusively instead, so that
+ * only clients wanting to lock something in that range exclusively will block. Range locks take part in deadlock
+ * detection like any other lock.
+ * <p/>
+ * <h2>Central deadlock detection</h2>
+ * <p/>
+ * Under heavy contention, having every waiting client copy wait lists and check lock holders on every try costs a lot
+ * of CPU. Deadlock detection can instead be done by a {@link WaitForGraphDeadlockDetector}, which periodically builds
+ * the graph of waiting clients and the owners of the locks they wait for, and aborts one client in each cycle it
+ * finds. Waiting clients then only check whether they have been chosen to be aborted.
+ * <p/>
  */
 public class ForsetiLockManager implements LockManager {
     /** This is Forsetis internal lock API, which it uses to do deadlock detection. */
@@ -155,8 +181,24 @@ public class ForsetiLockManager implements LockManager {
     private final Config config;
     private final SettingChangeListener<Boolean> verboseDeadlocksSettingListener;
 
-    /** Pointers to lock maps, one array per resource type. */
-    private final ConcurrentMap<Long, ForsetiLockManager.Lock>[] lockMaps;
+    /** Pointers to lock tables, one per resource type. */
+    private final LockTable[] lockMaps;
+
+    /**
+     * Lock tables for ranges of resource ids, only present for resource types that locks can be escalated for.
+     * See {@link ForsetiClient} for how range locks are used.
+     */
+    private final LockTable[] rangeLockMaps;
+
+    /** Range write lock tables, present for the same resource types as {@link #rangeLockMaps}. */
+    private final LockTable[] rangeWriteLockMaps;
+
+    private final int escalationThreshold;
+    private final int escalationRangeShift;
+    private final LongAdder escalations = new LongAdder();
+
+    /** Central deadlock detector, or {@code null} if clients detect deadlocks themselves. */
+    private final WaitForGraphDeadlockDetector deadlockDetector;
 
     /** Reverse lookup resource types by id, used for introspection */
     private final ResourceType[] resourceTypes;
@@ -168,17 +210,30 @@ public class ForsetiLockManager implements LockManager {
     private volatile boolean verboseDeadlocks;
     private volatile boolean closed;
 
-    @SuppressWarnings("unchecked")
     public ForsetiLockManager(Config config, SystemNanoClock clock, ResourceType... resourceTypes) {
         this.config = config;
         int maxResourceId = findMaxResourceId(resourceTypes);
-        this.lockMaps = new ConcurrentMap[maxResourceId];
+        this.lockMaps = new LockTable[maxResourceId];
         this.resourceTypes = new ResourceType[maxResourceId];
 
+        this.rangeLockMaps = new LockTable[maxResourceId];
+        this.rangeWriteLockMaps = new LockTable[maxResourceId];
+        this.escalationThreshold = config.get(lock_manager_escalation_threshold);
+        this.escalationRangeShift = Integer.numberOfTrailingZeros(
+                Integer.highestOneBit(config.get(lock_manager_escalation_range_size) - 1) << 1);
+
         for (ResourceType type : resourceTypes) {
-            this.lockMaps[type.typeId()] = new ConcurrentHashMap<>(16, 0.6f, 512);
+            this.lockMaps[type.typeId()] = new LockTable();
             this.resourceTypes[type.typeId()] = type;
+            if (escalationThreshold > 0 && (type == ResourceType.NODE || type == ResourceType.RELATIONSHIP)) {
+                this.rangeLockMaps[type.typeId()] = new LockTable();
+                this.rangeWriteLockMaps[type.typeId()] = new LockTable();
+            }
         }
+        this.deadlockDetector = config.get(lock_manager_central_deadlock_detection)
+                ? new WaitForGraphDeadlockDetector(
+                        config.get(lock_manager_central_deadlock_detection_interval).toMillis())
+                : null;
         this.clock = clock;
         this.verboseDeadlocks = config.get(lock_manager_verbose_deadlocks);
         this.verboseDeadlocksSettingListener = (oldValue, newValue) -> verboseDeadlocks = newValue;
@@ -194,7 +249,48 @@ public class ForsetiLockManager implements LockManager {
             throw new IllegalStateException(this + " already closed");
         }
 
-        return new ForsetiClient(lockMaps, clock, verboseDeadlocks, clientIds.incrementAndGet());
+        return new ForsetiClient(
+                lockMaps,
+                rangeLockMaps,
+                rangeWriteLockMaps,
+                escalationThreshold,
+                escalationRangeShift,
+                escalations,
+                deadlockDetector,
+                clock,
+                verboseDeadlocks,
+                clientIds.incrementAndGet());
+    }
+
+    /**
+     * @return number of times a client has escalated its locks within a range of resource ids into a single lock on
+     * that range.
+     */
+    public long numberOfEscalations() {
+        return escalations.sum();
+    }
+
+    /**
+     * @return number of deadlocks broken by central deadlock detection.
+     */
+    public long numberOfDetectedDeadlocks() {
+        return deadlockDetector == null ? 0 : deadlockDetector.numberOfDeadlocks();
+    }
+
+    /**
+     * Get the lifecycle that runs central deadlock detection, if enabled, on the given scheduler while started.
+     *
+     * @param scheduler scheduler to run detection on.
+     * @param tracer tracer to report detected deadlocks and wait chains to.
+     * @param databaseName name of the database this lock manager is for, for monitoring of the detection job.
+     * @return lifecycle running the deadlock detection.
+     */
+    public Lifecycle deadlockDetection(JobScheduler scheduler, LockTracer tracer, String databaseName) {
+        if (deadlockDetector == null) {
+            return new LifecycleAdapter();
+        }
+        deadlockDetector.initialize(scheduler, tracer, databaseName);
+        return deadlockDetector;
     }
 
     @Override
@@ -202,14 +298,13 @@ public class ForsetiLockManager implements LockManager {
         for (int i = 0; i < lockMaps.length; i++) {
             if (lockMaps[i] != null) {
                 var resourceType = resourceTypes[i];
-                for (Map.Entry<Long, Lock> entry : lockMaps[i].entrySet()) {
-                    var lock = entry.getValue();
+                lockMaps[i].forEach((resourceId, lock) -> {
                     var description = lock.describeWaitList();
                     var transactionIds = lock.transactionIds();
                     int lockIdentityHashCode = System.identityHashCode(lock);
                     transactionIds.forEach(txId -> out.visit(
-                            lock.type(), resourceType, txId, entry.getKey(), description, 0, lockIdentityHashCode));
-                }
+                            lock.type(), resourceType, txId, resourceId, description, 0, lockIdentityHashCode));
+                });
             }
         }
     }
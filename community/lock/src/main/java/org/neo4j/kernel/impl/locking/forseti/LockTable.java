@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import org.eclipse.collections.api.block.procedure.primitive.LongObjectProcedure;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+/**
+ * The global table of {@link ForsetiLockManager.Lock locks} for a single resource type, keyed by resource id.
+ * <p>
+ * Resource ids are kept as primitive longs in open addressing hash tables, so unlike a
+ * {@code ConcurrentMap<Long, Lock>} looking up, inserting and removing locks doesn't allocate boxed keys or map nodes.
+ * The table is split into a fixed number of stripes by resource id. Lookups never lock anything, while inserting and
+ * removing locks are guarded by the monitor of the stripe. Stripes are only held for the duration of a single table
+ * operation, never while waiting for a lock, so the number of stripes only has to be large enough to make it unlikely
+ * that two threads insert or remove on the same stripe at the same time.
+ * <p>
+ * A slot of a stripe is assigned to a resource id once and keeps it until the stripe is rehashed, removing a lock
+ * only clears the lock of the slot. Slots are published by writing the key and the lock before marking the slot as
+ * used, and rehashing publishes a new table, so a lookup that doesn't lock sees either the current lock of the
+ * resource or one that was just inserted or removed, same as when reading a concurrent map.
+ */
+final class LockTable {
+    private static final int STRIPES = stripes();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final VarHandle USED = MethodHandles.arrayElementVarHandle(boolean[].class);
+    private static final VarHandle LOCKS = MethodHandles.arrayElementVarHandle(ForsetiLockManager.Lock[].class);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    LockTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    ForsetiLockManager.Lock get(long resourceId) {
+        Table table = stripe(resourceId).table;
+        for (int slot = table.firstSlot(resourceId); ; slot = table.nextSlot(slot)) {
+            if (!(boolean) USED.getAcquire(table.used, slot)) {
+                return null;
+            }
+            if (table.keys[slot] == resourceId) {
+                return (ForsetiLockManager.Lock) LOCKS.getAcquire(table.locks, slot);
+            }
+        }
+    }
+
+    /**
+     * @return the lock already in the table for the given resource, in which case the given lock is not inserted,
+     * or {@code null} if the given lock was inserted.
+     */
+    ForsetiLockManager.Lock putIfAbsent(long resourceId, ForsetiLockManager.Lock lock) {
+        Stripe stripe = stripe(resourceId);
+        synchronized (stripe) {
+            int slot = stripe.slotFor(resourceId);
+            ForsetiLockManager.Lock existing = stripe.table.locks[slot];
+            if (existing == null) {
+                stripe.set(slot, lock);
+            }
+            return existing;
+        }
+    }
+
+    void put(long resourceId, ForsetiLockManager.Lock lock) {
+        Stripe stripe = stripe(resourceId);
+        synchronized (stripe) {
+            stripe.set(stripe.slotFor(resourceId), lock);
+        }
+    }
+
+    void remove(long resourceId) {
+        Stripe stripe = stripe(resourceId);
+        synchronized (stripe) {
+            stripe.remove(resourceId);
+        }
+    }
+
+    /**
+     * Visit all locks in the table. Like iterating a concurrent map this is only weakly consistent: locks that are
+     * inserted or removed during the iteration may or may not be visited. The procedure is not called while holding
+     * any stripe, so it is free to take its time. Only meant for introspection, since it allocates.
+     */
+    void forEach(LongObjectProcedure<ForsetiLockManager.Lock> procedure) {
+        for (Stripe stripe : stripes) {
+            LongObjectHashMap<ForsetiLockManager.Lock> snapshot;
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+                snapshot = new LongObjectHashMap<>(stripe.size);
+                Table table = stripe.table;
+                for (int slot = 0; slot < table.keys.length; slot++) {
+                    if (table.locks[slot] != null) {
+                        snapshot.put(table.keys[slot], table.locks[slot]);
+                    }
+                }
+            }
+            snapshot.forEachKeyValue(procedure);
+        }
+    }
+
+    private Stripe stripe(long resourceId) {
+        // Resource ids are often dense, so mix the bits before picking a stripe to not have neighbours share stripes
+        long hash = resourceId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & (STRIPES - 1)];
+    }
+
+    private static int stripes() {
+        int wanted = Math.max(64, Runtime.getRuntime().availableProcessors() * 8);
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+
+    /**
+     * The slots of a stripe. Linear probing, kept at most half full counting slots of removed locks, so that probing
+     * always ends at an unused slot.
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final ForsetiLockManager.Lock[] locks;
+        private final boolean[] used;
+        private final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            locks = new ForsetiLockManager.Lock[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        int firstSlot(long resourceId) {
+            // The upper half of the mixed bits picks the stripe, so probe with the lower half
+            return (int) (resourceId * 0x9E3779B97F4A7C15L) & mask;
+        }
+
+        int nextSlot(int slot) {
+            return (slot + 1) & mask;
+        }
+    }
+
+    private static final class Stripe {
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private int usedSlots;
+        private int size;
+
+        /**
+         * @return the slot of the given resource, assigning an unused slot to it if it has none.
+         */
+        int slotFor(long resourceId) {
+            Table current = table;
+            int slot = current.firstSlot(resourceId);
+            while (current.used[slot]) {
+                if (current.keys[slot] == resourceId) {
+                    return slot;
+                }
+                slot = current.nextSlot(slot);
+            }
+            if ((usedSlots + 1) * 2 > current.keys.length) {
+                rehash();
+                return slotFor(resourceId);
+            }
+            current.keys[slot] = resourceId;
+            USED.setRelease(current.used, slot, true);
+            usedSlots++;
+            return slot;
+        }
+
+        void set(int slot, ForsetiLockManager.Lock lock) {
+            Table current = table;
+            if (current.locks[slot] == null) {
+                size++;
+            }
+            LOCKS.setRelease(current.locks, slot, lock);
+        }
+
+        void remove(long resourceId) {
+            Table current = table;
+            for (int slot = current.firstSlot(resourceId); current.used[slot]; slot = current.nextSlot(slot)) {
+                if (current.keys[slot] == resourceId) {
+                    if (current.locks[slot] != null) {
+                        LOCKS.setRelease(current.locks, slot, null);
+                        size--;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves the locks into a new table, leaving the slots of removed locks behind. Sized for the current number of
+         * locks, so a stripe shrinks again once the locks of a burst of activity are released.
+         */
+        private void rehash() {
+            Table current = table;
+            int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 4 - 1) << 1);
+            Table rehashed = new Table(capacity);
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                ForsetiLockManager.Lock lock = current.locks[slot];
+                if (lock != null) {
+                    int newSlot = rehashed.firstSlot(current.keys[slot]);
+                    while (rehashed.used[newSlot]) {
+                        newSlot = rehashed.nextSlot(newSlot);
+                    }
+                    rehashed.keys[newSlot] = current.keys[slot];
+                    rehashed.locks[newSlot] = lock;
+                    rehashed.used[newSlot] = true;
+                }
+            }
+            usedSlots = size;
+            table = rehashed;
+        }
+    }
+}
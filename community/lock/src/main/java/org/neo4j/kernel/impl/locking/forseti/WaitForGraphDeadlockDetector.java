@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Central deadlock detector, used instead of having every waiting {@link ForsetiClient} look for deadlocks on its own
+ * while it waits. Clients register with the detector when they start waiting for a lock, and unregister when they
+ * stop waiting, so the detector only ever looks at clients that are actually waiting.
+ * <p/>
+ * Each pass builds a wait-for graph with an edge from each waiting client to each of the current owners of the lock
+ * it waits for, and looks for cycles in it. Since the owners of a lock can only be collected racily, a cycle is not
+ * acted upon when first seen. Instead the client that would break it is remembered as a suspect, and only if the
+ * next pass chooses the same client, still waiting for the same lock in the same transaction, is that client aborted.
+ * <p/>
+ * The client to abort is the one in the cycle holding the fewest locks, since it is the cheapest one to retry. If
+ * several clients hold equally many locks, the youngest transaction is aborted. This is the same choice as the one
+ * made by the per-client deadlock detection.
+ */
+final class WaitForGraphDeadlockDetector extends LifecycleAdapter implements Runnable {
+    private final Set<ForsetiClient> waitingClients = ConcurrentHashMap.newKeySet();
+    private final LongAdder deadlocks = new LongAdder();
+    private final long intervalMillis;
+
+    private volatile LockTracer tracer = LockTracer.NONE;
+    private volatile JobScheduler scheduler;
+    private volatile String databaseName;
+    private volatile int longestWaitChain;
+    private JobHandle<?> handle;
+
+    // Only accessed by the detection pass, which never runs concurrently with itself
+    private Map<ForsetiClient, Suspect> suspects = new HashMap<>();
+
+    WaitForGraphDeadlockDetector(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Prepare for running detection passes on the given scheduler, which will happen once this detector is started.
+     */
+    void initialize(JobScheduler scheduler, LockTracer tracer, String databaseName) {
+        this.scheduler = scheduler;
+        this.tracer = tracer;
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            handle = scheduler.scheduleRecurring(
+                    Group.LOCK_DEADLOCK_DETECTION,
+                    systemJob(databaseName, "Lock deadlock detection"),
+                    this,
+                    intervalMillis,
+                    MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+    }
+
+    void startWaiting(ForsetiClient client) {
+        waitingClients.add(client);
+    }
+
+    void stopWaiting(ForsetiClient client) {
+        waitingClients.remove(client);
+    }
+
+    /**
+     * @return number of deadlocks that have been broken by aborting a waiting client.
+     */
+    long numberOfDeadlocks() {
+        return deadlocks.sum();
+    }
+
+    /**
+     * @return length of the longest chain of clients waiting for each other, as seen by the most recent pass.
+     */
+    int longestWaitChain() {
+        return longestWaitChain;
+    }
+
+    @Override
+    public void run() {
+        detectDeadlocks();
+    }
+
+    synchronized void detectDeadlocks() {
+        Map<ForsetiClient, WaitEdge> graph = buildWaitForGraph();
+        int waiting = graph.size();
+        Map<ForsetiClient, Suspect> nextSuspects = new HashMap<>();
+        List<ForsetiClient> cycle;
+        while ((cycle = findCycle(graph)) != null) {
+            ForsetiClient victim = chooseVictim(cycle);
+            WaitEdge edge = graph.get(victim);
+            Suspect suspect = new Suspect(edge.lock(), victim.transactionId());
+            if (suspect.equals(suspects.get(victim))) {
+                if (victim.abortWaitFor(edge.lock(), describeCycle(cycle, graph))) {
+                    deadlocks.increment();
+                    tracer.deadlockDetected(suspect.transactionId(), cycle.size());
+                }
+            } else {
+                nextSuspects.put(victim, suspect);
+            }
+            // Either way, the victim will not be waiting for anyone once this cycle is broken
+            graph.remove(victim);
+        }
+        suspects = nextSuspects;
+
+        longestWaitChain = waiting == 0 ? 0 : longestWaitChain(graph);
+        if (waiting > 0) {
+            tracer.waitChains(waiting, longestWaitChain);
+        }
+    }
+
+    private Map<ForsetiClient, WaitEdge> buildWaitForGraph() {
+        Map<ForsetiClient, WaitEdge> graph = new HashMap<>();
+        for (ForsetiClient client : waitingClients) {
+            ForsetiLockManager.Lock lock = client.waitingForLock();
+            if (lock == null || lock.isClosed()) {
+                continue;
+            }
+            Set<ForsetiClient> owners = new HashSet<>();
+            lock.collectOwners(owners);
+            owners.remove(client);
+            if (!owners.isEmpty()) {
+                graph.put(client, new WaitEdge(lock, client.describeWaitingFor(), owners));
+            }
+        }
+        return graph;
+    }
+
+    private static List<ForsetiClient> findCycle(Map<ForsetiClient, WaitEdge> graph) {
+        Set<ForsetiClient> visited = new HashSet<>();
+        List<ForsetiClient> path = new ArrayList<>();
+        Set<ForsetiClient> onPath = new HashSet<>();
+        for (ForsetiClient client : graph.keySet()) {
+            List<ForsetiClient> cycle = findCycle(graph, client, visited, path, onPath);
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        return null;
+    }
+
+    private static List<ForsetiClient> findCycle(
+            Map<ForsetiClient, WaitEdge> graph,
+            ForsetiClient client,
+            Set<ForsetiClient> visited,
+            List<ForsetiClient> path,
+            Set<ForsetiClient> onPath) {
+        if (onPath.contains(client)) {
+            return new ArrayList<>(path.subList(path.indexOf(client), path.size()));
+        }
+        WaitEdge edge = graph.get(client);
+        if (edge == null || !visited.add(client)) {
+            return null;
+        }
+        path.add(client);
+        onPath.add(client);
+        for (ForsetiClient owner : edge.owners()) {
+            List<ForsetiClient> cycle = findCycle(graph, owner, visited, path, onPath);
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        path.remove(path.size() - 1);
+        onPath.remove(client);
+        return null;
+    }
+
+    /**
+     * The graph is acyclic at this point, since all cycles have been broken, so the longest chain from each client
+     * can be computed from the longest chains of the clients it waits for.
+     */
+    private static int longestWaitChain(Map<ForsetiClient, WaitEdge> graph) {
+        Map<ForsetiClient, Integer> chains = new HashMap<>();
+        int longest = 0;
+        for (ForsetiClient client : graph.keySet()) {
+            longest = Math.max(longest, longestWaitChain(graph, client, chains));
+        }
+        return longest;
+    }
+
+    private static int longestWaitChain(
+            Map<ForsetiClient, WaitEdge> graph, ForsetiClient client, Map<ForsetiClient, Integer> chains) {
+        Integer known = chains.get(client);
+        if (known != null) {
+            return known;
+        }
+        int longest = 1;
+        WaitEdge edge = graph.get(client);
+        if (edge != null) {
+            for (ForsetiClient owner : edge.owners()) {
+                longest = Math.max(longest, 1 + longestWaitChain(graph, owner, chains));
+            }
+        }
+        chains.put(client, longest);
+        return longest;
+    }
+
+    /**
+     * Abort the client holding the fewest locks, or if several hold equally many, the youngest transaction.
+     */
+    static ForsetiClient chooseVictim(List<ForsetiClient> cycle) {
+        ForsetiClient victim = null;
+        for (ForsetiClient client : cycle) {
+            if (victim == null
+                    || client.activeLockCount() < victim.activeLockCount()
+                    || (client.activeLockCount() == victim.activeLockCount()
+                            && client.transactionId() > victim.transactionId())) {
+                victim = client;
+            }
+        }
+        return victim;
+    }
+
+    private static String describeCycle(List<ForsetiClient> cycle, Map<ForsetiClient, WaitEdge> graph) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < cycle.size(); i++) {
+            ForsetiClient client = cycle.get(i);
+            ForsetiClient next = cycle.get((i + 1) % cycle.size());
+            description
+                    .append(client)
+                    .append(" waits for ")
+                    .append(graph.get(client).waitingFor())
+                    .append(" held by ")
+                    .append(next)
+                    .append(String.format("%n"));
+        }
+        return description.toString();
+    }
+
+    private record WaitEdge(ForsetiLockManager.Lock lock, String waitingFor, Set<ForsetiClient> owners) {}
+
+    private record Suspect(ForsetiLockManager.Lock lock, long transactionId) {}
+}
@@ -45,6 +45,20 @@ final class CombinedTracer implements LockTracer {
         return new CombinedEvent(events);
     }
 
+    @Override
+    public void deadlockDetected(long transactionId, int waitCycleLength) {
+        for (LockTracer tracer : tracers) {
+            tracer.deadlockDetected(transactionId, waitCycleLength);
+        }
+    }
+
+    @Override
+    public void waitChains(int waitingTransactions, int longestWaitChain) {
+        for (LockTracer tracer : tracers) {
+            tracer.waitChains(waitingTransactions, longestWaitChain);
+        }
+    }
+
     @Override
     public LockTracer combine(LockTracer tracer) {
         if (tracer == NONE) {
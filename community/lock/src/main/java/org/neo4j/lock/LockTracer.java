@@ -23,6 +23,24 @@ package org.neo4j.lock;
 public interface LockTracer {
     LockWaitEvent waitForLock(LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds);
 
+    /**
+     * Called when a lock manager that detects deadlocks centrally has chosen a transaction to abort, in order to break
+     * a cycle of transactions waiting for each other.
+     *
+     * @param transactionId the transaction that will fail with a deadlock.
+     * @param waitCycleLength number of transactions in the wait cycle.
+     */
+    default void deadlockDetected(long transactionId, int waitCycleLength) {}
+
+    /**
+     * Called by a lock manager that detects deadlocks centrally, whenever it has looked at transactions that are
+     * waiting for locks.
+     *
+     * @param waitingTransactions number of transactions that were waiting for locks.
+     * @param longestWaitChain length of the longest chain of transactions waiting for each other.
+     */
+    default void waitChains(int waitingTransactions, int longestWaitChain) {}
+
     default LockTracer combine(LockTracer tracer) {
         if (tracer == NONE) {
             return this;
@@ -71,6 +71,49 @@ public interface ResourceLocker {
      */
     void releaseShared(ResourceType resourceType, long... resourceIds);
 
+    /**
+     * Exclusively lock a batch of resources of the same type in one go. Unlike
+     * {@link #acquireExclusive(LockTracer, ResourceType, long...)} the ids don't need to be ordered by the caller, they
+     * are always locked in ascending order so that concurrent batches can't deadlock on each other.
+     * Duplicate ids are locked multiple times, just like they would be if locked one by one.
+     *
+     * @param tracer lock tracer
+     * @param resourceType type of resources to lock.
+     * @param resourceIds ids of resources to lock, in any order. The array is left untouched.
+     *
+     * @throws AcquireLockTimeoutException in case of timeout
+     */
+    default void acquireExclusiveBatch(LockTracer tracer, ResourceType resourceType, long[] resourceIds) {
+        acquireExclusive(tracer, resourceType, sortedIds(resourceIds));
+    }
+
+    /**
+     * Shared lock a batch of resources of the same type in one go, see
+     * {@link #acquireExclusiveBatch(LockTracer, ResourceType, long[])}.
+     *
+     * @param tracer lock tracer
+     * @param resourceType type of resources to lock.
+     * @param resourceIds ids of resources to lock, in any order. The array is left untouched.
+     */
+    default void acquireSharedBatch(LockTracer tracer, ResourceType resourceType, long[] resourceIds) {
+        acquireShared(tracer, resourceType, sortedIds(resourceIds));
+    }
+
+    /**
+     * @return the given ids in the ascending order batches of locks are taken in. The array is returned as is if it is
+     * already in that order, otherwise a sorted copy is returned.
+     */
+    static long[] sortedIds(long[] resourceIds) {
+        for (int i = 1; i < resourceIds.length; i++) {
+            if (resourceIds[i - 1] > resourceIds[i]) {
+                long[] sorted = resourceIds.clone();
+                Arrays.sort(sorted);
+                return sorted;
+            }
+        }
+        return resourceIds;
+    }
+
     /**
      * @return all locks that are "active", i.e. either locked or being awaited to be locked.
      */
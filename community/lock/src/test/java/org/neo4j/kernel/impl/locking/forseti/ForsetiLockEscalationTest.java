@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.lock.ResourceType.NODE;
+import static org.neo4j.lock.ResourceType.RELATIONSHIP;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseService;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.lock.ActiveLock;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.OtherThreadExecutor;
+import org.neo4j.time.Clocks;
+
+class ForsetiLockEscalationTest {
+    private static final int THRESHOLD = 4;
+    private static final int RANGE_SIZE = 16;
+
+    private Config config;
+    private ForsetiLockManager manager;
+    private final List<LockManager.Client> clients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = Config.newBuilder()
+                .set(GraphDatabaseInternalSettings.lock_manager_escalation_threshold, THRESHOLD)
+                .set(GraphDatabaseInternalSettings.lock_manager_escalation_range_size, RANGE_SIZE)
+                .set(GraphDatabaseInternalSettings.lock_manager_verbose_deadlocks, true)
+                .build();
+        manager = new ForsetiLockManager(config, Clocks.nanoClock(), ResourceType.values());
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(LockManager.Client::close);
+        manager.close();
+    }
+
+    @Test
+    void shouldEscalateWhenThresholdIsReachedWithinRange() {
+        LockManager.Client client = newClient(1);
+
+        client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2);
+        assertThat(manager.numberOfEscalations()).isZero();
+        assertThat(locksInLockMap()).isEqualTo(3);
+
+        client.acquireExclusive(LockTracer.NONE, NODE, 3);
+        assertThat(manager.numberOfEscalations()).isOne();
+        assertThat(locksInLockMap()).isZero();
+        assertThat(client.activeLockCount()).isEqualTo(4);
+        assertThat(client.holdsLock(RANGE_SIZE - 1, NODE, LockType.EXCLUSIVE)).isTrue();
+        assertThat(client.holdsLock(RANGE_SIZE, NODE, LockType.EXCLUSIVE)).isFalse();
+
+        // Further locks within the range don't go through the lock map
+        client.acquireShared(LockTracer.NONE, NODE, 10);
+        assertThat(locksInLockMap()).isZero();
+        assertThat(client.activeLockCount()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotEscalateAcrossRangesOrResourceTypesWithoutRanges() {
+        LockManager.Client client = newClient(1);
+
+        client.acquireExclusive(LockTracer.NONE, RELATIONSHIP, 0, 1, RANGE_SIZE, RANGE_SIZE + 1);
+        client.acquireExclusive(LockTracer.NONE, ResourceType.LABEL, 0, 1, 2, 3);
+
+        assertThat(manager.numberOfEscalations()).isZero();
+        assertThat(locksInLockMap()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldNotEscalateRangeThatOthersHoldLocksIn() {
+        LockManager.Client other = newClient(1);
+        LockManager.Client client = newClient(2);
+        other.acquireShared(LockTracer.NONE, NODE, 8);
+
+        client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3);
+
+        assertThat(manager.numberOfEscalations()).isZero();
+        assertThat(other.trySharedLock(NODE, 9)).isTrue();
+        assertThat(other.tryExclusiveLock(NODE, 0)).isFalse();
+    }
+
+    @Test
+    void shouldOnlyKeepWritersOutOfRangeEscalatedForSharedLocks() {
+        LockManager.Client client = newClient(1);
+        LockManager.Client other = newClient(2);
+
+        client.acquireShared(LockTracer.NONE, NODE, 0, 1, 2, 3);
+        assertThat(manager.numberOfEscalations()).isOne();
+        assertThat(locksInLockMap()).isZero();
+        assertThat(client.holdsLock(2, NODE, LockType.SHARED)).isTrue();
+        assertThat(client.holdsLock(2, NODE, LockType.EXCLUSIVE)).isFalse();
+
+        assertThat(other.trySharedLock(NODE, 2)).isTrue();
+        assertThat(other.trySharedLock(NODE, 7)).isTrue();
+        assertThat(other.tryExclusiveLock(NODE, 8)).isFalse();
+        assertThat(other.tryExclusiveLock(NODE, RANGE_SIZE)).isTrue();
+
+        client.releaseShared(NODE, 0, 1, 2, 3);
+        assertThat(client.activeLockCount()).isZero();
+        assertThat(other.tryExclusiveLock(NODE, 8)).isTrue();
+    }
+
+    @Test
+    void shouldNotEscalateSharedLocksInRangeThatOthersHoldExclusiveLocksIn() {
+        LockManager.Client other = newClient(1);
+        LockManager.Client client = newClient(2);
+        other.acquireExclusive(LockTracer.NONE, NODE, 8);
+
+        client.acquireShared(LockTracer.NONE, NODE, 0, 1, 2, 3);
+
+        assertThat(manager.numberOfEscalations()).isZero();
+        assertThat(locksInLockMap()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRevertSharedEscalationToTakeExclusiveLockInRange() {
+        LockManager.Client client = newClient(1);
+        LockManager.Client other = newClient(2);
+        client.acquireShared(LockTracer.NONE, NODE, 0, 1, 2, 3);
+        other.acquireShared(LockTracer.NONE, NODE, 5);
+        assertThat(manager.numberOfEscalations()).isOne();
+
+        // The other client holds a lock in the range, so this can't be escalated into an exclusive range lock
+        client.acquireExclusive(LockTracer.NONE, NODE, 4);
+        assertThat(manager.numberOfEscalations()).isOne();
+        assertThat(locksInLockMap()).isEqualTo(6);
+        assertThat(client.holdsLock(4, NODE, LockType.EXCLUSIVE)).isTrue();
+        assertThat(other.tryExclusiveLock(NODE, 0)).isFalse();
+        assertThat(other.trySharedLock(NODE, 0)).isTrue();
+
+        client.close();
+        clients.remove(client);
+        assertThat(other.tryExclusiveLock(NODE, 4)).isTrue();
+    }
+
+    @Test
+    void shouldLeaveRangeWhenLockCanNotBeAcquired() {
+        LockManager.Client other = newClient(1);
+        LockManager.Client client = manager.newClient();
+        clients.add(client);
+        client.initialize(
+                LeaseService.NoLeaseClient.INSTANCE,
+                2,
+                new LocalMemoryTracker(),
+                Config.newBuilder()
+                        .fromConfig(config)
+                        .set(GraphDatabaseSettings.lock_acquisition_timeout, Duration.ofMillis(10))
+                        .build());
+        other.acquireExclusive(LockTracer.NONE, NODE, 0);
+
+        assertThatThrownBy(() -> client.acquireShared(LockTracer.NONE, NODE, 0))
+                .isInstanceOf(LockAcquisitionTimeoutException.class);
+        assertThatThrownBy(() -> client.acquireExclusive(LockTracer.NONE, NODE, 0))
+                .isInstanceOf(LockAcquisitionTimeoutException.class);
+
+        // The failed client doesn't hold on to the range, so the other client can escalate it
+        other.acquireExclusive(LockTracer.NONE, NODE, 1, 2, 3);
+        assertThat(manager.numberOfEscalations()).isOne();
+    }
+
+    @Test
+    void shouldReleaseTrackedMemoryWhenExclusiveLockCanNotBeAcquired() {
+        LockManager.Client other = newClient(1);
+        var memoryTracker = new LocalMemoryTracker();
+        LockManager.Client client = manager.newClient();
+        clients.add(client);
+        client.initialize(
+                LeaseService.NoLeaseClient.INSTANCE,
+                2,
+                memoryTracker,
+                Config.newBuilder()
+                        .fromConfig(config)
+                        .set(GraphDatabaseSettings.lock_acquisition_timeout, Duration.ofMillis(10))
+                        .build());
+        other.acquireShared(LockTracer.NONE, NODE, 0);
+        assertThatThrownBy(() -> client.acquireExclusive(LockTracer.NONE, NODE, 0))
+                .isInstanceOf(LockAcquisitionTimeoutException.class);
+        long heapAfterFirstFailure = memoryTracker.estimatedHeapMemory();
+
+        assertThatThrownBy(() -> client.acquireExclusive(LockTracer.NONE, NODE, 0))
+                .isInstanceOf(LockAcquisitionTimeoutException.class);
+
+        assertThat(memoryTracker.estimatedHeapMemory()).isEqualTo(heapAfterFirstFailure);
+    }
+
+    @Test
+    void shouldListEscalatedRangesAsActiveLocks() {
+        LockManager.Client client = newClient(1);
+        client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3);
+        client.acquireShared(LockTracer.NONE, NODE, RANGE_SIZE, RANGE_SIZE + 1, RANGE_SIZE + 2, RANGE_SIZE + 3);
+        client.acquireShared(LockTracer.NONE, NODE, 2 * RANGE_SIZE);
+        assertThat(manager.numberOfEscalations()).isEqualTo(2);
+
+        assertThat(client.activeLocks())
+                .containsExactlyInAnyOrder(
+                        new ActiveLock(NODE, LockType.EXCLUSIVE, 1, 0),
+                        new ActiveLock(NODE, LockType.SHARED, 1, RANGE_SIZE),
+                        new ActiveLock(NODE, LockType.SHARED, 1, 2 * RANGE_SIZE));
+    }
+
+    @Test
+    void shouldKeepOthersOutOfEscalatedRangeUntilReleased() {
+        LockManager.Client client = newClient(1);
+        LockManager.Client other = newClient(2);
+        client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3);
+        client.acquireShared(LockTracer.NONE, NODE, 3);
+        assertThat(manager.numberOfEscalations()).isOne();
+
+        assertThat(other.trySharedLock(NODE, 7)).isFalse();
+        assertThat(other.tryExclusiveLock(NODE, 7)).isFalse();
+        assertThat(other.tryExclusiveLock(NODE, RANGE_SIZE)).isTrue();
+
+        // Reentrant and downgraded locks are still counted, so the range is held until the very last release
+        client.releaseExclusive(NODE, 0, 1, 2, 3);
+        assertThat(client.activeLockCount()).isOne();
+        assertThat(other.trySharedLock(NODE, 7)).isFalse();
+
+        client.releaseShared(NODE, 3);
+        assertThat(client.activeLockCount()).isZero();
+        assertThat(other.trySharedLock(NODE, 7)).isTrue();
+        assertThat(other.tryExclusiveLock(NODE, 3)).isTrue();
+    }
+
+    @Test
+    void shouldReleaseEscalatedRangeOnClose() {
+        LockManager.Client client = newClient(1);
+        LockManager.Client other = newClient(2);
+        client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3, 4);
+        client.acquireShared(LockTracer.NONE, NODE, 5, RANGE_SIZE);
+
+        client.close();
+        clients.remove(client);
+
+        assertThat(locksInLockMap()).isZero();
+        assertThat(other.tryExclusiveLock(NODE, 0)).isTrue();
+    }
+
+    @Test
+    void shouldReleaseTrackedMemoryOfEscalatedLocks() {
+        var memoryTracker = new LocalMemoryTracker();
+        try (LockManager.Client client = manager.newClient()) {
+            client.initialize(LeaseService.NoLeaseClient.INSTANCE, 1, memoryTracker, config);
+            client.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3, 4, 5);
+            client.acquireShared(LockTracer.NONE, NODE, 0, RANGE_SIZE);
+            client.releaseExclusive(NODE, 5);
+        }
+        assertThat(memoryTracker.estimatedHeapMemory()).isZero();
+    }
+
+    @Test
+    void shouldDetectDeadlockOnEscalatedRange() throws Exception {
+        LockManager.Client escalating = newClient(1);
+        LockManager.Client other = newClient(2);
+        escalating.acquireExclusive(LockTracer.NONE, NODE, 0, 1, 2, 3);
+        other.acquireExclusive(LockTracer.NONE, NODE, 100);
+
+        try (OtherThreadExecutor otherExecutor = new OtherThreadExecutor("other");
+                OtherThreadExecutor escalatingExecutor = new OtherThreadExecutor("escalating")) {
+            Future<Object> otherLock = otherExecutor.executeDontWait(() -> {
+                other.acquireExclusive(LockTracer.NONE, NODE, 5);
+                return null;
+            });
+            otherExecutor.waitUntilWaiting(details -> details.isAt(ForsetiClient.class, "acquireRangeLock"));
+            Future<Object> escalatingLock = escalatingExecutor.executeDontWait(() -> {
+                escalating.acquireExclusive(LockTracer.NONE, NODE, 100);
+                return null;
+            });
+
+            // The client holding fewer locks is the one that gets aborted
+            assertThatThrownBy(otherLock::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(DeadlockDetectedException.class);
+            other.close();
+            clients.remove(other);
+            escalatingLock.get();
+        }
+        assertThat(escalating.holdsLock(100, NODE, LockType.EXCLUSIVE)).isTrue();
+    }
+
+    private LockManager.Client newClient(long transactionId) {
+        LockManager.Client client = manager.newClient();
+        client.initialize(LeaseService.NoLeaseClient.INSTANCE, transactionId, new LocalMemoryTracker(), config);
+        clients.add(client);
+        return client;
+    }
+
+    private int locksInLockMap() {
+        int[] locks = new int[1];
+        manager.accept((lockType, resourceType, transactionId, resourceId, description, waitTime, hash) -> locks[0]++);
+        return locks[0];
+    }
+}
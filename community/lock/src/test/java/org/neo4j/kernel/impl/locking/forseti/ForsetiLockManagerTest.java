@@ -256,6 +256,22 @@ class ForsetiLockManagerTest {
         assertThat(memoryTracker.estimatedHeapMemory()).isZero();
     }
 
+    @Test
+    void shouldAcquireBatchInAscendingOrderWithoutTouchingGivenIds() {
+        try (LockManager.Client client = manager.newClient()) {
+            client.initialize(LeaseService.NoLeaseClient.INSTANCE, 1, EmptyMemoryTracker.INSTANCE, config);
+            long[] ids = {7, 3, 5, 3};
+
+            client.acquireExclusiveBatch(LockTracer.NONE, ResourceType.NODE, ids);
+
+            assertThat(ids).containsExactly(7, 3, 5, 3);
+            assertThat(client.activeLockCount()).isEqualTo(3);
+            // Duplicates are reentrant, so releasing id by id like the caller locked them works as before
+            client.releaseExclusive(ResourceType.NODE, ids);
+            assertThat(client.activeLockCount()).isZero();
+        }
+    }
+
     private void takeAndAssertActiveLocks(LockManager.Client client, boolean allowedToDeadlock) {
         Map<Long, Integer> exclusiveLocks = new HashMap<>();
         Map<Long, Integer> sharedLocks = new HashMap<>();
@@ -312,4 +328,22 @@ class ForsetiLockManagerTest {
                             .containsKey(lock.resourceId()));
         }
     }
+
+    @Test
+    void shouldTakeExclusiveLocksWhenReusedAfterSharedOnlyTransaction() {
+        LockManager.Client client = manager.newClient();
+        try (LockManager.Client other = manager.newClient()) {
+            other.initialize(LeaseService.NoLeaseClient.INSTANCE, 3, EmptyMemoryTracker.INSTANCE, config);
+            client.initialize(LeaseService.NoLeaseClient.INSTANCE, 1, EmptyMemoryTracker.INSTANCE, config);
+            client.acquireShared(LockTracer.NONE, ResourceType.NODE, 0);
+            client.close();
+
+            client.initialize(LeaseService.NoLeaseClient.INSTANCE, 2, EmptyMemoryTracker.INSTANCE, config);
+            client.acquireExclusive(LockTracer.NONE, ResourceType.NODE, 0);
+            assertThat(other.trySharedLock(ResourceType.NODE, 0)).isFalse();
+            client.close();
+
+            assertThat(other.trySharedLock(ResourceType.NODE, 0)).isTrue();
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.junit.jupiter.api.Test;
+import org.neo4j.test.Race;
+
+class LockTableTest {
+    private final LockTable table = new LockTable();
+
+    @Test
+    void shouldInsertOnlyAbsentLocks() {
+        SharedLock first = new SharedLock(mock(ForsetiClient.class));
+        SharedLock second = new SharedLock(mock(ForsetiClient.class));
+
+        assertNull(table.putIfAbsent(1, first));
+        assertSame(first, table.putIfAbsent(1, second));
+        assertSame(first, table.get(1));
+        assertNull(table.get(2));
+    }
+
+    @Test
+    void shouldReplaceAndRemoveLocks() {
+        SharedLock first = new SharedLock(mock(ForsetiClient.class));
+        SharedLock second = new SharedLock(mock(ForsetiClient.class));
+        table.put(Long.MAX_VALUE, first);
+
+        table.put(Long.MAX_VALUE, second);
+        assertSame(second, table.get(Long.MAX_VALUE));
+
+        table.remove(Long.MAX_VALUE);
+        assertNull(table.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldVisitAllLocks() {
+        LongObjectHashMap<ForsetiLockManager.Lock> expected = new LongObjectHashMap<>();
+        for (long resourceId = 0; resourceId < 1_000; resourceId++) {
+            SharedLock lock = new SharedLock(mock(ForsetiClient.class));
+            expected.put(resourceId, lock);
+            table.put(resourceId, lock);
+        }
+
+        LongObjectHashMap<ForsetiLockManager.Lock> visited = new LongObjectHashMap<>();
+        table.forEach(visited::put);
+
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldKeepFindingLocksWhileGrowingAndShrinking() {
+        SharedLock[] locks = new SharedLock[10_000];
+        for (int round = 0; round < 3; round++) {
+            for (int resourceId = 0; resourceId < locks.length; resourceId++) {
+                locks[resourceId] = new SharedLock(mock(ForsetiClient.class));
+                assertNull(table.putIfAbsent(resourceId, locks[resourceId]));
+            }
+            for (int resourceId = 0; resourceId < locks.length; resourceId++) {
+                assertSame(locks[resourceId], table.get(resourceId));
+            }
+            for (int resourceId = 0; resourceId < locks.length; resourceId += 2) {
+                table.remove(resourceId);
+            }
+            for (int resourceId = 0; resourceId < locks.length; resourceId++) {
+                assertSame(resourceId % 2 == 0 ? null : locks[resourceId], table.get(resourceId));
+            }
+            for (int resourceId = 1; resourceId < locks.length; resourceId += 2) {
+                table.remove(resourceId);
+            }
+        }
+        table.forEach((resourceId, lock) -> {
+            throw new AssertionError("Unexpected lock for " + resourceId);
+        });
+    }
+
+    @Test
+    void shouldOnlySeeLocksOfResourceWhenLookingUpWithoutLocking() throws Throwable {
+        int resources = 1_000;
+        SharedLock[] locks = new SharedLock[resources];
+        for (int resourceId = 0; resourceId < resources; resourceId++) {
+            locks[resourceId] = new SharedLock(mock(ForsetiClient.class));
+        }
+        Race race = new Race();
+        race.addContestants(
+                4,
+                contestant -> () -> {
+                    for (int resourceId = contestant; resourceId < resources; resourceId += 4) {
+                        table.put(resourceId, locks[resourceId]);
+                    }
+                    for (int resourceId = contestant; resourceId < resources; resourceId += 4) {
+                        table.remove(resourceId);
+                    }
+                },
+                100);
+        race.addContestants(
+                4,
+                () -> {
+                    for (int resourceId = 0; resourceId < resources; resourceId++) {
+                        ForsetiLockManager.Lock lock = table.get(resourceId);
+                        if (lock != null) {
+                            assertSame(locks[resourceId], lock);
+                        }
+                    }
+                },
+                100);
+        race.go();
+    }
+
+    @Test
+    void shouldOnlyLetOneOwnerInsertLockForResourceAtATime() throws Throwable {
+        int resources = 64;
+        AtomicIntegerArray owners = new AtomicIntegerArray(resources);
+        Race race = new Race();
+        race.addContestants(
+                8,
+                contestant -> {
+                    SharedLock myLock = new SharedLock(mock(ForsetiClient.class));
+                    return () -> {
+                        for (int resourceId = 0; resourceId < resources; resourceId++) {
+                            if (table.putIfAbsent(resourceId, myLock) == null) {
+                                assertThat(owners.incrementAndGet(resourceId)).isEqualTo(1);
+                                assertSame(myLock, table.get(resourceId));
+                                owners.decrementAndGet(resourceId);
+                                table.remove(resourceId);
+                            }
+                        }
+                    };
+                },
+                1_000);
+        race.go();
+
+        for (int resourceId = 0; resourceId < resources; resourceId++) {
+            assertNull(table.get(resourceId));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.neo4j.lock.ResourceType.NODE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseService;
+import org.neo4j.kernel.impl.locking.LockManager;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobMonitoringParams;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.OtherThreadExecutor;
+import org.neo4j.time.Clocks;
+
+class WaitForGraphDeadlockDetectorTest {
+    private final RecordingTracer tracer = new RecordingTracer();
+    private final List<LockManager.Client> clients = new ArrayList<>();
+    private Config config;
+    private ForsetiLockManager manager;
+    private WaitForGraphDeadlockDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        config = Config.defaults(GraphDatabaseInternalSettings.lock_manager_central_deadlock_detection, true);
+        manager = new ForsetiLockManager(config, Clocks.nanoClock(), ResourceType.values());
+        detector = (WaitForGraphDeadlockDetector) manager.deadlockDetection(mock(JobScheduler.class), tracer, "db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(LockManager.Client::close);
+        manager.close();
+    }
+
+    @Test
+    void shouldAbortClientHoldingFewestLocksOnceCycleIsConfirmed() throws Exception {
+        LockManager.Client first = newClient(1);
+        LockManager.Client second = newClient(2);
+        first.acquireExclusive(LockTracer.NONE, NODE, 0, 1);
+        second.acquireExclusive(LockTracer.NONE, NODE, 2);
+
+        try (OtherThreadExecutor firstExecutor = new OtherThreadExecutor("first");
+                OtherThreadExecutor secondExecutor = new OtherThreadExecutor("second")) {
+            Future<Object> firstLock = firstExecutor.executeDontWait(() -> {
+                first.acquireExclusive(LockTracer.NONE, NODE, 2);
+                return null;
+            });
+            firstExecutor.waitUntilWaiting(details -> details.isAt(ForsetiClient.class, "waitForDetectingCentrally"));
+            Future<Object> secondLock = secondExecutor.executeDontWait(() -> {
+                second.acquireExclusive(LockTracer.NONE, NODE, 0);
+                return null;
+            });
+            secondExecutor.waitUntilWaiting(details -> details.isAt(ForsetiClient.class, "waitForDetectingCentrally"));
+
+            // The first pass only suspects a deadlock
+            detector.detectDeadlocks();
+            assertThat(manager.numberOfDetectedDeadlocks()).isZero();
+            assertThat(secondLock.isDone()).isFalse();
+
+            detector.detectDeadlocks();
+            assertThat(manager.numberOfDetectedDeadlocks()).isOne();
+            assertThatThrownBy(secondLock::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(DeadlockDetectedException.class)
+                    .hasMessageContaining("chosen to break this deadlock wait cycle");
+            second.close();
+            clients.remove(second);
+            firstLock.get(1, TimeUnit.MINUTES);
+        }
+        assertThat(first.holdsLock(2, NODE, LockType.EXCLUSIVE)).isTrue();
+        assertThat(tracer.deadlocks).containsExactly(2L);
+        assertThat(tracer.longestWaitChain).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotAbortWaitersThatAreNotInCycle() throws Exception {
+        LockManager.Client holder = newClient(1);
+        LockManager.Client waiter = newClient(2);
+        holder.acquireExclusive(LockTracer.NONE, NODE, 0);
+
+        try (OtherThreadExecutor executor = new OtherThreadExecutor("waiter")) {
+            Future<Object> lock = executor.executeDontWait(() -> {
+                waiter.acquireShared(LockTracer.NONE, NODE, 0);
+                return null;
+            });
+            executor.waitUntilWaiting(details -> details.isAt(ForsetiClient.class, "waitForDetectingCentrally"));
+
+            detector.detectDeadlocks();
+            detector.detectDeadlocks();
+            assertThat(manager.numberOfDetectedDeadlocks()).isZero();
+            assertThat(tracer.waitingTransactions).isEqualTo(1);
+            assertThat(tracer.longestWaitChain).isEqualTo(2);
+            assertThat(detector.longestWaitChain()).isEqualTo(2);
+
+            holder.releaseExclusive(NODE, 0);
+            lock.get(1, TimeUnit.MINUTES);
+        }
+
+        // Once done waiting, the client is no longer looked at
+        tracer.waitingTransactions = 0;
+        detector.detectDeadlocks();
+        assertThat(tracer.waitingTransactions).isZero();
+        assertThat(detector.longestWaitChain()).isZero();
+        assertThat(tracer.deadlocks).isEmpty();
+    }
+
+    @Test
+    void shouldRunDetectionOnSchedulerOnlyWhenEnabled() throws Exception {
+        JobScheduler scheduler = mock(JobScheduler.class);
+        var lifecycle = manager.deadlockDetection(scheduler, LockTracer.NONE, "db");
+        lifecycle.start();
+        verify(scheduler)
+                .scheduleRecurring(
+                        eq(Group.LOCK_DEADLOCK_DETECTION),
+                        any(JobMonitoringParams.class),
+                        eq(detector),
+                        anyLong(),
+                        eq(TimeUnit.MILLISECONDS));
+
+        JobScheduler unusedScheduler = mock(JobScheduler.class);
+        var disabled = new ForsetiLockManager(Config.defaults(), Clocks.nanoClock(), ResourceType.values());
+        disabled.deadlockDetection(unusedScheduler, LockTracer.NONE, "db").start();
+        verifyNoInteractions(unusedScheduler);
+        disabled.close();
+    }
+
+    private LockManager.Client newClient(long transactionId) {
+        LockManager.Client client = manager.newClient();
+        client.initialize(LeaseService.NoLeaseClient.INSTANCE, transactionId, new LocalMemoryTracker(), config);
+        clients.add(client);
+        return client;
+    }
+
+    private static class RecordingTracer implements LockTracer {
+        private final List<Long> deadlocks = new ArrayList<>();
+        private volatile int waitingTransactions;
+        private volatile int longestWaitChain;
+
+        @Override
+        public LockWaitEvent waitForLock(
+                LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds) {
+            return LockWaitEvent.NONE;
+        }
+
+        @Override
+        public void deadlockDetected(long transactionId, int waitCycleLength) {
+            assertThat(waitCycleLength).isEqualTo(2);
+            deadlocks.add(transactionId);
+        }
+
+        @Override
+        public void waitChains(int waitingTransactions, int longestWaitChain) {
+            this.waitingTransactions = waitingTransactions;
+            this.longestWaitChain = longestWaitChain;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import static org.neo4j.configuration.GraphDatabaseSettings.tx_state_off_heap_ma
 import static org.neo4j.kernel.lifecycle.LifecycleAdapter.onShutdown;
 import static org.neo4j.logging.log4j.LogConfig.createLoggerFromXmlConfig;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.function.Supplier;
 import org.neo4j.capabilities.CapabilitiesService;
@@ -75,6 +76,7 @@ import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocatorDecor
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.SpillingCollectionsFactory;
 import org.neo4j.kernel.impl.util.watcher.DefaultFileSystemWatcherService;
 import org.neo4j.kernel.impl.util.watcher.FileSystemWatcherService;
 import org.neo4j.kernel.info.JvmChecker;
@@ -86,6 +88,7 @@ import org.neo4j.kernel.internal.locker.FileLockerService;
 import org.neo4j.kernel.internal.locker.GlobalLockerService;
 import org.neo4j.kernel.internal.locker.LockerLifecycleAdapter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.DatabaseEventListeners;
 import org.neo4j.kernel.monitoring.tracing.DefaultTracers;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
@@ -219,7 +222,7 @@ public class GlobalModule {
         globalDependencies.satisfyDependency(tracers);
         globalDependencies.satisfyDependency(tracers.getPageCacheTracer());
 
-        collectionsFactorySupplier = createCollectionsFactorySupplier(globalConfig, globalLife, logService);
+        collectionsFactorySupplier = createCollectionsFactorySupplier(globalConfig, globalLife, logService, fileSystem);
 
         pageCache = tryResolveOrCreate(
                 PageCache.class,
@@ -386,7 +389,7 @@ public class GlobalModule {
     }
 
     private static CollectionsFactorySupplier createCollectionsFactorySupplier(
-            Config config, LifeSupport life, LogService logService) {
+            Config config, LifeSupport life, LogService logService, FileSystemAbstraction fileSystem) {
         final TransactionStateMemoryAllocation allocation = config.get(tx_state_memory_allocation);
         if (allocation == TransactionStateMemoryAllocation.OFF_HEAP) {
             if (!UnsafeUtil.unsafeByteBufferAccessAvailable()) {
@@ -399,6 +402,23 @@ public class GlobalModule {
 
             return createOffHeapCollectionsFactory(config, life);
         }
+        final long spillThreshold = config.get(GraphDatabaseInternalSettings.tx_state_spill_threshold);
+        if (spillThreshold > 0) {
+            // Files of transactions that were open when the DBMS stopped, or crashed, are no longer of use to anyone
+            final Path spillDirectory = config.get(GraphDatabaseInternalSettings.tx_state_spill_directory);
+            life.add(new LifecycleAdapter() {
+                @Override
+                public void init() throws IOException {
+                    fileSystem.deleteRecursively(spillDirectory);
+                }
+
+                @Override
+                public void shutdown() throws IOException {
+                    fileSystem.deleteRecursively(spillDirectory);
+                }
+            });
+            return () -> new SpillingCollectionsFactory(fileSystem, spillDirectory, spillThreshold);
+        }
         return CollectionsFactorySupplier.ON_HEAP;
     }
 
@@ -66,13 +66,18 @@ public class DeleteDuplicateNodesStep extends ProcessorStep<long[]> {
 
     @Override
     protected void process(long[] batch, BatchSender sender, CursorContext cursorContext) throws Throwable {
-        NodeRecord nodeRecord = nodeStore.newRecord();
+        NodeRecord[] nodeRecords = new NodeRecord[batch.length];
+        for (int i = 0; i < nodeRecords.length; i++) {
+            nodeRecords[i] = nodeStore.newRecord();
+        }
         PropertyRecord propertyRecord = propertyStore.newRecord();
         try (var storeCursors = new CachedStoreCursors(neoStores, cursorContext);
                 var idUpdates = idUpdatesWorkSync.newBatch(cursorContext)) {
             long batchPropertiesRemoved = 0;
-            for (long duplicateNodeId : batch) {
-                nodeStore.getRecordByCursor(duplicateNodeId, nodeRecord, NORMAL, storeCursors.readCursor(NODE_CURSOR));
+            // Duplicates are spread out over the whole store, so read them in store order
+            nodeStore.getRecordsByCursor(
+                    batch, batch.length, nodeRecords, NORMAL, storeCursors.readCursor(NODE_CURSOR));
+            for (NodeRecord nodeRecord : nodeRecords) {
                 assert nodeRecord.inUse() : nodeRecord;
                 // Ensure heavy so that the dynamic label records gets loaded (and then deleted) too
                 nodeStore.ensureHeavy(nodeRecord, storeCursors);
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import java.io.IOException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.InternalLogProvider;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * Counts of nodes per label and property key, i.e. for each label and property key the number of nodes with that label
+ * that have a value for that property. Backed by the {@link GBPTree}.
+ * @see GBPTreeGenericCountsStore
+ */
+public class GBPTreeNodePropertyCountsStore extends GBPTreeGenericCountsStore<GBPTreeNodePropertyCountsStore.Updater> {
+    private static final String NAME = "Node property counts store";
+    static final byte TYPE_NODE_PROPERTY = (byte) 1;
+
+    public GBPTreeNodePropertyCountsStore(
+            PageCache pageCache,
+            Path file,
+            FileSystemAbstraction fileSystem,
+            RecoveryCleanupWorkCollector recoveryCollector,
+            NodePropertyCountsRebuilder rebuilder,
+            boolean readOnly,
+            String databaseName,
+            int maxCacheSize,
+            InternalLogProvider userLogProvider,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            ImmutableSet<OpenOption> openOptions)
+            throws IOException {
+        super(
+                pageCache,
+                file,
+                fileSystem,
+                recoveryCollector,
+                new RebuilderWrapper(rebuilder),
+                readOnly,
+                NAME,
+                NO_MONITOR,
+                databaseName,
+                maxCacheSize,
+                userLogProvider,
+                contextFactory,
+                pageCacheTracer,
+                openOptions);
+    }
+
+    @Override
+    public Updater apply(long txId, boolean isLast, CursorContext cursorContext) {
+        CountUpdater updater = updater(txId, isLast, cursorContext);
+        return updater != null ? new TreeUpdater(updater) : NO_OP_UPDATER;
+    }
+
+    /**
+     * @param labelId the label to look for.
+     * @param propertyKeyId the property key to look for.
+     * @param cursorContext page cache access context.
+     * @return the number of nodes with the given label that have the given property, or {@code 0} if it wasn't found.
+     */
+    public long nodePropertyCount(int labelId, int propertyKeyId, CursorContext cursorContext) {
+        return read(nodePropertyKey(labelId, propertyKeyId), cursorContext);
+    }
+
+    /**
+     * Key data layout for this type:
+     * <pre>
+     * first:  4B (lsb) labelId
+     * second: 4B propertyKeyId
+     * </pre>
+     *
+     * @param labelId id of the label.
+     * @param propertyKeyId id of the property key.
+     * @return a {@link CountsKey} for the label and property key.
+     */
+    static CountsKey nodePropertyKey(long labelId, int propertyKeyId) {
+        return new CountsKey(TYPE_NODE_PROPERTY, labelId, propertyKeyId);
+    }
+
+    public interface Updater extends AutoCloseable {
+        /**
+         * Changes the number of nodes with the given label that have the given property.
+         *
+         * @param labelId the label to make the change for.
+         * @param propertyKeyId the property key to make the change for.
+         * @param delta delta value to apply, can be either positive or negative.
+         */
+        void increment(long labelId, int propertyKeyId, long delta);
+
+        @Override
+        void close();
+    }
+
+    public interface NodePropertyCountsRebuilder {
+        void rebuild(Updater updater, CursorContext cursorContext, MemoryTracker memoryTracker);
+
+        long lastCommittedTxId();
+    }
+
+    public static final Updater NO_OP_UPDATER = new Updater() {
+        @Override
+        public void increment(long labelId, int propertyKeyId, long delta) {}
+
+        @Override
+        public void close() {}
+    };
+
+    private static class TreeUpdater implements Updater {
+        private final CountUpdater actual;
+
+        TreeUpdater(CountUpdater actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void increment(long labelId, int propertyKeyId, long delta) {
+            actual.increment(nodePropertyKey(labelId, propertyKeyId), delta);
+        }
+
+        @Override
+        public void close() {
+            actual.close();
+        }
+    }
+
+    private static class RebuilderWrapper implements Rebuilder {
+        private final NodePropertyCountsRebuilder rebuilder;
+
+        RebuilderWrapper(NodePropertyCountsRebuilder rebuilder) {
+            this.rebuilder = rebuilder;
+        }
+
+        @Override
+        public void rebuild(CountUpdater updater, CursorContext cursorContext, MemoryTracker memoryTracker) {
+            rebuilder.rebuild(new TreeUpdater(updater), cursorContext, memoryTracker);
+        }
+
+        @Override
+        public long lastCommittedTxId() {
+            return rebuilder.lastCommittedTxId();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import static org.neo4j.storageengine.api.PropertySelection.ALL_PROPERTIES;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.neo4j.internal.recordstorage.RecordStorageReader;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
+import org.neo4j.logging.InternalLog;
+import org.neo4j.logging.InternalLogProvider;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
+
+/**
+ * Scans the node store and rebuilds the {@link GBPTreeNodePropertyCountsStore} contents if the file is missing.
+ */
+public class NodePropertyCountsRebuildFromStore implements GBPTreeNodePropertyCountsStore.NodePropertyCountsRebuilder {
+    private final NeoStores neoStores;
+    private final InternalLog log;
+
+    public NodePropertyCountsRebuildFromStore(NeoStores neoStores, InternalLogProvider logProvider) {
+        this.neoStores = neoStores;
+        this.log = logProvider.getLog(NodePropertyCountsRebuildFromStore.class);
+    }
+
+    @Override
+    public long lastCommittedTxId() {
+        return neoStores.getMetaDataStore().getLastCommittedTransactionId();
+    }
+
+    @Override
+    public void rebuild(
+            GBPTreeNodePropertyCountsStore.Updater updater, CursorContext cursorContext, MemoryTracker memoryTracker) {
+        if (neoStores.getNodeStore().isEmpty()) {
+            return;
+        }
+
+        log.warn("Missing node property counts store, rebuilding it.");
+        // The updater writes absolute counts, so every label and property key combination must be written only once
+        MutableLongLongMap counts = new LongLongHashMap();
+        try (var storeCursors = new CachedStoreCursors(neoStores, cursorContext);
+                var reader = new RecordStorageReader(neoStores);
+                StorageNodeCursor nodeCursor = reader.allocateNodeCursor(cursorContext, storeCursors);
+                StoragePropertyCursor propertyCursor =
+                        reader.allocatePropertyCursor(cursorContext, storeCursors, memoryTracker)) {
+            nodeCursor.scan();
+            while (nodeCursor.next()) {
+                if (!nodeCursor.hasProperties()) {
+                    continue;
+                }
+                long[] labels = nodeCursor.labels();
+                if (labels.length == 0) {
+                    continue;
+                }
+                nodeCursor.properties(propertyCursor, ALL_PROPERTIES);
+                while (propertyCursor.next()) {
+                    long propertyKey = propertyCursor.propertyKey() & 0xFFFFFFFFL;
+                    for (long label : labels) {
+                        counts.addToValue(label << Integer.SIZE | propertyKey, 1);
+                    }
+                }
+            }
+        }
+        counts.forEachKeyValue((key, count) -> updater.increment(key >>> Integer.SIZE, (int) key, count));
+        log.info("Node property counts store rebuild completed.");
+    }
+}
@@ -20,6 +20,8 @@
 package org.neo4j.internal.recordstorage;
 
 import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
 import org.neo4j.internal.recordstorage.Command.PropertyKeyTokenCommand;
 import org.neo4j.internal.recordstorage.Command.RelationshipTypeTokenCommand;
 import org.neo4j.kernel.impl.store.LabelTokenStore;
@@ -35,18 +37,60 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     private final LabelTokenStore labelTokenStore;
     private final PropertyKeyTokenStore propertyKeyTokenStore;
     private final StoreCursors storeCursors;
+    private final ColumnarPropertyCache propertyCache;
 
     public CacheInvalidationTransactionApplier(
             NeoStores neoStores, CacheAccessBackDoor cacheAccess, StoreCursors storeCursors) {
+        this(neoStores, cacheAccess, storeCursors, null);
+    }
+
+    /**
+     * @param cacheAccess access to the token and schema caches, or {@code null} if those caches are kept up to date
+     * some other way and only the property cache needs invalidation.
+     * @param propertyCache the columnar property cache, or {@code null} if it isn't enabled.
+     */
+    CacheInvalidationTransactionApplier(
+            NeoStores neoStores,
+            CacheAccessBackDoor cacheAccess,
+            StoreCursors storeCursors,
+            ColumnarPropertyCache propertyCache) {
         this.cacheAccess = cacheAccess;
         this.relationshipTypeTokenStore = neoStores.getRelationshipTypeTokenStore();
         this.labelTokenStore = neoStores.getLabelTokenStore();
         this.propertyKeyTokenStore = neoStores.getPropertyKeyTokenStore();
         this.storeCursors = storeCursors;
+        this.propertyCache = propertyCache;
+        if (propertyCache != null) {
+            propertyCache.beginUpdates();
+        }
+    }
+
+    @Override
+    public boolean visitNodeCommand(NodeCommand command) {
+        if (propertyCache != null) {
+            propertyCache.invalidateNode(command.getKey());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand(PropertyCommand command) {
+        if (propertyCache != null) {
+            if (command.getBefore().isNodeSet()) {
+                propertyCache.invalidateNode(command.getBefore().getNodeId());
+            }
+            if (command.getAfter().isNodeSet()) {
+                propertyCache.invalidateNode(command.getAfter().getNodeId());
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean visitRelationshipTypeTokenCommand(RelationshipTypeTokenCommand command) {
+        if (cacheAccess == null) {
+            return false;
+        }
         NamedToken type = relationshipTypeTokenStore.getToken(command.tokenId(), storeCursors);
         cacheAccess.addRelationshipTypeToken(type);
 
@@ -55,6 +99,9 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
 
     @Override
     public boolean visitLabelTokenCommand(LabelTokenCommand command) {
+        if (cacheAccess == null) {
+            return false;
+        }
         NamedToken labelId = labelTokenStore.getToken(command.tokenId(), storeCursors);
         cacheAccess.addLabelToken(labelId);
 
@@ -63,6 +110,9 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
 
     @Override
     public boolean visitPropertyKeyTokenCommand(PropertyKeyTokenCommand command) {
+        if (cacheAccess == null) {
+            return false;
+        }
         NamedToken index = propertyKeyTokenStore.getToken(command.tokenId(), storeCursors);
         cacheAccess.addPropertyKeyToken(index);
 
@@ -71,6 +121,8 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
 
     @Override
     public void close() {
-        // Nothing to close
+        if (propertyCache != null) {
+            propertyCache.endUpdates();
+        }
     }
 }
@@ -25,14 +25,22 @@ import org.neo4j.storageengine.api.CommandBatchToApply;
 public class CacheInvalidationTransactionApplierFactory implements TransactionApplierFactory {
     private final NeoStores neoStores;
     private final CacheAccessBackDoor cacheAccess;
+    private final ColumnarPropertyCache propertyCache;
 
     public CacheInvalidationTransactionApplierFactory(NeoStores neoStores, CacheAccessBackDoor cacheAccess) {
+        this(neoStores, cacheAccess, null);
+    }
+
+    CacheInvalidationTransactionApplierFactory(
+            NeoStores neoStores, CacheAccessBackDoor cacheAccess, ColumnarPropertyCache propertyCache) {
         this.neoStores = neoStores;
         this.cacheAccess = cacheAccess;
+        this.propertyCache = propertyCache;
     }
 
     @Override
     public TransactionApplier startTx(CommandBatchToApply transaction, BatchContext batchContext) {
-        return new CacheInvalidationTransactionApplier(neoStores, cacheAccess, transaction.storeCursors());
+        return new CacheInvalidationTransactionApplier(
+                neoStores, cacheAccess, transaction.storeCursors(), propertyCache);
     }
 }
@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
+import static org.neo4j.values.storable.Values.NO_VALUE;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.collections.api.map.primitive.ImmutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.factory.primitive.IntObjectMaps;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.memory.MemoryLimitExceededException;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.values.storable.BooleanValue;
+import org.neo4j.values.storable.ByteValue;
+import org.neo4j.values.storable.DoubleValue;
+import org.neo4j.values.storable.FloatValue;
+import org.neo4j.values.storable.IntValue;
+import org.neo4j.values.storable.LongValue;
+import org.neo4j.values.storable.ShortValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+/**
+ * Keeps node property values of configured (label, property key) pairs in columns of primitive arrays indexed by
+ * node id, so that reading such a property does not have to walk the property chain of the node.
+ * <p>
+ * Columns are filled lazily by {@link RecordPropertyCursor} when it reads a single property of a node which has the
+ * label of a column, and are cleared for a node by {@link CacheInvalidationTransactionApplier} whenever a
+ * transaction changes the node or any of its property records. Only numbers and booleans are cached, as well as the
+ * fact that a node doesn't have the property at all. Memory for the columns is allocated in chunks of
+ * {@link #CHUNK_SIZE} nodes, until the configured maximum size is reached, after which nodes outside of the
+ * allocated chunks are read from the store as usual.
+ * <p>
+ * A value read from the store is only kept if no transaction was applied while it was read, see
+ * {@link #populationStamp()}, so that the cache never holds a value older than what is in the store. Each entry
+ * is guarded by a sequence number which is odd while the entry is written: a value is only published once the
+ * writer has verified, while holding the entry, that no transaction started applying since the value was read,
+ * and readers discard anything read while the sequence number was odd or changed. The memory of the columns is
+ * accounted for in the given {@link MemoryTracker}.
+ */
+public class ColumnarPropertyCache implements AutoCloseable {
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    static final long CHUNK_BYTES = CHUNK_SIZE * (Long.BYTES + Integer.BYTES + Byte.BYTES);
+    private static final long NO_STAMP = -1;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte ABSENT = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final List<ColumnName> unresolved;
+    private final long maxChunks;
+    private final MemoryTracker memoryTracker;
+    private final AtomicLong allocatedChunks = new AtomicLong();
+    private final AtomicLong updateEpoch = new AtomicLong();
+    private final AtomicInteger activeUpdates = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder populations = new LongAdder();
+
+    private volatile ImmutableIntObjectMap<Column[]> columnsByPropertyKey = IntObjectMaps.immutable.empty();
+    private volatile Column[] columns = new Column[0];
+    private volatile boolean allResolved;
+
+    ColumnarPropertyCache(Set<String> columnNames, long maxSize, MemoryTracker memoryTracker) {
+        this.unresolved = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            unresolved.add(ColumnName.parse(columnName));
+        }
+        this.maxChunks = Math.max(1, maxSize / CHUNK_BYTES);
+        this.memoryTracker = memoryTracker;
+    }
+
+    /**
+     * @return a cache for the columns configured by {@link GraphDatabaseInternalSettings#columnar_property_cache_columns},
+     * or {@code null} if no columns are configured.
+     */
+    static ColumnarPropertyCache create(Config config, MemoryTracker memoryTracker) {
+        Set<String> columnNames = config.get(GraphDatabaseInternalSettings.columnar_property_cache_columns);
+        if (columnNames.isEmpty()) {
+            return null;
+        }
+        return new ColumnarPropertyCache(
+                columnNames,
+                config.get(GraphDatabaseInternalSettings.columnar_property_cache_max_size),
+                memoryTracker);
+    }
+
+    /**
+     * Resolves the configured label and property key names of columns that are not resolved yet. Columns only become
+     * usable once both tokens exist, so this is called every time new tokens may have been created.
+     */
+    void resolveColumns(TokenHolders tokenHolders) {
+        if (allResolved) {
+            return;
+        }
+        synchronized (this) {
+            List<Column> resolved = new ArrayList<>(Arrays.asList(columns));
+            for (var iterator = unresolved.iterator(); iterator.hasNext(); ) {
+                ColumnName name = iterator.next();
+                int labelId = tokenHolders.labelTokens().getIdByName(name.label);
+                int propertyKeyId = tokenHolders.propertyKeyTokens().getIdByName(name.propertyKey);
+                if (labelId != NO_TOKEN && propertyKeyId != NO_TOKEN) {
+                    resolved.add(new Column(labelId, propertyKeyId));
+                    iterator.remove();
+                }
+            }
+            if (resolved.size() != columns.length) {
+                MutableIntObjectMap<Column[]> byKey = IntObjectMaps.mutable.empty();
+                for (Column column : resolved) {
+                    Column[] forKey = byKey.getIfAbsent(column.propertyKeyId, () -> new Column[0]);
+                    forKey = Arrays.copyOf(forKey, forKey.length + 1);
+                    forKey[forKey.length - 1] = column;
+                    byKey.put(column.propertyKeyId, forKey);
+                }
+                columns = resolved.toArray(new Column[0]);
+                columnsByPropertyKey = byKey.toImmutable();
+            }
+            allResolved = unresolved.isEmpty();
+        }
+    }
+
+    /**
+     * @return whether there is any column for the given property key.
+     */
+    boolean hasColumns(int propertyKeyId) {
+        return columnsByPropertyKey.containsKey(propertyKeyId);
+    }
+
+    /**
+     * Looks up the value of the given property of the given node in any column for that property key. A node only has
+     * an entry in a column while it has the label of the column, so any entry will do.
+     *
+     * @return the cached value, {@link Values#NO_VALUE} if the node is known not to have the property, or {@code null}
+     * if the value isn't cached.
+     */
+    Value lookup(int propertyKeyId, long nodeId) {
+        Column[] forKey = columnsByPropertyKey.get(propertyKeyId);
+        if (forKey != null) {
+            for (Column column : forKey) {
+                Value value = column.get(nodeId);
+                if (value != null) {
+                    hits.increment();
+                    return value;
+                }
+            }
+            misses.increment();
+        }
+        return null;
+    }
+
+    /**
+     * @return a column for the given property key whose label the node under the given cursor has, or {@code null}
+     * if there is no such column.
+     */
+    Column columnFor(int propertyKeyId, StorageNodeCursor nodeCursor) {
+        Column[] forKey = columnsByPropertyKey.get(propertyKeyId);
+        if (forKey != null) {
+            for (Column column : forKey) {
+                if (nodeCursor.hasLabel(column.labelId)) {
+                    return column;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * To be called before reading a value from the store which is to be passed to
+     * {@link #populate(Column, long, Value, long)}.
+     *
+     * @return a stamp identifying the currently applied store state, or {@code -1} if transactions are currently
+     * being applied and nothing read from the store now may be cached.
+     */
+    long populationStamp() {
+        long epoch = updateEpoch.get();
+        return activeUpdates.get() == 0 ? epoch : NO_STAMP;
+    }
+
+    /**
+     * Keeps the given value, read from the store after getting the given stamp from {@link #populationStamp()}, in the
+     * given column. Values that can't be cached, or that don't fit within the maximum size, are ignored.
+     */
+    void populate(Column column, long nodeId, Value value, long stamp) {
+        if (stamp == NO_STAMP) {
+            return;
+        }
+        byte state = stateOf(value);
+        if (state == UNKNOWN) {
+            return;
+        }
+        Chunk chunk = column.chunk(nodeId, this);
+        if (chunk == null) {
+            return;
+        }
+        int index = (int) (nodeId & CHUNK_MASK);
+        int sequence = (int) SEQUENCES.getVolatile(chunk.sequences, index);
+        if ((sequence & 1) != 0 || !SEQUENCES.compareAndSet(chunk.sequences, index, sequence, sequence + 1)) {
+            // Someone else is writing this entry, let them have it
+            return;
+        }
+        boolean published = false;
+        try {
+            if (updateEpoch.get() == stamp) {
+                VALUES.setOpaque(chunk.values, index, bitsOf(value, state));
+                STATES.setOpaque(chunk.states, index, state);
+                published = true;
+            }
+            // else a transaction started applying while we were reading, so the value we read may already be stale
+        } finally {
+            SEQUENCES.setRelease(chunk.sequences, index, sequence + 2);
+        }
+        if (published) {
+            populations.increment();
+        }
+    }
+
+    /**
+     * Called when a batch of transactions starts being applied to the store. No values are cached from the point
+     * where this is called until the matching {@link #endUpdates()}.
+     */
+    void beginUpdates() {
+        activeUpdates.incrementAndGet();
+        updateEpoch.incrementAndGet();
+    }
+
+    void endUpdates() {
+        updateEpoch.incrementAndGet();
+        activeUpdates.decrementAndGet();
+    }
+
+    /**
+     * Clears the values of the given node in all columns.
+     */
+    void invalidateNode(long nodeId) {
+        for (Column column : columns) {
+            column.clear(nodeId);
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long populations() {
+        return populations.sum();
+    }
+
+    /**
+     * @return number of bytes currently allocated for all columns.
+     */
+    long usedMemory() {
+        return allocatedChunks.get() * CHUNK_BYTES;
+    }
+
+    /**
+     * Releases the memory of all columns from the memory tracker. The cache must not be used after this.
+     */
+    @Override
+    public void close() {
+        memoryTracker.releaseHeap(allocatedChunks.getAndSet(maxChunks) * CHUNK_BYTES);
+    }
+
+    private boolean reserveChunk() {
+        long allocated;
+        do {
+            allocated = allocatedChunks.get();
+            if (allocated >= maxChunks) {
+                return false;
+            }
+        } while (!allocatedChunks.compareAndSet(allocated, allocated + 1));
+        try {
+            memoryTracker.allocateHeap(CHUNK_BYTES);
+        } catch (MemoryLimitExceededException e) {
+            // Caching is optional, so just don't grow the cache past what the memory pool allows
+            allocatedChunks.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static byte stateOf(Value value) {
+        if (value == NO_VALUE) {
+            return ABSENT;
+        } else if (value instanceof LongValue) {
+            return LONG;
+        } else if (value instanceof IntValue) {
+            return INT;
+        } else if (value instanceof DoubleValue) {
+            return DOUBLE;
+        } else if (value instanceof BooleanValue) {
+            return BOOLEAN;
+        } else if (value instanceof FloatValue) {
+            return FLOAT;
+        } else if (value instanceof ShortValue) {
+            return SHORT;
+        } else if (value instanceof ByteValue) {
+            return BYTE;
+        }
+        return UNKNOWN;
+    }
+
+    private static long bitsOf(Value value, byte state) {
+        return switch (state) {
+            case LONG -> ((LongValue) value).value();
+            case INT -> ((IntValue) value).value();
+            case SHORT -> ((ShortValue) value).value();
+            case BYTE -> ((ByteValue) value).value();
+            case DOUBLE -> Double.doubleToRawLongBits(((DoubleValue) value).value());
+            case FLOAT -> Float.floatToRawIntBits(((FloatValue) value).value());
+            case BOOLEAN -> ((BooleanValue) value).booleanValue() ? 1 : 0;
+            default -> 0;
+        };
+    }
+
+    private static Value valueOf(byte state, long bits) {
+        return switch (state) {
+            case ABSENT -> NO_VALUE;
+            case LONG -> Values.longValue(bits);
+            case INT -> Values.intValue((int) bits);
+            case SHORT -> Values.shortValue((short) bits);
+            case BYTE -> Values.byteValue((byte) bits);
+            case DOUBLE -> Values.doubleValue(Double.longBitsToDouble(bits));
+            case FLOAT -> Values.floatValue(Float.intBitsToFloat((int) bits));
+            case BOOLEAN -> Values.booleanValue(bits == 1);
+            default -> null;
+        };
+    }
+
+    /**
+     * Values of one property key for the nodes having one label.
+     */
+    static final class Column {
+        private final int labelId;
+        private final int propertyKeyId;
+        private volatile Chunk[] chunks = new Chunk[0];
+
+        Column(int labelId, int propertyKeyId) {
+            this.labelId = labelId;
+            this.propertyKeyId = propertyKeyId;
+        }
+
+        int labelId() {
+            return labelId;
+        }
+
+        int propertyKeyId() {
+            return propertyKeyId;
+        }
+
+        Value get(long nodeId) {
+            Chunk chunk = existingChunk(nodeId);
+            if (chunk == null) {
+                return null;
+            }
+            int index = (int) (nodeId & CHUNK_MASK);
+            int sequence = (int) SEQUENCES.getAcquire(chunk.sequences, index);
+            if ((sequence & 1) != 0) {
+                return null;
+            }
+            byte state = (byte) STATES.getOpaque(chunk.states, index);
+            long bits = (long) VALUES.getOpaque(chunk.values, index);
+            VarHandle.loadLoadFence();
+            if (state == UNKNOWN || (int) SEQUENCES.getOpaque(chunk.sequences, index) != sequence) {
+                return null;
+            }
+            return valueOf(state, bits);
+        }
+
+        /**
+         * Clears the entry of the given node. Waits for a concurrent {@link #populate(Column, long, Value, long)}
+         * of the same entry to finish, so that the entry is guaranteed to be cleared when this method returns.
+         */
+        void clear(long nodeId) {
+            Chunk chunk = existingChunk(nodeId);
+            if (chunk == null) {
+                return;
+            }
+            int index = (int) (nodeId & CHUNK_MASK);
+            int sequence;
+            while (((sequence = (int) SEQUENCES.getVolatile(chunk.sequences, index)) & 1) != 0
+                    || !SEQUENCES.compareAndSet(chunk.sequences, index, sequence, sequence + 1)) {
+                Thread.onSpinWait();
+            }
+            STATES.setOpaque(chunk.states, index, UNKNOWN);
+            SEQUENCES.setRelease(chunk.sequences, index, sequence + 2);
+        }
+
+        private Chunk existingChunk(long nodeId) {
+            long chunkId = nodeId >>> CHUNK_SHIFT;
+            Chunk[] current = chunks;
+            return chunkId < current.length ? current[(int) chunkId] : null;
+        }
+
+        private Chunk chunk(long nodeId, ColumnarPropertyCache cache) {
+            Chunk chunk = existingChunk(nodeId);
+            if (chunk != null) {
+                return chunk;
+            }
+            long chunkId = nodeId >>> CHUNK_SHIFT;
+            if (chunkId >= Integer.MAX_VALUE) {
+                return null;
+            }
+            synchronized (this) {
+                Chunk[] current = chunks;
+                if (chunkId < current.length && current[(int) chunkId] != null) {
+                    return current[(int) chunkId];
+                }
+                if (!cache.reserveChunk()) {
+                    return null;
+                }
+                Chunk[] grown = chunkId < current.length
+                        ? current.clone()
+                        : Arrays.copyOf(current, (int) Math.max(chunkId + 1, current.length * 2L));
+                chunk = new Chunk();
+                grown[(int) chunkId] = chunk;
+                chunks = grown;
+                return chunk;
+            }
+        }
+    }
+
+    private static final class Chunk {
+        private final long[] values = new long[CHUNK_SIZE];
+        private final byte[] states = new byte[CHUNK_SIZE];
+        private final int[] sequences = new int[CHUNK_SIZE];
+    }
+
+    private record ColumnName(String label, String propertyKey) {
+        static ColumnName parse(String columnName) {
+            int separator = columnName.indexOf('.');
+            if (separator <= 0 || separator == columnName.length() - 1) {
+                throw new IllegalArgumentException("Columnar property cache column '" + columnName
+                        + "' is not of the form 'Label.propertyKey'");
+            }
+            return new ColumnName(columnName.substring(0, separator), columnName.substring(separator + 1));
+        }
+    }
+}
@@ -540,6 +540,54 @@ public abstract class Command implements StorageCommand {
         }
     }
 
+    public static class NodePropertyCountsCommand extends Command {
+        static final long SHALLOW_SIZE = shallowSizeOfInstance(NodePropertyCountsCommand.class);
+
+        private final int labelId;
+        private final int propertyKeyId;
+        private final long delta;
+
+        public NodePropertyCountsCommand(
+                LogCommandSerialization serialization, int labelId, int propertyKeyId, long delta) {
+            super(serialization);
+            setup(labelId, Mode.UPDATE);
+            assert delta != 0
+                    : "Tried to create a NodePropertyCountsCommand for something that didn't change any count";
+            this.labelId = labelId;
+            this.propertyKeyId = propertyKeyId;
+            this.delta = delta;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "UpdateCounts[(%s {%d}) %s %d]",
+                    label(labelId), propertyKeyId, delta < 0 ? "-" : "+", Math.abs(delta));
+        }
+
+        @Override
+        public boolean handle(CommandVisitor handler) throws IOException {
+            return handler.visitNodePropertyCountsCommand(this);
+        }
+
+        @Override
+        public void serialize(WritableChannel channel) throws IOException {
+            serialization.writeNodePropertyCountsCommand(channel, this);
+        }
+
+        public int labelId() {
+            return labelId;
+        }
+
+        public int propertyKeyId() {
+            return propertyKeyId;
+        }
+
+        public long delta() {
+            return delta;
+        }
+    }
+
     public static class GroupDegreeCommand extends Command {
         static final long SHALLOW_SIZE = shallowSizeOfInstance(GroupDegreeCommand.class);
 
@@ -25,6 +25,7 @@ import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
 import org.neo4j.internal.recordstorage.Command.MetaDataCommand;
 import org.neo4j.internal.recordstorage.Command.NodeCommand;
 import org.neo4j.internal.recordstorage.Command.NodeCountsCommand;
+import org.neo4j.internal.recordstorage.Command.NodePropertyCountsCommand;
 import org.neo4j.internal.recordstorage.Command.PropertyCommand;
 import org.neo4j.internal.recordstorage.Command.PropertyKeyTokenCommand;
 import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
@@ -63,6 +64,8 @@ public interface CommandVisitor {
 
     boolean visitGroupDegreeCommand(GroupDegreeCommand command) throws IOException;
 
+    boolean visitNodePropertyCountsCommand(NodePropertyCountsCommand command) throws IOException;
+
     /**
      * An empty implementation of a {@link CommandVisitor}. Allows you to implement only the methods you are
      * interested in. See also {@link TransactionApplier.Adapter} if need handle commands inside of a transaction, or
@@ -128,5 +131,10 @@ public interface CommandVisitor {
         public boolean visitGroupDegreeCommand(GroupDegreeCommand command) {
             return false;
         }
+
+        @Override
+        public boolean visitNodePropertyCountsCommand(NodePropertyCountsCommand command) {
+            return false;
+        }
     }
 }
@@ -22,6 +22,7 @@ package org.neo4j.internal.recordstorage;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.counts.CountsStore;
 import org.neo4j.internal.counts.DegreeUpdater;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.internal.recordstorage.Command.SchemaRuleCommand;
 import org.neo4j.storageengine.api.CommandBatchToApply;
@@ -29,21 +30,26 @@ import org.neo4j.storageengine.api.CommandBatchToApply;
 class CountsStoreTransactionApplier extends TransactionApplier.Adapter {
     private final CountsStore countsStore;
     private final RelationshipGroupDegreesStore groupDegreesStore;
+    private final GBPTreeNodePropertyCountsStore nodePropertyCountsStore;
     private final CommandBatchToApply commandsBatch;
     private final CountTransformer countTransformer;
     private CountsAccessor.Updater countsUpdater;
     private DegreeUpdater degreesUpdater;
+    private GBPTreeNodePropertyCountsStore.Updater nodePropertyCountsUpdater;
     private boolean haveUpdates;
     private boolean countsUpdaterClosed;
     private boolean degreesUpdaterClosed;
+    private boolean nodePropertyCountsUpdaterClosed;
 
     CountsStoreTransactionApplier(
             CountsStore countsStore,
             RelationshipGroupDegreesStore groupDegreesStore,
+            GBPTreeNodePropertyCountsStore nodePropertyCountsStore,
             CommandBatchToApply commandsBatch,
             CountTransformer countTransformer) {
         this.countsStore = countsStore;
         this.groupDegreesStore = groupDegreesStore;
+        this.nodePropertyCountsStore = nodePropertyCountsStore;
         this.commandsBatch = commandsBatch;
         this.countTransformer = countTransformer;
     }
@@ -65,6 +71,10 @@ class CountsStoreTransactionApplier extends TransactionApplier.Adapter {
             degreesUpdater().close();
             degreesUpdaterClosed = true;
         }
+        if (nodePropertyCountsStore != null && !nodePropertyCountsUpdaterClosed) {
+            nodePropertyCountsUpdater().close();
+            nodePropertyCountsUpdaterClosed = true;
+        }
     }
 
     @Override
@@ -99,6 +109,16 @@ class CountsStoreTransactionApplier extends TransactionApplier.Adapter {
         return degreesUpdater;
     }
 
+    private GBPTreeNodePropertyCountsStore.Updater nodePropertyCountsUpdater() {
+        if (nodePropertyCountsUpdater == null) {
+            nodePropertyCountsUpdater = nodePropertyCountsStore.apply(
+                    commandsBatch.transactionId(),
+                    commandsBatch.commandBatch().isLast(),
+                    commandsBatch.cursorContext());
+        }
+        return nodePropertyCountsUpdater;
+    }
+
     @Override
     public boolean visitRelationshipCountsCommand(Command.RelationshipCountsCommand command) {
         haveUpdates = true;
@@ -130,4 +150,18 @@ class CountsStoreTransactionApplier extends TransactionApplier.Adapter {
         degreesUpdater().increment(command.groupId(), command.direction(), countTransformer.transform(command.delta()));
         return false;
     }
+
+    @Override
+    public boolean visitNodePropertyCountsCommand(Command.NodePropertyCountsCommand command) {
+        // The transaction log can still contain these commands after maintaining these counts has been disabled
+        if (nodePropertyCountsStore != null) {
+            haveUpdates = true;
+            nodePropertyCountsUpdater()
+                    .increment(
+                            command.labelId(),
+                            command.propertyKeyId(),
+                            countTransformer.transform(command.delta()));
+        }
+        return false;
+    }
 }
@@ -19,7 +19,9 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import java.util.function.Supplier;
 import org.neo4j.counts.CountsStore;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.storageengine.api.CommandBatchToApply;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -28,12 +30,22 @@ class CountsStoreTransactionApplierFactory implements TransactionApplierFactory
     private final TransactionApplicationMode mode;
     private final CountsStore countsStore;
     private final RelationshipGroupDegreesStore groupDegreesStore;
+    private final Supplier<GBPTreeNodePropertyCountsStore> nodePropertyCountsStore;
 
     CountsStoreTransactionApplierFactory(
             TransactionApplicationMode mode, CountsStore countsStore, RelationshipGroupDegreesStore groupDegreesStore) {
+        this(mode, countsStore, groupDegreesStore, () -> null);
+    }
+
+    CountsStoreTransactionApplierFactory(
+            TransactionApplicationMode mode,
+            CountsStore countsStore,
+            RelationshipGroupDegreesStore groupDegreesStore,
+            Supplier<GBPTreeNodePropertyCountsStore> nodePropertyCountsStore) {
         this.mode = mode;
         this.countsStore = countsStore;
         this.groupDegreesStore = groupDegreesStore;
+        this.nodePropertyCountsStore = nodePropertyCountsStore;
     }
 
     @Override
@@ -41,6 +53,7 @@ class CountsStoreTransactionApplierFactory implements TransactionApplierFactory
         return new CountsStoreTransactionApplier(
                 countsStore,
                 groupDegreesStore,
+                nodePropertyCountsStore.get(),
                 transaction,
                 mode.isReverseStep() ? CountTransformer.REVERSE : CountTransformer.NORMAL);
     }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.neo4j.internal.recordstorage.RelationshipCreator.NO_CONNECT_TO_DENSE_MONITOR;
+import static org.neo4j.internal.recordstorage.RelationshipModifier.DEFAULT_EXTERNAL_DEGREES_THRESHOLD_SWITCH;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.Record.isNull;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.eclipse.collections.api.LongIterable;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.neo4j.internal.counts.DegreeUpdater;
+import org.neo4j.internal.counts.GBPTreeRelationshipGroupDegreesStore;
+import org.neo4j.internal.helpers.progress.ProgressListener;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.recordstorage.RecordAccess.RecordProxy;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+/**
+ * Moves nodes between the sparse and the dense relationship layout based on their current degree, regardless of what
+ * the degree was when the layout of the node was last decided.
+ * <p>
+ * A sparse node is only converted to dense when a relationship is added to it while its degree is at or above the dense
+ * node threshold, and a dense node is never converted back, so nodes that got their relationships while the threshold
+ * was higher, or that lost most of their relationships, keep a layout that does not fit their degree. This converts
+ * sparse nodes with a degree of at least {@code denseNodeThreshold} into dense nodes, using the same
+ * {@link RelationshipCreator#convertNodeToDenseNode conversion} as when relationships are created, and dense nodes with
+ * a degree below {@code sparseNodeThreshold} back into sparse nodes, with all their relationships in a single chain.
+ * Degrees of groups that are kept in the {@link GBPTreeRelationshipGroupDegreesStore degrees store} are read from,
+ * and updated in, that store.
+ * <p>
+ * Each node is converted and written separately, so a node is either completely converted or not at all. This works
+ * directly on the stores, and must only be used on stores that are not in use by a running database.
+ */
+public class DenseNodeConverter {
+    private static final String CONVERSION_TAG = "denseNodeConversion";
+
+    private final NeoStores neoStores;
+    private final IdGeneratorFactory idGeneratorFactory;
+    private final GBPTreeRelationshipGroupDegreesStore groupDegreesStore;
+    private final CursorContextFactory contextFactory;
+    private final ProgressMonitorFactory progressMonitorFactory;
+    private final int denseNodeThreshold;
+    private final int sparseNodeThreshold;
+
+    /**
+     * @param denseNodeThreshold sparse nodes with at least this degree are converted to dense.
+     * @param sparseNodeThreshold dense nodes with a degree below this are converted to sparse. Must be lower than
+     * {@code denseNodeThreshold}, so that a converted node is not immediately eligible for conversion back.
+     */
+    public DenseNodeConverter(
+            NeoStores neoStores,
+            IdGeneratorFactory idGeneratorFactory,
+            GBPTreeRelationshipGroupDegreesStore groupDegreesStore,
+            CursorContextFactory contextFactory,
+            ProgressMonitorFactory progressMonitorFactory,
+            int denseNodeThreshold,
+            int sparseNodeThreshold) {
+        if (sparseNodeThreshold >= denseNodeThreshold) {
+            throw new IllegalArgumentException("Sparse node threshold " + sparseNodeThreshold
+                    + " must be lower than dense node threshold " + denseNodeThreshold);
+        }
+        this.neoStores = neoStores;
+        this.idGeneratorFactory = idGeneratorFactory;
+        this.groupDegreesStore = groupDegreesStore;
+        this.contextFactory = contextFactory;
+        this.progressMonitorFactory = progressMonitorFactory;
+        this.denseNodeThreshold = denseNodeThreshold;
+        this.sparseNodeThreshold = sparseNodeThreshold;
+    }
+
+    /**
+     * Convert the given nodes whose layout does not match their degree.
+     *
+     * @param nodeIds ids of the nodes to consider. Ids of nodes that are not in use are ignored.
+     * @return the report of the conversion.
+     */
+    public Report convert(LongIterable nodeIds) {
+        long convertedToDense = 0;
+        long convertedToSparse = 0;
+        long relinkedRelationships = 0;
+        IdGenerator groupIdGenerator = neoStores.getRelationshipGroupStore().getIdGenerator();
+        try (CursorContext cursorContext = contextFactory.create(CONVERSION_TAG);
+                var recordChanges = new DirectRecordAccessSet(neoStores, idGeneratorFactory, cursorContext);
+                ProgressListener progress =
+                        progressMonitorFactory.singlePart("Converting dense nodes", nodeIds.size())) {
+            var groupGetter = new RelationshipGroupGetter(groupIdGenerator, cursorContext);
+            var creator = new RelationshipCreator(
+                    denseNodeThreshold, DEFAULT_EXTERNAL_DEGREES_THRESHOLD_SWITCH, cursorContext);
+            var nodeDataLookup = new RelationshipCreator.InsertFirst(groupGetter, recordChanges, cursorContext);
+            MutableLongList deletedGroups = LongLists.mutable.empty();
+            LongIterator iterator = nodeIds.longIterator();
+            while (iterator.hasNext()) {
+                RecordProxy<NodeRecord, Void> nodeChange =
+                        recordChanges.getNodeRecords().getOrLoad(iterator.next(), null, CHECK);
+                NodeRecord node = nodeChange.forReadingLinkage();
+                long degree = node.inUse() ? degree(node, recordChanges, cursorContext) : 0;
+                if (node.inUse() && !node.isDense() && degree >= denseNodeThreshold) {
+                    // The degree updater is closed, and by that written, per node so that the degrees read for the
+                    // next node are always up to date
+                    try (DegreeUpdater degreeUpdater = degreeUpdater(cursorContext)) {
+                        RecordAccess<RelationshipRecord, Void> relRecords = recordChanges.getRelRecords();
+                        creator.convertNodeToDenseNode(
+                                nodeChange,
+                                relRecords.getOrLoad(node.getNextRel(), null).forChangingLinkage(),
+                                relRecords,
+                                degreeUpdater,
+                                nodeDataLookup,
+                                NO_CONNECT_TO_DENSE_MONITOR);
+                        recordChanges.commit();
+                    }
+                    convertedToDense++;
+                    relinkedRelationships += degree;
+                } else if (node.inUse() && node.isDense() && degree < sparseNodeThreshold) {
+                    try (DegreeUpdater degreeUpdater = degreeUpdater(cursorContext)) {
+                        relinkedRelationships +=
+                                convertToSparse(nodeChange, recordChanges, degreeUpdater, deletedGroups, cursorContext);
+                        recordChanges.commit();
+                    }
+                    freeGroupIds(groupIdGenerator, deletedGroups, cursorContext);
+                    convertedToSparse++;
+                }
+                progress.add(1);
+            }
+        }
+        return new Report(convertedToDense, convertedToSparse, relinkedRelationships);
+    }
+
+    private DegreeUpdater degreeUpdater(CursorContext cursorContext) {
+        try {
+            // Deltas, since both conversions change degrees relative to what is already stored
+            return groupDegreesStore.directApply(true, cursorContext);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the number of relationships of the node, where a loop is counted once.
+     */
+    private long degree(NodeRecord node, RecordAccessSet recordChanges, CursorContext cursorContext) {
+        RecordAccess<RelationshipRecord, Void> relRecords = recordChanges.getRelRecords();
+        long nodeId = node.getId();
+        if (!node.isDense()) {
+            return isNull(node.getNextRel())
+                    ? 0
+                    : RelationshipCreator.relCount(
+                            nodeId, relRecords.getOrLoad(node.getNextRel(), null).forReadingLinkage());
+        }
+        long degree = 0;
+        long groupId = node.getNextRel();
+        while (!isNull(groupId)) {
+            RelationshipGroupRecord group =
+                    recordChanges.getRelGroupRecords().getOrLoad(groupId, null).forReadingData();
+            for (DirectionWrapper direction : DirectionWrapper.values()) {
+                long firstRelId = direction.getNextRel(group);
+                if (direction.hasExternalDegrees(group)) {
+                    degree += groupDegreesStore.degree(groupId, direction.direction(), cursorContext);
+                } else if (!isNull(firstRelId)) {
+                    degree += relRecords.getOrLoad(firstRelId, null).forReadingLinkage().getPrevRel(nodeId);
+                }
+            }
+            groupId = group.getNext();
+        }
+        return degree;
+    }
+
+    /**
+     * Link all relationships of a dense node into a single chain, in group order, and delete its groups.
+     *
+     * @return the number of relationships in the new chain.
+     */
+    private long convertToSparse(
+            RecordProxy<NodeRecord, Void> nodeChange,
+            RecordAccessSet recordChanges,
+            DegreeUpdater degreeUpdater,
+            MutableLongList deletedGroups,
+            CursorContext cursorContext) {
+        RecordAccess<RelationshipRecord, Void> relRecords = recordChanges.getRelRecords();
+        NodeRecord node = nodeChange.forChangingLinkage();
+        long nodeId = node.getId();
+        RelationshipRecord first = null;
+        RelationshipRecord previous = null;
+        long count = 0;
+        long groupId = node.getNextRel();
+        while (!isNull(groupId)) {
+            RelationshipGroupRecord group =
+                    recordChanges.getRelGroupRecords().getOrLoad(groupId, null).forChangingData();
+            for (DirectionWrapper direction : DirectionWrapper.values()) {
+                if (direction.hasExternalDegrees(group)) {
+                    long degree = groupDegreesStore.degree(groupId, direction.direction(), cursorContext);
+                    degreeUpdater.increment(groupId, direction.direction(), -degree);
+                }
+                long relId = direction.getNextRel(group);
+                while (!isNull(relId)) {
+                    RelationshipRecord relationship = relRecords.getOrLoad(relId, null).forChangingLinkage();
+                    // Get the next relationship id before the linkage is overwritten
+                    relId = relationship.getNextRel(nodeId);
+                    if (previous == null) {
+                        first = relationship;
+                    } else {
+                        previous.setNextRel(relationship.getId(), nodeId);
+                        relationship.setPrevRel(previous.getId(), nodeId);
+                    }
+                    relationship.setFirstInChain(previous == null, nodeId);
+                    relationship.setNextRel(NO_NEXT_RELATIONSHIP.longValue(), nodeId);
+                    previous = relationship;
+                    count++;
+                }
+            }
+            group.setInUse(false);
+            deletedGroups.add(groupId);
+            groupId = group.getNext();
+        }
+        if (first != null) {
+            // Degrees are stored in the backward pointer of the first in chain
+            first.setPrevRel(count, nodeId);
+        }
+        node.setDense(false);
+        node.setNextRel(first == null ? NO_NEXT_RELATIONSHIP.longValue() : first.getId());
+        return count;
+    }
+
+    private static void freeGroupIds(
+            IdGenerator groupIdGenerator, MutableLongList deletedGroups, CursorContext cursorContext) {
+        if (deletedGroups.isEmpty()) {
+            return;
+        }
+        try (var marker = groupIdGenerator.transactionalMarker(cursorContext)) {
+            deletedGroups.forEach(marker::markDeletedAndFree);
+        }
+        deletedGroups.clear();
+    }
+
+    public record Report(long convertedToDense, long convertedToSparse, long relinkedRelationships) {}
+}
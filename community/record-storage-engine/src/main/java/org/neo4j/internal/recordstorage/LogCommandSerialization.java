@@ -45,6 +45,7 @@ public abstract class LogCommandSerialization extends BaseCommandReader {
             case NeoCommandType.NEOSTORE_COMMAND -> readNeoStoreCommand(channel);
             case NeoCommandType.META_DATA_COMMAND -> readMetaDataCommand(channel);
             case NeoCommandType.UPDATE_GROUP_DEGREE_COMMAND -> readGroupDegreeCommand(channel);
+            case NeoCommandType.UPDATE_NODE_PROPERTY_COUNTS_COMMAND -> readNodePropertyCountsCommand(channel);
             case NeoCommandType.ENRICHMENT_COMMAND -> readEnrichmentCommand(channel);
 
                 // legacy indexes
@@ -70,6 +71,10 @@ public abstract class LogCommandSerialization extends BaseCommandReader {
         throw unsupportedInThisVersionException();
     }
 
+    protected Command readNodePropertyCountsCommand(ReadableChannel channel) throws IOException {
+        throw unsupportedInThisVersionException();
+    }
+
     protected Command readSchemaRuleCommand(ReadableChannel channel) throws IOException {
         throw unsupportedInThisVersionException();
     }
@@ -200,6 +205,11 @@ public abstract class LogCommandSerialization extends BaseCommandReader {
         throw unsupportedInThisVersionException();
     }
 
+    public void writeNodePropertyCountsCommand(WritableChannel channel, Command.NodePropertyCountsCommand command)
+            throws IOException {
+        throw unsupportedInThisVersionException();
+    }
+
     public void writeEnrichmentCommand(WritableChannel channel, Command.RecordEnrichmentCommand command)
             throws IOException {
         throw unsupportedInThisVersionException();
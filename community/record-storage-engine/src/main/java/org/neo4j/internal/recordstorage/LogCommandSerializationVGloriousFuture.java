@@ -19,6 +19,10 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import java.io.IOException;
+import org.neo4j.internal.recordstorage.Command.NodePropertyCountsCommand;
+import org.neo4j.io.fs.ReadableChannel;
+import org.neo4j.io.fs.WritableChannel;
 import org.neo4j.kernel.KernelVersion;
 
 class LogCommandSerializationVGloriousFuture extends LogCommandSerializationV5_10 {
@@ -28,4 +32,19 @@ class LogCommandSerializationVGloriousFuture extends LogCommandSerializationV5_1
     public KernelVersion kernelVersion() {
         return KernelVersion.GLORIOUS_FUTURE;
     }
+
+    @Override
+    protected Command readNodePropertyCountsCommand(ReadableChannel channel) throws IOException {
+        int labelId = channel.getInt();
+        int propertyKeyId = channel.getInt();
+        long delta = channel.getLong();
+        return new NodePropertyCountsCommand(this, labelId, propertyKeyId, delta);
+    }
+
+    @Override
+    public void writeNodePropertyCountsCommand(WritableChannel channel, NodePropertyCountsCommand command)
+            throws IOException {
+        channel.put(NeoCommandType.UPDATE_NODE_PROPERTY_COUNTS_COMMAND);
+        channel.putInt(command.labelId()).putInt(command.propertyKeyId()).putLong(command.delta());
+    }
 }
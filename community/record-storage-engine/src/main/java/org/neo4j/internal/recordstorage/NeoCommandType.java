@@ -50,5 +50,7 @@ public interface NeoCommandType {
 
     byte REL_GROUP_EXTENDED_COMMAND = (byte) 21; // Relationship group with 3 byte type id
 
+    byte UPDATE_NODE_PROPERTY_COUNTS_COMMAND = (byte) 22;
+
     byte ENRICHMENT_COMMAND = EnrichmentCommand.COMMAND_CODE;
 }
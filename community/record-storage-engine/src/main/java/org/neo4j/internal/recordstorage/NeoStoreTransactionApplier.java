@@ -27,6 +27,7 @@ import static org.neo4j.internal.recordstorage.RecordCursorTypes.PROPERTY_KEY_TO
 import static org.neo4j.internal.recordstorage.RecordCursorTypes.RELATIONSHIP_CURSOR;
 import static org.neo4j.internal.recordstorage.RecordCursorTypes.REL_TYPE_TOKEN_CURSOR;
 import static org.neo4j.internal.recordstorage.RecordCursorTypes.SCHEMA_CURSOR;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 
 import org.neo4j.internal.recordstorage.Command.BaseCommand;
 import org.neo4j.internal.schema.SchemaRule;
@@ -34,6 +35,9 @@ import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.lock.LockGroup;
 import org.neo4j.lock.LockService;
 import org.neo4j.lock.LockType;
@@ -59,6 +63,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter {
     private final IdUpdateListener idUpdateListener;
     private final CursorContext cursorContext;
     private final StoreCursors storeCursors;
+    private PropertyRecord propertyRecord;
 
     public NeoStoreTransactionApplier(
             CommandVersion version,
@@ -85,6 +90,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter {
 
         // update store
         updateStore(neoStores.getNodeStore(), command, NODE_CURSOR);
+        updateInlinedProperty(neoStores.getNodeStore(), selectRecordByCommandVersion(command), NODE_CURSOR);
         return false;
     }
 
@@ -93,6 +99,8 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter {
         lockGroup.add(lockService.acquireRelationshipLock(command.getKey(), LockType.EXCLUSIVE));
 
         updateStore(neoStores.getRelationshipStore(), command, RELATIONSHIP_CURSOR);
+        updateInlinedProperty(
+                neoStores.getRelationshipStore(), selectRecordByCommandVersion(command), RELATIONSHIP_CURSOR);
         return false;
     }
 
@@ -109,6 +117,12 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter {
         }
 
         updateStore(neoStores.getPropertyStore(), command, PROPERTY_CURSOR);
+        PropertyRecord property = selectRecordByCommandVersion(command);
+        if (property.isNodeSet()) {
+            updateInlinedProperty(neoStores.getNodeStore(), property.getNodeId(), property, NODE_CURSOR);
+        } else if (property.isRelSet()) {
+            updateInlinedProperty(neoStores.getRelationshipStore(), property.getRelId(), property, RELATIONSHIP_CURSOR);
+        }
         return false;
     }
 
@@ -169,6 +183,50 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter {
         }
     }
 
+    /**
+     * Entity records are applied after the property records they point to, so the first property record of
+     * an entity that was just written can be copied from the property store.
+     */
+    private void updateInlinedProperty(
+            CommonAbstractStore<? extends PrimitiveRecord, ?> store, PrimitiveRecord record, CursorType cursorType) {
+        if (!store.hasInlinedProperties() || !record.inUse() || Record.NO_NEXT_PROPERTY.is(record.getNextProp())) {
+            return;
+        }
+        PropertyRecord property = propertyRecord();
+        neoStores
+                .getPropertyStore()
+                .getRecordByCursor(
+                        record.getNextProp(), property, CHECK, storeCursors.readCursor(PROPERTY_CURSOR));
+        try (var cursor = storeCursors.writeCursor(cursorType)) {
+            store.updateInlinedProperty(record.getId(), property, cursor);
+        }
+    }
+
+    /**
+     * A property record may be changed without its owner being changed in the same transaction, in which case
+     * the copy of it is updated if it is the first property record of its owner.
+     */
+    private <RECORD extends PrimitiveRecord> void updateInlinedProperty(
+            CommonAbstractStore<RECORD, ?> store, long ownerId, PropertyRecord property, CursorType cursorType) {
+        if (!store.hasInlinedProperties() || !property.inUse()) {
+            return;
+        }
+        RECORD owner = store.newRecord();
+        store.getRecordByCursor(ownerId, owner, CHECK, storeCursors.readCursor(cursorType));
+        if (owner.inUse() && owner.getNextProp() == property.getId()) {
+            try (var cursor = storeCursors.writeCursor(cursorType)) {
+                store.updateInlinedProperty(ownerId, property, cursor);
+            }
+        }
+    }
+
+    private PropertyRecord propertyRecord() {
+        if (propertyRecord == null) {
+            propertyRecord = neoStores.getPropertyStore().newRecord();
+        }
+        return propertyRecord;
+    }
+
     private <RECORD extends AbstractBaseRecord> RECORD selectRecordByCommandVersion(BaseCommand<RECORD> command) {
         return switch (version) {
             case BEFORE -> command.getBefore();
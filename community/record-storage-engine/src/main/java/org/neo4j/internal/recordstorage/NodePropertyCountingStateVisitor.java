@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.neo4j.io.IOUtils.closeAllUnchecked;
+import static org.neo4j.storageengine.api.PropertySelection.ALL_PROPERTIES;
+
+import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.neo4j.collection.diffset.LongDiffSets;
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
+import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StorageProperty;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.cursor.StoreCursors;
+import org.neo4j.storageengine.api.txstate.NodeState;
+import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
+import org.neo4j.storageengine.api.txstate.TxStateVisitor;
+
+/**
+ * Computes the changes a transaction makes to the counts of nodes per label and property key, as kept in
+ * {@link GBPTreeNodePropertyCountsStore}. Each changed node is counted once, the first time it is visited, by comparing
+ * its labels and property keys in the store with those it will have after the transaction.
+ */
+class NodePropertyCountingStateVisitor extends TxStateVisitor.Delegator {
+    private final ReadableTransactionState txState;
+    private final NodePropertyCountsRecordState counts;
+    private final StorageNodeCursor nodeCursor;
+    private final StoragePropertyCursor propertyCursor;
+    private final MutableLongSet countedNodes = LongSets.mutable.empty();
+
+    NodePropertyCountingStateVisitor(
+            TxStateVisitor next,
+            StorageReader storageReader,
+            ReadableTransactionState txState,
+            NodePropertyCountsRecordState counts,
+            CursorContext cursorContext,
+            StoreCursors storeCursors,
+            MemoryTracker memoryTracker) {
+        super(next);
+        this.txState = txState;
+        this.counts = counts;
+        this.nodeCursor = storageReader.allocateNodeCursor(cursorContext, storeCursors);
+        this.propertyCursor = storageReader.allocatePropertyCursor(cursorContext, storeCursors, memoryTracker);
+    }
+
+    @Override
+    public void visitCreatedNode(long id) {
+        if (countedNodes.add(id)) {
+            NodeState node = txState.getNodeState(id);
+            LongSet labels = node.labelDiffSets().getAdded();
+            if (!labels.isEmpty()) {
+                for (StorageProperty property : node.addedProperties()) {
+                    labels.forEach(label -> counts.increment(label, property.propertyKeyId(), 1));
+                }
+            }
+        }
+        super.visitCreatedNode(id);
+    }
+
+    @Override
+    public void visitDeletedNode(long id) {
+        if (countedNodes.add(id)) {
+            nodeCursor.single(id);
+            if (nodeCursor.next()) {
+                long[] labels = nodeCursor.labels();
+                if (labels.length > 0) {
+                    storedPropertyKeys().forEach(key -> {
+                        for (long label : labels) {
+                            counts.increment(label, key, -1);
+                        }
+                    });
+                }
+            }
+        }
+        super.visitDeletedNode(id);
+    }
+
+    @Override
+    public void visitNodePropertyChanges(
+            long id, Iterable<StorageProperty> added, Iterable<StorageProperty> changed, IntIterable removed)
+            throws ConstraintValidationException {
+        countModifiedNode(id);
+        super.visitNodePropertyChanges(id, added, changed, removed);
+    }
+
+    @Override
+    public void visitNodeLabelChanges(long id, LongSet added, LongSet removed) throws ConstraintValidationException {
+        countModifiedNode(id);
+        super.visitNodeLabelChanges(id, added, removed);
+    }
+
+    private void countModifiedNode(long id) {
+        if (!countedNodes.add(id)) {
+            return;
+        }
+        nodeCursor.single(id);
+        if (!nodeCursor.next()) {
+            return;
+        }
+        NodeState node = txState.getNodeState(id);
+        LongDiffSets labelChanges = node.labelDiffSets();
+        long[] labels = nodeCursor.labels();
+        // Property keys of the node in the store are only needed if the node gets or loses labels
+        MutableIntSet keys = labelChanges.isEmpty() ? IntSets.mutable.empty() : storedPropertyKeys();
+        for (long label : labels) {
+            if (labelChanges.isRemoved(label)) {
+                keys.forEach(key -> counts.increment(label, key, -1));
+            } else {
+                node.addedProperties().forEach(property -> counts.increment(label, property.propertyKeyId(), 1));
+                node.removedProperties().forEach(key -> counts.increment(label, key, -1));
+            }
+        }
+        if (!labelChanges.getAdded().isEmpty()) {
+            node.removedProperties().forEach(keys::remove);
+            node.addedProperties().forEach(property -> keys.add(property.propertyKeyId()));
+            labelChanges.getAdded().forEach(label -> keys.forEach(key -> counts.increment(label, key, 1)));
+        }
+    }
+
+    private MutableIntSet storedPropertyKeys() {
+        MutableIntSet keys = IntSets.mutable.empty();
+        nodeCursor.properties(propertyCursor, ALL_PROPERTIES);
+        while (propertyCursor.next()) {
+            keys.add(propertyCursor.propertyKey());
+        }
+        return keys;
+    }
+
+    @Override
+    public void close() throws KernelException {
+        try {
+            super.close();
+        } finally {
+            closeAllUnchecked(nodeCursor, propertyCursor);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.Collection;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Changes to the counts of nodes per label and property key, as kept in {@link GBPTreeNodePropertyCountsStore},
+ * that can be turned into {@link StorageCommand commands} for storage.
+ */
+class NodePropertyCountsRecordState implements RecordState {
+    private final LogCommandSerialization serialization;
+    private final MutableLongLongMap counts = new LongLongHashMap();
+
+    NodePropertyCountsRecordState(LogCommandSerialization serialization) {
+        this.serialization = serialization;
+    }
+
+    void increment(long labelId, int propertyKeyId, long delta) {
+        counts.addToValue(labelId << Integer.SIZE | (propertyKeyId & 0xFFFFFFFFL), delta);
+    }
+
+    @Override
+    public void extractCommands(Collection<StorageCommand> target, MemoryTracker memoryTracker) {
+        memoryTracker.allocateHeap(counts.size() * Command.NodePropertyCountsCommand.SHALLOW_SIZE);
+        counts.forEachKeyValue((key, count) -> {
+            if (count != 0) {
+                target.add(new Command.NodePropertyCountsCommand(
+                        serialization, (int) (key >>> Integer.SIZE), (int) key, count));
+            }
+        });
+    }
+}
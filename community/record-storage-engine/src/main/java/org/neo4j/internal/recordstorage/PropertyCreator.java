@@ -40,6 +40,7 @@ public class PropertyCreator {
     private final PropertyTraverser traverser;
     private final CursorContext cursorContext;
     private final IdSequence propertyIdSequence;
+    private final boolean compressDynamicValues;
 
     public PropertyCreator(
             DynamicRecordAllocator stringRecordAllocator,
@@ -47,8 +48,19 @@ public class PropertyCreator {
             PropertyTraverser traverser,
             IdSequenceProvider idSequenceProvider,
             CursorContext cursorContext) {
+        this(stringRecordAllocator, arrayRecordAllocator, traverser, idSequenceProvider, false, cursorContext);
+    }
+
+    public PropertyCreator(
+            DynamicRecordAllocator stringRecordAllocator,
+            DynamicRecordAllocator arrayRecordAllocator,
+            PropertyTraverser traverser,
+            IdSequenceProvider idSequenceProvider,
+            boolean compressDynamicValues,
+            CursorContext cursorContext) {
         this.stringRecordAllocator = stringRecordAllocator;
         this.arrayRecordAllocator = arrayRecordAllocator;
+        this.compressDynamicValues = compressDynamicValues;
         this.traverser = traverser;
         this.cursorContext = cursorContext;
         this.propertyIdSequence = idSequenceProvider.getIdSequence(StoreType.PROPERTY);
@@ -187,7 +199,14 @@ public class PropertyCreator {
     private PropertyBlock encodePropertyValue(int propertyKey, Value value, MemoryTracker memoryTracker) {
         PropertyBlock block = new PropertyBlock();
         PropertyStore.encodeValue(
-                block, propertyKey, value, stringRecordAllocator, arrayRecordAllocator, cursorContext, memoryTracker);
+                block,
+                propertyKey,
+                value,
+                stringRecordAllocator,
+                arrayRecordAllocator,
+                compressDynamicValues,
+                cursorContext,
+                memoryTracker);
         return block;
     }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_PREVIOUS_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.ALWAYS;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.collections.api.LongIterable;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.neo4j.internal.helpers.progress.ProgressListener;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+/**
+ * Rewrites the property chains of selected nodes into contiguous property records, so that reading all properties of a
+ * node touches as few pages as possible, and reports how many pages the relationship and property chains of those nodes
+ * span before and after.
+ * <p>
+ * Relationship records are never moved, since their ids are the ids of the relationships they store, so relationship
+ * chains are only measured. Property records are internal to the store and can be moved freely: the new chain is
+ * written first, then the node is pointed to it, and only then are the old records deleted. Property values stored in
+ * dynamic records are referenced from the property blocks and stay where they are.
+ * <p>
+ * This works directly on the stores, and must only be used on stores that are not in use by a running database. The
+ * IO it does is reported to the given {@link IOController}, which lets it be throttled.
+ */
+public class RecordChainCompactor {
+    private static final String COMPACTION_TAG = "recordChainCompaction";
+
+    private final NeoStores neoStores;
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final RelationshipStore relationshipStore;
+    private final RelationshipGroupStore groupStore;
+    private final CursorContextFactory contextFactory;
+    private final IOController ioController;
+    private final ProgressMonitorFactory progressMonitorFactory;
+    private final MutableLongSet pages = new LongHashSet();
+
+    public RecordChainCompactor(
+            NeoStores neoStores,
+            CursorContextFactory contextFactory,
+            IOController ioController,
+            ProgressMonitorFactory progressMonitorFactory) {
+        this.neoStores = neoStores;
+        this.nodeStore = neoStores.getNodeStore();
+        this.propertyStore = neoStores.getPropertyStore();
+        this.relationshipStore = neoStores.getRelationshipStore();
+        this.groupStore = neoStores.getRelationshipGroupStore();
+        this.contextFactory = contextFactory;
+        this.ioController = ioController;
+        this.progressMonitorFactory = progressMonitorFactory;
+    }
+
+    /**
+     * Measure the chains of the given nodes, without changing anything.
+     *
+     * @param nodeIds ids of the nodes to measure. Ids of nodes that are not in use are ignored.
+     * @return the report, where the property chains after compaction are the same as before.
+     */
+    public Report analyze(LongIterable nodeIds) {
+        return run(nodeIds, false);
+    }
+
+    /**
+     * Compact the property chains of the given nodes.
+     *
+     * @param nodeIds ids of the nodes to compact. Ids of nodes that are not in use are ignored.
+     * @return the report of the chains of the given nodes before and after compaction.
+     */
+    public Report compact(LongIterable nodeIds) {
+        return run(nodeIds, true);
+    }
+
+    private Report run(LongIterable nodeIds, boolean compact) {
+        ChainLocality relationshipChains = new ChainLocality();
+        ChainLocality propertyChainsBefore = new ChainLocality();
+        ChainLocality propertyChainsAfter = new ChainLocality();
+        long compactedChains = 0;
+        try (CursorContext cursorContext = contextFactory.create(COMPACTION_TAG);
+                var storeCursors = new CachedStoreCursors(neoStores, cursorContext);
+                PageCursor nodeCursor = nodeStore.openPageCursorForReading(0, cursorContext);
+                PageCursor propertyCursor = propertyStore.openPageCursorForReading(0, cursorContext);
+                PageCursor relationshipCursor = relationshipStore.openPageCursorForReading(0, cursorContext);
+                PageCursor groupCursor = groupStore.openPageCursorForReading(0, cursorContext);
+                ProgressListener progress = progressMonitorFactory.singlePart(
+                        compact ? "Compacting record chains" : "Analyzing record chains", nodeIds.size())) {
+            NodeRecord node = nodeStore.newRecord();
+            RelationshipRecord relationship = relationshipStore.newRecord();
+            RelationshipGroupRecord group = groupStore.newRecord();
+            LongIterator iterator = nodeIds.longIterator();
+            while (iterator.hasNext()) {
+                long nodeId = iterator.next();
+                nodeStore.getRecordByCursor(nodeId, node, ALWAYS, nodeCursor);
+                if (node.inUse()) {
+                    int pagesTouched = measureRelationshipChains(
+                            node, relationship, group, relationshipCursor, groupCursor, relationshipChains);
+                    List<PropertyRecord> chain = propertyChain(node, propertyCursor);
+                    pagesTouched +=
+                            propertyChainsBefore.add(chain.size(), propertyPages(chain), propertyRecordsPerPage());
+                    if (compact && !isContiguous(chain)) {
+                        chain = rewrite(node, chain, cursorContext, storeCursors);
+                        pagesTouched += propertyPages(chain) * 2;
+                        compactedChains++;
+                    }
+                    propertyChainsAfter.add(chain.size(), propertyPages(chain), propertyRecordsPerPage());
+                    ioController.maybeLimitIO(pagesTouched, FileFlushEvent.NULL);
+                }
+                progress.add(1);
+            }
+        }
+        return new Report(relationshipChains, propertyChainsBefore, propertyChainsAfter, compactedChains);
+    }
+
+    private int measureRelationshipChains(
+            NodeRecord node,
+            RelationshipRecord relationship,
+            RelationshipGroupRecord group,
+            PageCursor relationshipCursor,
+            PageCursor groupCursor,
+            ChainLocality relationshipChains) {
+        if (!node.isDense()) {
+            return measureRelationshipChain(
+                    node.getId(), node.getNextRel(), relationship, relationshipCursor, relationshipChains);
+        }
+        int pagesTouched = 0;
+        long groupId = node.getNextRel();
+        while (!NULL_REFERENCE.is(groupId)) {
+            groupStore.getRecordByCursor(groupId, group, NORMAL, groupCursor);
+            pagesTouched++;
+            for (long first : new long[] {group.getFirstOut(), group.getFirstIn(), group.getFirstLoop()}) {
+                pagesTouched += measureRelationshipChain(
+                        node.getId(), first, relationship, relationshipCursor, relationshipChains);
+            }
+            groupId = group.getNext();
+        }
+        return pagesTouched;
+    }
+
+    private int measureRelationshipChain(
+            long nodeId,
+            long firstRelationship,
+            RelationshipRecord relationship,
+            PageCursor relationshipCursor,
+            ChainLocality relationshipChains) {
+        if (NULL_REFERENCE.is(firstRelationship)) {
+            return 0;
+        }
+        int recordsPerPage = relationshipStore.getRecordsPerPage();
+        pages.clear();
+        long records = 0;
+        long relationshipId = firstRelationship;
+        while (!NULL_REFERENCE.is(relationshipId)) {
+            relationshipStore.getRecordByCursor(relationshipId, relationship, NORMAL, relationshipCursor);
+            pages.add(relationshipId / recordsPerPage);
+            records++;
+            relationshipId = relationship.getFirstNode() == nodeId
+                    ? relationship.getFirstNextRel()
+                    : relationship.getSecondNextRel();
+        }
+        return relationshipChains.add(records, pages.size(), recordsPerPage);
+    }
+
+    private List<PropertyRecord> propertyChain(NodeRecord node, PageCursor propertyCursor) {
+        if (NULL_REFERENCE.is(node.getNextProp())) {
+            return List.of();
+        }
+        return propertyStore.getRecords(node.getNextProp(), NORMAL, true, propertyCursor);
+    }
+
+    private List<PropertyRecord> rewrite(
+            NodeRecord node, List<PropertyRecord> chain, CursorContext cursorContext, CachedStoreCursors storeCursors) {
+        int length = chain.size();
+        long firstId = propertyStore.getIdGenerator().nextConsecutiveIdRange(length, true, cursorContext);
+        List<PropertyRecord> compacted = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            PropertyRecord record = new PropertyRecord(chain.get(i));
+            record.setId(firstId + i);
+            // The ids were allocated off of the id generator and must be marked as used when the record is written
+            record.setCreated();
+            record.setPrevProp(i == 0 ? NO_PREVIOUS_PROPERTY.longValue() : firstId + i - 1);
+            record.setNextProp(i == length - 1 ? NO_NEXT_PROPERTY.longValue() : firstId + i + 1);
+            compacted.add(record);
+        }
+
+        try (PageCursor propertyWriteCursor = propertyStore.openPageCursorForWriting(0, cursorContext);
+                PageCursor nodeWriteCursor = nodeStore.openPageCursorForWriting(0, cursorContext)) {
+            for (PropertyRecord record : compacted) {
+                propertyStore.updateRecord(record, propertyWriteCursor, cursorContext, storeCursors);
+            }
+            node.setNextProp(firstId);
+            nodeStore.updateRecord(node, nodeWriteCursor, cursorContext, storeCursors);
+            for (PropertyRecord old : chain) {
+                PropertyRecord deleted = new PropertyRecord(old.getId());
+                deleted.setInUse(false);
+                propertyStore.updateRecord(deleted, propertyWriteCursor, cursorContext, storeCursors);
+            }
+        }
+        return compacted;
+    }
+
+    private long propertyPages(List<PropertyRecord> chain) {
+        int recordsPerPage = propertyRecordsPerPage();
+        pages.clear();
+        for (PropertyRecord record : chain) {
+            pages.add(record.getId() / recordsPerPage);
+        }
+        return pages.size();
+    }
+
+    private int propertyRecordsPerPage() {
+        return propertyStore.getRecordsPerPage();
+    }
+
+    private static boolean isContiguous(List<PropertyRecord> chain) {
+        for (int i = 1; i < chain.size(); i++) {
+            if (chain.get(i).getId() != chain.get(i - 1).getId() + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * How spread out a set of record chains is over the pages of their store.
+     */
+    public static class ChainLocality {
+        private long chains;
+        private long records;
+        private long pages;
+        private long minimumPages;
+
+        int add(long chainRecords, long chainPages, int recordsPerPage) {
+            if (chainRecords > 0) {
+                chains++;
+                records += chainRecords;
+                pages += chainPages;
+                minimumPages += (chainRecords + recordsPerPage - 1) / recordsPerPage;
+            }
+            return (int) chainPages;
+        }
+
+        public long chains() {
+            return chains;
+        }
+
+        public long records() {
+            return records;
+        }
+
+        /**
+         * @return total number of pages the chains span, counting a page once per chain that touches it.
+         */
+        public long pages() {
+            return pages;
+        }
+
+        /**
+         * @return the number of pages the chains would span if every chain was stored in contiguous records.
+         */
+        public long minimumPages() {
+            return minimumPages;
+        }
+
+        public double pagesPerChain() {
+            return chains == 0 ? 0 : (double) pages / chains;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d chains of %d records spanning %d pages (%.2f pages per chain, %d at best)",
+                    chains, records, pages, pagesPerChain(), minimumPages);
+        }
+    }
+
+    public record Report(
+            ChainLocality relationshipChains,
+            ChainLocality propertyChainsBefore,
+            ChainLocality propertyChainsAfter,
+            long compactedPropertyChains) {}
+}
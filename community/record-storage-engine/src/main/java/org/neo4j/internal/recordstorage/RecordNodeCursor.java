@@ -30,6 +30,7 @@ import org.eclipse.collections.impl.factory.primitive.IntSets;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.kernel.impl.store.InlineNodeLabels;
 import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.RelationshipGroupStore;
@@ -40,6 +41,7 @@ import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.store.record.RecordLoadOverride;
 import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.Degrees;
+import org.neo4j.storageengine.api.NodeBatch;
 import org.neo4j.storageengine.api.PropertySelection;
 import org.neo4j.storageengine.api.Reference;
 import org.neo4j.storageengine.api.RelationshipDirection;
@@ -52,6 +54,7 @@ import org.neo4j.storageengine.api.cursor.StoreCursors;
 public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
     private final NodeStore read;
     private final RelationshipGroupDegreesStore groupDegreesStore;
+    private final RelationshipNeighbourIndex neighbourIndex;
     private final CursorContext cursorContext;
     private final StoreCursors storeCursors;
     private final RelationshipStore relationshipStore;
@@ -68,6 +71,8 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
     private RecordRelationshipTraversalCursor relationshipCursor;
     private RecordRelationshipScanCursor relationshipScanCursor;
     private RecordLoadOverride loadMode;
+    // Labels of the current node, only decoded once asked for since most reads never look at them
+    private long[] decodedLabels;
 
     RecordNodeCursor(
             NodeStore read,
@@ -76,9 +81,21 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
             RelationshipGroupDegreesStore groupDegreesStore,
             CursorContext cursorContext,
             StoreCursors storeCursors) {
+        this(read, relationshipStore, groupStore, groupDegreesStore, null, cursorContext, storeCursors);
+    }
+
+    RecordNodeCursor(
+            NodeStore read,
+            RelationshipStore relationshipStore,
+            RelationshipGroupStore groupStore,
+            RelationshipGroupDegreesStore groupDegreesStore,
+            RelationshipNeighbourIndex neighbourIndex,
+            CursorContext cursorContext,
+            StoreCursors storeCursors) {
         super(NO_ID);
         this.read = read;
         this.groupDegreesStore = groupDegreesStore;
+        this.neighbourIndex = neighbourIndex;
         this.cursorContext = cursorContext;
         this.storeCursors = storeCursors;
         this.relationshipStore = relationshipStore;
@@ -148,12 +165,24 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
 
     @Override
     public long[] labels() {
-        return NodeLabelsField.get(this, read, storeCursors);
+        if (decodedLabels == null) {
+            decodedLabels = NodeLabelsField.get(this, read, storeCursors);
+        }
+        return decodedLabels;
     }
 
     @Override
     public boolean hasLabel(int label) {
-        return NodeLabelsField.hasLabel(this, read, storeCursors, label);
+        if (decodedLabels == null) {
+            // Checks inlined labels in place and stops reading dynamic label records as soon as the label is found
+            return NodeLabelsField.hasLabel(this, read, storeCursors, label);
+        }
+        for (long decodedLabel : decodedLabels) {
+            if (decodedLabel == label) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -186,7 +215,8 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
 
     @Override
     public boolean supportsFastRelationshipsTo() {
-        return false;
+        // Sparse nodes have few enough relationships for a traversal of their chain to be cheaper than a seek
+        return neighbourIndex != null && neighbourIndex.isReady() && isDense();
     }
 
     @Override
@@ -194,7 +224,11 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
             StorageRelationshipTraversalCursor traversalCursor,
             RelationshipSelection selection,
             long neighbourNodeReference) {
-        throw new UnsupportedOperationException();
+        if (neighbourIndex == null || !neighbourIndex.isReady()) {
+            throw new UnsupportedOperationException();
+        }
+        ((RecordRelationshipTraversalCursor) traversalCursor)
+                .initNeighbour(entityReference(), neighbourNodeReference, selection);
     }
 
     @Override
@@ -312,7 +346,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
 
     @Override
     public void properties(StoragePropertyCursor propertyCursor, PropertySelection selection) {
-        propertyCursor.initNodeProperties(longReference(getNextProp()), selection);
+        propertyCursor.initNodeProperties(this, selection);
     }
 
     @Override
@@ -352,6 +386,27 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
         return true;
     }
 
+    @Override
+    public int nextBatch(NodeBatch batch) {
+        batch.clear();
+        // Reads the record fields directly, which saves the properties reference allocation per node
+        while (batch.hasRoom() && next()) {
+            batch.add(getId(), relationshipsReferenceWithDenseMarker(getNextRel(), isDense()), getNextProp());
+            labels(batch);
+        }
+        return batch.size();
+    }
+
+    @Override
+    public void labels(NodeBatch batch) {
+        if (decodedLabels == null && !NodeLabelsField.fieldPointsToDynamicRecordOfLabels(getLabelField())) {
+            // Decodes inlined labels straight into the batch, only labels in dynamic records are read as an array
+            InlineNodeLabels.parseInlined(getLabelField(), batch);
+        } else {
+            batch.addLabels(labels());
+        }
+    }
+
     @Override
     public void reset() {
         if (open) {
@@ -364,6 +419,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
         next = NO_ID;
         setId(NO_ID);
         clear();
+        decodedLabels = null;
         this.loadMode = RecordLoadOverride.none();
         if (groupCursor != null) {
             groupCursor.loadMode = RecordLoadOverride.none();
@@ -428,11 +484,13 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor {
     }
 
     private void node(NodeRecord record, long reference, PageCursor pageCursor) {
+        decodedLabels = null;
         read.getRecordByCursor(
                 reference, record, loadMode.orElse(RecordLoad.CHECK).lenient(), pageCursor);
     }
 
     private void nodeAdvance(NodeRecord record, PageCursor pageCursor) {
+        decodedLabels = null;
         read.nextRecordByCursor(record, loadMode.orElse(RecordLoad.CHECK).lenient(), pageCursor);
     }
 }
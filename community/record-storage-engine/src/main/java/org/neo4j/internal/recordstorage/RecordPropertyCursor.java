@@ -32,6 +32,7 @@ import org.neo4j.io.memory.HeapScopedBuffer;
 import org.neo4j.io.memory.ScopedBuffer;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.kernel.impl.store.DynamicValueCompression;
 import org.neo4j.kernel.impl.store.GeometryType;
 import org.neo4j.kernel.impl.store.InvalidRecordException;
 import org.neo4j.kernel.impl.store.LongerShortString;
@@ -46,7 +47,9 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.LongReference;
 import org.neo4j.storageengine.api.PropertySelection;
 import org.neo4j.storageengine.api.Reference;
+import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
+import org.neo4j.storageengine.api.StorageRelationshipCursor;
 import org.neo4j.storageengine.api.cursor.StoreCursors;
 import org.neo4j.util.Bits;
 import org.neo4j.values.storable.ArrayValue;
@@ -71,6 +74,7 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     private final CursorContext cursorContext;
     private final StoreCursors storeCursors;
     private final MemoryTracker memoryTracker;
+    private final ColumnarPropertyCache propertyCache;
     private long next;
     private int block;
     private ScopedBuffer scopedBuffer;
@@ -88,23 +92,75 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
     private RecordLoadOverride loadMode;
     private PropertySelection selection;
     private int propertyKey;
+    // Set when the value of the single selected property is already known, from or for the columnar property cache
+    private Value cachedValue;
+    private boolean cachedValueReturned;
 
     RecordPropertyCursor(
             PropertyStore propertyStore,
             CursorContext cursorContext,
             StoreCursors storeCursors,
             MemoryTracker memoryTracker) {
+        this(propertyStore, cursorContext, storeCursors, memoryTracker, null);
+    }
+
+    RecordPropertyCursor(
+            PropertyStore propertyStore,
+            CursorContext cursorContext,
+            StoreCursors storeCursors,
+            MemoryTracker memoryTracker,
+            ColumnarPropertyCache propertyCache) {
         super(NO_ID);
         this.propertyStore = propertyStore;
         this.cursorContext = cursorContext;
         this.storeCursors = storeCursors;
         this.memoryTracker = memoryTracker;
+        this.propertyCache = propertyCache;
         loadMode = RecordLoadOverride.none();
     }
 
     @Override
     public void initNodeProperties(Reference reference, PropertySelection selection, long ownerReference) {
         init(reference, selection, ownerReference, EntityType.NODE);
+        if (ownerReference != NO_ID && canUsePropertyCache(selection)) {
+            Value value = propertyCache.lookup(selection.key(0), ownerReference);
+            if (value != null) {
+                useCachedValue(value);
+            }
+        }
+    }
+
+    @Override
+    public void initNodeProperties(StorageNodeCursor nodeCursor, PropertySelection selection) {
+        long nodeId = nodeCursor.entityReference();
+        initNodeProperties(nodeCursor.propertiesReference(), selection, nodeId);
+        if (cachedValue == null && nodeCursor instanceof RecordNodeCursor recordNodeCursor) {
+            useInlinedProperty(recordNodeCursor.getInlinedProperty());
+        }
+        if (cachedValue == null && canUsePropertyCache(selection)) {
+            int key = selection.key(0);
+            ColumnarPropertyCache.Column column = propertyCache.columnFor(key, nodeCursor);
+            if (column != null) {
+                long stamp = propertyCache.populationStamp();
+                Value value = seekPropertyValue(key);
+                propertyCache.populate(column, nodeId, value, stamp);
+                useCachedValue(value);
+            }
+        }
+    }
+
+    private boolean canUsePropertyCache(PropertySelection selection) {
+        return propertyCache != null
+                && loadMode == RecordLoadOverride.none()
+                && selection.isLimited()
+                && selection.numberOfKeys() == 1
+                && propertyCache.hasColumns(selection.key(0));
+    }
+
+    private void useCachedValue(Value value) {
+        cachedValue = value;
+        cachedValueReturned = false;
+        propertyKey = selection.key(0);
     }
 
     @Override
@@ -112,6 +168,34 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
         init(reference, selection, ownerReference, EntityType.RELATIONSHIP);
     }
 
+    @Override
+    public void initRelationshipProperties(StorageRelationshipCursor relationshipCursor, PropertySelection selection) {
+        initRelationshipProperties(
+                relationshipCursor.propertiesReference(), selection, relationshipCursor.entityReference());
+        if (relationshipCursor instanceof RecordRelationshipCursor recordRelationshipCursor) {
+            useInlinedProperty(recordRelationshipCursor.getInlinedProperty());
+        }
+    }
+
+    /**
+     * Uses the copy of the first property record that the entity record was read with, if its format has one,
+     * instead of reading that property record from the property store.
+     */
+    private void useInlinedProperty(PropertyRecord inlinedProperty) {
+        if (inlinedProperty == null || inlinedProperty.getId() != next || loadMode != RecordLoadOverride.none()) {
+            return;
+        }
+        initialize(true, inlinedProperty.getPrevProp(), inlinedProperty.getNextProp());
+        setId(inlinedProperty.getId());
+        long[] blocks = inlinedProperty.getBlocks();
+        for (int i = 0; i < inlinedProperty.getNumberOfBlocks(); i++) {
+            addLoadedBlock(blocks[i]);
+        }
+        next = getNextProp();
+        block = INITIAL_POSITION;
+        numSeenPropertyRecords++;
+    }
+
     /**
      * In this implementation property ids are unique among nodes AND relationships so they all init the same way
      * @param reference properties reference, actual property record id.
@@ -141,10 +225,18 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
         this.cycleDetection = null;
         this.open = true;
         this.selection = selection;
+        this.cachedValue = null;
     }
 
     @Override
     public boolean next() {
+        if (cachedValue != null) {
+            if (cachedValueReturned || cachedValue == NO_VALUE) {
+                return false;
+            }
+            cachedValueReturned = true;
+            return true;
+        }
         while (true) {
             // Figure out number of blocks of record
             int numberOfBlocks = getNumberOfBlocks();
@@ -207,6 +299,7 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
             first = NO_ID;
             ownerReference = NO_ID;
             cycleDetection = null;
+            cachedValue = null;
         }
     }
 
@@ -222,6 +315,9 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
 
     @Override
     public ValueGroup propertyType() {
+        if (cachedValue != null) {
+            return cachedValue.valueGroup();
+        }
         PropertyType type = type();
         if (type == null) {
             return ValueGroup.NO_VALUE;
@@ -243,6 +339,9 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
 
     @Override
     public Value propertyValue() {
+        if (cachedValue != null) {
+            return cachedValue;
+        }
         try {
             return readValue();
         } catch (InvalidRecordException | InconsistentDataReadException e) {
@@ -399,7 +498,7 @@ public class RecordPropertyCursor extends PropertyRecord implements StoragePrope
         buffer.flip();
         byte[] bytes = new byte[buffer.limit()];
         buffer.get(bytes);
-        return Values.utf8Value(bytes);
+        return Values.utf8Value(DynamicValueCompression.decompressIfNeeded(bytes));
     }
 
     private ArrayValue array(RecordPropertyCursor cursor, long reference, PageCursor page) {
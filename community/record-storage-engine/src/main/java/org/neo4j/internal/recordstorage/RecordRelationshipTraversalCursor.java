@@ -24,6 +24,10 @@ import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
 import static org.neo4j.storageengine.api.RelationshipDirection.directionOfStrict;
 
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.context.CursorContext;
@@ -36,6 +40,8 @@ import org.neo4j.storageengine.api.cursor.StoreCursors;
 
 class RecordRelationshipTraversalCursor extends RecordRelationshipCursor implements StorageRelationshipTraversalCursor {
     private final StoreCursors storeCursors;
+    private final RelationshipNeighbourIndex neighbourIndex;
+    private final CursorContext cursorContext;
     private ReadTracer tracer;
 
     private enum GroupState {
@@ -53,14 +59,33 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
     private GroupState groupState = GroupState.NONE;
     private boolean open;
 
+    // Relationships to a specific neighbour, as found in the neighbour index
+    private MutableLongList neighbourRelationships;
+    // Entries left behind for a relationship whose id has been reused can make the index return an id more than once
+    private MutableLongSet returnedNeighbourRelationships;
+    private int neighbourRelationshipIndex = -1;
+    private long neighbourReference = NO_ID;
+
+    RecordRelationshipTraversalCursor(
+            RelationshipStore relationshipStore,
+            RelationshipGroupStore groupStore,
+            RelationshipGroupDegreesStore groupDegreesStore,
+            CursorContext cursorContext,
+            StoreCursors storeCursors) {
+        this(relationshipStore, groupStore, groupDegreesStore, null, cursorContext, storeCursors);
+    }
+
     RecordRelationshipTraversalCursor(
             RelationshipStore relationshipStore,
             RelationshipGroupStore groupStore,
             RelationshipGroupDegreesStore groupDegreesStore,
+            RelationshipNeighbourIndex neighbourIndex,
             CursorContext cursorContext,
             StoreCursors storeCursors) {
         super(relationshipStore, cursorContext);
         this.storeCursors = storeCursors;
+        this.neighbourIndex = neighbourIndex;
+        this.cursorContext = cursorContext;
         this.group = new RecordRelationshipGroupCursor(
                 relationshipStore, groupStore, groupDegreesStore, loadMode, cursorContext, storeCursors);
     }
@@ -99,6 +124,31 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
         open = true;
     }
 
+    /*
+     * Relationships between the node and a specific neighbour, looked up in the neighbour index instead of traversing
+     * the relationship chains of the node.
+     */
+    void initNeighbour(long nodeReference, long neighbourNodeReference, RelationshipSelection selection) {
+        if (neighbourRelationships == null) {
+            neighbourRelationships = new LongArrayList();
+            returnedNeighbourRelationships = new LongHashSet();
+        } else {
+            neighbourRelationships.clear();
+            returnedNeighbourRelationships.clear();
+        }
+        neighbourIndex.relationships(
+                nodeReference, neighbourNodeReference, selection, neighbourRelationships, cursorContext);
+        ensureCursor();
+        setId(NO_ID);
+        this.next = NO_ID;
+        this.groupState = GroupState.NONE;
+        this.selection = selection;
+        this.originNodeReference = nodeReference;
+        this.neighbourReference = neighbourNodeReference;
+        this.neighbourRelationshipIndex = 0;
+        open = true;
+    }
+
     /*
      * Normal traversal. Traversal returns mixed types and directions.
      */
@@ -140,6 +190,9 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
 
     @Override
     public boolean next() {
+        if (traversingNeighbour()) {
+            return nextNeighbourRelationship();
+        }
         boolean traversingDenseNode;
         do {
             traversingDenseNode = traversingDenseNode();
@@ -164,6 +217,33 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
         return true;
     }
 
+    private boolean nextNeighbourRelationship() {
+        while (neighbourRelationshipIndex < neighbourRelationships.size()) {
+            long reference = neighbourRelationships.get(neighbourRelationshipIndex++);
+            if (!returnedNeighbourRelationships.add(reference)) {
+                continue;
+            }
+            relationship(this, reference, pageCursor);
+            if (tracer != null) {
+                tracer.onRelationship(entityReference());
+            }
+            // The index entry may be for a relationship that has since been deleted, and its id possibly reused
+            if (inUse() && isBetweenOriginAndNeighbour()) {
+                return true;
+            }
+        }
+        resetState();
+        return false;
+    }
+
+    private boolean isBetweenOriginAndNeighbour() {
+        long source = sourceNodeReference();
+        long target = targetNodeReference();
+        boolean between = (source == originNodeReference && target == neighbourReference)
+                || (source == neighbourReference && target == originNodeReference);
+        return between && selection.test(getType(), directionOfStrict(originNodeReference, source, target));
+    }
+
     private void traverseDenseNode() {
         while (next == NO_ID) {
             /*
@@ -263,6 +343,10 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
         return groupState != GroupState.NONE;
     }
 
+    private boolean traversingNeighbour() {
+        return neighbourRelationshipIndex >= 0;
+    }
+
     @Override
     public void reset() {
         if (open) {
@@ -297,6 +381,8 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
         setId(next = NO_ID);
         groupState = GroupState.NONE;
         selection = null;
+        neighbourRelationshipIndex = -1;
+        neighbourReference = NO_ID;
     }
 
     @Override
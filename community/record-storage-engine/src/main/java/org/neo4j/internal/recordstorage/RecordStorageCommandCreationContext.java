@@ -21,10 +21,12 @@ package org.neo4j.internal.recordstorage;
 
 import static java.lang.Math.toIntExact;
 import static org.neo4j.configuration.GraphDatabaseSettings.db_format;
+import static org.neo4j.kernel.KernelVersion.VERSION_COMPRESSED_DYNAMIC_PROPERTY_VALUES_INTRODUCED;
 
 import java.util.function.Supplier;
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.internal.recordstorage.RecordAccess.LoadMonitor;
 import org.neo4j.internal.recordstorage.id.BatchedTransactionIdSequenceProvider;
 import org.neo4j.internal.recordstorage.id.IdSequenceProvider;
@@ -46,6 +48,10 @@ import org.neo4j.storageengine.api.cursor.StoreCursors;
 
 /**
  * Holds commit data structures for creating records in a {@link NeoStores}.
+ * <p>
+ * Most transactions only read, so the data structures needed to turn changes into records are created the first time
+ * a transaction asks for a {@link TransactionRecordState}, instead of when the context is initialized for a new
+ * transaction.
  */
 class RecordStorageCommandCreationContext implements CommandCreationContext {
     private final NeoStores neoStores;
@@ -90,9 +96,16 @@ class RecordStorageCommandCreationContext implements CommandCreationContext {
             Supplier<LockTracer> lockTracer) {
         this.kernelVersionProvider = kernelVersionProvider;
         this.cursorContext = cursorContext;
-        this.loaders = new Loaders(neoStores, storeCursors);
         this.storeCursors = storeCursors;
         this.locks = locks;
+        this.loaders = null;
+        this.relationshipGroupGetter = null;
+        this.propertyDeleter = null;
+        this.propertyCreator = null;
+    }
+
+    private void initializeWriteState() {
+        this.loaders = new Loaders(neoStores, storeCursors);
         this.relationshipGroupGetter =
                 new RelationshipGroupGetter(ignored -> nextId(StoreType.RELATIONSHIP_GROUP), cursorContext);
         PropertyTraverser propertyTraverser = new PropertyTraverser();
@@ -103,9 +116,17 @@ class RecordStorageCommandCreationContext implements CommandCreationContext {
                 dynamicAllocatorProvider.allocator(StoreType.PROPERTY_ARRAY),
                 propertyTraverser,
                 transactionSequenceProvider,
+                compressDynamicPropertyValues(),
                 cursorContext);
     }
 
+    private boolean compressDynamicPropertyValues() {
+        return config.get(GraphDatabaseInternalSettings.compress_dynamic_property_values)
+                && kernelVersionProvider
+                        .kernelVersion()
+                        .isAtLeast(VERSION_COMPRESSED_DYNAMIC_PROPERTY_VALUES_INTRODUCED);
+    }
+
     private long nextId(StoreType storeType) {
         return transactionSequenceProvider.getIdSequence(storeType).nextId(cursorContext);
     }
@@ -160,6 +181,9 @@ class RecordStorageCommandCreationContext implements CommandCreationContext {
             LogCommandSerialization commandSerialization,
             MemoryTracker memoryTracker,
             LoadMonitor monitor) {
+        if (loaders == null) {
+            initializeWriteState();
+        }
         RecordChangeSet recordChangeSet = new RecordChangeSet(loaders, memoryTracker, monitor, storeCursors);
         RelationshipModifier relationshipModifier = new RelationshipModifier(
                 relationshipGroupGetter, propertyDeleter, denseNodeThreshold, cursorContext, memoryTracker);
@@ -20,21 +20,28 @@
 package org.neo4j.internal.recordstorage;
 
 import static java.util.Collections.emptyList;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.counts_store_max_cached_entries;
 import static org.neo4j.configuration.GraphDatabaseSettings.db_format;
 import static org.neo4j.function.ThrowingAction.executeAll;
+import static org.neo4j.internal.helpers.Numbers.safeCastLongToByte;
 import static org.neo4j.internal.recordstorage.RecordStorageEngineFactory.ID;
 import static org.neo4j.internal.recordstorage.RecordStorageEngineFactory.NAME;
+import static org.neo4j.kernel.KernelVersion.VERSION_NODE_PROPERTY_COUNTS_INTRODUCED;
 import static org.neo4j.lock.LockService.NO_LOCK_SERVICE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.EXTERNAL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 import static org.neo4j.util.Preconditions.checkState;
 
 import java.io.IOException;
 import java.nio.file.OpenOption;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.eclipse.collections.api.set.ImmutableSet;
 import org.eclipse.collections.api.set.primitive.LongSet;
@@ -46,12 +53,15 @@ import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.counts.CountsStore;
 import org.neo4j.exceptions.KernelException;
+import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.batchimport.Configuration;
 import org.neo4j.internal.counts.CountsBuilder;
 import org.neo4j.internal.counts.CountsStoreProvider;
 import org.neo4j.internal.counts.DegreeStoreProvider;
 import org.neo4j.internal.counts.DegreesRebuildFromStore;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
+import org.neo4j.internal.counts.NodePropertyCountsRebuildFromStore;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.internal.diagnostics.DiagnosticsLogger;
 import org.neo4j.internal.diagnostics.DiagnosticsManager;
@@ -70,6 +80,7 @@ import org.neo4j.internal.schema.IndexConfigCompleter;
 import org.neo4j.internal.schema.SchemaCache;
 import org.neo4j.internal.schema.SchemaState;
 import org.neo4j.internal.schema.StorageEngineIndexingBehaviour;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.recordstorage.RecordDatabaseFile;
 import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
@@ -104,6 +115,7 @@ import org.neo4j.logging.InternalLog;
 import org.neo4j.logging.InternalLogProvider;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandBatchToApply;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandStream;
@@ -147,6 +159,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
     private final DatabaseHealth databaseHealth;
     private final SchemaCache schemaCache;
     private final CacheAccessBackDoor cacheAccess;
+    private final ColumnarPropertyCache propertyCache;
     private final SchemaState schemaState;
     private final SchemaRuleAccess schemaRuleAccess;
     private final ConstraintRuleAccessor constraintSemantics;
@@ -162,6 +175,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
     private final LockVerificationFactory lockVerificationFactory;
     private final CountsStore countsStore;
     private final RelationshipGroupDegreesStore groupDegreesStore;
+    private final RelationshipNeighbourIndex neighbourIndex;
+    private final Function<KernelVersion, GBPTreeNodePropertyCountsStore> nodePropertyCountsStoreOpener;
+    private volatile GBPTreeNodePropertyCountsStore nodePropertyCountsStore;
     private final int denseNodeThreshold;
     private final IdGeneratorUpdatesWorkSync idGeneratorWorkSyncs;
     private final Map<TransactionApplicationMode, TransactionApplierFactoryChain> applierChains =
@@ -188,6 +204,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
             DatabaseHealth databaseHealth,
             IdGeneratorFactory idGeneratorFactory,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             MemoryTracker otherMemoryTracker,
             LogTailMetadata logTailMetadata,
             KernelVersionRepository kernelVersionRepository,
@@ -232,6 +249,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
             schemaCache = new SchemaCache(constraintSemantics, indexConfigCompleter, indexingBehaviour);
 
             cacheAccess = new BridgingCacheAccess(schemaCache, schemaState, tokenHolders);
+            propertyCache = ColumnarPropertyCache.create(config, otherMemoryTracker);
 
             denseNodeThreshold = config.get(GraphDatabaseSettings.dense_node_threshold);
 
@@ -257,6 +275,32 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
                     contextFactory,
                     pageCacheTracer);
 
+            neighbourIndex = RelationshipNeighbourIndex.open(
+                    config,
+                    pageCache,
+                    fs,
+                    databaseLayout,
+                    recoveryCleanupWorkCollector,
+                    jobScheduler,
+                    neoStores,
+                    contextFactory,
+                    pageCacheTracer,
+                    getOpenOptions(),
+                    internalLogProvider);
+
+            nodePropertyCountsStoreOpener = kernelVersion -> openNodePropertyCountsStore(
+                    pageCache,
+                    fs,
+                    databaseLayout,
+                    internalLogProvider,
+                    userLogProvider,
+                    recoveryCleanupWorkCollector,
+                    config,
+                    contextFactory,
+                    pageCacheTracer,
+                    kernelVersion);
+            nodePropertyCountsStore = nodePropertyCountsStoreOpener.apply(kernelVersionRepository.kernelVersion());
+
             consistencyCheckApply = config.get(GraphDatabaseInternalSettings.consistency_check_on_apply);
             storeEntityCounters = new RecordDatabaseEntityCounters(idGeneratorFactory, countsStore);
             parallelIndexUpdatesApply = config.get(GraphDatabaseInternalSettings.parallel_index_updates_apply);
@@ -281,6 +325,15 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
             appliers.add(new ConsistencyCheckingApplierFactory(neoStores));
         }
         appliers.add(new KernelVersionTransactionApplier.Factory(kernelVersionRepository));
+        if (mode == INTERNAL || mode == EXTERNAL) {
+            appliers.add((transaction, batchContext) -> new TransactionApplier.Adapter() {
+                @Override
+                public boolean visitMetaDataCommand(Command.MetaDataCommand command) throws IOException {
+                    startNodePropertyCountsOnUpgrade(command, transaction);
+                    return false;
+                }
+            });
+        }
         appliers.add(new NeoStoreTransactionApplierFactory(mode, neoStores, cacheAccess, lockService(mode)));
         if (mode.rollbackIdProcessing()) {
             appliers.add((transaction, batchContext) ->
@@ -290,11 +343,19 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
             appliers.add(new HighIdTransactionApplierFactory(neoStores));
         }
         if (mode.needsCacheInvalidationOnUpdates()) {
-            appliers.add(new CacheInvalidationTransactionApplierFactory(neoStores, cacheAccess));
+            appliers.add(new CacheInvalidationTransactionApplierFactory(neoStores, cacheAccess, propertyCache));
+        } else if (propertyCache != null) {
+            // Token and schema caches are kept up to date by these transactions themselves, but cached property
+            // values still have to be invalidated
+            appliers.add(new CacheInvalidationTransactionApplierFactory(neoStores, null, propertyCache));
         }
         if (mode.needsAuxiliaryStores()) {
             // Counts store application
-            appliers.add(new CountsStoreTransactionApplierFactory(mode, countsStore, groupDegreesStore));
+            appliers.add(new CountsStoreTransactionApplierFactory(
+                    mode, countsStore, groupDegreesStore, () -> nodePropertyCountsStore));
+            if (neighbourIndex != null) {
+                appliers.add(new RelationshipNeighbourIndexApplier.Factory(mode, neighbourIndex));
+            }
 
             // Schema index application
             appliers.add(new IndexTransactionApplierFactory(mode, indexUpdateListener));
@@ -358,6 +419,68 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
                         false);
     }
 
+    private GBPTreeNodePropertyCountsStore openNodePropertyCountsStore(
+            PageCache pageCache,
+            FileSystemAbstraction fs,
+            RecordDatabaseLayout layout,
+            InternalLogProvider internalLogProvider,
+            InternalLogProvider userLogProvider,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            Config config,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            KernelVersion kernelVersion) {
+        Path file = layout.nodePropertyCountsStore();
+        try {
+            if (!config.get(GraphDatabaseInternalSettings.node_property_counts_enabled)
+                    || !kernelVersion.isAtLeast(VERSION_NODE_PROPERTY_COUNTS_INTRODUCED)) {
+                // Counts that are not maintained go stale, so rather rebuild them once they are maintained again
+                fs.deleteFile(file);
+                return null;
+            }
+            return new GBPTreeNodePropertyCountsStore(
+                    pageCache,
+                    file,
+                    fs,
+                    recoveryCleanupWorkCollector,
+                    new NodePropertyCountsRebuildFromStore(neoStores, internalLogProvider),
+                    false,
+                    layout.getDatabaseName(),
+                    config.get(counts_store_max_cached_entries),
+                    userLogProvider,
+                    contextFactory,
+                    pageCacheTracer,
+                    getOpenOptions());
+        } catch (IOException e) {
+            throw new UnderlyingStorageException(e);
+        }
+    }
+
+    /**
+     * Node property counts are only logged by transactions on
+     * {@link KernelVersion#VERSION_NODE_PROPERTY_COUNTS_INTRODUCED} or later, so the store is built from the node
+     * store when the transaction upgrading to that version is applied. No transaction of an older version commits
+     * after the upgrade transaction, so the node store is exactly as of it. Recovered upgrade transactions are left
+     * to the next start, which rebuilds the missing store after recovery.
+     */
+    private void startNodePropertyCountsOnUpgrade(Command.MetaDataCommand command, CommandBatchToApply transaction)
+            throws IOException {
+        KernelVersion kernelVersion = KernelVersion.getForVersion(safeCastLongToByte(command.getAfter().getValue()));
+        if (nodePropertyCountsStore != null || !kernelVersion.isAtLeast(VERSION_NODE_PROPERTY_COUNTS_INTRODUCED)) {
+            return;
+        }
+        GBPTreeNodePropertyCountsStore store = nodePropertyCountsStoreOpener.apply(kernelVersion);
+        if (store != null) {
+            try {
+                store.start(transaction.cursorContext(), transaction.storeCursors(), otherMemoryTracker);
+            } catch (Throwable e) {
+                IOUtils.closeAllSilently(store);
+                throw e;
+            }
+            nodePropertyCountsStore = store;
+        }
+    }
+
     @Override
     public String name() {
         return NAME;
@@ -370,7 +493,18 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
 
     @Override
     public RecordStorageReader newReader() {
-        return new RecordStorageReader(tokenHolders, neoStores, countsStore, groupDegreesStore, schemaCache);
+        if (propertyCache != null) {
+            propertyCache.resolveColumns(tokenHolders);
+        }
+        return new RecordStorageReader(
+                tokenHolders,
+                neoStores,
+                countsStore,
+                groupDegreesStore,
+                schemaCache,
+                propertyCache,
+                neighbourIndex,
+                nodePropertyCountsStore);
     }
 
     @Override
@@ -454,12 +588,28 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
         txStateVisitor = additionalTxStateVisitor.apply(txStateVisitor);
         txStateVisitor = new TransactionCountingStateVisitor(
                 txStateVisitor, storageReader, txState, countsRecordState, cursorContext, storeCursors);
+        NodePropertyCountsRecordState nodePropertyCountsRecordState = null;
+        if (nodePropertyCountsStore != null
+                && commandCreationContext.kernelVersion().isAtLeast(VERSION_NODE_PROPERTY_COUNTS_INTRODUCED)) {
+            nodePropertyCountsRecordState = new NodePropertyCountsRecordState(serialization);
+            txStateVisitor = new NodePropertyCountingStateVisitor(
+                    txStateVisitor,
+                    storageReader,
+                    txState,
+                    nodePropertyCountsRecordState,
+                    cursorContext,
+                    storeCursors,
+                    memoryTracker);
+        }
         try (TxStateVisitor visitor = txStateVisitor) {
             txState.accept(visitor);
         }
         // Convert record state into commands
         recordState.extractCommands(commands, memoryTracker);
         countsRecordState.extractCommands(commands, memoryTracker);
+        if (nodePropertyCountsRecordState != null) {
+            nodePropertyCountsRecordState.extractCommands(commands, memoryTracker);
+        }
 
         // Verify sufficient locks
         CommandLockVerification commandLockVerification = lockVerificationFactory.createCommandVerification(
@@ -592,6 +742,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
             neoStores.start(cursorContext);
             countsStore.start(cursorContext, storeCursors, otherMemoryTracker);
             groupDegreesStore.start(cursorContext, storeCursors, otherMemoryTracker);
+            if (neighbourIndex != null) {
+                neighbourIndex.start();
+            }
+            if (nodePropertyCountsStore != null) {
+                nodePropertyCountsStore.start(cursorContext, storeCursors, otherMemoryTracker);
+            }
         }
     }
 
@@ -610,7 +766,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
     public void shutdown() {
         if (!closed) {
             try {
-                executeAll(countsStore::close, groupDegreesStore::close, neoStores::close);
+                executeAll(
+                        countsStore::close,
+                        groupDegreesStore::close,
+                        () -> IOUtils.closeAll(neighbourIndex, nodePropertyCountsStore, propertyCache),
+                        neoStores::close);
             } catch (Throwable e) {
                 throw new RuntimeException(e);
             } finally {
@@ -630,6 +790,18 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
         try (var fileFlushEvent = flushEvent.beginFileFlush()) {
             groupDegreesStore.checkpoint(fileFlushEvent, cursorContext);
         }
+        if (neighbourIndex != null) {
+            log.debug("Checkpointing %s", RecordDatabaseFile.RELATIONSHIP_NEIGHBOURS_STORE.getName());
+            try (var fileFlushEvent = flushEvent.beginFileFlush()) {
+                neighbourIndex.checkpoint(fileFlushEvent, cursorContext);
+            }
+        }
+        if (nodePropertyCountsStore != null) {
+            log.debug("Checkpointing %s", RecordDatabaseFile.NODE_PROPERTY_COUNTS_STORE.getName());
+            try (var fileFlushEvent = flushEvent.beginFileFlush()) {
+                nodePropertyCountsStore.checkpoint(fileFlushEvent, cursorContext);
+            }
+        }
         neoStores.checkpoint(flushEvent, cursorContext);
     }
 
@@ -643,6 +815,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle {
     public void listStorageFiles(Collection<StoreFileMetadata> atomic, Collection<StoreFileMetadata> replayable) {
         atomic.add(new StoreFileMetadata(databaseLayout.countStore(), RecordFormat.NO_RECORD_SIZE));
         atomic.add(new StoreFileMetadata(databaseLayout.relationshipGroupDegreesStore(), RecordFormat.NO_RECORD_SIZE));
+        if (neighbourIndex != null) {
+            atomic.add(
+                    new StoreFileMetadata(databaseLayout.relationshipNeighboursStore(), RecordFormat.NO_RECORD_SIZE));
+        }
+        if (nodePropertyCountsStore != null) {
+            atomic.add(new StoreFileMetadata(databaseLayout.nodePropertyCountsStore(), RecordFormat.NO_RECORD_SIZE));
+        }
         for (StoreType type : StoreType.STORE_TYPES) {
             final RecordStore<AbstractBaseRecord> recordStore = neoStores.getRecordStore(type);
             StoreFileMetadata metadata =
@@ -22,6 +22,7 @@ package org.neo4j.internal.recordstorage;
 import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.counts_store_max_cached_entries;
 import static org.neo4j.dbms.database.readonly.DatabaseReadOnlyChecker.writable;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.recordstorage.RecordCursorTypes.DYNAMIC_LABEL_TOKEN_CURSOR;
@@ -54,9 +55,13 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.eclipse.collections.api.LongIterable;
 import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.list.primitive.LongInterval;
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.consistency.checker.EntityBasedMemoryLimiter;
 import org.neo4j.consistency.checker.RecordStorageConsistencyChecker;
 import org.neo4j.consistency.checking.ByteArrayBitsManipulator;
@@ -81,6 +86,9 @@ import org.neo4j.internal.batchimport.input.LenientStoreInput;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
 import org.neo4j.internal.batchimport.staging.SpectrumExecutionMonitor;
+import org.neo4j.internal.counts.DegreesRebuildFromStore;
+import org.neo4j.internal.counts.GBPTreeGenericCountsStore;
+import org.neo4j.internal.counts.GBPTreeRelationshipGroupDegreesStore;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
@@ -94,10 +102,13 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.layout.Neo4jLayout;
 import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
+import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.DatabaseFlushEvent;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.KernelVersionRepository;
 import org.neo4j.kernel.api.index.IndexProvidersAccess;
@@ -148,6 +159,7 @@ import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageEngineFactory;
 import org.neo4j.storageengine.api.StorageFilesState;
 import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.storageengine.api.StoreOptimization;
 import org.neo4j.storageengine.api.StoreVersion;
 import org.neo4j.storageengine.api.StoreVersionCheck;
 import org.neo4j.storageengine.api.StoreVersionIdentifier;
@@ -257,6 +269,7 @@ public class RecordStorageEngineFactory implements StorageEngineFactory {
             InternalLogProvider internalLogProvider,
             InternalLogProvider userLogProvider,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             LogTailMetadata logTailMetadata,
             KernelVersionRepository kernelVersionRepository,
             MemoryTracker memoryTracker,
@@ -277,6 +290,7 @@ public class RecordStorageEngineFactory implements StorageEngineFactory {
                 databaseHealth,
                 idGeneratorFactory,
                 recoveryCleanupWorkCollector,
+                jobScheduler,
                 memoryTracker,
                 logTailMetadata,
                 kernelVersionRepository,
@@ -908,6 +922,122 @@ public class RecordStorageEngineFactory implements StorageEngineFactory {
         }
     }
 
+    @Override
+    public void optimizeStore(
+            FileSystemAbstraction fileSystem,
+            DatabaseLayout layout,
+            Config config,
+            PageCache pageCache,
+            IOController ioController,
+            Set<StoreOptimization> optimizations,
+            InternalLog log,
+            OutputStream progressOutput,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            LogTailMetadata logTailMetadata)
+            throws IOException {
+        IdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory(
+                fileSystem, RecoveryCleanupWorkCollector.immediate(), pageCacheTracer, layout.getDatabaseName());
+        ProgressMonitorFactory progressMonitorFactory =
+                progressOutput != null ? ProgressMonitorFactory.textual(progressOutput) : ProgressMonitorFactory.NONE;
+        try (NeoStores neoStores = new StoreFactory(
+                                layout,
+                                config,
+                                idGeneratorFactory,
+                                pageCache,
+                                pageCacheTracer,
+                                fileSystem,
+                                NullLogProvider.getInstance(),
+                                contextFactory,
+                                false,
+                                logTailMetadata)
+                        .openAllNeoStores();
+                var cursorContext = contextFactory.create("optimizeStore")) {
+            neoStores.start(cursorContext);
+            long nodeHighId = neoStores.getNodeStore().getIdGenerator().getHighId();
+            LongIterable nodeIds = nodeHighId > 0 ? LongInterval.zeroTo(nodeHighId - 1) : LongLists.immutable.empty();
+            if (optimizations.contains(StoreOptimization.COMPACT_PROPERTY_CHAINS)) {
+                RecordChainCompactor.Report report = new RecordChainCompactor(
+                                neoStores, contextFactory, ioController, progressMonitorFactory)
+                        .compact(nodeIds);
+                log.info("Compacted %d node property chains", report.compactedPropertyChains());
+                log.info("Node property chains before: %s", report.propertyChainsBefore());
+                log.info("Node property chains after: %s", report.propertyChainsAfter());
+                log.info("Node relationship chains: %s", report.relationshipChains());
+            }
+            if (optimizations.contains(StoreOptimization.CONVERT_DENSE_NODES)) {
+                convertDenseNodes(
+                        fileSystem,
+                        formatSpecificDatabaseLayout(layout),
+                        config,
+                        pageCache,
+                        neoStores,
+                        idGeneratorFactory,
+                        log,
+                        progressMonitorFactory,
+                        contextFactory,
+                        pageCacheTracer,
+                        nodeIds);
+            }
+            neoStores.flush(DatabaseFlushEvent.NULL, cursorContext);
+        }
+    }
+
+    private static void convertDenseNodes(
+            FileSystemAbstraction fileSystem,
+            RecordDatabaseLayout layout,
+            Config config,
+            PageCache pageCache,
+            NeoStores neoStores,
+            IdGeneratorFactory idGeneratorFactory,
+            InternalLog log,
+            ProgressMonitorFactory progressMonitorFactory,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            LongIterable nodeIds)
+            throws IOException {
+        try (var degreesStore = new GBPTreeRelationshipGroupDegreesStore(
+                        pageCache,
+                        layout.relationshipGroupDegreesStore(),
+                        fileSystem,
+                        immediate(),
+                        new DegreesRebuildFromStore(
+                                pageCache,
+                                neoStores,
+                                layout,
+                                contextFactory,
+                                NullLogProvider.getInstance(),
+                                Configuration.DEFAULT),
+                        false,
+                        GBPTreeGenericCountsStore.NO_MONITOR,
+                        layout.getDatabaseName(),
+                        config.get(counts_store_max_cached_entries),
+                        NullLogProvider.getInstance(),
+                        contextFactory,
+                        pageCacheTracer,
+                        neoStores.getOpenOptions());
+                var cursorContext = contextFactory.create("convertDenseNodes");
+                var storeCursors = new CachedStoreCursors(neoStores, cursorContext)) {
+            degreesStore.start(cursorContext, storeCursors, EmptyMemoryTracker.INSTANCE);
+            // Half of the dense node threshold leaves enough room for a converted node to gain or lose relationships
+            // without becoming eligible for conversion back
+            int denseNodeThreshold = config.get(GraphDatabaseSettings.dense_node_threshold);
+            DenseNodeConverter.Report report = new DenseNodeConverter(
+                            neoStores,
+                            idGeneratorFactory,
+                            degreesStore,
+                            contextFactory,
+                            progressMonitorFactory,
+                            denseNodeThreshold,
+                            denseNodeThreshold / 2)
+                    .convert(nodeIds);
+            degreesStore.checkpoint(FileFlushEvent.NULL, cursorContext);
+            log.info("Converted %d sparse nodes to dense", report.convertedToDense());
+            log.info("Converted %d dense nodes to sparse", report.convertedToSparse());
+            log.info("Relinked %d relationships", report.relinkedRelationships());
+        }
+    }
+
     @Override
     public ImmutableSet<OpenOption> getStoreOpenOptions(
             FileSystemAbstraction fs, PageCache pageCache, DatabaseLayout layout, CursorContextFactory contextFactory) {
@@ -78,8 +78,8 @@ class RecordStorageLocks implements StorageLocks {
 
     @Override
     public void acquireExclusiveNodeLock(LockTracer lockTracer, long... ids) {
-        locker.acquireExclusive(lockTracer, ResourceType.NODE_RELATIONSHIP_GROUP_DELETE, ids);
-        locker.acquireExclusive(lockTracer, ResourceType.NODE, ids);
+        locker.acquireExclusiveBatch(lockTracer, ResourceType.NODE_RELATIONSHIP_GROUP_DELETE, ids);
+        locker.acquireExclusiveBatch(lockTracer, ResourceType.NODE, ids);
     }
 
     @Override
@@ -90,8 +90,8 @@ class RecordStorageLocks implements StorageLocks {
 
     @Override
     public void acquireSharedNodeLock(LockTracer lockTracer, long... ids) {
-        locker.acquireShared(lockTracer, ResourceType.NODE_RELATIONSHIP_GROUP_DELETE, ids);
-        locker.acquireShared(lockTracer, ResourceType.NODE, ids);
+        locker.acquireSharedBatch(lockTracer, ResourceType.NODE_RELATIONSHIP_GROUP_DELETE, ids);
+        locker.acquireSharedBatch(lockTracer, ResourceType.NODE, ids);
     }
 
     @Override
@@ -102,8 +102,8 @@ class RecordStorageLocks implements StorageLocks {
 
     @Override
     public void acquireExclusiveRelationshipLock(LockTracer lockTracer, long... ids) {
-        locker.acquireExclusive(lockTracer, ResourceType.RELATIONSHIP_DELETE, ids);
-        locker.acquireExclusive(lockTracer, ResourceType.RELATIONSHIP, ids);
+        locker.acquireExclusiveBatch(lockTracer, ResourceType.RELATIONSHIP_DELETE, ids);
+        locker.acquireExclusiveBatch(lockTracer, ResourceType.RELATIONSHIP, ids);
     }
 
     @Override
@@ -114,8 +114,8 @@ class RecordStorageLocks implements StorageLocks {
 
     @Override
     public void acquireSharedRelationshipLock(LockTracer lockTracer, long... ids) {
-        locker.acquireShared(lockTracer, ResourceType.RELATIONSHIP_DELETE, ids);
-        locker.acquireShared(lockTracer, ResourceType.RELATIONSHIP, ids);
+        locker.acquireSharedBatch(lockTracer, ResourceType.RELATIONSHIP_DELETE, ids);
+        locker.acquireSharedBatch(lockTracer, ResourceType.RELATIONSHIP, ids);
     }
 
     @Override
@@ -30,6 +30,7 @@ import org.eclipse.collections.api.set.primitive.IntSet;
 import org.neo4j.common.EntityType;
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.counts.CountsAccessor;
+import org.neo4j.internal.counts.GBPTreeNodePropertyCountsStore;
 import org.neo4j.internal.counts.RelationshipGroupDegreesStore;
 import org.neo4j.internal.schema.ConstraintDescriptor;
 import org.neo4j.internal.schema.IndexDescriptor;
@@ -66,6 +67,9 @@ public class RecordStorageReader implements StorageReader {
     private final CountsAccessor counts;
     private final RelationshipGroupDegreesStore groupDegreesStore;
     private final SchemaCache schemaCache;
+    private final ColumnarPropertyCache propertyCache;
+    private final RelationshipNeighbourIndex neighbourIndex;
+    private final GBPTreeNodePropertyCountsStore nodePropertyCountsStore;
 
     private boolean closed;
 
@@ -75,6 +79,18 @@ public class RecordStorageReader implements StorageReader {
             CountsAccessor counts,
             RelationshipGroupDegreesStore groupDegreesStore,
             SchemaCache schemaCache) {
+        this(tokenHolders, neoStores, counts, groupDegreesStore, schemaCache, null, null, null);
+    }
+
+    RecordStorageReader(
+            TokenHolders tokenHolders,
+            NeoStores neoStores,
+            CountsAccessor counts,
+            RelationshipGroupDegreesStore groupDegreesStore,
+            SchemaCache schemaCache,
+            ColumnarPropertyCache propertyCache,
+            RelationshipNeighbourIndex neighbourIndex,
+            GBPTreeNodePropertyCountsStore nodePropertyCountsStore) {
         this.tokenHolders = tokenHolders;
         this.nodeStore = neoStores.getNodeStore();
         this.relationshipStore = neoStores.getRelationshipStore();
@@ -83,6 +99,9 @@ public class RecordStorageReader implements StorageReader {
         this.counts = counts;
         this.groupDegreesStore = groupDegreesStore;
         this.schemaCache = schemaCache;
+        this.propertyCache = propertyCache;
+        this.neighbourIndex = neighbourIndex;
+        this.nodePropertyCountsStore = nodePropertyCountsStore;
     }
 
     /**
@@ -234,6 +253,13 @@ public class RecordStorageReader implements StorageReader {
         return counts.nodeCount(labelId, cursorContext);
     }
 
+    @Override
+    public long countsForNodeWithProperty(int labelId, int propertyKeyId, CursorContext cursorContext) {
+        return nodePropertyCountsStore != null
+                ? nodePropertyCountsStore.nodePropertyCount(labelId, propertyKeyId, cursorContext)
+                : -1;
+    }
+
     @Override
     public long countsForRelationship(int startLabelId, int typeId, int endLabelId, CursorContext cursorContext) {
         if (!(startLabelId == ANY_LABEL || endLabelId == ANY_LABEL)) {
@@ -312,14 +338,25 @@ public class RecordStorageReader implements StorageReader {
     @Override
     public RecordNodeCursor allocateNodeCursor(CursorContext cursorContext, StoreCursors storeCursors) {
         return new RecordNodeCursor(
-                nodeStore, relationshipStore, relationshipGroupStore, groupDegreesStore, cursorContext, storeCursors);
+                nodeStore,
+                relationshipStore,
+                relationshipGroupStore,
+                groupDegreesStore,
+                neighbourIndex,
+                cursorContext,
+                storeCursors);
     }
 
     @Override
     public RecordRelationshipTraversalCursor allocateRelationshipTraversalCursor(
             CursorContext cursorContext, StoreCursors storeCursors) {
         return new RecordRelationshipTraversalCursor(
-                relationshipStore, relationshipGroupStore, groupDegreesStore, cursorContext, storeCursors);
+                relationshipStore,
+                relationshipGroupStore,
+                groupDegreesStore,
+                neighbourIndex,
+                cursorContext,
+                storeCursors);
     }
 
     @Override
@@ -341,6 +378,6 @@ public class RecordStorageReader implements StorageReader {
     @Override
     public StoragePropertyCursor allocatePropertyCursor(
             CursorContext cursorContext, StoreCursors storeCursors, MemoryTracker memoryTracker) {
-        return new RecordPropertyCursor(propertyStore, cursorContext, storeCursors, memoryTracker);
+        return new RecordPropertyCursor(propertyStore, cursorContext, storeCursors, memoryTracker, propertyCache);
     }
 }
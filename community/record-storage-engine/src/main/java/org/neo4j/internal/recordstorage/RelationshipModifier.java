@@ -487,7 +487,7 @@ public class RelationshipModifier {
                             relRecords.getOrLoad(nextRel, null).forReadingData().getNextRel(nodeId);
                 } while (!isNull(nextRel));
 
-                locks.acquireExclusive(lockTracer, RELATIONSHIP, ids.toSortedArray());
+                locks.acquireExclusiveBatch(lockTracer, RELATIONSHIP, ids.toArray());
                 return true;
             }
         }
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.neo4j.io.IOUtils.closeAllUnchecked;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
+import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
+import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Header;
+import org.neo4j.index.internal.gbptree.MetadataMismatchException;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.internal.recordstorage.RelationshipNeighbourLayout.NoValue;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.logging.InternalLog;
+import org.neo4j.logging.InternalLogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobMonitoringParams;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.RelationshipDirection;
+import org.neo4j.storageengine.api.RelationshipSelection;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * Index of all relationships, keyed by their two nodes, such that all relationships between two given nodes can be
+ * found with a single seek instead of traversing the relationship chains of one of them. This turns checks like
+ * "is there a relationship between these two nodes" into logarithmic operations also for dense nodes, where
+ * traversing the relationship group chains would be linear in the degree of the node.
+ * <p>
+ * The index is enabled by {@link GraphDatabaseInternalSettings#relationship_neighbour_index_enabled}, kept up to date
+ * by {@link RelationshipNeighbourIndexApplier} and made durable when the storage engine checkpoints. Changes made after
+ * the last checkpoint are recovered along with the store itself, since applying relationship changes to the index is
+ * idempotent. If the index is missing, or if it was never completely built, it is built from the relationship store
+ * in the background after {@link #start()}, while transactions keep applying their changes to it. Until then it is
+ * not {@link #isReady() ready} and must not be read from. Entries of relationships that were deleted while being
+ * built may be left behind, which readers skip anyway, just like entries of relationships whose ids have been reused.
+ */
+class RelationshipNeighbourIndex implements Closeable {
+    private static final String TREE_NAME = "Relationship neighbour index";
+    private static final String BUILD_TAG = "buildRelationshipNeighbourIndex";
+    private static final byte BUILT = 1;
+
+    private final RelationshipNeighbourLayout layout = new RelationshipNeighbourLayout();
+    private final FileSystemAbstraction fileSystem;
+    private final Path file;
+    private final JobScheduler jobScheduler;
+    private final String databaseName;
+    private final NeoStores neoStores;
+    private final CursorContextFactory contextFactory;
+    private final InternalLog log;
+    private final GBPTree<RelationshipNeighbourKey, NoValue> tree;
+    private volatile boolean ready;
+    private volatile boolean stopBuilding;
+    private JobHandle<?> build;
+
+    private RelationshipNeighbourIndex(
+            PageCache pageCache,
+            FileSystemAbstraction fileSystem,
+            Path file,
+            RecoveryCleanupWorkCollector recoveryCollector,
+            JobScheduler jobScheduler,
+            NeoStores neoStores,
+            String databaseName,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            ImmutableSet<OpenOption> openOptions,
+            InternalLogProvider logProvider) {
+        this.fileSystem = fileSystem;
+        this.file = file;
+        this.jobScheduler = jobScheduler;
+        this.databaseName = databaseName;
+        this.neoStores = neoStores;
+        this.contextFactory = contextFactory;
+        this.log = logProvider.getLog(getClass());
+
+        HeaderReader headerReader = new HeaderReader();
+        GBPTree<RelationshipNeighbourKey, NoValue> instantiatedTree;
+        try {
+            instantiatedTree = instantiateTree(
+                    pageCache,
+                    recoveryCollector,
+                    headerReader,
+                    databaseName,
+                    contextFactory,
+                    pageCacheTracer,
+                    openOptions);
+            if (headerReader.wasRead && !headerReader.built) {
+                // Building it never completed, start over from an empty tree
+                closeAllUnchecked(instantiatedTree);
+                instantiatedTree = null;
+            }
+        } catch (MetadataMismatchException e) {
+            instantiatedTree = null;
+        }
+        if (instantiatedTree == null) {
+            deleteFile();
+            headerReader = new HeaderReader();
+            instantiatedTree = instantiateTree(
+                    pageCache,
+                    recoveryCollector,
+                    headerReader,
+                    databaseName,
+                    contextFactory,
+                    pageCacheTracer,
+                    openOptions);
+        }
+        this.tree = instantiatedTree;
+        this.ready = headerReader.built;
+    }
+
+    /**
+     * @return the relationship neighbour index of the given database, or {@code null} if it isn't enabled. An index
+     * file left behind from when the index was enabled is deleted when the index is disabled, since it will not be kept
+     * up to date and would have to be built again anyway if the index gets enabled again.
+     */
+    static RelationshipNeighbourIndex open(
+            Config config,
+            PageCache pageCache,
+            FileSystemAbstraction fileSystem,
+            RecordDatabaseLayout databaseLayout,
+            RecoveryCleanupWorkCollector recoveryCollector,
+            JobScheduler jobScheduler,
+            NeoStores neoStores,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            ImmutableSet<OpenOption> openOptions,
+            InternalLogProvider logProvider) {
+        Path file = databaseLayout.relationshipNeighboursStore();
+        if (!config.get(GraphDatabaseInternalSettings.relationship_neighbour_index_enabled)) {
+            try {
+                fileSystem.deleteFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+        return new RelationshipNeighbourIndex(
+                pageCache,
+                fileSystem,
+                file,
+                recoveryCollector,
+                jobScheduler,
+                neoStores,
+                databaseLayout.getDatabaseName(),
+                contextFactory,
+                pageCacheTracer,
+                openOptions,
+                logProvider);
+    }
+
+    private GBPTree<RelationshipNeighbourKey, NoValue> instantiateTree(
+            PageCache pageCache,
+            RecoveryCleanupWorkCollector recoveryCollector,
+            HeaderReader headerReader,
+            String databaseName,
+            CursorContextFactory contextFactory,
+            PageCacheTracer pageCacheTracer,
+            ImmutableSet<OpenOption> openOptions) {
+        return new GBPTree<>(
+                pageCache,
+                fileSystem,
+                file,
+                layout,
+                GBPTree.NO_MONITOR,
+                headerReader,
+                recoveryCollector,
+                false,
+                openOptions.newWithout(PageCacheOpenOptions.MULTI_VERSIONED),
+                databaseName,
+                TREE_NAME,
+                contextFactory,
+                pageCacheTracer);
+    }
+
+    /**
+     * Starts building the index from the relationship store in the background, if it doesn't exist yet or if building
+     * it didn't complete before. The index is marked as completely built in the tree header on the first checkpoint
+     * after building it.
+     */
+    void start() {
+        if (ready) {
+            return;
+        }
+        build = jobScheduler.schedule(
+                Group.INDEX_POPULATION,
+                JobMonitoringParams.systemJob(databaseName, "Building of the relationship neighbour index"),
+                this::build);
+    }
+
+    /**
+     * @return whether the index contains all relationships, so that it can be read from.
+     */
+    boolean isReady() {
+        return ready;
+    }
+
+    @VisibleForTesting
+    void awaitBuild() throws ExecutionException, InterruptedException {
+        if (build != null) {
+            build.waitTermination();
+        }
+    }
+
+    private void build() {
+        log.info("Building relationship neighbour index");
+        long relationships = 0;
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        try (var buildContext = contextFactory.create(BUILD_TAG);
+                PageCursor cursor = relationshipStore.openPageCursorForReading(0, buildContext);
+                Updater updater = updater(buildContext)) {
+            RelationshipRecord record = relationshipStore.newRecord();
+            long highId = relationshipStore.getIdGenerator().getHighId();
+            for (long id = relationshipStore.getNumberOfReservedLowIds(); id < highId; id++) {
+                if (stopBuilding) {
+                    log.info("Building relationship neighbour index was stopped, it will be built on next start");
+                    return;
+                }
+                relationshipStore.getRecordByCursor(id, record, CHECK, cursor);
+                if (record.inUse()) {
+                    updater.add(record);
+                    relationships++;
+                }
+            }
+        } catch (Exception e) {
+            // Readers keep traversing relationship chains instead, and the index is built again on next start
+            log.error("Failed to build relationship neighbour index", e);
+            return;
+        }
+        // Relationships created after we read the high id are added by the transactions creating them
+        ready = true;
+        log.info("Relationship neighbour index built, containing %d relationships", relationships);
+    }
+
+    void checkpoint(FileFlushEvent flushEvent, CursorContext cursorContext) {
+        if (!ready) {
+            // Not built yet, keep the header as it is so that building it is resumed from scratch on next start
+            tree.checkpoint(flushEvent, cursorContext);
+        } else {
+            tree.checkpoint(headerWriter -> headerWriter.putByte(BUILT), flushEvent, cursorContext);
+        }
+    }
+
+    /**
+     * @return an {@link Updater} for adding and removing relationships.
+     * Any number of updaters can be used concurrently.
+     */
+    Updater updater(CursorContext cursorContext) throws IOException {
+        return new Updater(tree.writer(cursorContext));
+    }
+
+    /**
+     * Collects the ids of all relationships between {@code node} and {@code neighbour} that match the given selection,
+     * where directions of the selection are relative to {@code node}.
+     *
+     * @param node the node to get relationships for.
+     * @param neighbour the node at the other end of the relationships.
+     * @param selection which types and directions to include.
+     * @param into list to add the relationship ids to, in order of type, direction and id.
+     * @param cursorContext underlying page cursor context.
+     */
+    void relationships(
+            long node,
+            long neighbour,
+            RelationshipSelection selection,
+            MutableLongList into,
+            CursorContext cursorContext) {
+        var from = new RelationshipNeighbourKey(node, neighbour, Integer.MIN_VALUE, Byte.MIN_VALUE, Long.MIN_VALUE);
+        var to = new RelationshipNeighbourKey(node, neighbour, Integer.MAX_VALUE, Byte.MAX_VALUE, Long.MAX_VALUE);
+        try (Seeker<RelationshipNeighbourKey, NoValue> seeker = tree.seek(from, to, cursorContext)) {
+            while (seeker.next()) {
+                RelationshipNeighbourKey key = seeker.key();
+                if (selection.test(key.type, RelationshipDirection.ofId(key.direction))) {
+                    into.add(key.relationship);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        stopBuilding = true;
+        if (build != null) {
+            try {
+                build.waitTermination();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Already logged by the build itself
+            }
+        }
+        closeAllUnchecked(tree);
+    }
+
+    private void deleteFile() {
+        try {
+            fileSystem.deleteFileOrThrow(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds and removes the entries of relationships, i.e. one entry for each end of a relationship.
+     * Both adding an already added relationship and removing an already removed one are no-ops.
+     */
+    static class Updater implements Closeable {
+        private final Writer<RelationshipNeighbourKey, NoValue> writer;
+        private final RelationshipNeighbourKey key = new RelationshipNeighbourKey();
+
+        private Updater(Writer<RelationshipNeighbourKey, NoValue> writer) {
+            this.writer = writer;
+        }
+
+        void add(RelationshipRecord record) {
+            long first = record.getFirstNode();
+            long second = record.getSecondNode();
+            if (first == second) {
+                writer.put(entry(first, second, record, LOOP), NoValue.INSTANCE);
+            } else {
+                writer.put(entry(first, second, record, OUTGOING), NoValue.INSTANCE);
+                writer.put(entry(second, first, record, INCOMING), NoValue.INSTANCE);
+            }
+        }
+
+        void remove(RelationshipRecord record) {
+            long first = record.getFirstNode();
+            long second = record.getSecondNode();
+            if (first == second) {
+                writer.remove(entry(first, second, record, LOOP));
+            } else {
+                writer.remove(entry(first, second, record, OUTGOING));
+                writer.remove(entry(second, first, record, INCOMING));
+            }
+        }
+
+        private RelationshipNeighbourKey entry(
+                long node, long neighbour, RelationshipRecord record, RelationshipDirection direction) {
+            key.initialize(node, neighbour, record.getType(), (byte) direction.id(), record.getId());
+            return key;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static class HeaderReader implements Header.Reader {
+        private boolean wasRead;
+        private boolean built;
+
+        @Override
+        public void read(ByteBuffer headerBytes) {
+            wasRead = true;
+            built = headerBytes.hasRemaining() && headerBytes.get() == BUILT;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.CommandBatchToApply;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+/**
+ * Keeps the {@link RelationshipNeighbourIndex} up to date with created and deleted relationships.
+ */
+class RelationshipNeighbourIndexApplier extends TransactionApplier.Adapter {
+    private final RelationshipNeighbourIndex index;
+    private final boolean reverse;
+    private final CursorContext cursorContext;
+    private RelationshipNeighbourIndex.Updater updater;
+
+    RelationshipNeighbourIndexApplier(RelationshipNeighbourIndex index, boolean reverse, CursorContext cursorContext) {
+        this.index = index;
+        this.reverse = reverse;
+        this.cursorContext = cursorContext;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand(RelationshipCommand command) {
+        RelationshipRecord before = reverse ? command.getAfter() : command.getBefore();
+        RelationshipRecord after = reverse ? command.getBefore() : command.getAfter();
+        if (before.inUse() && !after.inUse()) {
+            updater().remove(before);
+        } else if (!before.inUse() && after.inUse()) {
+            updater().add(after);
+        }
+        return false;
+    }
+
+    private RelationshipNeighbourIndex.Updater updater() {
+        if (updater == null) {
+            try {
+                updater = index.updater(cursorContext);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return updater;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (updater != null) {
+            updater.close();
+        }
+    }
+
+    static class Factory implements TransactionApplierFactory {
+        private final TransactionApplicationMode mode;
+        private final RelationshipNeighbourIndex index;
+
+        Factory(TransactionApplicationMode mode, RelationshipNeighbourIndex index) {
+            this.mode = mode;
+            this.index = index;
+        }
+
+        @Override
+        public TransactionApplier startTx(CommandBatchToApply transaction, BatchContext batchContext) {
+            return new RelationshipNeighbourIndexApplier(index, mode.isReverseStep(), transaction.cursorContext());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+
+/**
+ * Key in the {@link GBPTree} owned by {@link RelationshipNeighbourIndex}. Every relationship has one entry per end,
+ * i.e. one for each of its two nodes, where {@link #node} is that end and {@link #neighbour} the other end.
+ * Loops have a single entry.
+ * <p>
+ * The neighbour comes right after the node so that all relationships between two nodes are found by one seek,
+ * regardless of which types and directions are selected.
+ */
+class RelationshipNeighbourKey {
+    static final int SIZE = Long.BYTES // node
+            + Long.BYTES // neighbour
+            + Integer.BYTES // type
+            + Byte.BYTES // direction, as seen from node
+            + Long.BYTES; // relationship
+
+    long node;
+    long neighbour;
+    int type;
+    byte direction;
+    long relationship;
+
+    RelationshipNeighbourKey() {}
+
+    RelationshipNeighbourKey(long node, long neighbour, int type, byte direction, long relationship) {
+        initialize(node, neighbour, type, direction, relationship);
+    }
+
+    void initialize(long node, long neighbour, int type, byte direction, long relationship) {
+        this.node = node;
+        this.neighbour = neighbour;
+        this.type = type;
+        this.direction = direction;
+        this.relationship = relationship;
+    }
+
+    @Override
+    public String toString() {
+        return "[node:" + node + ", neighbour:" + neighbour + ", type:" + type + ", direction:" + direction
+                + ", relationship:" + relationship + "]";
+    }
+}
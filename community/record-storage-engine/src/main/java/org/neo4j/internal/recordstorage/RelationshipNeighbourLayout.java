@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+class RelationshipNeighbourLayout
+        extends Layout.Adapter<RelationshipNeighbourKey, RelationshipNeighbourLayout.NoValue> {
+    RelationshipNeighbourLayout() {
+        super(true, Layout.namedIdentifier("ReNe", 1), 0, 1);
+    }
+
+    @Override
+    public RelationshipNeighbourKey newKey() {
+        return new RelationshipNeighbourKey();
+    }
+
+    @Override
+    public RelationshipNeighbourKey copyKey(RelationshipNeighbourKey key, RelationshipNeighbourKey into) {
+        into.initialize(key.node, key.neighbour, key.type, key.direction, key.relationship);
+        return into;
+    }
+
+    @Override
+    public NoValue newValue() {
+        return NoValue.INSTANCE;
+    }
+
+    @Override
+    public int keySize(RelationshipNeighbourKey key) {
+        return RelationshipNeighbourKey.SIZE;
+    }
+
+    @Override
+    public int valueSize(NoValue value) {
+        return 0;
+    }
+
+    @Override
+    public void writeKey(PageCursor cursor, RelationshipNeighbourKey key) {
+        cursor.putLong(key.node);
+        cursor.putLong(key.neighbour);
+        cursor.putInt(key.type);
+        cursor.putByte(key.direction);
+        cursor.putLong(key.relationship);
+    }
+
+    @Override
+    public void writeValue(PageCursor cursor, NoValue value) {
+        // nothing to write
+    }
+
+    @Override
+    public void readKey(PageCursor cursor, RelationshipNeighbourKey into, int keySize) {
+        long node = cursor.getLong();
+        long neighbour = cursor.getLong();
+        int type = cursor.getInt();
+        byte direction = cursor.getByte();
+        long relationship = cursor.getLong();
+        into.initialize(node, neighbour, type, direction, relationship);
+    }
+
+    @Override
+    public void readValue(PageCursor cursor, NoValue into, int valueSize) {
+        // nothing to read
+    }
+
+    @Override
+    public int compare(RelationshipNeighbourKey o1, RelationshipNeighbourKey o2) {
+        int compare = Long.compare(o1.node, o2.node);
+        if (compare != 0) {
+            return compare;
+        }
+        compare = Long.compare(o1.neighbour, o2.neighbour);
+        if (compare != 0) {
+            return compare;
+        }
+        compare = Integer.compare(o1.type, o2.type);
+        if (compare != 0) {
+            return compare;
+        }
+        compare = Byte.compare(o1.direction, o2.direction);
+        if (compare != 0) {
+            return compare;
+        }
+        return Long.compare(o1.relationship, o2.relationship);
+    }
+
+    @Override
+    public void initializeAsLowest(RelationshipNeighbourKey key) {
+        key.initialize(Long.MIN_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE, Byte.MIN_VALUE, Long.MIN_VALUE);
+    }
+
+    @Override
+    public void initializeAsHighest(RelationshipNeighbourKey key) {
+        key.initialize(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Byte.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * The index is a set of keys, there's nothing to store along with them.
+     */
+    enum NoValue {
+        INSTANCE
+    }
+}
@@ -111,4 +111,9 @@ public class TransactionApplierFacade implements TransactionApplier {
     public boolean visitGroupDegreeCommand(Command.GroupDegreeCommand command) throws IOException {
         return visit(command);
     }
+
+    @Override
+    public boolean visitNodePropertyCountsCommand(Command.NodePropertyCountsCommand command) throws IOException {
+        return visit(command);
+    }
 }
@@ -231,6 +231,11 @@ public class TransactionCommandValidator implements CommandVisitor, TransactionV
         return false;
     }
 
+    @Override
+    public boolean visitNodePropertyCountsCommand(Command.NodePropertyCountsCommand command) {
+        return false;
+    }
+
     private PageCursor getCursor(StoreType storeType) {
         var cursor = validationCursors[storeType.ordinal()];
         if (cursor != null) {
@@ -39,6 +39,7 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.LongPredicate;
 import org.eclipse.collections.api.set.ImmutableSet;
@@ -65,7 +66,9 @@ import org.neo4j.io.pagecache.context.CursorContextFactory;
 import org.neo4j.io.pagecache.tracing.FileFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.format.RecordFormat;
+import org.neo4j.kernel.impl.store.format.inlined.InlinedPropertyRecordFormat;
 import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.logging.InternalLog;
@@ -769,6 +772,38 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord, HEA
         }
     }
 
+    @Override
+    public void getRecordsByCursor(long[] ids, int count, RECORD[] targets, RecordLoad mode, PageCursor cursor)
+            throws UnderlyingStorageException {
+        if (targets.length < count) {
+            throw new IllegalArgumentException(
+                    "Asked to read " + count + " records, but only got " + targets.length + " records to read into");
+        }
+        Arrays.sort(ids, 0, count);
+        try {
+            long currentPageId = -1;
+            boolean pageExists = false;
+            for (int i = 0; i < count; i++) {
+                long id = ids[i];
+                RECORD record = targets[i];
+                record.setId(id);
+                long pageId = pageIdForRecord(id);
+                if (pageId != currentPageId) {
+                    pageExists = cursor.next(pageId);
+                    currentPageId = pageId;
+                }
+                if (pageExists) {
+                    cursor.setOffset(offsetForId(id));
+                    readRecordFromPage(id, record, mode, cursor);
+                } else {
+                    verifyAfterNotRead(record, mode);
+                }
+            }
+        } catch (IOException e) {
+            throw new UnderlyingStorageException(e);
+        }
+    }
+
     @Override
     public void nextRecordByCursor(RECORD record, RecordLoad mode, PageCursor cursor)
             throws UnderlyingStorageException {
@@ -843,6 +878,38 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord, HEA
         }
     }
 
+    /**
+     * @return whether the format of this store keeps a copy of the first property record of its records,
+     * see {@link InlinedPropertyRecordFormat}.
+     */
+    public boolean hasInlinedProperties() {
+        return recordFormat instanceof InlinedPropertyRecordFormat;
+    }
+
+    /**
+     * Writes a copy of the given property record, which must be the first record of the property chain of the
+     * record with the given id, next to that record. Only supported if {@link #hasInlinedProperties()}.
+     *
+     * @param id id of the record to write the copy of the property record for.
+     * @param property the first property record of the record, or a record not in use to drop the copy.
+     * @param cursor page cursor for writing.
+     */
+    public void updateInlinedProperty(long id, PropertyRecord property, PageCursor cursor) {
+        IdValidator.assertValidId(getIdType(), id, recordFormat.getMaxId());
+
+        long pageId = pageIdForRecord(id);
+        int offset = offsetForId(id);
+        try {
+            if (cursor.next(pageId)) {
+                cursor.setOffset(offset);
+                ((InlinedPropertyRecordFormat) recordFormat).writeInlinedProperty(property, cursor);
+                checkForDecodingErrors(cursor, id, NORMAL);
+            }
+        } catch (IOException e) {
+            throw new UnderlyingStorageException(e);
+        }
+    }
+
     @Override
     public void prepareForCommit(RECORD record, IdSequence idSequence, CursorContext cursorContext) {
         if (record.inUse()) {
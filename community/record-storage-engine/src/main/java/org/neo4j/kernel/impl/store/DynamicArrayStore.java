@@ -31,9 +31,11 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetTime;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import org.eclipse.collections.api.set.ImmutableSet;
 import org.neo4j.configuration.Config;
+import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.recordstorage.RecordIdType;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -367,7 +369,17 @@ public class DynamicArrayStore extends AbstractDynamicStore {
     }
 
     public Value getArrayFor(Iterable<DynamicRecord> records, StoreCursors storeCursors) {
-        HeavyRecordData data = readFullByteArray(records, PropertyType.ARRAY, storeCursors);
+        for (DynamicRecord record : records) {
+            ensureHeavy(record, storeCursors);
+        }
+        if (DynamicValueCompression.isCompressed(Iterables.first(records).getData())) {
+            // A compressed array has no array header, it's part of the compressed bytes
+            byte[] compressed = readFullByteArrayFromHeavyRecords(records, PropertyType.STRING).data();
+            byte[] array = DynamicValueCompression.decompress(compressed, 0, compressed.length);
+            byte[] header = PropertyType.ARRAY.readDynamicRecordHeader(array);
+            return getRightArray(header, Arrays.copyOfRange(array, header.length, array.length));
+        }
+        HeavyRecordData data = readFullByteArrayFromHeavyRecords(records, PropertyType.ARRAY);
         byte[] header = data.header();
         byte[] bArray = data.data();
         return getRightArray(header, bArray);
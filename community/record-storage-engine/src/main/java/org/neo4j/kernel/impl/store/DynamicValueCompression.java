@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.neo4j.internal.helpers.ArrayUtil;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+/**
+ * Optional compression of string and array property values that are stored in the dynamic string and array stores.
+ * <p>
+ * A compressed value is stored as {@link #COMPRESSED_MARKER}, followed by the length of the uncompressed value as an
+ * int, followed by the deflated bytes of the value as it would otherwise have been stored. The marker can never be
+ * the first byte of an uncompressed value: strings are stored as UTF-8, in which {@code 0xFF} never occurs, and arrays
+ * start with a type id, which is always a small positive number. This means that compressed and uncompressed values
+ * can be freely mixed in the same store and readers can always tell them apart.
+ * <p>
+ * Values are only compressed if that makes them need fewer dynamic records, which also means that a compressed value
+ * is always shorter than its uncompressed length. Only databases on
+ * {@link org.neo4j.kernel.KernelVersion#VERSION_COMPRESSED_DYNAMIC_PROPERTY_VALUES_INTRODUCED} or later may contain
+ * compressed values.
+ */
+public final class DynamicValueCompression {
+    public static final byte COMPRESSED_MARKER = (byte) 0xFF;
+    private static final int HEADER_SIZE = 1 + Integer.BYTES;
+    // Deflate can't compress data by more than a factor of 1032, so a larger uncompressed length means a broken header
+    private static final int MAX_COMPRESSION_RATIO = 1032;
+
+    private DynamicValueCompression() {}
+
+    /**
+     * @param value bytes of a value as they would be stored uncompressed.
+     * @param recordDataSize number of data bytes per dynamic record of the store the value goes into.
+     * @return the compressed form of the value, or {@code null} if compressing it wouldn't save any dynamic records.
+     */
+    public static byte[] compress(byte[] value, int recordDataSize) {
+        if (value.length <= recordDataSize) {
+            return null;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(value.length / 2 + HEADER_SIZE);
+            out.write(COMPRESSED_MARKER);
+            out.write(value.length >>> 24);
+            out.write(value.length >>> 16);
+            out.write(value.length >>> 8);
+            out.write(value.length);
+            byte[] chunk = new byte[Math.min(value.length, 4096)];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                out.write(chunk, 0, length);
+                if (out.size() >= value.length) {
+                    return null;
+                }
+            }
+            byte[] compressed = out.toByteArray();
+            return numberOfRecords(compressed.length, recordDataSize) < numberOfRecords(value.length, recordDataSize)
+                    ? compressed
+                    : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Encodes the given array the way {@link DynamicArrayStore} would store it, and compresses the result.
+     *
+     * @return the compressed form of the array, or {@code null} if compressing it wouldn't save any dynamic records.
+     */
+    public static byte[] compressArray(Object array, int recordDataSize) {
+        List<DynamicRecord> records = new ArrayList<>();
+        DynamicArrayStore.allocateRecords(
+                records,
+                array,
+                new ScratchRecordAllocator(recordDataSize),
+                CursorContext.NULL_CONTEXT,
+                EmptyMemoryTracker.INSTANCE);
+        if (records.size() <= 1) {
+            return null;
+        }
+        int length = 0;
+        for (DynamicRecord record : records) {
+            length += record.getLength();
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(length);
+        for (DynamicRecord record : records) {
+            encoded.put(record.getData());
+        }
+        return compress(encoded.array(), recordDataSize);
+    }
+
+    public static boolean isCompressed(byte[] data) {
+        return data.length > 0 && data[0] == COMPRESSED_MARKER;
+    }
+
+    /**
+     * @return the given bytes, decompressed if they are compressed.
+     */
+    public static byte[] decompressIfNeeded(byte[] data) {
+        return isCompressed(data) ? decompress(data, 0, data.length) : data;
+    }
+
+    /**
+     * @param data array holding a compressed value.
+     * @param offset offset of the {@link #COMPRESSED_MARKER} of the compressed value.
+     * @param length length of the compressed value, including its header.
+     * @return the uncompressed value.
+     */
+    public static byte[] decompress(byte[] data, int offset, int length) {
+        if (length < HEADER_SIZE || data[offset] != COMPRESSED_MARKER) {
+            throw new InvalidRecordException("Dynamic value of " + length + " bytes is not a compressed value");
+        }
+        int uncompressedLength = (data[offset + 1] & 0xFF) << 24
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 8
+                | (data[offset + 4] & 0xFF);
+        if (uncompressedLength <= length
+                || uncompressedLength > (long) (length - HEADER_SIZE) * MAX_COMPRESSION_RATIO
+                || uncompressedLength > ArrayUtil.MAX_ARRAY_SIZE) {
+            throw new InvalidRecordException("Compressed dynamic value of " + length
+                    + " bytes has an invalid uncompressed length of " + uncompressedLength + " bytes");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset + HEADER_SIZE, length - HEADER_SIZE);
+            byte[] value = new byte[uncompressedLength];
+            int inflated = 0;
+            while (inflated < uncompressedLength && !inflater.finished()) {
+                int read = inflater.inflate(value, inflated, uncompressedLength - inflated);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += read;
+            }
+            if (inflated != uncompressedLength) {
+                throw new InvalidRecordException("Compressed dynamic value was expected to decompress to "
+                        + uncompressedLength + " bytes, but decompressed to " + inflated + " bytes");
+            }
+            return value;
+        } catch (DataFormatException e) {
+            throw new InvalidRecordException("Unable to decompress dynamic value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int numberOfRecords(int length, int recordDataSize) {
+        return (length + recordDataSize - 1) / recordDataSize;
+    }
+
+    /**
+     * Hands out records that don't belong to any store, for encoding a value only to look at its bytes.
+     */
+    private static class ScratchRecordAllocator implements DynamicRecordAllocator {
+        private final int recordDataSize;
+        private long nextId;
+
+        ScratchRecordAllocator(int recordDataSize) {
+            this.recordDataSize = recordDataSize;
+        }
+
+        @Override
+        public int getRecordDataSize() {
+            return recordDataSize;
+        }
+
+        @Override
+        public DynamicRecord nextRecord(CursorContext cursorContext) {
+            DynamicRecord record = new DynamicRecord(nextId++);
+            record.setInUse(true);
+            return record;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.NodeBatch;
 import org.neo4j.storageengine.api.cursor.StoreCursors;
 import org.neo4j.util.Bits;
 
@@ -158,6 +159,25 @@ public class InlineNodeLabels implements NodeLabels {
         return result;
     }
 
+    /**
+     * Adds the labels inlined in the given {@code labelField} to the node last added to the given {@code batch},
+     * without allocating an array for them like {@link #parseInlined(long)} does.
+     */
+    public static void parseInlined(long labelField, NodeBatch batch) {
+        byte numberOfLabels = labelCount(labelField);
+        if (numberOfLabels == 0) {
+            return;
+        }
+
+        long existingLabelsField = parseLabelsBody(labelField);
+        byte bitsPerLabel = (byte) (LABEL_BITS / numberOfLabels);
+        long mask = (1L << bitsPerLabel) - 1;
+        for (int i = 0; i < numberOfLabels; i++) {
+            batch.addLabel(existingLabelsField & mask);
+            existingLabelsField >>>= bitsPerLabel;
+        }
+    }
+
     public static boolean hasLabel(NodeRecord node, int label) {
         long labelField = node.getLabelField();
         byte numberOfLabels = labelCount(labelField);
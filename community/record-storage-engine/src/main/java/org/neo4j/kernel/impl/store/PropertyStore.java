@@ -340,6 +340,24 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
             DynamicRecordAllocator arrayAllocator,
             CursorContext cursorContext,
             MemoryTracker memoryTracker) {
+        encodeValue(block, keyId, value, stringAllocator, arrayAllocator, false, cursorContext, memoryTracker);
+    }
+
+    /**
+     * Encodes the given value into the given block, allocating dynamic records for it if it doesn't fit in the block.
+     *
+     * @param compressDynamicValues whether to compress values stored in dynamic records, where that saves records,
+     * see {@link DynamicValueCompression}.
+     */
+    public static void encodeValue(
+            PropertyBlock block,
+            int keyId,
+            Value value,
+            DynamicRecordAllocator stringAllocator,
+            DynamicRecordAllocator arrayAllocator,
+            boolean compressDynamicValues,
+            CursorContext cursorContext,
+            MemoryTracker memoryTracker) {
         if (value instanceof ArrayValue) {
             Object asObject = value.asObject();
 
@@ -350,7 +368,15 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
 
             // Fall back to dynamic array store
             List<DynamicRecord> arrayRecords = newArrayList(memoryTracker);
-            allocateArrayRecords(arrayRecords, asObject, arrayAllocator, cursorContext, memoryTracker);
+            byte[] compressed = compressDynamicValues
+                    ? DynamicValueCompression.compressArray(asObject, arrayAllocator.getRecordDataSize())
+                    : null;
+            if (compressed != null) {
+                AbstractDynamicStore.allocateRecordsFromBytes(
+                        arrayRecords, compressed, arrayAllocator, cursorContext, memoryTracker);
+            } else {
+                allocateArrayRecords(arrayRecords, asObject, arrayAllocator, cursorContext, memoryTracker);
+            }
             setSingleBlockValue(
                     block,
                     keyId,
@@ -361,7 +387,8 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
             }
             block.setValueRecords(arrayRecords);
         } else {
-            value.writeTo(new PropertyBlockValueWriter(block, keyId, stringAllocator, cursorContext, memoryTracker));
+            value.writeTo(new PropertyBlockValueWriter(
+                    block, keyId, stringAllocator, compressDynamicValues, cursorContext, memoryTracker));
         }
     }
 
@@ -423,6 +450,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
         private final PropertyBlock block;
         private final int keyId;
         private final DynamicRecordAllocator stringAllocator;
+        private final boolean compressDynamicValues;
         private final CursorContext cursorContext;
         private final MemoryTracker memoryTracker;
 
@@ -430,11 +458,13 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
                 PropertyBlock block,
                 int keyId,
                 DynamicRecordAllocator stringAllocator,
+                boolean compressDynamicValues,
                 CursorContext cursorContext,
                 MemoryTracker memoryTracker) {
             this.block = block;
             this.keyId = keyId;
             this.stringAllocator = stringAllocator;
+            this.compressDynamicValues = compressDynamicValues;
             this.cursorContext = cursorContext;
             this.memoryTracker = memoryTracker;
         }
@@ -500,6 +530,13 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
 
             // Fall back to dynamic string store
             byte[] encodedString = encodeString(value);
+            if (compressDynamicValues) {
+                byte[] compressed =
+                        DynamicValueCompression.compress(encodedString, stringAllocator.getRecordDataSize());
+                if (compressed != null) {
+                    encodedString = compressed;
+                }
+            }
             List<DynamicRecord> valueRecords =
                     newArrayList(encodedString.length / stringAllocator.getRecordDataSize() + 1, memoryTracker);
             allocateStringRecords(valueRecords, encodedString, stringAllocator, cursorContext, memoryTracker);
@@ -602,7 +639,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
         AbstractDynamicStore.HeavyRecordData source =
                 stringStore.readFullByteArray(dynamicRecords, PropertyType.STRING, storeCursors);
         // A string doesn't have a header in the data array
-        return Values.utf8Value(source.data());
+        return Values.utf8Value(DynamicValueCompression.decompressIfNeeded(source.data()));
     }
 
     Value getArrayFor(PropertyBlock propertyBlock, StoreCursors storeCursors) {
@@ -636,6 +673,12 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord, NoStoreHe
             throw new IllegalStateException("Given buffer is empty");
         }
 
+        if (buffer.get(buffer.position()) == DynamicValueCompression.COMPRESSED_MARKER) {
+            byte[] array = DynamicValueCompression.decompress(
+                    buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return readArrayFromBuffer(ByteBuffer.wrap(array));
+        }
+
         byte typeId = buffer.get();
         if (typeId == PropertyType.STRING.intValue()) {
             int arrayLength = buffer.getInt();
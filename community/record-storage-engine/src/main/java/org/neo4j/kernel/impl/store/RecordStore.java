@@ -174,6 +174,26 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> {
      */
     void nextRecordByCursor(RECORD target, RecordLoad mode, PageCursor cursor) throws InvalidRecordException;
 
+    /**
+     * Reads a batch of records from the store, see
+     * {@link RecordStore#getRecordByCursor(long, AbstractBaseRecord, RecordLoad, PageCursor)}.
+     * <p>
+     * The records are read in the order they are laid out in the store rather than in the order they were asked for,
+     * which means that all records living on the same page are read with a single pin of that page and that pages
+     * are visited in file order. This is more efficient than reading the records one by one when the ids are spread
+     * out in no particular order. For this the first {@code count} ids are sorted in place, and after this call
+     * {@code targets[i]} holds the record with id {@code ids[i]}.
+     *
+     * @param ids ids of the records to read, the first {@code count} of which will be sorted by this call.
+     * @param count number of ids in {@code ids} to read records for.
+     * @param targets records to read into, at least {@code count} of them. These are meant to be reused between calls.
+     * @param mode loading behaviour, read more in {@link RecordStore#getRecordByCursor(long, AbstractBaseRecord, RecordLoad, PageCursor)}.
+     * @param cursor the PageCursor to use for record loading.
+     * @throws InvalidRecordException if some record not in use and the {@code mode} allows for throwing.
+     */
+    void getRecordsByCursor(long[] ids, int count, RECORD[] targets, RecordLoad mode, PageCursor cursor)
+            throws InvalidRecordException;
+
     /**
      * For stores that have other stores coupled underneath, the "top level" record will have a flag
      * saying whether or not it's light. Light means that no records from the coupled store have been loaded yet.
@@ -164,8 +164,9 @@ public class StoreFactory {
             Config config, RecordFormats recordFormats, ImmutableSet<OpenOption> openOptions) {
         openOptions = openOptions.newWithAll(PageCacheOptionsSelector.select(recordFormats));
 
-        // we need to modify options only for aligned format and avoid passing direct io option in all other cases
-        if (!recordFormats.getFormatFamily().equals(FormatFamily.ALIGNED)) {
+        // we need to modify options only for page aligned formats and avoid passing direct io option in all other cases
+        if (!recordFormats.getFormatFamily().equals(FormatFamily.ALIGNED)
+                && !recordFormats.getFormatFamily().equals(FormatFamily.INLINED)) {
             return openOptions;
         }
         if (!config.get(GraphDatabaseSettings.pagecache_direct_io)) {
@@ -27,6 +27,7 @@ package org.neo4j.kernel.impl.store.format;
 public record FormatFamily(String name, int rank) {
     public static final FormatFamily STANDARD = new FormatFamily("standard", 0);
     public static final FormatFamily ALIGNED = new FormatFamily("aligned", 1);
+    public static final FormatFamily INLINED = new FormatFamily("inlined", 1);
     public static final FormatFamily HIGH_LIMIT = new FormatFamily("high_limit", 2);
     public static final FormatFamily MULTIVERSION = new FormatFamily("multiversion", 3);
 
@@ -45,6 +45,7 @@ import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
 import org.neo4j.kernel.impl.store.format.aligned.PageAlignedV4_3;
 import org.neo4j.kernel.impl.store.format.aligned.PageAlignedV5_0;
+import org.neo4j.kernel.impl.store.format.inlined.InlinedV5_10;
 import org.neo4j.kernel.impl.store.format.standard.Standard;
 import org.neo4j.kernel.impl.store.format.standard.StandardV4_3;
 import org.neo4j.kernel.impl.store.format.standard.StandardV5_0;
@@ -70,7 +71,8 @@ public class RecordFormatSelector {
             StandardV4_3.RECORD_FORMATS,
             StandardV5_0.RECORD_FORMATS,
             PageAlignedV4_3.RECORD_FORMATS,
-            PageAlignedV5_0.RECORD_FORMATS);
+            PageAlignedV5_0.RECORD_FORMATS,
+            InlinedV5_10.RECORD_FORMATS);
 
     private RecordFormatSelector() {
         throw new AssertionError("Not for instantiation!");
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.inlined;
+
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.standard.PropertyRecordFormat;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+
+/**
+ * Layout of the inlined copy of the first property record, which is placed right after the node or
+ * relationship record data:
+ * <pre>
+ * property_id+1(5 bytes)+property_record(41 bytes)
+ * </pre>
+ * The id is stored one-off so that zeroed bytes, which is what the record formats write, mean that there's no copy.
+ */
+final class InlinedProperties {
+    private static final int ID_SIZE = 5;
+    static final int SIZE = ID_SIZE + PropertyRecordFormat.RECORD_SIZE;
+
+    private static final PropertyRecordFormat PROPERTY_FORMAT = new PropertyRecordFormat(true);
+
+    private InlinedProperties() {}
+
+    static void read(PrimitiveRecord record, PageCursor cursor, int offset) {
+        cursor.setOffset(offset);
+        long id = getId(cursor);
+        if (record.inUse() && id != 0 && id - 1 == record.getNextProp()) {
+            PropertyRecord property = record.loadInlinedProperty(id - 1);
+            PROPERTY_FORMAT.read(property, cursor, NORMAL, PropertyRecordFormat.RECORD_SIZE, 1);
+        } else {
+            record.clearInlinedProperty();
+        }
+    }
+
+    static void clear(PageCursor cursor, int offset) {
+        cursor.setOffset(offset);
+        putId(cursor, 0);
+    }
+
+    static void write(PropertyRecord property, PageCursor cursor, int offset) {
+        cursor.setOffset(offset);
+        if (property.inUse()) {
+            putId(cursor, property.getId() + 1);
+            PROPERTY_FORMAT.write(property, cursor, PropertyRecordFormat.RECORD_SIZE, 1);
+        } else {
+            putId(cursor, 0);
+        }
+    }
+
+    private static long getId(PageCursor cursor) {
+        long lsb = cursor.getInt() & 0xFFFFFFFFL;
+        long msb = cursor.getByte() & 0xFFL;
+        return lsb | (msb << 32);
+    }
+
+    private static void putId(PageCursor cursor, long id) {
+        cursor.putInt((int) id);
+        cursor.putByte((byte) (id >>> 32));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.inlined;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+
+/**
+ * A record format for node or relationship records which keeps a copy of the first property record of the
+ * property chain next to each record. The copy is read together with the record, see
+ * {@link org.neo4j.kernel.impl.store.record.PrimitiveRecord#getInlinedProperty()}, so that reading the properties
+ * of entities with only a few of them doesn't have to go to the property store at all.
+ * <p>
+ * Writing a record with {@link org.neo4j.kernel.impl.store.format.RecordFormat#write} always drops the copy,
+ * since the format can't know whether the property record it holds is up-to-date. The copy is instead written
+ * separately with {@link #writeInlinedProperty(PropertyRecord, PageCursor)} by whoever knows that it is.
+ */
+public interface InlinedPropertyRecordFormat {
+    /**
+     * Writes a copy of the given property record next to the record that the cursor is placed at.
+     * The record itself is left as it is.
+     *
+     * @param property the first property record in the property chain of the record.
+     * @param cursor cursor placed at the beginning of the record.
+     */
+    void writeInlinedProperty(PropertyRecord property, PageCursor cursor);
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.inlined;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipRecordFormat;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+
+/**
+ * {@link RelationshipRecordFormat} with the first property record of each relationship inlined after the
+ * relationship record data.
+ */
+public class InlinedRelationshipRecordFormat extends RelationshipRecordFormat implements InlinedPropertyRecordFormat {
+    public static final int RECORD_SIZE = RelationshipRecordFormat.RECORD_SIZE + InlinedProperties.SIZE;
+
+    public InlinedRelationshipRecordFormat() {
+        super(RECORD_SIZE, true);
+    }
+
+    @Override
+    public void read(
+            RelationshipRecord record, PageCursor cursor, RecordLoad mode, int recordSize, int recordsPerPage) {
+        int recordOffset = cursor.getOffset();
+        super.read(record, cursor, mode, recordSize, recordsPerPage);
+        InlinedProperties.read(record, cursor, recordOffset + RelationshipRecordFormat.RECORD_SIZE);
+        cursor.setOffset(recordOffset + recordSize);
+    }
+
+    @Override
+    public void write(RelationshipRecord record, PageCursor cursor, int recordSize, int recordsPerPage) {
+        int recordOffset = cursor.getOffset();
+        super.write(record, cursor, recordSize, recordsPerPage);
+        InlinedProperties.clear(cursor, recordOffset + RelationshipRecordFormat.RECORD_SIZE);
+        cursor.setOffset(recordOffset + recordSize);
+    }
+
+    @Override
+    public void writeInlinedProperty(PropertyRecord property, PageCursor cursor) {
+        InlinedProperties.write(property, cursor, cursor.getOffset() + RelationshipRecordFormat.RECORD_SIZE);
+    }
+}
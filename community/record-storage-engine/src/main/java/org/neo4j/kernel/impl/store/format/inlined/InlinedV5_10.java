@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.inlined;
+
+import static org.neo4j.kernel.impl.store.format.StoreVersion.INLINED_V5_10;
+
+import org.neo4j.kernel.impl.store.format.BaseRecordFormats;
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+import org.neo4j.kernel.impl.store.format.RecordFormat;
+import org.neo4j.kernel.impl.store.format.RecordFormatFamilyCapability;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.format.standard.DynamicRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.LabelTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.PropertyKeyTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.PropertyRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipGroupRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipTypeTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.SchemaRecordFormat;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
+import org.neo4j.kernel.impl.store.record.SchemaRecord;
+
+/**
+ * Record format, same as {@link PageAligned}, except that node and relationship records also hold a copy of the
+ * first record of their property chain, see {@link InlinedPropertyRecordFormat}.
+ *
+ * Entities with only a few small properties, which fit in a single property record, can then have their properties
+ * read without any access to the property store. This comes at the cost of larger node and relationship stores.
+ */
+public class InlinedV5_10 extends BaseRecordFormats {
+    public static final RecordFormats RECORD_FORMATS = new InlinedV5_10();
+    public static final String NAME = FormatFamily.INLINED.name();
+
+    private InlinedV5_10() {
+        super(INLINED_V5_10, new RecordFormatFamilyCapability(FormatFamily.INLINED));
+    }
+
+    @Override
+    public RecordFormat<NodeRecord> node() {
+        return new InlinedNodeRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipGroupRecord> relationshipGroup() {
+        return new RelationshipGroupRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<RelationshipRecord> relationship() {
+        return new InlinedRelationshipRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<PropertyRecord> property() {
+        return new PropertyRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<LabelTokenRecord> labelToken() {
+        return new LabelTokenRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<PropertyKeyTokenRecord> propertyKeyToken() {
+        return new PropertyKeyTokenRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<RelationshipTypeTokenRecord> relationshipTypeToken() {
+        return new RelationshipTypeTokenRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<DynamicRecord> dynamic() {
+        return new DynamicRecordFormat(true);
+    }
+
+    @Override
+    public RecordFormat<SchemaRecord> schema() {
+        return new SchemaRecordFormat(true);
+    }
+
+    @Override
+    public FormatFamily getFormatFamily() {
+        return FormatFamily.INLINED;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
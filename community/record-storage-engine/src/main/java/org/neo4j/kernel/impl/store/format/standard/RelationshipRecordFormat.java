@@ -38,8 +38,12 @@ public class RelationshipRecordFormat extends BaseOneByteHeaderRecordFormat<Rela
     }
 
     public RelationshipRecordFormat(boolean pageAligned) {
+        this(RECORD_SIZE, pageAligned);
+    }
+
+    protected RelationshipRecordFormat(int recordSize, boolean pageAligned) {
         super(
-                fixedRecordSize(RECORD_SIZE),
+                fixedRecordSize(recordSize),
                 0,
                 IN_USE_BIT,
                 StandardFormatSettings.RELATIONSHIP_MAXIMUM_ID_BITS,
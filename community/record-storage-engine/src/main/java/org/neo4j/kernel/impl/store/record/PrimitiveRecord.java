@@ -23,6 +23,9 @@ import java.util.Objects;
 
 public abstract class PrimitiveRecord extends AbstractBaseRecord {
     protected long nextProp;
+    // Copy of the first record in the property chain, only read by formats which inline it into this record.
+    // It is not part of the state of this record, so it is neither copied nor compared.
+    private PropertyRecord inlinedProperty;
 
     PrimitiveRecord(long id) {
         super(id);
@@ -55,6 +58,40 @@ public abstract class PrimitiveRecord extends AbstractBaseRecord {
 
     public abstract void setIdTo(PropertyRecord property);
 
+    /**
+     * @return the copy of the first property record of this record, as read together with this record, or {@code null}
+     * if the record format doesn't inline property records or if no up-to-date copy was stored.
+     */
+    public PropertyRecord getInlinedProperty() {
+        PropertyRecord property = inlinedProperty;
+        if (property == null
+                || !property.inUse()
+                || Record.NO_NEXT_PROPERTY.is(nextProp)
+                || property.getId() != nextProp) {
+            return null;
+        }
+        return property;
+    }
+
+    /**
+     * @param id id of the property record which the inlined copy is a copy of.
+     * @return the record to read the inlined copy of the first property record of this record into.
+     */
+    public PropertyRecord loadInlinedProperty(long id) {
+        if (inlinedProperty == null) {
+            inlinedProperty = new PropertyRecord(id);
+        } else {
+            inlinedProperty.setId(id);
+        }
+        return inlinedProperty;
+    }
+
+    public void clearInlinedProperty() {
+        if (inlinedProperty != null) {
+            inlinedProperty.clear();
+        }
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), nextProp);
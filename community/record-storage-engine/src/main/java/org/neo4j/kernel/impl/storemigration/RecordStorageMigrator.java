@@ -25,12 +25,16 @@ import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.neo4j.configuration.GraphDatabaseSettings.SYSTEM_DATABASE_NAME;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.batchimport.Configuration.defaultConfiguration;
+import static org.neo4j.internal.recordstorage.RecordCursorTypes.NODE_CURSOR;
+import static org.neo4j.internal.recordstorage.RecordCursorTypes.PROPERTY_CURSOR;
+import static org.neo4j.internal.recordstorage.RecordCursorTypes.RELATIONSHIP_CURSOR;
 import static org.neo4j.internal.recordstorage.RecordStorageEngineFactory.createMigrationTargetSchemaRuleAccess;
 import static org.neo4j.internal.recordstorage.StoreTokens.allTokens;
 import static org.neo4j.kernel.impl.storemigration.FileOperation.COPY;
 import static org.neo4j.kernel.impl.storemigration.FileOperation.DELETE;
 import static org.neo4j.kernel.impl.storemigration.FileOperation.MOVE;
 import static org.neo4j.kernel.impl.storemigration.SchemaStoreMigration.getSchemaStoreMigration;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.storemigration.StoreMigratorFileOperation.fileOperation;
 import static org.neo4j.storageengine.api.format.CapabilityType.FORMAT;
 
@@ -96,13 +100,18 @@ import org.neo4j.kernel.impl.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.store.LegacyMetadataHandler;
 import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreHeader;
 import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
 import org.neo4j.kernel.impl.store.format.PageCacheOptionsSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.inlined.InlinedPropertyRecordFormat;
 import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.storemigration.SchemaStoreMigration.SchemaStoreMigrator;
 import org.neo4j.kernel.impl.transaction.log.EmptyLogTailMetadata;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -120,6 +129,7 @@ import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.storageengine.api.StoreVersion;
 import org.neo4j.storageengine.api.TransactionId;
+import org.neo4j.storageengine.api.cursor.CursorType;
 import org.neo4j.storageengine.api.cursor.StoreCursors;
 import org.neo4j.storageengine.api.format.Index44Compatibility;
 import org.neo4j.storageengine.migration.AbstractStoreMigrationParticipant;
@@ -374,6 +384,9 @@ public class RecordStorageMigrator extends AbstractStoreMigrationParticipant {
                     propertyStoreSize / 2,
                     0 /*node labels left as 0 for now*/);
             importer.doImport(Input.input(nodes, relationships, IdType.ACTUAL, estimates, ReadableGroups.EMPTY));
+            if (requiresPropertyMigration) {
+                populateInlinedProperties(migrationDirectoryStructure, newFormat);
+            }
 
             // During migration the batch importer doesn't necessarily writes all entities, depending on
             // which stores needs migration. Node, relationship, relationship group stores are always written
@@ -413,6 +426,50 @@ public class RecordStorageMigrator extends AbstractStoreMigrationParticipant {
         }
     }
 
+    /**
+     * The importer writes node and relationship records without copies of their first property records, so for
+     * formats which inline those they are written here, now that both entity and property stores are in place.
+     */
+    private void populateInlinedProperties(RecordDatabaseLayout migrationStructure, RecordFormats newFormat)
+            throws IOException {
+        if (!(newFormat.node() instanceof InlinedPropertyRecordFormat)) {
+            return;
+        }
+        IdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory(
+                fileSystem, immediate(), pageCacheTracer, migrationStructure.getDatabaseName());
+        try (var cursorContext = contextFactory.create(RECORD_STORAGE_MIGRATION_TAG);
+                NeoStores stores = createStoreFactory(migrationStructure, newFormat, idGeneratorFactory)
+                        .openNeoStores(StoreType.NODE, StoreType.RELATIONSHIP, StoreType.PROPERTY);
+                var storeCursors = new CachedStoreCursors(stores, cursorContext)) {
+            var propertyStore = stores.getPropertyStore();
+            populateInlinedProperties(stores.getNodeStore(), propertyStore, NODE_CURSOR, storeCursors);
+            populateInlinedProperties(stores.getRelationshipStore(), propertyStore, RELATIONSHIP_CURSOR, storeCursors);
+            try (var databaseFlushEvent = pageCacheTracer.beginDatabaseFlush()) {
+                stores.flush(databaseFlushEvent, cursorContext);
+            }
+        }
+    }
+
+    private static <RECORD extends PrimitiveRecord> void populateInlinedProperties(
+            CommonAbstractStore<RECORD, ?> store,
+            PropertyStore propertyStore,
+            CursorType cursorType,
+            StoreCursors storeCursors) {
+        RECORD record = store.newRecord();
+        PropertyRecord property = propertyStore.newRecord();
+        long highId = store.getIdGenerator().getHighId();
+        try (var writeCursor = storeCursors.writeCursor(cursorType)) {
+            for (long id = 0; id < highId; id++) {
+                store.getRecordByCursor(id, record, CHECK, storeCursors.readCursor(cursorType));
+                if (record.inUse() && !Record.NO_NEXT_PROPERTY.is(record.getNextProp())) {
+                    propertyStore.getRecordByCursor(
+                            record.getNextProp(), property, CHECK, storeCursors.readCursor(PROPERTY_CURSOR));
+                    store.updateInlinedProperty(id, property, writeCursor);
+                }
+            }
+        }
+    }
+
     private static long storeSize(CommonAbstractStore<? extends AbstractBaseRecord, ? extends StoreHeader> store) {
         return store.getIdGenerator().getHighId() * store.getRecordSize();
     }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.io.pagecache.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.cursor.StoreCursors;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.utils.TestDirectory;
+
+@PageCacheExtension
+class GBPTreeNodePropertyCountsStoreTest {
+    private static final int LABEL_1 = 1;
+    private static final int LABEL_2 = 2;
+    private static final int KEY_1 = 5;
+    private static final int KEY_2 = 6;
+    private static final CursorContextFactory CONTEXT_FACTORY = new CursorContextFactory(PageCacheTracer.NULL, EMPTY);
+
+    @Inject
+    private TestDirectory directory;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private GBPTreeNodePropertyCountsStore countsStore;
+
+    @AfterEach
+    void closeCountsStore() {
+        countsStore.close();
+    }
+
+    @Test
+    void shouldUpdateAndReadSomeCounts() throws IOException {
+        // given
+        openCountsStore(rebuilder(BASE_TX_ID, updater -> {}));
+        long txId = BASE_TX_ID;
+        try (var updater = countsStore.apply(++txId, true, NULL_CONTEXT)) {
+            updater.increment(LABEL_1, KEY_1, 10);
+            updater.increment(LABEL_1, KEY_2, 3);
+            updater.increment(LABEL_2, KEY_1, 7);
+        }
+        try (var updater = countsStore.apply(++txId, true, NULL_CONTEXT)) {
+            updater.increment(LABEL_1, KEY_1, -4);
+            updater.increment(LABEL_2, KEY_1, 2);
+        }
+        countsStore.checkpoint(FileFlushEvent.NULL, NULL_CONTEXT);
+
+        // when/then
+        assertEquals(6, countsStore.nodePropertyCount(LABEL_1, KEY_1, NULL_CONTEXT));
+        assertEquals(3, countsStore.nodePropertyCount(LABEL_1, KEY_2, NULL_CONTEXT));
+        assertEquals(9, countsStore.nodePropertyCount(LABEL_2, KEY_1, NULL_CONTEXT));
+        assertEquals(0, countsStore.nodePropertyCount(LABEL_2, KEY_2, NULL_CONTEXT));
+    }
+
+    @Test
+    void shouldRebuildMissingStoreAndOnlyApplyLaterTransactions() throws IOException {
+        // given
+        long rebuiltAtTransactionId = 5;
+        openCountsStore(rebuilder(rebuiltAtTransactionId, updater -> {
+            updater.increment(LABEL_1, KEY_1, 10);
+            updater.increment(LABEL_2, KEY_2, 14);
+        }));
+        assertEquals(10, countsStore.nodePropertyCount(LABEL_1, KEY_1, NULL_CONTEXT));
+        assertEquals(14, countsStore.nodePropertyCount(LABEL_2, KEY_2, NULL_CONTEXT));
+
+        // when
+        try (var updater = countsStore.apply(rebuiltAtTransactionId, true, NULL_CONTEXT)) {
+            updater.increment(LABEL_1, KEY_1, 100);
+        }
+        try (var updater = countsStore.apply(rebuiltAtTransactionId + 1, true, NULL_CONTEXT)) {
+            updater.increment(LABEL_1, KEY_1, 1);
+        }
+
+        // then
+        assertEquals(11, countsStore.nodePropertyCount(LABEL_1, KEY_1, NULL_CONTEXT));
+    }
+
+    private void openCountsStore(GBPTreeNodePropertyCountsStore.NodePropertyCountsRebuilder rebuilder)
+            throws IOException {
+        countsStore = new GBPTreeNodePropertyCountsStore(
+                pageCache,
+                countsStoreFile(),
+                fs,
+                immediate(),
+                rebuilder,
+                false,
+                DEFAULT_DATABASE_NAME,
+                10,
+                NullLogProvider.getInstance(),
+                CONTEXT_FACTORY,
+                PageCacheTracer.NULL,
+                Sets.immutable.empty());
+        countsStore.start(NULL_CONTEXT, StoreCursors.NULL, INSTANCE);
+    }
+
+    private Path countsStoreFile() {
+        return directory.file("node-property-counts.db");
+    }
+
+    private static GBPTreeNodePropertyCountsStore.NodePropertyCountsRebuilder rebuilder(
+            long lastCommittedTxId, Rebuild rebuild) {
+        return new GBPTreeNodePropertyCountsStore.NodePropertyCountsRebuilder() {
+            @Override
+            public void rebuild(
+                    GBPTreeNodePropertyCountsStore.Updater updater,
+                    CursorContext cursorContext,
+                    MemoryTracker memoryTracker) {
+                rebuild.rebuild(updater);
+            }
+
+            @Override
+            public long lastCommittedTxId() {
+                return lastCommittedTxId;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Rebuild {
+        void rebuild(GBPTreeNodePropertyCountsStore.Updater updater);
+    }
+}
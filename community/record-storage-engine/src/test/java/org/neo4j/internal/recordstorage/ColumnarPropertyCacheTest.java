@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.recordstorage.ColumnarPropertyCache.CHUNK_BYTES;
+import static org.neo4j.internal.recordstorage.ColumnarPropertyCache.CHUNK_SIZE;
+import static org.neo4j.values.storable.Values.NO_VALUE;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryGroup;
+import org.neo4j.memory.MemoryPools;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.cursor.StoreCursors;
+import org.neo4j.test.LatestVersions;
+import org.neo4j.token.DelegatingTokenHolder;
+import org.neo4j.token.TokenCreator;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.token.api.TokenHolder;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+class ColumnarPropertyCacheTest {
+    private static final LogCommandSerialization LATEST_LOG_SERIALIZATION =
+            RecordStorageCommandReaderFactory.INSTANCE.get(LatestVersions.LATEST_KERNEL_VERSION);
+
+    private final LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+    private TokenHolders tokenHolders;
+    private int account;
+    private int balance;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AtomicInteger tokenIdCounter = new AtomicInteger();
+        TokenCreator tokenCreator = (name, internal) -> tokenIdCounter.incrementAndGet();
+        tokenHolders = new TokenHolders(
+                new DelegatingTokenHolder(tokenCreator, TokenHolder.TYPE_PROPERTY_KEY),
+                new DelegatingTokenHolder(tokenCreator, TokenHolder.TYPE_LABEL),
+                new DelegatingTokenHolder(tokenCreator, TokenHolder.TYPE_RELATIONSHIP_TYPE));
+        account = tokenHolders.labelTokens().getOrCreateId("Account");
+        balance = tokenHolders.propertyKeyTokens().getOrCreateId("balance");
+    }
+
+    @Test
+    void shouldKeepNumbersBooleansAndAbsenceWithTheirExactTypes() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES * 10);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        populate(cache, column, 1, Values.longValue(1L << 40));
+        populate(cache, column, 2, Values.intValue(-7));
+        populate(cache, column, 3, Values.doubleValue(0.5));
+        populate(cache, column, 4, Values.booleanValue(true));
+        populate(cache, column, 5, Values.byteValue((byte) 3));
+        populate(cache, column, 6, NO_VALUE);
+        populate(cache, column, 7, Values.stringValue("not cached"));
+
+        assertThat(cache.lookup(balance, 1)).isEqualTo(Values.longValue(1L << 40));
+        assertThat(cache.lookup(balance, 2)).isEqualTo(Values.intValue(-7)).isInstanceOf(Values.intValue(0).getClass());
+        assertThat(cache.lookup(balance, 3)).isEqualTo(Values.doubleValue(0.5));
+        assertThat(cache.lookup(balance, 4)).isEqualTo(Values.booleanValue(true));
+        assertThat(cache.lookup(balance, 5)).isEqualTo(Values.byteValue((byte) 3));
+        assertThat(cache.lookup(balance, 6)).isSameAs(NO_VALUE);
+        assertThat(cache.lookup(balance, 7)).isNull();
+        assertThat(cache.lookup(balance, 8)).isNull();
+        assertThat(cache.populations()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldOnlyUseColumnsOnceBothTokensExist() throws Exception {
+        ColumnarPropertyCache cache =
+                new ColumnarPropertyCache(Set.of("Account.balance", "Account.limit"), CHUNK_BYTES, memoryTracker);
+        cache.resolveColumns(tokenHolders);
+        assertThat(cache.hasColumns(balance)).isTrue();
+
+        int limit = tokenHolders.propertyKeyTokens().getOrCreateId("limit");
+        assertThat(cache.hasColumns(limit)).isFalse();
+        cache.resolveColumns(tokenHolders);
+        assertThat(cache.hasColumns(limit)).isTrue();
+    }
+
+    @Test
+    void shouldOnlyPickColumnForLabelOfNode() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES);
+        StorageNodeCursor nodeCursor = mock(StorageNodeCursor.class);
+
+        assertThat(cache.columnFor(balance, nodeCursor)).isNull();
+        when(nodeCursor.hasLabel(account)).thenReturn(true);
+        assertThat(cache.columnFor(balance, nodeCursor)).isNotNull();
+    }
+
+    @Test
+    void shouldNotKeepValuesReadWhileTransactionsAreApplied() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        // a transaction starts applying after the value was read
+        long stamp = cache.populationStamp();
+        cache.beginUpdates();
+        cache.populate(column, 1, Values.longValue(10), stamp);
+        assertThat(cache.lookup(balance, 1)).isNull();
+
+        // nothing read while a transaction is applying is kept
+        cache.populate(column, 1, Values.longValue(10), cache.populationStamp());
+        cache.endUpdates();
+        assertThat(cache.lookup(balance, 1)).isNull();
+
+        populate(cache, column, 1, Values.longValue(11));
+        assertThat(cache.lookup(balance, 1)).isEqualTo(Values.longValue(11));
+    }
+
+    @Test
+    void shouldInvalidateNodesChangedByAppliedCommands() throws Exception {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES);
+        ColumnarPropertyCache.Column column = column(cache);
+        populate(cache, column, 1, Values.longValue(1));
+        populate(cache, column, 2, Values.longValue(2));
+        populate(cache, column, 3, Values.longValue(3));
+
+        PropertyRecord property = new PropertyRecord(10);
+        property.setNodeId(2);
+        try (var applier = new CacheInvalidationTransactionApplier(
+                mock(NeoStores.class), null, mock(StoreCursors.class), cache)) {
+            applier.visitNodeCommand(new NodeCommand(LATEST_LOG_SERIALIZATION, new NodeRecord(1), new NodeRecord(1)));
+            applier.visitPropertyCommand(
+                    new PropertyCommand(LATEST_LOG_SERIALIZATION, new PropertyRecord(10), property));
+        }
+
+        assertThat(cache.lookup(balance, 1)).isNull();
+        assertThat(cache.lookup(balance, 2)).isNull();
+        assertThat(cache.lookup(balance, 3)).isEqualTo(Values.longValue(3));
+        assertThat(cache.populationStamp()).isNotEqualTo(-1);
+    }
+
+    @Test
+    void shouldStayWithinMaxSize() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        populate(cache, column, 1, Values.longValue(1));
+        populate(cache, column, CHUNK_SIZE + 1, Values.longValue(2));
+
+        assertThat(cache.lookup(balance, 1)).isEqualTo(Values.longValue(1));
+        assertThat(cache.lookup(balance, CHUNK_SIZE + 1)).isNull();
+        assertThat(cache.usedMemory()).isEqualTo(CHUNK_BYTES);
+    }
+
+    @Test
+    void shouldClearEntryOfValuePopulatedBeforeInvalidation() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        // the value is read and published before the transaction starts applying, then cleared when applied
+        long stamp = cache.populationStamp();
+        cache.populate(column, 1, Values.longValue(10), stamp);
+        cache.beginUpdates();
+        cache.invalidateNode(1);
+        // a value read before the transaction must not be published once it has started applying
+        cache.populate(column, 1, Values.longValue(10), stamp);
+        cache.endUpdates();
+
+        assertThat(cache.lookup(balance, 1)).isNull();
+        assertThat(cache.populations()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAccountForColumnMemoryInMemoryTracker() {
+        ColumnarPropertyCache cache = resolvedCache(CHUNK_BYTES * 10);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        populate(cache, column, 1, Values.longValue(1));
+        populate(cache, column, CHUNK_SIZE + 1, Values.longValue(2));
+        assertThat(memoryTracker.estimatedHeapMemory()).isEqualTo(2 * CHUNK_BYTES);
+
+        cache.close();
+        assertThat(memoryTracker.estimatedHeapMemory()).isZero();
+    }
+
+    @Test
+    void shouldNotGrowPastLimitOfMemoryPool() {
+        var pool = new MemoryPools().pool(MemoryGroup.OTHER, CHUNK_BYTES + CHUNK_BYTES / 2, null);
+        ColumnarPropertyCache cache =
+                new ColumnarPropertyCache(Set.of("Account.balance"), CHUNK_BYTES * 10, pool.getPoolMemoryTracker());
+        cache.resolveColumns(tokenHolders);
+        ColumnarPropertyCache.Column column = column(cache);
+
+        populate(cache, column, 1, Values.longValue(1));
+        populate(cache, column, CHUNK_SIZE + 1, Values.longValue(2));
+
+        assertThat(cache.lookup(balance, 1)).isEqualTo(Values.longValue(1));
+        assertThat(cache.lookup(balance, CHUNK_SIZE + 1)).isNull();
+        assertThat(cache.usedMemory()).isEqualTo(CHUNK_BYTES);
+    }
+
+    @Test
+    void shouldRejectMalformedColumnNames() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ColumnarPropertyCache(Set.of("balance"), CHUNK_BYTES, memoryTracker));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ColumnarPropertyCache(Set.of("Account."), CHUNK_BYTES, memoryTracker));
+    }
+
+    private ColumnarPropertyCache resolvedCache(long maxSize) {
+        ColumnarPropertyCache cache = new ColumnarPropertyCache(Set.of("Account.balance"), maxSize, memoryTracker);
+        cache.resolveColumns(tokenHolders);
+        return cache;
+    }
+
+    private ColumnarPropertyCache.Column column(ColumnarPropertyCache cache) {
+        StorageNodeCursor nodeCursor = mock(StorageNodeCursor.class);
+        when(nodeCursor.hasLabel(account)).thenReturn(true);
+        return cache.columnFor(balance, nodeCursor);
+    }
+
+    private static void populate(
+            ColumnarPropertyCache cache, ColumnarPropertyCache.Column column, long nodeId, Value value) {
+        cache.populate(column, nodeId, value, cache.populationStamp());
+    }
+}
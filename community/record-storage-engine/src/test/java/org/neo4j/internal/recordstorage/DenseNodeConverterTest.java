@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.counts.GBPTreeGenericCountsStore.NO_MONITOR;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+import static org.neo4j.storageengine.api.RelationshipSelection.ALL_RELATIONSHIPS;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+import java.io.IOException;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.internal.counts.DegreeUpdater;
+import org.neo4j.internal.counts.GBPTreeRelationshipGroupDegreesStore;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.util.EagerDegrees;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class DenseNodeConverterTest {
+    private static final long NODE = 0;
+    private static final int NUMBER_OF_NODES = 4;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private DefaultIdGeneratorFactory idGeneratorFactory;
+    private NeoStores neoStores;
+    private GBPTreeRelationshipGroupDegreesStore degreesStore;
+    private CachedStoreCursors storeCursors;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var pageCacheTracer = PageCacheTracer.NULL;
+        idGeneratorFactory = new DefaultIdGeneratorFactory(
+                fileSystem, immediate(), pageCacheTracer, databaseLayout.getDatabaseName());
+        var factory = new StoreFactory(
+                databaseLayout,
+                Config.defaults(),
+                idGeneratorFactory,
+                pageCache,
+                pageCacheTracer,
+                fileSystem,
+                PageAligned.LATEST_RECORD_FORMATS,
+                NullLogProvider.getInstance(),
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                false,
+                LogTailLogVersionsMetadata.EMPTY_LOG_TAIL,
+                Sets.immutable.empty());
+        neoStores = factory.openAllNeoStores();
+        storeCursors = new CachedStoreCursors(neoStores, NULL_CONTEXT);
+        degreesStore = new GBPTreeRelationshipGroupDegreesStore(
+                pageCache,
+                databaseLayout.file("degrees.db"),
+                fileSystem,
+                immediate(),
+                new GBPTreeRelationshipGroupDegreesStore.EmptyDegreesRebuilder(BASE_TX_ID),
+                false,
+                NO_MONITOR,
+                DEFAULT_DATABASE_NAME,
+                10,
+                NullLogProvider.getInstance(),
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                pageCacheTracer,
+                Sets.immutable.empty());
+        degreesStore.start(NULL_CONTEXT, storeCursors, INSTANCE);
+        for (long node = 0; node < NUMBER_OF_NODES; node++) {
+            createNode(node);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        degreesStore.close();
+        storeCursors.close();
+        neoStores.close();
+    }
+
+    @Test
+    void shouldConvertSparseNodeWithHighDegreeToDense() throws IOException {
+        MutableLongSet relationships = createRelationships(100, 100, new long[][] {
+            {0, NODE, 1}, {1, NODE, 2}, {0, 2, NODE}, {1, NODE, NODE}, {0, NODE, 3}
+        });
+        EagerDegrees degreesBefore = degrees(NODE);
+
+        var report = converter(4, 2).convert(LongLists.immutable.of(NODE));
+
+        assertEquals(1, report.convertedToDense());
+        assertEquals(0, report.convertedToSparse());
+        assertEquals(5, report.relinkedRelationships());
+        assertTrue(node(NODE).isDense());
+        assertThat(relationships(NODE)).isEqualTo(relationships);
+        assertDegrees(degreesBefore, degrees(NODE));
+    }
+
+    @Test
+    void shouldConvertDenseNodeWithLowDegreeToSparse() throws IOException {
+        // An external degrees threshold of 1 moves the degrees of all groups with more than one relationship to the
+        // degrees store
+        MutableLongSet relationships = createRelationships(1, 1, new long[][] {
+            {0, NODE, 1}, {0, NODE, 2}, {0, 3, NODE}, {1, NODE, NODE}, {2, NODE, 1}
+        });
+        NodeRecord dense = node(NODE);
+        assertTrue(dense.isDense());
+        long firstGroup = dense.getNextRel();
+        EagerDegrees degreesBefore = degrees(NODE);
+
+        var report = converter(10, 6).convert(LongLists.immutable.of(NODE));
+
+        assertEquals(0, report.convertedToDense());
+        assertEquals(1, report.convertedToSparse());
+        assertEquals(5, report.relinkedRelationships());
+        assertFalse(node(NODE).isDense());
+        assertThat(relationships(NODE)).isEqualTo(relationships);
+        assertDegrees(degreesBefore, degrees(NODE));
+
+        var groupStore = neoStores.getRelationshipGroupStore();
+        RelationshipGroupRecord group = groupStore.getRecordByCursor(
+                firstGroup, groupStore.newRecord(), CHECK, storeCursors.readCursor(RecordCursorTypes.GROUP_CURSOR));
+        assertFalse(group.inUse());
+        assertEquals(0, degreesStore.degree(firstGroup, OUTGOING, NULL_CONTEXT));
+    }
+
+    @Test
+    void shouldKeepOtherEndsOfConvertedRelationshipsIntact() throws IOException {
+        createRelationships(100, 100, new long[][] {{0, NODE, 1}, {0, 1, NODE}, {1, NODE, 1}, {0, 1, 2}});
+        MutableLongSet otherNodeRelationships = relationships(1);
+
+        converter(3, 1).convert(LongLists.immutable.of(NODE));
+        assertThat(relationships(1)).isEqualTo(otherNodeRelationships);
+
+        converter(10, 4).convert(LongLists.immutable.of(NODE));
+        assertFalse(node(NODE).isDense());
+        assertThat(relationships(1)).isEqualTo(otherNodeRelationships);
+    }
+
+    @Test
+    void shouldLeaveNodesWithinThresholdsAndUnusedNodesAlone() throws IOException {
+        createRelationships(100, 100, new long[][] {{0, NODE, 1}, {0, NODE, 2}});
+        long unused = NUMBER_OF_NODES + 10;
+
+        var report = converter(3, 1).convert(LongLists.immutable.of(NODE, 1, unused));
+
+        assertEquals(0, report.convertedToDense());
+        assertEquals(0, report.convertedToSparse());
+        assertFalse(node(NODE).isDense());
+    }
+
+    @Test
+    void shouldRequireSparseThresholdBelowDenseThreshold() {
+        assertThatThrownBy(() -> converter(10, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private DenseNodeConverter converter(int denseNodeThreshold, int sparseNodeThreshold) {
+        return new DenseNodeConverter(
+                neoStores,
+                idGeneratorFactory,
+                degreesStore,
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                ProgressMonitorFactory.NONE,
+                denseNodeThreshold,
+                sparseNodeThreshold);
+    }
+
+    /**
+     * @param relationships {type, start node, end node} of each relationship to create.
+     */
+    private MutableLongSet createRelationships(
+            int denseNodeThreshold, long externalDegreesThreshold, long[][] relationships) throws IOException {
+        MutableLongSet ids = LongSets.mutable.empty();
+        try (var recordChanges = new DirectRecordAccessSet(neoStores, idGeneratorFactory, NULL_CONTEXT);
+                DegreeUpdater degreeUpdater = degreesStore.directApply(true, NULL_CONTEXT)) {
+            var groupGetter =
+                    new RelationshipGroupGetter(neoStores.getRelationshipGroupStore().getIdGenerator(), NULL_CONTEXT);
+            var creator = new RelationshipCreator(denseNodeThreshold, externalDegreesThreshold, NULL_CONTEXT);
+            var nodeDataLookup = new RelationshipCreator.InsertFirst(groupGetter, recordChanges, NULL_CONTEXT);
+            for (long[] relationship : relationships) {
+                long id = neoStores.getRelationshipStore().getIdGenerator().nextId(NULL_CONTEXT);
+                creator.relationshipCreate(
+                        id,
+                        (int) relationship[0],
+                        relationship[1],
+                        relationship[2],
+                        recordChanges,
+                        degreeUpdater,
+                        nodeDataLookup);
+                if (relationship[1] == NODE || relationship[2] == NODE) {
+                    ids.add(id);
+                }
+            }
+            recordChanges.commit();
+        }
+        return ids;
+    }
+
+    private void createNode(long id) {
+        var nodeStore = neoStores.getNodeStore();
+        nodeStore.getIdGenerator().setHighId(Math.max(nodeStore.getIdGenerator().getHighId(), id + 1));
+        try (PageCursor cursor = nodeStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            nodeStore.updateRecord(
+                    new NodeRecord(id)
+                            .initialize(true, NO_NEXT_PROPERTY.longValue(), false, NO_NEXT_RELATIONSHIP.longValue(), 0),
+                    cursor,
+                    NULL_CONTEXT,
+                    storeCursors);
+        }
+    }
+
+    private NodeRecord node(long id) {
+        var nodeStore = neoStores.getNodeStore();
+        return nodeStore.getRecordByCursor(
+                id, nodeStore.newRecord(), CHECK, storeCursors.readCursor(RecordCursorTypes.NODE_CURSOR));
+    }
+
+    private RecordNodeCursor nodeCursor(long nodeId) {
+        var nodeCursor = new RecordNodeCursor(
+                neoStores.getNodeStore(),
+                neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(),
+                degreesStore,
+                NULL_CONTEXT,
+                storeCursors);
+        nodeCursor.single(nodeId);
+        assertTrue(nodeCursor.next());
+        return nodeCursor;
+    }
+
+    private MutableLongSet relationships(long nodeId) {
+        MutableLongSet ids = LongSets.mutable.empty();
+        try (var nodeCursor = nodeCursor(nodeId);
+                var relationshipCursor = new RecordRelationshipTraversalCursor(
+                        neoStores.getRelationshipStore(),
+                        neoStores.getRelationshipGroupStore(),
+                        degreesStore,
+                        NULL_CONTEXT,
+                        storeCursors)) {
+            nodeCursor.relationships(relationshipCursor, ALL_RELATIONSHIPS);
+            while (relationshipCursor.next()) {
+                assertTrue(ids.add(relationshipCursor.entityReference()));
+            }
+        }
+        return ids;
+    }
+
+    private EagerDegrees degrees(long nodeId) {
+        EagerDegrees degrees = new EagerDegrees();
+        try (var nodeCursor = nodeCursor(nodeId)) {
+            nodeCursor.degrees(ALL_RELATIONSHIPS, degrees);
+        }
+        return degrees;
+    }
+
+    private static void assertDegrees(EagerDegrees expected, EagerDegrees actual) {
+        assertThat(actual.types()).containsExactlyInAnyOrder(expected.types());
+        for (int type : expected.types()) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(expected.degree(type, direction), actual.degree(type, direction));
+            }
+        }
+    }
+}
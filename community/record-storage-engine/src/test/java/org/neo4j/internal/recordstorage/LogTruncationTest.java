@@ -23,6 +23,7 @@ import static java.lang.reflect.Modifier.isAbstract;
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.kernel.KernelVersion.VERSION_NODE_PROPERTY_COUNTS_INTRODUCED;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -59,6 +60,8 @@ class LogTruncationTest {
     private final InMemoryClosableChannel inMemoryChannel = new InMemoryClosableChannel();
     private final LogCommandSerialization serialization =
             RecordStorageCommandReaderFactory.INSTANCE.get(LatestVersions.LATEST_KERNEL_VERSION);
+    private final LogCommandSerialization nodePropertyCountsSerialization =
+            RecordStorageCommandReaderFactory.INSTANCE.get(VERSION_NODE_PROPERTY_COUNTS_INTRODUCED);
     /** Stores all known commands, and an arbitrary set of different permutations for them */
     private final Map<Class<?>, Command[]> permutations = new HashMap<>();
 
@@ -120,6 +123,9 @@ class LogTruncationTest {
         permutations.put(
                 RelationshipCountsCommand.class,
                 new Command[] {new RelationshipCountsCommand(serialization, 17, 2, 13, -2)});
+        permutations.put(
+                Command.NodePropertyCountsCommand.class,
+                new Command[] {new Command.NodePropertyCountsCommand(nodePropertyCountsSerialization, 42, 7, -3)});
         permutations.put(
                 Command.GroupDegreeCommand.class,
                 new Command[] {new Command.GroupDegreeCommand(serialization, 42, RelationshipDirection.OUTGOING, 1)});
@@ -159,7 +165,7 @@ class LogTruncationTest {
         cmd.serialize(inMemoryChannel);
         int bytesSuccessfullyWritten = inMemoryChannel.writerPosition();
         try {
-            StorageCommand command = serialization.read(inMemoryChannel);
+            StorageCommand command = cmd.serialization.read(inMemoryChannel);
             assertEquals(cmd, command);
         } catch (Exception e) {
             throw new AssertionError("Failed to deserialize " + cmd + ", because: ", e);
@@ -171,7 +177,7 @@ class LogTruncationTest {
             inMemoryChannel.truncateTo(bytesSuccessfullyWritten);
             StorageCommand command = null;
             try {
-                command = serialization.read(inMemoryChannel);
+                command = cmd.serialization.read(inMemoryChannel);
             } catch (ReadPastEndException e) {
                 assertNull(
                         command,
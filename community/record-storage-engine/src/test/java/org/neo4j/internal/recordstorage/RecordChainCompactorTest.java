@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.Record.NO_PREVIOUS_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+import java.util.List;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.values.storable.Values;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class RecordChainCompactorTest {
+    private static final long NODE = 0;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private NeoStores neoStores;
+    private CachedStoreCursors storeCursors;
+    private RecordChainCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        var pageCacheTracer = PageCacheTracer.NULL;
+        var factory = new StoreFactory(
+                databaseLayout,
+                Config.defaults(),
+                new DefaultIdGeneratorFactory(
+                        fileSystem, immediate(), pageCacheTracer, databaseLayout.getDatabaseName()),
+                pageCache,
+                pageCacheTracer,
+                fileSystem,
+                PageAligned.LATEST_RECORD_FORMATS,
+                NullLogProvider.getInstance(),
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                false,
+                LogTailLogVersionsMetadata.EMPTY_LOG_TAIL,
+                Sets.immutable.empty());
+        neoStores = factory.openAllNeoStores();
+        storeCursors = new CachedStoreCursors(neoStores, NULL_CONTEXT);
+        compactor = new RecordChainCompactor(
+                neoStores,
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                IOController.DISABLED,
+                ProgressMonitorFactory.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storeCursors.close();
+        neoStores.close();
+    }
+
+    @Test
+    void shouldRewriteScatteredPropertyChainIntoContiguousRecords() {
+        int recordsPerPage = neoStores.getPropertyStore().getRecordsPerPage();
+        long[] scattered = {0, recordsPerPage * 2L, recordsPerPage * 5L};
+        createNodeWithPropertyChain(scattered);
+
+        var report = compactor.compact(LongLists.immutable.of(NODE));
+
+        assertEquals(1, report.compactedPropertyChains());
+        assertEquals(3, report.propertyChainsBefore().pages());
+        assertEquals(1, report.propertyChainsAfter().pages());
+        assertEquals(1, report.propertyChainsAfter().minimumPages());
+
+        List<PropertyRecord> chain = propertyChain();
+        assertThat(chain).hasSize(3);
+        for (int i = 0; i < chain.size(); i++) {
+            PropertyRecord record = chain.get(i);
+            assertEquals(chain.get(0).getId() + i, record.getId());
+            PropertyBlock block = record.iterator().next();
+            assertEquals(i, block.getKeyIndexId());
+            assertEquals(Values.intValue(i), block.newPropertyValue(neoStores.getPropertyStore(), storeCursors));
+        }
+        for (long oldId : scattered) {
+            assertFalse(neoStores.getPropertyStore().getRecordByCursor(
+                            oldId,
+                            new PropertyRecord(oldId),
+                            CHECK,
+                            storeCursors.readCursor(RecordCursorTypes.PROPERTY_CURSOR))
+                    .inUse());
+        }
+    }
+
+    @Test
+    void shouldMarkIdsOfRewrittenChainAsUsed() {
+        int recordsPerPage = neoStores.getPropertyStore().getRecordsPerPage();
+        createNodeWithPropertyChain(new long[] {0, recordsPerPage * 2L, recordsPerPage * 5L});
+
+        compactor.compact(LongLists.immutable.of(NODE));
+        long firstId = propertyChain().get(0).getId();
+
+        // Writing a record further up bridges the gap to it, and would free any id in between not marked as used
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        IdGenerator idGenerator = propertyStore.getIdGenerator();
+        PropertyRecord later = new PropertyRecord(idGenerator.nextId(NULL_CONTEXT));
+        later.initialize(true, NO_PREVIOUS_PROPERTY.longValue(), NO_NEXT_PROPERTY.longValue());
+        later.setCreated();
+        try (PageCursor cursor = propertyStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            propertyStore.updateRecord(later, cursor, NULL_CONTEXT, storeCursors);
+        }
+        idGenerator.maintenance(NULL_CONTEXT);
+
+        for (int i = 0; i < recordsPerPage * 6; i++) {
+            assertThat(idGenerator.nextId(NULL_CONTEXT)).isNotIn(firstId, firstId + 1, firstId + 2);
+        }
+    }
+
+    @Test
+    void shouldLeaveContiguousPropertyChainsAlone() {
+        createNodeWithPropertyChain(new long[] {10, 11, 12});
+
+        var report = compactor.compact(LongLists.immutable.of(NODE));
+
+        assertEquals(0, report.compactedPropertyChains());
+        assertThat(propertyChain()).extracting(PropertyRecord::getId).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    void shouldReportPagesPerRelationshipChainWithoutMovingRelationships() {
+        int recordsPerPage = neoStores.getRelationshipStore().getRecordsPerPage();
+        long first = 0;
+        long second = recordsPerPage * 3L;
+        createNode(NODE, NO_NEXT_PROPERTY.longValue(), first);
+        createNode(1, NO_NEXT_PROPERTY.longValue(), first);
+        createNode(2, NO_NEXT_PROPERTY.longValue(), second);
+        createRelationship(first, 1, 2, second, true);
+        createRelationship(second, 2, 0, NO_NEXT_RELATIONSHIP.longValue(), false);
+
+        var report = compactor.analyze(LongLists.immutable.of(NODE));
+
+        assertEquals(1, report.relationshipChains().chains());
+        assertEquals(2, report.relationshipChains().records());
+        assertEquals(2, report.relationshipChains().pages());
+        assertEquals(1, report.relationshipChains().minimumPages());
+        assertEquals(2.0, report.relationshipChains().pagesPerChain());
+    }
+
+    private void createNodeWithPropertyChain(long[] propertyIds) {
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        propertyStore.getIdGenerator().setHighId(propertyIds[propertyIds.length - 1] + 1);
+        try (PageCursor cursor = propertyStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            for (int i = 0; i < propertyIds.length; i++) {
+                PropertyRecord record = new PropertyRecord(propertyIds[i]);
+                record.initialize(
+                        true,
+                        i == 0 ? NO_PREVIOUS_PROPERTY.longValue() : propertyIds[i - 1],
+                        i == propertyIds.length - 1 ? NO_NEXT_PROPERTY.longValue() : propertyIds[i + 1]);
+                record.setNodeId(NODE);
+                PropertyBlock block = new PropertyBlock();
+                PropertyStore.encodeValue(block, i, Values.intValue(i), null, null, NULL_CONTEXT, INSTANCE);
+                record.addPropertyBlock(block);
+                propertyStore.updateRecord(record, cursor, NULL_CONTEXT, storeCursors);
+            }
+        }
+        createNode(NODE, propertyIds[0], NO_NEXT_RELATIONSHIP.longValue());
+    }
+
+    private void createNode(long id, long nextProp, long nextRel) {
+        var nodeStore = neoStores.getNodeStore();
+        nodeStore.getIdGenerator().setHighId(Math.max(nodeStore.getIdGenerator().getHighId(), id + 1));
+        try (PageCursor cursor = nodeStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            nodeStore.updateRecord(
+                    new NodeRecord(id).initialize(true, nextProp, false, nextRel, 0),
+                    cursor,
+                    NULL_CONTEXT,
+                    storeCursors);
+        }
+    }
+
+    private void createRelationship(long id, long otherNode, long degree, long nextRel, boolean firstInChain) {
+        var relationshipStore = neoStores.getRelationshipStore();
+        try (PageCursor cursor = relationshipStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            relationshipStore.updateRecord(
+                    new RelationshipRecord(id)
+                            .initialize(
+                                    true,
+                                    NO_NEXT_PROPERTY.longValue(),
+                                    NODE,
+                                    otherNode,
+                                    0,
+                                    firstInChain ? degree : 0,
+                                    nextRel,
+                                    1,
+                                    NO_NEXT_RELATIONSHIP.longValue(),
+                                    firstInChain,
+                                    true),
+                    cursor,
+                    NULL_CONTEXT,
+                    storeCursors);
+        }
+    }
+
+    private List<PropertyRecord> propertyChain() {
+        NodeRecord node = neoStores.getNodeStore()
+                .getRecordByCursor(
+                        NODE,
+                        neoStores.getNodeStore().newRecord(),
+                        NORMAL,
+                        storeCursors.readCursor(RecordCursorTypes.NODE_CURSOR));
+        return neoStores.getPropertyStore()
+                .getRecords(
+                        node.getNextProp(),
+                        NORMAL,
+                        true,
+                        storeCursors.readCursor(RecordCursorTypes.PROPERTY_CURSOR));
+    }
+}
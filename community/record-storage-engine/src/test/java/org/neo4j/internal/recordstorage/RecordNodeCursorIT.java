@@ -27,10 +27,14 @@ import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
 import static org.neo4j.io.pagecache.context.EmptyVersionContextSupplier.EMPTY;
 import static org.neo4j.kernel.impl.store.StoreType.NODE_LABEL;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.LongReference.NULL_REFERENCE;
 
 import java.util.stream.LongStream;
+import org.apache.commons.lang3.ArrayUtils;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongObjectMaps;
 import org.eclipse.collections.impl.factory.primitive.LongSets;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -56,6 +60,7 @@ import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.NodeBatch;
 import org.neo4j.test.RandomSupport;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.RandomExtension;
@@ -154,6 +159,44 @@ class RecordNodeCursorIT {
         }
     }
 
+    @Test
+    void shouldDecodeLabelsOfEachScannedNode() {
+        // given nodes with both inlined and dynamic labels
+        MutableLongObjectMap<long[]> labelsById = LongObjectMaps.mutable.empty();
+        for (int i = 0, n = random.nextInt(10, 30); i < n; i++) {
+            MutableLongSet labels = LongSets.mutable.empty();
+            long nodeId = createNodeWithRandomLabels(labels);
+            labelsById.put(nodeId, labels.toSortedArray());
+        }
+
+        try (var nodes = new RecordNodeCursor(
+                nodeStore,
+                neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(),
+                null,
+                NULL_CONTEXT,
+                storeCursors)) {
+            // when
+            var found = LongSets.mutable.empty();
+            nodes.scan();
+            while (nodes.next()) {
+                long[] expected = labelsById.get(nodes.entityReference());
+                found.add(nodes.entityReference());
+
+                // then labels are the same no matter how, or how often, they are asked for
+                int someLabel = random.nextInt(HIGH_LABEL_ID);
+                assertThat(nodes.hasLabel(someLabel)).isEqualTo(ArrayUtils.contains(expected, someLabel));
+                assertThat(nodes.labels()).isEqualTo(expected);
+                assertThat(nodes.labels()).isEqualTo(expected);
+                for (long label : expected) {
+                    assertThat(nodes.hasLabel((int) label)).isTrue();
+                }
+                assertThat(nodes.hasLabel(someLabel)).isEqualTo(ArrayUtils.contains(expected, someLabel));
+            }
+            assertThat(found).isEqualTo(labelsById.keySet());
+        }
+    }
+
     @Test
     void shouldExhaustNodesWithBatches() {
         final var ids = createNodes(random.nextInt(23, 42));
@@ -190,6 +233,49 @@ class RecordNodeCursorIT {
         }
     }
 
+    @Test
+    void shouldFillNodeBatchesWithAllNodesOfScan() {
+        // given
+        MutableLongObjectMap<long[]> labelsById = LongObjectMaps.mutable.empty();
+        for (int i = 0, n = random.nextInt(20, 60); i < n; i++) {
+            MutableLongSet labels = LongSets.mutable.empty();
+            long nodeId = createNodeWithRandomLabels(labels, 5);
+            labelsById.put(nodeId, labels.toSortedArray());
+        }
+
+        try (var nodes = new RecordNodeCursor(
+                nodeStore,
+                neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(),
+                null,
+                NULL_CONTEXT,
+                storeCursors)) {
+            // when
+            var batch = new NodeBatch(7);
+            var rows = new int[batch.capacity()];
+            var found = LongSets.mutable.empty();
+            var withLabel = LongSets.mutable.empty();
+            nodes.scan();
+            while (nodes.nextBatch(batch) > 0) {
+                assertThat(batch.size()).isLessThanOrEqualTo(batch.capacity());
+                for (int row = 0; row < batch.size(); row++) {
+                    long nodeId = batch.ids()[row];
+                    assertThat(found.add(nodeId)).isTrue();
+                    assertThat(batch.labels(row)).isEqualTo(labelsById.get(nodeId));
+                    assertThat(batch.propertiesReference(row)).isEqualTo(NULL_REFERENCE);
+                }
+                for (int i = 0, selected = batch.selectWithLabel(1, rows); i < selected; i++) {
+                    withLabel.add(batch.ids()[rows[i]]);
+                }
+            }
+
+            // then
+            assertThat(found).isEqualTo(labelsById.keySet());
+            assertThat(withLabel)
+                    .isEqualTo(labelsById.keySet().select(id -> ArrayUtils.contains(labelsById.get(id), 1L)));
+        }
+    }
+
     @ValueSource(booleans = {true, false})
     @ParameterizedTest
     void shouldCorrectlySupportFastDegreeLookup(boolean dense) {
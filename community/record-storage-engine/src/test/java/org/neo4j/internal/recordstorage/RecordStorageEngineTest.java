@@ -159,6 +159,8 @@ class RecordStorageEngineTest {
         // then
         Set<Path> allPossibleFiles = new HashSet<>(databaseLayout.storeFiles());
         allPossibleFiles.remove(databaseLayout.indexStatisticsStore());
+        allPossibleFiles.remove(databaseLayout.relationshipNeighboursStore());
+        allPossibleFiles.remove(databaseLayout.nodePropertyCountsStore());
 
         assertEquals(allPossibleFiles, currentFiles);
         assertThat(atomicFiles.stream().map(StoreFileMetadata::path).collect(Collectors.toSet()))
@@ -320,6 +322,12 @@ class RecordStorageEngineTest {
                     return transactionApplier.visitGroupDegreeCommand(command);
                 }
 
+                @Override
+                public boolean visitNodePropertyCountsCommand(Command.NodePropertyCountsCommand command)
+                        throws IOException {
+                    return transactionApplier.visitNodePropertyCountsCommand(command);
+                }
+
                 @Override
                 public void close() throws Exception {
                     applierCloseCall.accept(true);
@@ -60,6 +60,7 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.storageengine.api.cursor.StoreCursors;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
+import org.neo4j.test.scheduler.CallingThreadJobScheduler;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 
@@ -87,6 +88,7 @@ public class RecordStorageEngineTestUtils {
                 mock(DatabaseHealth.class),
                 new DefaultIdGeneratorFactory(fs, immediate(), cacheTracer, DEFAULT_DATABASE_NAME),
                 immediate(),
+                new CallingThreadJobScheduler(),
                 EmptyMemoryTracker.INSTANCE,
                 emptyLogTailMetadata,
                 new MetadataCache(emptyLogTailMetadata),
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.storageengine.api.RelationshipSelection.ALL_RELATIONSHIPS;
+import static org.neo4j.storageengine.api.RelationshipSelection.selection;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.recordstorage.RecordDatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.FileFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.RelationshipSelection;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class RelationshipNeighbourIndexTest {
+    private static final Config ENABLED =
+            Config.defaults(GraphDatabaseInternalSettings.relationship_neighbour_index_enabled, true);
+    private static final int KNOWS = 0;
+    private static final int LIKES = 1;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private RecordDatabaseLayout databaseLayout;
+
+    private final ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler();
+    private NeoStores neoStores;
+    private CachedStoreCursors storeCursors;
+    private RelationshipNeighbourIndex index;
+
+    @BeforeEach
+    void setUp() {
+        var pageCacheTracer = PageCacheTracer.NULL;
+        var idGeneratorFactory = new DefaultIdGeneratorFactory(
+                fileSystem, immediate(), pageCacheTracer, databaseLayout.getDatabaseName());
+        var factory = new StoreFactory(
+                databaseLayout,
+                Config.defaults(),
+                idGeneratorFactory,
+                pageCache,
+                pageCacheTracer,
+                fileSystem,
+                PageAligned.LATEST_RECORD_FORMATS,
+                NullLogProvider.getInstance(),
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                false,
+                LogTailLogVersionsMetadata.EMPTY_LOG_TAIL,
+                Sets.immutable.empty());
+        neoStores = factory.openAllNeoStores();
+        storeCursors = new CachedStoreCursors(neoStores, NULL_CONTEXT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) {
+            index.close();
+        }
+        storeCursors.close();
+        neoStores.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldBuildFromRelationshipStoreOnFirstStart() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        createRelationship(1, 1, 0, LIKES);
+        createRelationship(2, 0, 2, KNOWS);
+        createRelationship(3, 0, 0, KNOWS);
+        createRelationship(4, 0, 1, LIKES);
+        deleteRelationship(4);
+
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+
+        assertThat(relationships(0, 1, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(0, 1));
+        assertThat(relationships(1, 0, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(0, 1));
+        assertThat(relationships(0, 2, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(2));
+        assertThat(relationships(0, 0, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(3));
+        assertThat(relationships(1, 2, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.empty());
+    }
+
+    @Test
+    void shouldSelectTypesAndDirectionsRelativeToNode() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        createRelationship(1, 1, 0, KNOWS);
+        createRelationship(2, 0, 1, LIKES);
+
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+
+        assertThat(relationships(0, 1, selection(KNOWS, Direction.OUTGOING))).isEqualTo(LongLists.immutable.of(0));
+        assertThat(relationships(0, 1, selection(KNOWS, Direction.INCOMING))).isEqualTo(LongLists.immutable.of(1));
+        assertThat(relationships(1, 0, selection(Direction.INCOMING))).isEqualTo(LongLists.immutable.of(0, 2));
+        assertThat(relationships(0, 1, selection(LIKES, Direction.BOTH))).isEqualTo(LongLists.immutable.of(2));
+    }
+
+    @Test
+    void shouldKeepUpdatesOverCheckpointAndRestart() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+
+        try (var updater = index.updater(NULL_CONTEXT)) {
+            updater.add(relationshipRecord(1, 0, 1, LIKES));
+            updater.remove(relationshipRecord(0, 0, 1, KNOWS));
+        }
+        index.checkpoint(FileFlushEvent.NULL, NULL_CONTEXT);
+        index.close();
+
+        // The store itself doesn't have these changes, so a rebuild would lose them
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+        assertThat(relationships(0, 1, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(1));
+        assertThat(relationships(1, 0, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(1));
+    }
+
+    @Test
+    void shouldOnlyBeReadyOnceBuilt() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        index = openIndex(ENABLED);
+        assertThat(index.isReady()).isFalse();
+
+        startAndAwaitBuild();
+        index.checkpoint(FileFlushEvent.NULL, NULL_CONTEXT);
+        index.close();
+
+        index = openIndex(ENABLED);
+        assertThat(index.isReady()).isTrue();
+        assertThat(relationships(0, 1, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(0));
+    }
+
+    @Test
+    void shouldDeleteIndexFileWhenDisabled() throws Exception {
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+        index.close();
+        assertThat(fileSystem.fileExists(databaseLayout.relationshipNeighboursStore()))
+                .isTrue();
+
+        index = openIndex(Config.defaults());
+        assertThat(index).isNull();
+        assertThat(fileSystem.fileExists(databaseLayout.relationshipNeighboursStore()))
+                .isFalse();
+    }
+
+    @Test
+    void shouldTraverseRelationshipsToNeighbourSkippingStaleEntries() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        createRelationship(1, 1, 0, LIKES);
+        createRelationship(2, 0, 2, KNOWS);
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+        // Deleted, and its id reused for a relationship between other nodes, without the index knowing about it
+        createRelationship(1, 2, 3, LIKES);
+
+        try (var cursor = new RecordRelationshipTraversalCursor(
+                neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(),
+                null,
+                index,
+                NULL_CONTEXT,
+                storeCursors)) {
+            cursor.initNeighbour(0, 1, ALL_RELATIONSHIPS);
+            MutableLongList found = LongLists.mutable.empty();
+            while (cursor.next()) {
+                assertThat(cursor.originNodeReference()).isEqualTo(0);
+                assertThat(cursor.neighbourNodeReference()).isEqualTo(1);
+                found.add(cursor.entityReference());
+            }
+            assertThat(found).isEqualTo(LongLists.immutable.of(0));
+        }
+    }
+
+    @Test
+    void shouldTraverseRelationshipWithStaleEntryForSameNeighbourOnlyOnce() throws Exception {
+        createRelationship(0, 0, 1, KNOWS);
+        index = openIndex(ENABLED);
+        startAndAwaitBuild();
+        // Deleted while the index was being built, and its id reused for another relationship between the same nodes
+        createRelationship(0, 0, 1, LIKES);
+        try (var updater = index.updater(NULL_CONTEXT)) {
+            updater.add(relationshipRecord(0, 0, 1, LIKES));
+        }
+        assertThat(relationships(0, 1, ALL_RELATIONSHIPS)).isEqualTo(LongLists.immutable.of(0, 0));
+
+        try (var cursor = new RecordRelationshipTraversalCursor(
+                neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(),
+                null,
+                index,
+                NULL_CONTEXT,
+                storeCursors)) {
+            cursor.initNeighbour(0, 1, ALL_RELATIONSHIPS);
+            MutableLongList found = LongLists.mutable.empty();
+            while (cursor.next()) {
+                assertThat(cursor.type()).isEqualTo(LIKES);
+                found.add(cursor.entityReference());
+            }
+            assertThat(found).isEqualTo(LongLists.immutable.of(0));
+        }
+    }
+
+    private void startAndAwaitBuild() throws Exception {
+        index.start();
+        index.awaitBuild();
+        assertThat(index.isReady()).isTrue();
+    }
+
+    private RelationshipNeighbourIndex openIndex(Config config) {
+        return RelationshipNeighbourIndex.open(
+                config,
+                pageCache,
+                fileSystem,
+                databaseLayout,
+                immediate(),
+                jobScheduler,
+                neoStores,
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                PageCacheTracer.NULL,
+                Sets.immutable.empty(),
+                NullLogProvider.getInstance());
+    }
+
+    private LongList relationships(long node, long neighbour, RelationshipSelection selection) {
+        MutableLongList into = LongLists.mutable.empty();
+        index.relationships(node, neighbour, selection, into, NULL_CONTEXT);
+        return into;
+    }
+
+    private void createRelationship(long id, long firstNode, long secondNode, int type) {
+        writeRelationship(relationshipRecord(id, firstNode, secondNode, type));
+    }
+
+    private void deleteRelationship(long id) {
+        writeRelationship(new RelationshipRecord(id));
+    }
+
+    private void writeRelationship(RelationshipRecord record) {
+        var relationshipStore = neoStores.getRelationshipStore();
+        var idGenerator = relationshipStore.getIdGenerator();
+        idGenerator.setHighId(Math.max(idGenerator.getHighId(), record.getId() + 1));
+        try (PageCursor cursor = relationshipStore.openPageCursorForWriting(0, NULL_CONTEXT)) {
+            relationshipStore.updateRecord(record, cursor, NULL_CONTEXT, storeCursors);
+        }
+    }
+
+    private static RelationshipRecord relationshipRecord(long id, long firstNode, long secondNode, int type) {
+        long noRel = NO_NEXT_RELATIONSHIP.longValue();
+        return new RelationshipRecord(id)
+                .initialize(
+                        true,
+                        NO_NEXT_PROPERTY.longValue(),
+                        firstNode,
+                        secondNode,
+                        type,
+                        1,
+                        noRel,
+                        1,
+                        noRel,
+                        true,
+                        true);
+    }
+}
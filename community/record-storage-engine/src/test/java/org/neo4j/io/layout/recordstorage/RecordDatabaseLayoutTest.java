@@ -94,6 +94,12 @@ class RecordDatabaseLayoutTest {
                 layout.relationshipTypeTokenNamesStore().getFileName().toString());
         assertEquals(
                 "neostore.schemastore.db", layout.schemaStore().getFileName().toString());
+        assertEquals(
+                "neostore.relationshipneighbours.db",
+                layout.relationshipNeighboursStore().getFileName().toString());
+        assertEquals(
+                "neostore.nodepropertycounts.db",
+                layout.nodePropertyCountsStore().getFileName().toString());
     }
 
     @Test
@@ -166,7 +172,9 @@ class RecordDatabaseLayoutTest {
                         "neostore.relationshiptypestore.db",
                         "neostore.relationshiptypestore.db.names",
                         "neostore.schemastore.db",
-                        "neostore.indexstats.db");
+                        "neostore.indexstats.db",
+                        "neostore.relationshipneighbours.db",
+                        "neostore.nodepropertycounts.db");
     }
 
     @Test
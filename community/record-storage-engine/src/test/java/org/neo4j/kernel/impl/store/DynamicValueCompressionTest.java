@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.context.CursorContextFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.format.aligned.PageAligned;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.cursor.StoreCursors;
+import org.neo4j.test.RandomSupport;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+@ExtendWith(RandomExtension.class)
+class DynamicValueCompressionTest {
+    @Inject
+    private FileSystemAbstraction fileSystem;
+
+    @Inject
+    private PageCache pageCache;
+
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    @Inject
+    private RandomSupport random;
+
+    private NeoStores neoStores;
+    private PropertyStore propertyStore;
+    private DynamicAllocatorProvider allocatorProvider;
+
+    @BeforeEach
+    void setup() {
+        var pageCacheTracer = PageCacheTracer.NULL;
+        var factory = new StoreFactory(
+                databaseLayout,
+                Config.defaults(),
+                new DefaultIdGeneratorFactory(
+                        fileSystem, immediate(), pageCacheTracer, databaseLayout.getDatabaseName()),
+                pageCache,
+                pageCacheTracer,
+                fileSystem,
+                PageAligned.LATEST_RECORD_FORMATS,
+                NullLogProvider.getInstance(),
+                CursorContextFactory.NULL_CONTEXT_FACTORY,
+                false,
+                LogTailLogVersionsMetadata.EMPTY_LOG_TAIL,
+                Sets.immutable.empty());
+        neoStores = factory.openAllNeoStores();
+        propertyStore = neoStores.getPropertyStore();
+        allocatorProvider = DynamicAllocatorProviders.nonTransactionalAllocator(neoStores);
+    }
+
+    @AfterEach
+    void after() {
+        neoStores.close();
+    }
+
+    @Test
+    void shouldCompressRepetitiveStringsIntoFewerRecords() {
+        Value value = Values.stringValue("{\"name\":\"account\",\"tags\":[\"a\",\"b\"]},".repeat(50));
+
+        List<DynamicRecord> uncompressed = encode(value, false).getValueRecords();
+        List<DynamicRecord> compressed = encode(value, true).getValueRecords();
+
+        assertThat(compressed.size()).isLessThan(uncompressed.size());
+        assertThat(DynamicValueCompression.isCompressed(compressed.get(0).getData())).isTrue();
+        assertThat(propertyStore.getTextValueFor(compressed, StoreCursors.NULL)).isEqualTo(value);
+        assertThat(propertyStore.getTextValueFor(uncompressed, StoreCursors.NULL)).isEqualTo(value);
+    }
+
+    @Test
+    void shouldCompressRepetitiveArraysIntoFewerRecords() {
+        String[] strings = new String[100];
+        Arrays.fill(strings, "the same string over and over again");
+        long[] longs = new long[200];
+        Arrays.fill(longs, 1L << 50);
+
+        for (Value value : List.of(Values.stringArray(strings), Values.longArray(longs))) {
+            List<DynamicRecord> uncompressed = encode(value, false).getValueRecords();
+            List<DynamicRecord> compressed = encode(value, true).getValueRecords();
+
+            assertThat(compressed.size()).isLessThan(uncompressed.size());
+            assertThat(propertyStore.getArrayFor(compressed, StoreCursors.NULL)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void shouldNotCompressValuesWhereThatSavesNoRecords() {
+        int recordDataSize = allocatorProvider.allocator(StoreType.PROPERTY_STRING).getRecordDataSize();
+        byte[] incompressible = random.nextBytes(new byte[recordDataSize * 3]);
+
+        assertThat(DynamicValueCompression.compress(incompressible, recordDataSize)).isNull();
+        assertThat(DynamicValueCompression.compress(new byte[recordDataSize], recordDataSize)).isNull();
+
+        Value shortValue = Values.stringValue("short enough for a single record, but not for a property block");
+        assertThat(encode(shortValue, true).getValueRecords()).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectCorruptCompressedValues() {
+        byte[] value = "abc".repeat(200).getBytes();
+        byte[] compressed = DynamicValueCompression.compress(value, 60);
+        assertThat(DynamicValueCompression.decompress(compressed, 0, compressed.length)).isEqualTo(value);
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length - 2);
+        assertThrows(
+                InvalidRecordException.class,
+                () -> DynamicValueCompression.decompress(truncated, 0, truncated.length));
+        assertThrows(InvalidRecordException.class, () -> DynamicValueCompression.decompress(value, 0, value.length));
+    }
+
+    @Test
+    void shouldRejectInvalidUncompressedLengthBeforeDecompressing() {
+        byte[] compressed = DynamicValueCompression.compress("abc".repeat(200).getBytes(), 60);
+
+        byte[] hugeLength = compressed.clone();
+        hugeLength[1] = 0x7F;
+        assertThrows(
+                InvalidRecordException.class,
+                () -> DynamicValueCompression.decompress(hugeLength, 0, hugeLength.length));
+
+        byte[] negativeLength = compressed.clone();
+        negativeLength[1] = (byte) 0x80;
+        assertThrows(
+                InvalidRecordException.class,
+                () -> DynamicValueCompression.decompress(negativeLength, 0, negativeLength.length));
+
+        byte[] tooShortLength = compressed.clone();
+        tooShortLength[1] = tooShortLength[2] = tooShortLength[3] = 0;
+        tooShortLength[4] = 1;
+        assertThrows(
+                InvalidRecordException.class,
+                () -> DynamicValueCompression.decompress(tooShortLength, 0, tooShortLength.length));
+    }
+
+    private PropertyBlock encode(Value value, boolean compress) {
+        PropertyBlock block = new PropertyBlock();
+        PropertyStore.encodeValue(
+                block,
+                1,
+                value,
+                allocatorProvider.allocator(StoreType.PROPERTY_STRING),
+                allocatorProvider.allocator(StoreType.PROPERTY_ARRAY),
+                compress,
+                NULL_CONTEXT,
+                INSTANCE);
+        return block;
+    }
+}
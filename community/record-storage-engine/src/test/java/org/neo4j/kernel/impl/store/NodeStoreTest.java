@@ -85,6 +85,7 @@ import org.neo4j.kernel.impl.store.allocator.ReusableRecordsAllocator;
 import org.neo4j.kernel.impl.store.cursor.CachedStoreCursors;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.transaction.log.LogTailLogVersionsMetadata;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.storageengine.util.IdUpdateListener;
@@ -297,6 +298,49 @@ class NodeStoreTest {
         assertTrue(nextRelSet.isEmpty());
     }
 
+    @Test
+    void shouldReadBatchOfRecordsSortedByIdAcrossPages() {
+        // given records spanning several pages, some of which not in use
+        nodeStore = newNodeStore(fs);
+        IdGenerator idGenerator = nodeStore.getIdGenerator();
+        int numberOfNodes = nodeStore.getRecordsPerPage() * 4;
+        try (var storeCursor = storeCursors.writeCursor(NODE_CURSOR)) {
+            for (int i = 0; i < numberOfNodes; i++) {
+                long nodeId = idGenerator.nextId(NULL_CONTEXT);
+                NodeRecord record = new NodeRecord(nodeId).initialize(nodeId % 3 != 0, 20, false, nodeId * 10, 0);
+                nodeStore.updateRecord(record, storeCursor, NULL_CONTEXT, storeCursors);
+            }
+        }
+        long[] ids = new long[50];
+        NodeRecord[] records = new NodeRecord[ids.length];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(numberOfNodes);
+            records[i] = nodeStore.newRecord();
+        }
+        int count = ids.length - 5;
+
+        // when
+        nodeStore.getRecordsByCursor(ids, count, records, RecordLoad.CHECK, storeCursors.readCursor(NODE_CURSOR));
+
+        // then
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                assertThat(ids[i]).isGreaterThanOrEqualTo(ids[i - 1]);
+            }
+            NodeRecord record = records[i];
+            assertEquals(ids[i], record.getId());
+            assertEquals(ids[i] % 3 != 0, record.inUse());
+            if (record.inUse()) {
+                assertEquals(ids[i] * 10, record.getNextRel());
+            }
+        }
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> nodeStore.getRecordsByCursor(
+                        ids, ids.length, new NodeRecord[1], NORMAL, storeCursors.readCursor(NODE_CURSOR)));
+    }
+
     @Test
     void shouldCloseStoreFileOnFailureToOpen() {
         // GIVEN
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL_CONTEXT;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.Record.NO_PREVIOUS_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import org.junit.jupiter.api.Test;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.IntStoreHeader;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.format.inlined.Inlined;
+import org.neo4j.kernel.impl.store.format.inlined.InlinedPropertyRecordFormat;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.values.storable.Values;
+
+class InlinedRecordFormatTest extends AbstractRecordFormatTest {
+    InlinedRecordFormatTest() {
+        super(Inlined.LATEST_RECORD_FORMATS, 35, 36);
+    }
+
+    @Test
+    void shouldReadInlinedPropertyOfNode() throws IOException {
+        // given
+        RecordFormat<NodeRecord> format = formats.node();
+        int recordSize = format.getRecordSize(new IntStoreHeader(DATA_SIZE));
+        PageCursor cursor = cursor(recordSize);
+        PropertyRecord property = propertyRecord(7, 8);
+
+        // when
+        write(node(7), format, cursor, recordSize);
+        cursor.setOffset(0);
+        ((InlinedPropertyRecordFormat) format).writeInlinedProperty(property, cursor);
+
+        // then
+        NodeRecord read = format.newRecord();
+        readRecord(read, format, cursor, recordSize, 0, NORMAL);
+        assertThat(cursor.getOffset()).isEqualTo(recordSize);
+        assertInlinedProperty(read.getInlinedProperty(), property);
+    }
+
+    @Test
+    void shouldReadInlinedPropertyOfRelationship() throws IOException {
+        // given
+        RecordFormat<RelationshipRecord> format = formats.relationship();
+        int recordSize = format.getRecordSize(new IntStoreHeader(DATA_SIZE));
+        PageCursor cursor = cursor(recordSize);
+        PropertyRecord property = propertyRecord(12, NO_NEXT_PROPERTY.longValue());
+        RelationshipRecord relationship = new RelationshipRecord(0);
+        relationship.initialize(true, 12, 1, 2, 3, 4, 5, 6, 7, true, false);
+
+        // when
+        write(relationship, format, cursor, recordSize);
+        cursor.setOffset(0);
+        ((InlinedPropertyRecordFormat) format).writeInlinedProperty(property, cursor);
+
+        // then
+        RelationshipRecord read = format.newRecord();
+        readRecord(read, format, cursor, recordSize, 0, NORMAL);
+        assertThat(cursor.getOffset()).isEqualTo(recordSize);
+        assertInlinedProperty(read.getInlinedProperty(), property);
+    }
+
+    @Test
+    void shouldDropInlinedPropertyWhenRecordIsWritten() throws IOException {
+        // given
+        RecordFormat<NodeRecord> format = formats.node();
+        int recordSize = format.getRecordSize(new IntStoreHeader(DATA_SIZE));
+        PageCursor cursor = cursor(recordSize);
+        write(node(7), format, cursor, recordSize);
+        cursor.setOffset(0);
+        ((InlinedPropertyRecordFormat) format).writeInlinedProperty(propertyRecord(7, 8), cursor);
+
+        // when
+        write(node(7), format, cursor, recordSize);
+
+        // then
+        NodeRecord read = format.newRecord();
+        readRecord(read, format, cursor, recordSize, 0, NORMAL);
+        assertThat(read.getInlinedProperty()).isNull();
+    }
+
+    @Test
+    void shouldNotReadInlinedPropertyOfAnotherPropertyRecord() throws IOException {
+        // given
+        RecordFormat<NodeRecord> format = formats.node();
+        int recordSize = format.getRecordSize(new IntStoreHeader(DATA_SIZE));
+        PageCursor cursor = cursor(recordSize);
+
+        // when
+        write(node(7), format, cursor, recordSize);
+        cursor.setOffset(0);
+        ((InlinedPropertyRecordFormat) format).writeInlinedProperty(propertyRecord(9, 8), cursor);
+
+        // then
+        NodeRecord read = format.newRecord();
+        readRecord(read, format, cursor, recordSize, 0, NORMAL);
+        assertThat(read.getNextProp()).isEqualTo(7);
+        assertThat(read.getInlinedProperty()).isNull();
+    }
+
+    private static void assertInlinedProperty(PropertyRecord inlined, PropertyRecord property) {
+        assertThat(inlined).isNotNull();
+        assertThat(inlined.getId()).isEqualTo(property.getId());
+        assertThat(inlined.getPrevProp()).isEqualTo(property.getPrevProp());
+        assertThat(inlined.getNextProp()).isEqualTo(property.getNextProp());
+        inlined.ensureBlocksLoaded();
+        assertThat(inlined.numberOfProperties()).isEqualTo(property.numberOfProperties());
+        for (PropertyBlock block : property) {
+            assertThat(inlined.getPropertyBlock(block.getKeyIndexId())).isEqualTo(block);
+        }
+    }
+
+    private static <R extends AbstractBaseRecord> void write(
+            R record, RecordFormat<R> format, PageCursor cursor, int recordSize) throws IOException {
+        cursor.setOffset(0);
+        format.write(record, cursor, recordSize, 1);
+    }
+
+    private static PageCursor cursor(int recordSize) {
+        return new ByteArrayPageCursor(ByteBuffers.allocate(recordSize, ByteOrder.BIG_ENDIAN, INSTANCE));
+    }
+
+    private static NodeRecord node(long nextProp) {
+        return new NodeRecord(0).initialize(true, nextProp, false, NO_NEXT_RELATIONSHIP.longValue(), 0);
+    }
+
+    private static PropertyRecord propertyRecord(long id, long nextProp) {
+        PropertyRecord property = new PropertyRecord(id);
+        property.initialize(true, NO_PREVIOUS_PROPERTY.longValue(), nextProp);
+        for (int key = 0; key < 3; key++) {
+            PropertyBlock block = new PropertyBlock();
+            PropertyStore.encodeValue(block, key, Values.intValue(key * 10), null, null, NULL_CONTEXT, INSTANCE);
+            property.addPropertyBlock(block);
+        }
+        return property;
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.Objects;
 import org.neo4j.adversaries.Adversary;
 import org.neo4j.io.pagecache.DelegatingPagedFile;
+import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.context.CursorContext;
@@ -69,6 +70,12 @@ public class AdversarialPagedFile extends DelegatingPagedFile {
         delegate.flushAndForce(flushEvent);
     }
 
+    @Override
+    public void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) throws IOException {
+        adversary.injectFailure(NoSuchFileException.class, IOException.class, SecurityException.class);
+        delegate.flushWithoutForce(flushEvent, ioController);
+    }
+
     @Override
     public long getLastPageId() throws IOException {
         adversary.injectFailure(IllegalStateException.class);
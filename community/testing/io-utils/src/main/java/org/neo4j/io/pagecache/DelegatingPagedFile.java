@@ -43,6 +43,11 @@ public class DelegatingPagedFile implements PagedFile {
         delegate.flushAndForce(flushEvent);
     }
 
+    @Override
+    public void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) throws IOException {
+        delegate.flushWithoutForce(flushEvent, ioController);
+    }
+
     @Override
     public long getLastPageId() throws IOException {
         return delegate.getLastPageId();
@@ -84,6 +84,9 @@ public class StubPagedFile implements PagedFile {
     @Override
     public void flushAndForce(FileFlushEvent flushEvent) {}
 
+    @Override
+    public void flushWithoutForce(FileFlushEvent flushEvent, IOController ioController) {}
+
     @Override
     public long getLastPageId() {
         return lastPageId;
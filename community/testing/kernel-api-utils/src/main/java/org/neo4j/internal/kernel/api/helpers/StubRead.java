@@ -212,6 +212,11 @@ public class StubRead implements Read {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public long countsForNodeWithPropertyWithoutTxState(int labelId, int propertyKeyId) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public long countsForRelationship(int startLabelId, int typeId, int endLabelId) {
         throw new UnsupportedOperationException();
@@ -20,6 +20,7 @@
 package org.neo4j.token;
 
 import static org.neo4j.function.Predicates.ALWAYS_TRUE_INT;
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -64,8 +65,8 @@ public class DelegatingTokenHolder extends AbstractTokenHolderBase {
      */
     @Override
     protected synchronized int createToken(String name, boolean internal) throws KernelException {
-        Integer id = internal ? tokenRegistry.getIdInternal(name) : tokenRegistry.getId(name);
-        if (id != null) {
+        int id = innerGetId(name, internal);
+        if (id != NO_TOKEN) {
             return id;
         }
 
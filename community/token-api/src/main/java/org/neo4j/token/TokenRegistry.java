@@ -40,6 +40,10 @@ import org.neo4j.token.api.NonUniqueTokenException;
  * Name -> id mapping will be updated last since it's used to check if the token already exists.
  *
  * Implementation guarantees the atomicity of each method using internal locking.
+ * <p>
+ * All mappings live in a snapshot that is published through a single volatile reference. Writers copy the current
+ * snapshot, modify the copy and then publish it, and a published snapshot is never modified again. Readers therefore
+ * never lock, and the primitive lookups, like {@link #getIdOrNoToken(String)}, don't allocate either.
  */
 public class TokenRegistry {
     private final String tokenType;
@@ -92,6 +96,26 @@ public class TokenRegistry {
         return getIdForName(registries.internalNameToId, name);
     }
 
+    /**
+     * Look up the id of a public token without boxing it.
+     *
+     * @param name the name of the token.
+     * @return the id of the token, or {@link org.neo4j.token.api.TokenConstants#NO_TOKEN} if there is no such token.
+     */
+    public int getIdOrNoToken(String name) {
+        return registries.publicNameToId.getIfAbsent(name, NO_TOKEN);
+    }
+
+    /**
+     * Look up the id of an internal token without boxing it.
+     *
+     * @param name the name of the token.
+     * @return the id of the token, or {@link org.neo4j.token.api.TokenConstants#NO_TOKEN} if there is no such token.
+     */
+    public int getIdInternalOrNoToken(String name) {
+        return registries.internalNameToId.getIfAbsent(name, NO_TOKEN);
+    }
+
     public NamedToken getToken(int id) {
         NamedToken token = registries.idToToken.get(id);
         return token == null || token.isInternal() ? null : token;
@@ -185,6 +209,9 @@ public class TokenRegistry {
         return id == NO_TOKEN ? null : id;
     }
 
+    /**
+     * Snapshot of all mappings. Only ever modified before it is published to {@link #registries}.
+     */
     private static final class Registries {
         private final MutableObjectIntMap<String> publicNameToId;
         private final MutableObjectIntMap<String> internalNameToId;
@@ -26,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
 
 import java.util.Collection;
 import org.junit.jupiter.api.BeforeEach;
@@ -320,4 +321,25 @@ class TokenRegistryTest {
         registry.put(new NamedToken(INBOUND1_TYPE, 1, true));
         registry.put(new NamedToken(INBOUND1_TYPE, 1, true));
     }
+
+    @Test
+    void primitiveIdLookupsMustSeparatePublicAndInternalTokens() {
+        registry.put(new NamedToken(INBOUND1_TYPE, 1000));
+        registry.put(new NamedToken(INBOUND2_TYPE, 1001, true));
+
+        assertEquals(1000, registry.getIdOrNoToken(INBOUND1_TYPE));
+        assertEquals(NO_TOKEN, registry.getIdOrNoToken(INBOUND2_TYPE));
+        assertEquals(1001, registry.getIdInternalOrNoToken(INBOUND2_TYPE));
+        assertEquals(NO_TOKEN, registry.getIdInternalOrNoToken(INBOUND1_TYPE));
+    }
+
+    @Test
+    void primitiveIdLookupsMustSeeTokensAddedLater() {
+        assertEquals(NO_TOKEN, registry.getIdOrNoToken(INBOUND1_TYPE));
+
+        registry.putAll(asList(new NamedToken(INBOUND1_TYPE, 1), new NamedToken(INBOUND2_TYPE, 2)));
+
+        assertEquals(1, registry.getIdOrNoToken(INBOUND1_TYPE));
+        assertEquals(2, registry.getIdOrNoToken(INBOUND2_TYPE));
+    }
 }
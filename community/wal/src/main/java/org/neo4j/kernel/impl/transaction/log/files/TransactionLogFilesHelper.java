@@ -43,6 +43,8 @@ public class TransactionLogFilesHelper {
 
     private static final String VERSION_SUFFIX = ".";
     private static final String REGEX_VERSION_SUFFIX = "\\.";
+    private static final String PREALLOCATED_PREFIX = "preallocated.";
+    private static final String OFFSET_INDEX_PREFIX = "offsets.";
     private static final Path[] EMPTY_FILES_ARRAY = {};
 
     private final Path logBaseName;
@@ -65,6 +67,26 @@ public class TransactionLogFilesHelper {
         return Path.of(logBaseName.toAbsolutePath() + VERSION_SUFFIX + version);
     }
 
+    /**
+     * @return the file that a log file for the next version can be prepared in ahead of rotation. Its name does not
+     * start with the log file base name, so neither the log file name filter nor
+     * {@link #DEFAULT_FILENAME_PREDICATE} ever mistake it for a log file holding any transactions.
+     */
+    public Path getPreallocatedLogFile() {
+        return logDirectory.resolve(PREALLOCATED_PREFIX + logBaseName.getFileName()).toAbsolutePath();
+    }
+
+    /**
+     * @return the file holding the transaction offset index of the log file with the given version. Like the
+     * {@link #getPreallocatedLogFile() preallocated file} its name does not start with the log file base name, so it
+     * is never mistaken for a log file.
+     */
+    public Path getOffsetIndexFileForVersion(long version) {
+        return logDirectory
+                .resolve(OFFSET_INDEX_PREFIX + logBaseName.getFileName() + VERSION_SUFFIX + version)
+                .toAbsolutePath();
+    }
+
     public static long getLogVersion(Path historyLogFile) {
         String historyLogFilename = historyLogFile.getFileName().toString();
         int index = historyLogFilename.lastIndexOf(VERSION_SUFFIX);